@@ -20,7 +20,6 @@
 package org.thymeleaf.spring5;
 
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Locale;
@@ -48,6 +47,7 @@
 import org.thymeleaf.spring5.context.Contexts;
 import org.thymeleaf.spring5.context.webflux.IReactiveDataDriverContextVariable;
 import org.thymeleaf.spring5.context.webflux.IReactiveSSEDataDriverContextVariable;
+import org.thymeleaf.templatemode.TemplateMode;
 import org.thymeleaf.util.LoggingUtils;
 import org.thymeleaf.web.IWebExchange;
 import reactor.core.publisher.Flux;
@@ -190,12 +190,14 @@ private Mono<DataBuffer> createFullStream(
                             }
 
                             final DataBuffer dataBuffer = bufferFactory.allocateBuffer();
-                            // OutputStreamWriter object have an 8K buffer, but process(...) will flush it at the end
-                            final OutputStreamWriter writer = new OutputStreamWriter(dataBuffer.asOutputStream(), charset);
 
                             try {
 
-                                process(templateName, markupSelectors, context, writer);
+                                // Byte-based processing will directly copy pre-encoded static content (if template
+                                // model compilation is enabled) instead of encoding it again, and will flush at the end
+                                process(
+                                        new TemplateSpec(templateName, markupSelectors, (TemplateMode) null, null),
+                                        context, dataBuffer.asOutputStream(), charset);
 
                             } catch (final Throwable t) {
                                 logger.error(
@@ -58,6 +58,7 @@
 import org.thymeleaf.standard.StandardDialect;
 import org.thymeleaf.standard.expression.IStandardConversionService;
 import org.thymeleaf.standard.expression.IStandardVariableExpressionEvaluator;
+import org.thymeleaf.standard.expression.PropertyPathVariableExpressionEvaluator;
 import org.thymeleaf.standard.processor.StandardActionTagProcessor;
 import org.thymeleaf.standard.processor.StandardHrefTagProcessor;
 import org.thymeleaf.standard.processor.StandardMethodTagProcessor;
@@ -101,9 +102,14 @@ public class SpringStandardDialect extends StandardDialect {
 
     public static final boolean DEFAULT_ENABLE_SPRING_EL_COMPILER = false;
     public static final boolean DEFAULT_RENDER_HIDDEN_MARKERS_BEFORE_CHECKBOXES = false;
+    public static final boolean DEFAULT_ENABLE_PROPERTY_PATH_EVALUATION = false;
+
+    private static final PropertyPathVariableExpressionEvaluator PROPERTY_PATH_VARIABLE_EXPRESSION_EVALUATOR =
+            new PropertyPathVariableExpressionEvaluator(SPELVariableExpressionEvaluator.INSTANCE);
 
     private boolean enableSpringELCompiler = DEFAULT_ENABLE_SPRING_EL_COMPILER;
     private boolean renderHiddenMarkersBeforeCheckboxes = DEFAULT_RENDER_HIDDEN_MARKERS_BEFORE_CHECKBOXES;
+    private boolean enablePropertyPathEvaluation = DEFAULT_ENABLE_PROPERTY_PATH_EVALUATION;
 
     private static final Map<String,Object> REACTIVE_MODEL_ADDITIONS_EXECUTION_ATTRIBUTES;
 
@@ -279,8 +285,58 @@ public void setRenderHiddenMarkersBeforeCheckboxes(final boolean renderHiddenMar
 
 
 
+    /**
+     * <p>
+     *   Returns whether variable expressions consisting only of a path of property names and literal map keys
+     *   (like {@code ${order.customer.name}}) should be evaluated without SpringEL.
+     * </p>
+     * <p>
+     *   See {@link PropertyPathVariableExpressionEvaluator} for details on which expressions are affected. Note
+     *   custom SpringEL property accessors will not be applied to objects navigated by these expressions.
+     * </p>
+     * <p>
+     *   This flag is set to {@code false} by default.
+     * </p>
+     *
+     * @return {@code true} if property paths should be evaluated without SpringEL, {@code false} if not.
+     *
+     * @since 3.1.3
+     */
+    public boolean getEnablePropertyPathEvaluation() {
+        return this.enablePropertyPathEvaluation;
+    }
+
+
+    /**
+     * <p>
+     *   Sets whether variable expressions consisting only of a path of property names and literal map keys
+     *   (like {@code ${order.customer.name}}) should be evaluated without SpringEL.
+     * </p>
+     * <p>
+     *   See {@link PropertyPathVariableExpressionEvaluator} for details on which expressions are affected. Note
+     *   custom SpringEL property accessors will not be applied to objects navigated by these expressions.
+     * </p>
+     * <p>
+     *   This flag is set to {@code false} by default.
+     * </p>
+     *
+     * @param enablePropertyPathEvaluation {@code true} if property paths should be evaluated without SpringEL,
+     *                                     {@code false} if not.
+     *
+     * @since 3.1.3
+     */
+    public void setEnablePropertyPathEvaluation(final boolean enablePropertyPathEvaluation) {
+        this.enablePropertyPathEvaluation = enablePropertyPathEvaluation;
+    }
+
+
+
+
     @Override
     public IStandardVariableExpressionEvaluator getVariableExpressionEvaluator() {
+        if (this.enablePropertyPathEvaluation) {
+            return PROPERTY_PATH_VARIABLE_EXPRESSION_EVALUATOR;
+        }
         return SPELVariableExpressionEvaluator.INSTANCE;
     }
 
@@ -20,6 +20,7 @@
 package org.thymeleaf.spring5.expression;
 
 import org.springframework.expression.EvaluationContext;
+import org.thymeleaf.context.IDetachableContextVariable;
 import org.thymeleaf.expression.IExpressionObjects;
 
 /**
@@ -34,7 +35,7 @@
  * @since 3.0.3
  *
  */
-public interface IThymeleafEvaluationContext extends EvaluationContext {
+public interface IThymeleafEvaluationContext extends EvaluationContext, IDetachableContextVariable {
 
     public boolean isVariableAccessRestricted();
     public void setVariableAccessRestricted(final boolean restricted);
@@ -42,4 +43,18 @@ public interface IThymeleafEvaluationContext extends EvaluationContext {
     public IExpressionObjects getExpressionObjects();
     public void setExpressionObjects(final IExpressionObjects expressionObjects);
 
+    /**
+     * <p>
+     *   Returns an evaluation context wrapping this one, but with its own expression objects and variable
+     *   access restrictions, so that it can be used by fragments being rendered in parallel.
+     * </p>
+     *
+     * @return the detached evaluation context.
+     * @since 3.1.3
+     */
+    @Override
+    public default Object detach() {
+        return new ThymeleafEvaluationContextWrapper(this);
+    }
+
 }
@@ -32,6 +32,7 @@
 import org.thymeleaf.cache.ExpressionCacheKey;
 import org.thymeleaf.cache.ICache;
 import org.thymeleaf.cache.ICacheManager;
+import org.thymeleaf.cache.IExpressionCache;
 import org.thymeleaf.context.IEngineContext;
 import org.thymeleaf.context.IExpressionContext;
 import org.thymeleaf.context.ITemplateContext;
@@ -356,7 +357,9 @@ private static ComputedSpelExpression getExpression(
         final ICacheManager cacheManager = configuration.getCacheManager();
         if (cacheManager != null) {
             cache = cacheManager.getExpressionCache();
-            if (cache != null) {
+            if (cache instanceof IExpressionCache) {
+                exp = (ComputedSpelExpression) ((IExpressionCache) cache).get(EXPRESSION_CACHE_TYPE_SPEL, spelExpression);
+            } else if (cache != null) {
                 exp = (ComputedSpelExpression) cache.get(new ExpressionCacheKey(EXPRESSION_CACHE_TYPE_SPEL,spelExpression));
             }
         }
@@ -374,7 +377,9 @@ private static ComputedSpelExpression getExpression(
 
             exp = new ComputedSpelExpression(spelExpressionObject, mightNeedExpressionObjects);
 
-            if (cache != null && null != exp) {
+            if (cache instanceof IExpressionCache) {
+                ((IExpressionCache) cache).put(EXPRESSION_CACHE_TYPE_SPEL, spelExpression, exp);
+            } else if (cache != null && null != exp) {
                 cache.put(new ExpressionCacheKey(EXPRESSION_CACHE_TYPE_SPEL,spelExpression), exp);
             }
 
@@ -202,4 +202,15 @@ public void setExpressionObjects(final IExpressionObjects expressionObjects) {
     }
 
 
+    @Override
+    public Object detach() {
+        // No need to wrap this wrapper: a new wrapper for the same delegate will do
+        final ThymeleafEvaluationContextWrapper detached = new ThymeleafEvaluationContextWrapper(this.delegate);
+        if (this.additionalVariables != null) {
+            detached.additionalVariables = new HashMap<String, Object>(this.additionalVariables);
+        }
+        return detached;
+    }
+
+
 }
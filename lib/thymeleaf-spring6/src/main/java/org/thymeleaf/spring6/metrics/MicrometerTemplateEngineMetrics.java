@@ -0,0 +1,280 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.spring6.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.thymeleaf.metrics.ITemplateEngineMetrics;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.util.Validate;
+
+
+/**
+ * <p>
+ *   Implementation of {@link ITemplateEngineMetrics} that registers the metrics of a Template Engine
+ *   into a Micrometer {@link MeterRegistry}.
+ * </p>
+ * <p>
+ *   The following meters are registered, all of them tagged with the template (<kbd>template</kbd>, see below):
+ * </p>
+ * <ul>
+ *   <li><kbd>thymeleaf.template.cache</kbd> (counter): template cache accesses, tagged with
+ *       <kbd>result</kbd> = <kbd>hit</kbd> or <kbd>miss</kbd>.</li>
+ *   <li><kbd>thymeleaf.template.parse</kbd> (timer): parsing of templates into template models, tagged
+ *       with <kbd>mode</kbd>.</li>
+ *   <li><kbd>thymeleaf.template.render</kbd> (timer): complete template executions.</li>
+ *   <li><kbd>thymeleaf.template.output</kbd> (distribution summary, bytes): output size of
+ *       template executions writing to byte-based outputs.</li>
+ *   <li><kbd>thymeleaf.processor</kbd> (timer): processor executions (sampled), tagged with
+ *       <kbd>processor</kbd>.</li>
+ *   <li><kbd>thymeleaf.template.expressions</kbd> (counter): variable expression evaluations (sampled).</li>
+ * </ul>
+ * <p>
+ *   Template names are converted into tag values by means of a <em>template tag mapper</em> function, so that the
+ *   number of different tag values (and therefore of meters) can be kept bounded. The default mapper
+ *   ({@link #DEFAULT_TEMPLATE_TAG_MAPPER}) leaves template names as they are, except for those that look like the
+ *   template contents themselves (as happens with templates resolved by a
+ *   {@link org.thymeleaf.templateresolver.StringTemplateResolver}), which are all tagged as
+ *   <kbd>[inline]</kbd>. Applications processing an unbounded number of different template names should
+ *   specify their own mapper (e.g. one returning a fixed value for any unknown templates).
+ * </p>
+ * <p>
+ *   Objects of this class are <strong>thread-safe</strong>.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public class MicrometerTemplateEngineMetrics implements ITemplateEngineMetrics {
+
+    public static final String TEMPLATE_CACHE_METER_NAME = "thymeleaf.template.cache";
+    public static final String TEMPLATE_PARSE_METER_NAME = "thymeleaf.template.parse";
+    public static final String TEMPLATE_RENDER_METER_NAME = "thymeleaf.template.render";
+    public static final String TEMPLATE_OUTPUT_METER_NAME = "thymeleaf.template.output";
+    public static final String PROCESSOR_METER_NAME = "thymeleaf.processor";
+    public static final String TEMPLATE_EXPRESSIONS_METER_NAME = "thymeleaf.template.expressions";
+
+    private static final String TEMPLATE_TAG = "template";
+    private static final String RESULT_TAG = "result";
+    private static final String MODE_TAG = "mode";
+    private static final String PROCESSOR_TAG = "processor";
+
+    /**
+     * <p>
+     *   Tag value used by the default template tag mapper for templates which names look like template contents.
+     * </p>
+     */
+    public static final String INLINE_TEMPLATE_TAG_VALUE = "[inline]";
+
+    // Longer template names will always be considered template contents, avoiding scanning large templates
+    private static final int MAX_TEMPLATE_NAME_LENGTH = 256;
+
+    /**
+     * <p>
+     *   Default template tag mapper, which returns template names as they are unless they look like template
+     *   contents instead of names (they are too long, or contain whitespace or markup characters), in which
+     *   case {@link #INLINE_TEMPLATE_TAG_VALUE} is returned.
+     * </p>
+     */
+    public static final Function<String,String> DEFAULT_TEMPLATE_TAG_MAPPER =
+            template -> (isTemplateName(template) ? template : INLINE_TEMPLATE_TAG_VALUE);
+
+    private final MeterRegistry registry;
+    private final Function<String,String> templateTagMapper;
+
+    // Meters are cached here (by tag value) in order to avoid looking them up at the registry every time
+    private final Map<String,Counter> cacheHitCounters = new ConcurrentHashMap<>();
+    private final Map<String,Counter> cacheMissCounters = new ConcurrentHashMap<>();
+    private final Map<MeterKey,Timer> parseTimers = new ConcurrentHashMap<>();
+    private final Map<String,Timer> renderTimers = new ConcurrentHashMap<>();
+    private final Map<String,DistributionSummary> outputSummaries = new ConcurrentHashMap<>();
+    private final Map<String,Counter> expressionCounters = new ConcurrentHashMap<>();
+    private final Map<MeterKey,Timer> processorTimers = new ConcurrentHashMap<>();
+
+
+
+    public MicrometerTemplateEngineMetrics(final MeterRegistry registry) {
+        this(registry, DEFAULT_TEMPLATE_TAG_MAPPER);
+    }
+
+
+    /**
+     * <p>
+     *   Creates a new metrics object, specifying the function that will convert template names into the values of
+     *   the <kbd>template</kbd> tag.
+     * </p>
+     *
+     * @param registry the meter registry.
+     * @param templateTagMapper the template tag mapper. It should return a bounded set of values, and never null.
+     */
+    public MicrometerTemplateEngineMetrics(
+            final MeterRegistry registry, final Function<String,String> templateTagMapper) {
+        super();
+        Validate.notNull(registry, "Meter registry cannot be null");
+        Validate.notNull(templateTagMapper, "Template tag mapper cannot be null");
+        this.registry = registry;
+        this.templateTagMapper = templateTagMapper;
+    }
+
+
+    public final MeterRegistry getRegistry() {
+        return this.registry;
+    }
+
+
+    public final Function<String,String> getTemplateTagMapper() {
+        return this.templateTagMapper;
+    }
+
+
+
+
+    @Override
+    public void recordTemplateCacheAccess(final String template, final boolean hit) {
+        final Map<String,Counter> counters = (hit ? this.cacheHitCounters : this.cacheMissCounters);
+        counters.computeIfAbsent(this.templateTagMapper.apply(template),
+                t -> Counter.builder(TEMPLATE_CACHE_METER_NAME)
+                        .description("Accesses to the Thymeleaf template cache")
+                        .tag(TEMPLATE_TAG, t)
+                        .tag(RESULT_TAG, (hit ? "hit" : "miss"))
+                        .register(this.registry))
+                .increment();
+    }
+
+
+    @Override
+    public void recordTemplateParse(final String template, final TemplateMode templateMode, final long nanos) {
+        this.parseTimers.computeIfAbsent(
+                new MeterKey(this.templateTagMapper.apply(template), (templateMode == null ? "none" : templateMode.name())),
+                k -> Timer.builder(TEMPLATE_PARSE_METER_NAME)
+                        .description("Parsing of Thymeleaf templates into template models")
+                        .tag(TEMPLATE_TAG, k.template)
+                        .tag(MODE_TAG, k.discriminator)
+                        .register(this.registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    @Override
+    public void recordTemplateRender(final String template, final long nanos, final long outputBytes) {
+        final String templateTag = this.templateTagMapper.apply(template);
+        this.renderTimers.computeIfAbsent(templateTag,
+                t -> Timer.builder(TEMPLATE_RENDER_METER_NAME)
+                        .description("Executions of Thymeleaf templates")
+                        .tag(TEMPLATE_TAG, t)
+                        .register(this.registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (outputBytes >= 0L) {
+            this.outputSummaries.computeIfAbsent(templateTag,
+                    t -> DistributionSummary.builder(TEMPLATE_OUTPUT_METER_NAME)
+                            .description("Output size of executions of Thymeleaf templates")
+                            .baseUnit("bytes")
+                            .tag(TEMPLATE_TAG, t)
+                            .register(this.registry))
+                    .record(outputBytes);
+        }
+    }
+
+
+    @Override
+    public void recordProcessorExecution(final String template, final Class<?> processorClass, final long nanos) {
+        this.processorTimers.computeIfAbsent(new MeterKey(this.templateTagMapper.apply(template), processorClass.getName()),
+                k -> Timer.builder(PROCESSOR_METER_NAME)
+                        .description("Executions of Thymeleaf processors (sampled)")
+                        .tag(TEMPLATE_TAG, k.template)
+                        .tag(PROCESSOR_TAG, k.discriminator)
+                        .register(this.registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    @Override
+    public void recordExpressionEvaluations(final String template, final int count) {
+        this.expressionCounters.computeIfAbsent(this.templateTagMapper.apply(template),
+                t -> Counter.builder(TEMPLATE_EXPRESSIONS_METER_NAME)
+                        .description("Evaluations of variable expressions in Thymeleaf templates (sampled)")
+                        .tag(TEMPLATE_TAG, t)
+                        .register(this.registry))
+                .increment(count);
+    }
+
+
+
+
+    private static boolean isTemplateName(final String template) {
+        final int n = template.length();
+        if (n == 0 || n > MAX_TEMPLATE_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            final char c = template.charAt(i);
+            if (Character.isWhitespace(c) || c == '<' || c == '>' || c == '{' || c == '}' || c == '[' || c == ']') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+
+
+    private static final class MeterKey {
+
+        private final String template;
+        private final String discriminator;
+        private final int h;
+
+        MeterKey(final String template, final String discriminator) {
+            super();
+            this.template = template;
+            this.discriminator = discriminator;
+            this.h = 31 * template.hashCode() + discriminator.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MeterKey)) {
+                return false;
+            }
+            final MeterKey that = (MeterKey) o;
+            return this.discriminator.equals(that.discriminator) && this.template.equals(that.template);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.h;
+        }
+
+    }
+
+
+}
@@ -19,24 +19,34 @@
  */
 package org.thymeleaf.spring6.view;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationContext;
 import org.springframework.core.Ordered;
+import org.springframework.core.io.Resource;
 import org.springframework.util.PatternMatchUtils;
 import org.springframework.web.servlet.View;
 import org.springframework.web.servlet.view.AbstractCachingViewResolver;
 import org.springframework.web.servlet.view.InternalResourceView;
 import org.springframework.web.servlet.view.RedirectView;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.TemplateWarmUpResult;
 import org.thymeleaf.spring6.ISpringTemplateEngine;
+import org.thymeleaf.templateresolver.AbstractConfigurableTemplateResolver;
+import org.thymeleaf.templateresolver.ITemplateResolver;
 
 
 /**
@@ -99,6 +109,7 @@
     private Class<? extends AbstractThymeleafView> viewClass = ThymeleafView.class;
     private String[] viewNames = null;
     private String[] excludedViewNames = null;
+    private String[] warmUpTemplates = null;
     private int order = Integer.MAX_VALUE;
 
 
@@ -754,6 +765,140 @@ public String[] getExcludedViewNames() {
 
 
 
+
+    /**
+     * <p>
+     *   Specify the names of the templates that should be parsed (and cached) at application
+     *   startup, so that the first requests rendering them do not have to pay the cost of parsing.
+     * </p>
+     * <p>
+     *   Names can be complete template names (without prefix or suffix, same as view names), but can
+     *   also be Spring resource patterns (e.g. {@code orders/*} or {@code admin/**}). Patterns are
+     *   expanded against the prefix and suffix of every {@link AbstractConfigurableTemplateResolver}
+     *   configured in the template engine.
+     * </p>
+     * <p>
+     *   Warm-up happens when the application context is set on this view resolver, and will only
+     *   be performed if the configured template engine extends {@link TemplateEngine}.
+     * </p>
+     *
+     * @param warmUpTemplates the template names (or name patterns) to be warmed up.
+     * @see TemplateEngine#warmUp(java.util.Collection)
+     * @since 3.1.3
+     */
+    public void setWarmUpTemplates(final String[] warmUpTemplates) {
+        this.warmUpTemplates = warmUpTemplates;
+    }
+
+
+    /**
+     * <p>
+     *   Returns the names of the templates &ndash;or name patterns&ndash; that will be parsed (and
+     *   cached) at application startup.
+     * </p>
+     *
+     * @return the template names (or name patterns) to be warmed up.
+     * @see #setWarmUpTemplates(String[])
+     * @since 3.1.3
+     */
+    public String[] getWarmUpTemplates() {
+        return this.warmUpTemplates;
+    }
+
+
+
+
+    @Override
+    protected void initApplicationContext() throws BeansException {
+
+        super.initApplicationContext();
+
+        final String[] templatesToBeWarmedUp = getWarmUpTemplates();
+        if (templatesToBeWarmedUp == null || templatesToBeWarmedUp.length == 0) {
+            return;
+        }
+
+        if (!(this.templateEngine instanceof TemplateEngine)) {
+            vrlogger.warn(
+                    "[THYMELEAF] Template warm-up has been configured, but the configured template engine does not " +
+                    "extend " + TemplateEngine.class.getName() + ". Warm-up will be skipped.");
+            return;
+        }
+
+        final TemplateEngine engine = (TemplateEngine) this.templateEngine;
+
+        final Set<String> templateNames = new LinkedHashSet<String>(templatesToBeWarmedUp.length * 4);
+        for (final String template : templatesToBeWarmedUp) {
+            if (template.indexOf('*') < 0 && template.indexOf('?') < 0) {
+                templateNames.add(template);
+            } else {
+                expandWarmUpPattern(engine, template, templateNames);
+            }
+        }
+
+        final TemplateWarmUpResult result = engine.warmUp(templateNames);
+        if (result.hasFailures() && vrlogger.isWarnEnabled()) {
+            vrlogger.warn(
+                    "[THYMELEAF] Template warm-up could not parse {} templates: {}",
+                    Integer.valueOf(result.getFailures().size()), result.getFailures().keySet());
+        }
+
+    }
+
+
+    private void expandWarmUpPattern(
+            final TemplateEngine engine, final String pattern, final Set<String> templateNames) {
+
+        final ApplicationContext applicationContext = getApplicationContext();
+
+        for (final ITemplateResolver templateResolver : engine.getTemplateResolvers()) {
+
+            if (!(templateResolver instanceof AbstractConfigurableTemplateResolver)) {
+                continue;
+            }
+
+            final String prefix = ((AbstractConfigurableTemplateResolver) templateResolver).getPrefix();
+            final String suffix = ((AbstractConfigurableTemplateResolver) templateResolver).getSuffix();
+
+            try {
+
+                final Resource root = applicationContext.getResource(prefix == null? "" : prefix);
+                if (!root.exists()) {
+                    continue;
+                }
+                final String rootURL = root.getURL().toExternalForm();
+
+                final Resource[] resources =
+                        applicationContext.getResources(
+                                (prefix == null? "" : prefix) + pattern + (suffix == null? "" : suffix));
+
+                for (final Resource resource : resources) {
+                    if (!resource.isReadable()) {
+                        continue;
+                    }
+                    final String resourceURL = resource.getURL().toExternalForm();
+                    if (!resourceURL.startsWith(rootURL)) {
+                        continue;
+                    }
+                    String templateName = resourceURL.substring(rootURL.length());
+                    if (suffix != null && templateName.endsWith(suffix)) {
+                        templateName = templateName.substring(0, templateName.length() - suffix.length());
+                    }
+                    templateNames.add(templateName);
+                }
+
+            } catch (final IOException e) {
+                vrlogger.warn(
+                        "[THYMELEAF] Could not expand template warm-up pattern \"" + pattern + "\": " + e.getMessage(), e);
+            }
+
+        }
+
+    }
+
+
+
+
     protected boolean canHandle(final String viewName, @SuppressWarnings("unused") final Locale locale) {
         final String[] viewNamesToBeProcessed = getViewNames();
         final String[] viewNamesNotToBeProcessed = getExcludedViewNames();
@@ -27,6 +27,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import org.thymeleaf.cache.ICacheManager;
 import org.thymeleaf.context.IEngineContextFactory;
@@ -35,9 +36,11 @@
 import org.thymeleaf.engine.ElementDefinitions;
 import org.thymeleaf.engine.StandardModelFactory;
 import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.engine.TemplateModelSnapshotStore;
 import org.thymeleaf.expression.IExpressionObjectFactory;
 import org.thymeleaf.linkbuilder.ILinkBuilder;
 import org.thymeleaf.messageresolver.IMessageResolver;
+import org.thymeleaf.metrics.ITemplateEngineMetrics;
 import org.thymeleaf.model.IModelFactory;
 import org.thymeleaf.postprocessor.IPostProcessor;
 import org.thymeleaf.preprocessor.IPreProcessor;
@@ -75,6 +78,12 @@ public class EngineConfiguration implements IEngineConfiguration {
     private final ICacheManager cacheManager;
     private final IEngineContextFactory engineContextFactory;
     private final IDecoupledTemplateLogicResolver decoupledTemplateLogicResolver;
+    private final TemplateModelSnapshotStore templateModelSnapshotStore;
+    private final boolean templateModelCompilationEnabled;
+    private final ITemplateEngineMetrics metrics;
+    private final int metricsSamplingInterval;
+    private final boolean engineContextPoolingEnabled;
+    private final Executor fragmentRenderingExecutor;
     private TemplateManager templateManager;
     private final ConcurrentHashMap<TemplateMode,IModelFactory> modelFactories;
 
@@ -90,6 +99,25 @@ public class EngineConfiguration implements IEngineConfiguration {
             final ICacheManager cacheManager,
             final IEngineContextFactory engineContextFactory,
             final IDecoupledTemplateLogicResolver decoupledTemplateLogicResolver) {
+        this(templateResolvers, messageResolvers, linkBuilders, dialectConfigurations, cacheManager,
+             engineContextFactory, decoupledTemplateLogicResolver, null, false, null, 0, false, null);
+    }
+
+
+    EngineConfiguration(
+            final Set<ITemplateResolver> templateResolvers,
+            final Set<IMessageResolver> messageResolvers,
+            final Set<ILinkBuilder> linkBuilders,
+            final Set<DialectConfiguration> dialectConfigurations,
+            final ICacheManager cacheManager,
+            final IEngineContextFactory engineContextFactory,
+            final IDecoupledTemplateLogicResolver decoupledTemplateLogicResolver,
+            final TemplateModelSnapshotStore templateModelSnapshotStore,
+            final boolean templateModelCompilationEnabled,
+            final ITemplateEngineMetrics metrics,
+            final int metricsSamplingInterval,
+            final boolean engineContextPoolingEnabled,
+            final Executor fragmentRenderingExecutor) {
 
         super();
 
@@ -120,6 +148,20 @@ public class EngineConfiguration implements IEngineConfiguration {
 
         this.decoupledTemplateLogicResolver = decoupledTemplateLogicResolver;
 
+        // Template Model Snapshot Store CAN be null
+        this.templateModelSnapshotStore = templateModelSnapshotStore;
+
+        this.templateModelCompilationEnabled = templateModelCompilationEnabled;
+
+        // Metrics CAN be null
+        this.metrics = metrics;
+        this.metricsSamplingInterval = metricsSamplingInterval;
+
+        this.engineContextPoolingEnabled = engineContextPoolingEnabled;
+
+        // Fragment Rendering Executor CAN be null
+        this.fragmentRenderingExecutor = fragmentRenderingExecutor;
+
         this.dialectSetConfiguration = DialectSetConfiguration.build(dialectConfigurations);
 
         // NOTE we are NOT initializing the templateManager here, but in #initialize()
@@ -134,7 +176,10 @@ public class EngineConfiguration implements IEngineConfiguration {
      * object itself, and therefore should not be instanced at the constructor.
      */
     void initialize() {
-        this.templateManager = new TemplateManager(this);
+        this.templateManager =
+                new TemplateManager(
+                        this, this.templateModelSnapshotStore, this.templateModelCompilationEnabled,
+                        this.metricsSamplingInterval, this.engineContextPoolingEnabled);
     }
 
 
@@ -171,6 +216,75 @@ public IDecoupledTemplateLogicResolver getDecoupledTemplateLogicResolver() {
 
 
 
+    /**
+     * <p>
+     *   Returns the store of template model snapshots, or {@code null} if no snapshot store has been configured.
+     * </p>
+     *
+     * @return the template model snapshot store (might be null).
+     * @since 3.1.3
+     */
+    public TemplateModelSnapshotStore getTemplateModelSnapshotStore() {
+        return this.templateModelSnapshotStore;
+    }
+
+
+
+    /**
+     * <p>
+     *   Returns whether cached template models are compiled into static and dynamic segments.
+     * </p>
+     *
+     * @return whether template model compilation is enabled.
+     * @since 3.1.3
+     */
+    public boolean isTemplateModelCompilationEnabled() {
+        return this.templateModelCompilationEnabled;
+    }
+
+
+
+    @Override
+    public ITemplateEngineMetrics getMetrics() {
+        return this.metrics;
+    }
+
+
+    /**
+     * <p>
+     *   Returns the interval at which template executions are sampled for processor-level metrics.
+     * </p>
+     *
+     * @return the metrics sampling interval.
+     * @since 3.1.3
+     */
+    public int getMetricsSamplingInterval() {
+        return this.metricsSamplingInterval;
+    }
+
+
+
+    /**
+     * <p>
+     *   Returns whether engine contexts and processor handlers are reused among template executions.
+     * </p>
+     *
+     * @return whether engine context pooling is enabled.
+     * @since 3.1.3
+     */
+    public boolean isEngineContextPoolingEnabled() {
+        return this.engineContextPoolingEnabled;
+    }
+
+
+
+    @Override
+    public Executor getFragmentRenderingExecutor() {
+        return this.fragmentRenderingExecutor;
+    }
+
+
+
 
     public Set<DialectConfiguration> getDialectConfigurations() {
         return this.dialectSetConfiguration.getDialectConfigurations();
@@ -21,6 +21,7 @@
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.thymeleaf.cache.ICacheManager;
 import org.thymeleaf.context.IEngineContextFactory;
@@ -31,6 +32,7 @@
 import org.thymeleaf.expression.IExpressionObjectFactory;
 import org.thymeleaf.linkbuilder.ILinkBuilder;
 import org.thymeleaf.messageresolver.IMessageResolver;
+import org.thymeleaf.metrics.ITemplateEngineMetrics;
 import org.thymeleaf.model.IModelFactory;
 import org.thymeleaf.postprocessor.IPostProcessor;
 import org.thymeleaf.preprocessor.IPreProcessor;
@@ -103,4 +105,35 @@ public interface IEngineConfiguration {
 
     public IModelFactory getModelFactory(final TemplateMode templateMode);
 
+    /**
+     * <p>
+     *   Returns the metrics object metrics about template executions should be reported to, if any.
+     * </p>
+     * <p>
+     *   Default implementation returns {@code null} (no metrics).
+     * </p>
+     *
+     * @return the metrics object (might be null).
+     * @since 3.1.3
+     */
+    public default ITemplateEngineMetrics getMetrics() {
+        return null;
+    }
+
+    /**
+     * <p>
+     *   Returns the executor in charge of rendering the fragments marked for parallel rendering
+     *   ({@code th:parallel}), if any.
+     * </p>
+     * <p>
+     *   Default implementation returns {@code null} (fragments are always rendered sequentially).
+     * </p>
+     *
+     * @return the fragment rendering executor (might be null).
+     * @since 3.1.3
+     */
+    public default Executor getFragmentRenderingExecutor() {
+        return null;
+    }
+
 }
@@ -19,10 +19,15 @@
  */
 package org.thymeleaf;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Set;
 
 import org.thymeleaf.context.IContext;
+import org.thymeleaf.exceptions.TemplateOutputException;
 
 
 /**
@@ -202,6 +207,51 @@ public interface ITemplateEngine {
     public void process(final TemplateSpec templateSpec, final IContext context, final Writer writer);
 
 
+    /**
+     * <p>
+     * Process a template starting from a {@link TemplateSpec}. Output will be encoded with the specified
+     * charset and written to the specified output stream as it is generated from processing the template.
+     * This is specially useful for web environments working with byte-based outputs.
+     * </p>
+     * <p>
+     * The template specification will be used as input for the template resolvers, queried in chain
+     * until one of them resolves the template, which will then be executed.
+     * </p>
+     * <p>
+     * The context will contain the variables that will be available for the execution of
+     * expressions inside the template.
+     * </p>
+     * <p>
+     * The output stream will be flushed, but not closed, once processing finishes.
+     * </p>
+     * <p>
+     * The default implementation simply wraps the output stream into an {@link OutputStreamWriter}.
+     * Implementations can override this in order to avoid the re-encoding of parts of the template output
+     * that might be available already encoded in the output charset.
+     * </p>
+     *
+     * @param templateSpec the template spec containing the template to be resolved (usually its name only),
+     *                     template selectors if they are to be applied, a template mode if it should be forced
+     *                     (instead of computing it at resolution time), and other attributes.
+     * @param context      the context.
+     * @param outputStream the output stream the results will be output to.
+     * @param charset      the charset to be used for encoding the output.
+     * @since 3.1.3
+     */
+    public default void process(
+            final TemplateSpec templateSpec, final IContext context,
+            final OutputStream outputStream, final Charset charset) {
+        final Writer writer = new OutputStreamWriter(outputStream, charset);
+        process(templateSpec, context, writer);
+        try {
+            writer.flush();
+        } catch (final IOException e) {
+            throw new TemplateOutputException(
+                    "An error happened while flushing output writer", templateSpec.getTemplate(), -1, -1, e);
+        }
+    }
+
+
     /**
      * <p>
      * Process the specified template (usually the template name). Output will be generated from processing the
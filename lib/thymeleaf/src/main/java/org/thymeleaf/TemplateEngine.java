@@ -20,26 +20,41 @@
 package org.thymeleaf;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.thymeleaf.cache.ICacheManager;
 import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.context.ExpressionContext;
 import org.thymeleaf.context.IContext;
+import org.thymeleaf.context.IEngineContext;
 import org.thymeleaf.context.IEngineContextFactory;
 import org.thymeleaf.context.IWebContext;
 import org.thymeleaf.context.StandardEngineContextFactory;
 import org.thymeleaf.context.WebContext;
 import org.thymeleaf.dialect.IDialect;
+import org.thymeleaf.engine.EngineEventUtils;
+import org.thymeleaf.engine.OutputStreamTemplateWriter;
 import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.engine.TemplateModelSnapshotStore;
 import org.thymeleaf.exceptions.TemplateEngineException;
 import org.thymeleaf.exceptions.TemplateOutputException;
 import org.thymeleaf.exceptions.TemplateProcessingException;
@@ -47,6 +62,7 @@
 import org.thymeleaf.linkbuilder.StandardLinkBuilder;
 import org.thymeleaf.messageresolver.IMessageResolver;
 import org.thymeleaf.messageresolver.StandardMessageResolver;
+import org.thymeleaf.metrics.ITemplateEngineMetrics;
 import org.thymeleaf.standard.StandardDialect;
 import org.thymeleaf.templateparser.markup.decoupled.IDecoupledTemplateLogicResolver;
 import org.thymeleaf.templateparser.markup.decoupled.StandardDecoupledTemplateLogicResolver;
@@ -244,6 +260,16 @@ public class TemplateEngine implements ITemplateEngine {
     private static final Logger logger = LoggerFactory.getLogger(TemplateEngine.class);
     private static final Logger timerLogger = LoggerFactory.getLogger(TIMER_LOGGER_NAME);
 
+    /**
+     * <p>
+     *   Default interval at which template executions are sampled for processor-level metrics
+     *   (one of every 100 executions). See {@link #setMetricsSamplingInterval(int)}.
+     * </p>
+     *
+     * @since 3.1.3
+     */
+    public static final int DEFAULT_METRICS_SAMPLING_INTERVAL = 100;
+
     private static final int NANOS_IN_SECOND = 1000000;
 
     private volatile boolean initialized = false;
@@ -255,6 +281,12 @@ public class TemplateEngine implements ITemplateEngine {
     private ICacheManager cacheManager = null;
     private IEngineContextFactory engineContextFactory = null;
     private IDecoupledTemplateLogicResolver decoupledTemplateLogicResolver = null;
+    private TemplateModelSnapshotStore templateModelSnapshotStore = null;
+    private boolean templateModelCompilationEnabled = false;
+    private ITemplateEngineMetrics metrics = null;
+    private int metricsSamplingInterval = DEFAULT_METRICS_SAMPLING_INTERVAL;
+    private boolean engineContextPoolingEnabled = false;
+    private Executor fragmentRenderingExecutor = null;
 
 
     private IEngineConfiguration configuration = null;
@@ -342,7 +374,9 @@ final void initialize() {
                             new EngineConfiguration(
                                     this.templateResolvers, this.messageResolvers, this.linkBuilders,
                                     this.dialectConfigurations, this.cacheManager, this.engineContextFactory,
-                                    this.decoupledTemplateLogicResolver);
+                                    this.decoupledTemplateLogicResolver, this.templateModelSnapshotStore,
+                                    this.templateModelCompilationEnabled, this.metrics, this.metricsSamplingInterval,
+                                    this.engineContextPoolingEnabled, this.fragmentRenderingExecutor);
                     ((EngineConfiguration)this.configuration).initialize();
 
                     this.initialized = true;
@@ -821,6 +855,274 @@ public void setDecoupledTemplateLogicResolver(final IDecoupledTemplateLogicResol
         this.decoupledTemplateLogicResolver = decoupledTemplateLogicResolver;
     }
 
+
+
+    /**
+     * <p>
+     *   Returns the Template Model Snapshot Store configured for this Template Engine, if any.
+     * </p>
+     * <p>
+     *   By default, no snapshot store is set.
+     * </p>
+     *
+     * @return the template model snapshot store (might be null).
+     * @since 3.1.3
+     */
+    public final TemplateModelSnapshotStore getTemplateModelSnapshotStore() {
+        return this.templateModelSnapshotStore;
+    }
+
+    /**
+     * <p>
+     *   Sets the Template Model Snapshot Store to be used for persisting parsed templates to disk, so
+     *   that they can be loaded instead of parsed again when the application is restarted.
+     * </p>
+     * <p>
+     *   Snapshots are only used for cacheable templates, and only if a template cache has been configured.
+     *   By default, no snapshot store is set.
+     * </p>
+     * <p>
+     *   This operation can only be executed before processing templates for the first
+     *   time. Once a template is processed, the template engine is considered to be
+     *   <i>initialized</i>, and from then on any attempt to change its configuration
+     *   will result in an exception.
+     * </p>
+     *
+     * @param templateModelSnapshotStore the snapshot store to be used (can be null, meaning no snapshots).
+     * @since 3.1.3
+     */
+    public void setTemplateModelSnapshotStore(final TemplateModelSnapshotStore templateModelSnapshotStore) {
+        checkNotInitialized();
+        this.templateModelSnapshotStore = templateModelSnapshotStore;
+    }
+
+
+
+    /**
+     * <p>
+     *   Returns whether cached template models will be compiled into static and dynamic segments.
+     * </p>
+     *
+     * @return whether template model compilation is enabled.
+     * @see #setTemplateModelCompilationEnabled(boolean)
+     * @since 3.1.3
+     */
+    public final boolean isTemplateModelCompilationEnabled() {
+        return this.templateModelCompilationEnabled;
+    }
+
+    /**
+     * <p>
+     *   Sets whether cached template models should be compiled into static and dynamic segments.
+     * </p>
+     * <p>
+     *   When enabled, every sequence of consecutive markup events without processors (texts, comments,
+     *   element tags...) in a cached template is pre-rendered once into a single static segment, so that
+     *   the markup it represents is written to output in just one operation at every execution. Only
+     *   sequences in which all elements are both opened and closed, and which are not inside the body of an
+     *   element with processors, are compiled. Compilation only applies to the HTML and XML template modes,
+     *   and only if no pre-processors or post-processors are configured for them.
+     * </p>
+     * <p>
+     *   Default value is {@code false}.
+     * </p>
+     * <p>
+     *   This operation can only be executed before processing templates for the first
+     *   time. Once a template is processed, the template engine is considered to be
+     *   <i>initialized</i>, and from then on any attempt to change its configuration
+     *   will result in an exception.
+     * </p>
+     *
+     * @param templateModelCompilationEnabled whether template model compilation should be enabled.
+     * @since 3.1.3
+     */
+    public void setTemplateModelCompilationEnabled(final boolean templateModelCompilationEnabled) {
+        checkNotInitialized();
+        this.templateModelCompilationEnabled = templateModelCompilationEnabled;
+    }
+
+
+
+    /**
+     * <p>
+     *   Returns the metrics object metrics about the executions of this Template Engine are
+     *   reported to (if any).
+     * </p>
+     *
+     * @return the metrics object (might be null).
+     * @see #setMetrics(ITemplateEngineMetrics)
+     * @since 3.1.3
+     */
+    public final ITemplateEngineMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * <p>
+     *   Sets the metrics object metrics about the executions of this Template Engine will be reported to:
+     *   template cache hits and misses, parse and render times and output sizes for every execution, and
+     *   processor execution times and expression evaluation counts for a sample of executions
+     *   (see {@link #setMetricsSamplingInterval(int)}).
+     * </p>
+     * <p>
+     *   Default value is {@code null} (no metrics).
+     * </p>
+     * <p>
+     *   This operation can only be executed before processing templates for the first
+     *   time. Once a template is processed, the template engine is considered to be
+     *   <i>initialized</i>, and from then on any attempt to change its configuration
+     *   will result in an exception.
+     * </p>
+     *
+     * @param metrics the metrics object to be used (can be null, meaning no metrics).
+     * @since 3.1.3
+     */
+    public void setMetrics(final ITemplateEngineMetrics metrics) {
+        checkNotInitialized();
+        this.metrics = metrics;
+    }
+
+
+    /**
+     * <p>
+     *   Returns the interval at which template executions are sampled for processor-level metrics.
+     * </p>
+     *
+     * @return the sampling interval.
+     * @see #setMetricsSamplingInterval(int)
+     * @since 3.1.3
+     */
+    public final int getMetricsSamplingInterval() {
+        return this.metricsSamplingInterval;
+    }
+
+    /**
+     * <p>
+     *   Sets the interval at which template executions are sampled for processor-level metrics (processor
+     *   execution times and expression evaluation counts), which have a higher impact on performance than
+     *   template-level metrics: one of every {@code metricsSamplingInterval} executions (randomly chosen)
+     *   will be sampled. A value of {@code 1} means all executions will be sampled, and {@code 0} means
+     *   only template-level metrics will be recorded.
+     * </p>
+     * <p>
+     *   Only applies if metrics have been configured (see {@link #setMetrics(ITemplateEngineMetrics)}).
+     *   Default value is {@link #DEFAULT_METRICS_SAMPLING_INTERVAL}.
+     * </p>
+     * <p>
+     *   This operation can only be executed before processing templates for the first
+     *   time. Once a template is processed, the template engine is considered to be
+     *   <i>initialized</i>, and from then on any attempt to change its configuration
+     *   will result in an exception.
+     * </p>
+     *
+     * @param metricsSamplingInterval the sampling interval (zero or positive).
+     * @since 3.1.3
+     */
+    public void setMetricsSamplingInterval(final int metricsSamplingInterval) {
+        checkNotInitialized();
+        Validate.isTrue(metricsSamplingInterval >= 0, "Metrics sampling interval cannot be negative");
+        this.metricsSamplingInterval = metricsSamplingInterval;
+    }
+
+
+
+    /**
+     * <p>
+     *   Returns whether engine contexts and processor handlers are reused among template executions.
+     * </p>
+     *
+     * @return whether engine context pooling is enabled.
+     * @see #setEngineContextPoolingEnabled(boolean)
+     * @since 3.1.3
+     */
+    public final boolean isEngineContextPoolingEnabled() {
+        return this.engineContextPoolingEnabled;
+    }
+
+    /**
+     * <p>
+     *   Sets whether the objects created for each template execution (the {@link IEngineContext} and the
+     *   handler executing the processors, along with their internal structures) should be reused among
+     *   executions instead of being created anew each time, which reduces the amount of short-lived garbage
+     *   produced by applications processing large amounts of small templates.
+     * </p>
+     * <p>
+     *   When enabled, engine contexts will be released to the configured {@link IEngineContextFactory} at the end
+     *   of each execution (see {@link IEngineContextFactory#releaseEngineContext(IEngineContext)}), and processor
+     *   handlers will be kept in a bounded pool. Only non-throttled executions are affected.
+     * </p>
+     * <p>
+     *   Note that, when this is enabled, applications should not keep references to engine context objects
+     *   (e.g. from custom processors or expression objects) once the execution of the template has finished.
+     * </p>
+     * <p>
+     *   Default value is {@code false}.
+     * </p>
+     * <p>
+     *   This operation can only be executed before processing templates for the first
+     *   time. Once a template is processed, the template engine is considered to be
+     *   <i>initialized</i>, and from then on any attempt to change its configuration
+     *   will result in an exception.
+     * </p>
+     *
+     * @param engineContextPoolingEnabled whether engine context pooling should be enabled or not.
+     * @since 3.1.3
+     */
+    public void setEngineContextPoolingEnabled(final boolean engineContextPoolingEnabled) {
+        checkNotInitialized();
+        this.engineContextPoolingEnabled = engineContextPoolingEnabled;
+    }
+
+
+
+    /**
+     * <p>
+     *   Returns the executor in charge of rendering fragments marked for parallel rendering, if any.
+     * </p>
+     *
+     * @return the fragment rendering executor (might be null).
+     * @see #setFragmentRenderingExecutor(Executor)
+     * @since 3.1.3
+     */
+    public final Executor getFragmentRenderingExecutor() {
+        return this.fragmentRenderingExecutor;
+    }
+
+    /**
+     * <p>
+     *   Sets the executor in charge of rendering the fragments inserted by {@code th:insert} or
+     *   {@code th:replace} attributes accompanied by a {@code th:parallel} attribute.
+     * </p>
+     * <p>
+     *   Each of these fragments will be rendered concurrently with the rest of the template into a separate buffer,
+     *   working on a snapshot of the context variables taken at the insertion point (so that lazy context variables
+     *   used only by the fragment are resolved by the executor's threads). Output will be written in document order
+     *   as soon as the fragments preceding it have been rendered, so that the execution time of the template becomes
+     *   that of its slowest fragment instead of the sum of all of them.
+     * </p>
+     * <p>
+     *   Any {@link Executor} can be used, including one based on virtual threads (Java 21+). Fragments marked
+     *   for parallel rendering inside fragments being rendered in parallel will be rendered sequentially by the
+     *   same thread, and so will be those in throttled executions (so that all output goes through throttling) or
+     *   in executions using engine contexts other than the default ones (which could not be safely copied).
+     *   Fragments still being rendered when an execution fails are cancelled. If no executor is set (default),
+     *   {@code th:parallel} attributes have no effect.
+     * </p>
+     * <p>
+     *   This operation can only be executed before processing templates for the first
+     *   time. Once a template is processed, the template engine is considered to be
+     *   <i>initialized</i>, and from then on any attempt to change its configuration
+     *   will result in an exception.
+     * </p>
+     *
+     * @param fragmentRenderingExecutor the executor (can be null).
+     * @since 3.1.3
+     */
+    public void setFragmentRenderingExecutor(final Executor fragmentRenderingExecutor) {
+        checkNotInitialized();
+        this.fragmentRenderingExecutor = fragmentRenderingExecutor;
+    }
+
     
     /**
      * <p>
@@ -1025,6 +1327,111 @@ public void clearTemplateCacheFor(final String templateName) {
         }
         this.configuration.getTemplateManager().clearCachesFor(templateName);
     }
+
+
+
+
+    /**
+     * <p>
+     *   Warms up the template and expression caches by parsing the specified templates (in parallel, using
+     *   the common {@link java.util.concurrent.ForkJoinPool}) and then parsing in advance the expressions
+     *   contained in the attributes of their processable elements.
+     * </p>
+     * <p>
+     *   See {@link #warmUp(Collection, Executor)} for details.
+     * </p>
+     *
+     * @param templates the names of the templates to be warmed up.
+     * @return the result of the warm-up operation, including timing and failed templates.
+     * @since 3.1.3
+     */
+    public TemplateWarmUpResult warmUp(final Collection<String> templates) {
+        return warmUp(templates, null);
+    }
+
+
+    /**
+     * <p>
+     *   Warms up the template and expression caches by parsing the specified templates (in parallel, using
+     *   the specified executor) and then parsing in advance the expressions contained in the attributes
+     *   of their processable elements.
+     * </p>
+     * <p>
+     *   This is meant to be called at application startup so that the first executions of these templates
+     *   do not have to pay the cost of parsing. Templates are parsed exactly as they would be for a call to
+     *   {@link #process(String, IContext)}, and will be cached only if they are cacheable according to
+     *   the template resolvers (and if a template cache is configured).
+     * </p>
+     * <p>
+     *   Templates that cannot be resolved or parsed do not make this method fail: they are logged and
+     *   reported in the returned object instead. This method blocks until all templates have been processed.
+     * </p>
+     * <p>
+     *   If this method is called before the TemplateEngine has been initialized,
+     *   it causes its initialization.
+     * </p>
+     *
+     * @param templates the names of the templates to be warmed up.
+     * @param executor the executor to be used for parsing templates in parallel. If null, the
+     *                 common {@link java.util.concurrent.ForkJoinPool} will be used.
+     * @return the result of the warm-up operation, including timing and failed templates.
+     * @since 3.1.3
+     */
+    public TemplateWarmUpResult warmUp(final Collection<String> templates, final Executor executor) {
+
+        Validate.notNull(templates, "Template collection cannot be null");
+        Validate.containsNoNulls(templates, "Template collection cannot contain nulls");
+
+        if (!this.initialized) {
+            initialize();
+        }
+
+        final long startNanos = System.nanoTime();
+
+        final IEngineConfiguration engineConfiguration = this.configuration;
+        final TemplateManager templateManager = engineConfiguration.getTemplateManager();
+
+        final AtomicInteger expressionCount = new AtomicInteger(0);
+        final Map<String,Throwable> failures = new ConcurrentHashMap<String, Throwable>(4);
+
+        final List<CompletableFuture<Void>> tasks = new ArrayList<CompletableFuture<Void>>(templates.size());
+        for (final String template : templates) {
+
+            final Runnable task = new Runnable() {
+                public void run() {
+                    try {
+                        final TemplateModel templateModel =
+                                templateManager.parseStandalone(new TemplateSpec(template, null, null, null, null));
+                        expressionCount.addAndGet(
+                                EngineEventUtils.computeAttributeExpressions(
+                                        new ExpressionContext(engineConfiguration), templateModel));
+                    } catch (final RuntimeException e) {
+                        logger.warn(String.format(
+                                "[THYMELEAF][%s] Exception warming up template \"%s\": %s",
+                                new Object[] {TemplateEngine.threadIndex(), template, e.getMessage()}), e);
+                        failures.put(template, e);
+                    }
+                }
+            };
+
+            tasks.add(executor == null? CompletableFuture.runAsync(task) : CompletableFuture.runAsync(task, executor));
+
+        }
+
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[tasks.size()])).join();
+
+        final long endNanos = System.nanoTime();
+
+        final TemplateWarmUpResult result =
+                new TemplateWarmUpResult(templates.size(), expressionCount.get(), (endNanos - startNanos), failures);
+
+        if (logger.isInfoEnabled()) {
+            logger.info("[THYMELEAF] TEMPLATE ENGINE WARM-UP FINISHED: {}", result);
+        }
+
+        return result;
+
+    }
     
     
     
@@ -1153,6 +1560,20 @@ public final void process(final TemplateSpec templateSpec, final IContext contex
 
 
 
+    @Override
+    public final void process(
+            final TemplateSpec templateSpec, final IContext context,
+            final OutputStream outputStream, final Charset charset) {
+        Validate.notNull(outputStream, "Output stream cannot be null");
+        Validate.notNull(charset, "Charset cannot be null");
+        // This writer will directly copy to output the pre-encoded static segments of compiled template models
+        // (if template model compilation is enabled), avoiding the need to encode them again at every execution.
+        // Writer will be flushed (but not closed) at the end of process(TemplateSpec, IContext, Writer).
+        process(templateSpec, context, new OutputStreamTemplateWriter(outputStream, charset));
+    }
+
+
+
 
     public final IThrottledTemplateProcessor processThrottled(final String template, final IContext context) {
         return processThrottled(new TemplateSpec(template, null, null, null, null), context);
@@ -0,0 +1,127 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * <p>
+ *   Result of a cache warm-up operation executed by means of {@link TemplateEngine#warmUp(java.util.Collection)}.
+ * </p>
+ * <p>
+ *   Objects of this class are immutable.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class TemplateWarmUpResult {
+
+    private final int templateCount;
+    private final int expressionCount;
+    private final long elapsedNanos;
+    private final Map<String,Throwable> failures;
+
+
+    TemplateWarmUpResult(
+            final int templateCount, final int expressionCount, final long elapsedNanos,
+            final Map<String,Throwable> failures) {
+        super();
+        this.templateCount = templateCount;
+        this.expressionCount = expressionCount;
+        this.elapsedNanos = elapsedNanos;
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<String, Throwable>(failures));
+    }
+
+
+    /**
+     * <p>
+     *   Returns the number of templates that were requested to be warmed up.
+     * </p>
+     *
+     * @return the number of templates.
+     */
+    public int getTemplateCount() {
+        return this.templateCount;
+    }
+
+    /**
+     * <p>
+     *   Returns the number of templates that were successfully parsed.
+     * </p>
+     *
+     * @return the number of parsed templates.
+     */
+    public int getParsedTemplateCount() {
+        return this.templateCount - this.failures.size();
+    }
+
+    /**
+     * <p>
+     *   Returns the number of attribute expressions that were parsed in advance.
+     * </p>
+     *
+     * @return the number of parsed expressions.
+     */
+    public int getExpressionCount() {
+        return this.expressionCount;
+    }
+
+    /**
+     * <p>
+     *   Returns the total time (in nanoseconds) spent warming up.
+     * </p>
+     *
+     * @return the elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * <p>
+     *   Returns the templates that could not be parsed, along with the exception raised for each of them.
+     * </p>
+     *
+     * @return the failed templates (never null).
+     */
+    public Map<String,Throwable> getFailures() {
+        return this.failures;
+    }
+
+    public boolean hasFailures() {
+        return !this.failures.isEmpty();
+    }
+
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d/%d templates and %d expressions parsed in %d ms",
+                Integer.valueOf(getParsedTemplateCount()), Integer.valueOf(this.templateCount),
+                Integer.valueOf(this.expressionCount), Long.valueOf(this.elapsedNanos / 1000000L));
+    }
+
+}
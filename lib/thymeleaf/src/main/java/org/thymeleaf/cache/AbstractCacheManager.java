@@ -51,6 +51,9 @@ public abstract class AbstractCacheManager implements ICacheManager {
     private volatile ICache<ExpressionCacheKey,Object> expressionCache;
     private volatile boolean expressionCacheInitialized = false;
 
+    private volatile ICache<FragmentCacheKey,FragmentCacheEntry> fragmentCache;
+    private volatile boolean fragmentCacheInitialized = false;
+
     
     protected AbstractCacheManager() {
         super();
@@ -81,6 +84,18 @@ public final ICache<ExpressionCacheKey, Object> getExpressionCache() {
         return this.expressionCache;
     }
 
+    public final ICache<FragmentCacheKey, FragmentCacheEntry> getFragmentCache() {
+        if (!this.fragmentCacheInitialized) {
+            synchronized(this) {
+                if (!this.fragmentCacheInitialized) {
+                    this.fragmentCache = initializeFragmentCache();
+                    this.fragmentCacheInitialized = true;
+                }
+            }
+        }
+        return this.fragmentCache;
+    }
+
     
     public <K, V> ICache<K, V> getSpecificCache(final String name) {
         // No specific caches are used by default
@@ -105,6 +120,11 @@ public void clearAllCaches() {
         if (expressionCacheObj != null) {
             expressionCacheObj.clear();
         }
+
+        final ICache<FragmentCacheKey, FragmentCacheEntry> fragmentCacheObj = getFragmentCache();
+        if (fragmentCacheObj != null) {
+            fragmentCacheObj.clear();
+        }
         
         final List<String> allSpecificCacheNamesObj = getAllSpecificCacheNames();
         if (allSpecificCacheNamesObj != null) {
@@ -122,5 +142,17 @@ public void clearAllCaches() {
     protected abstract ICache<TemplateCacheKey,TemplateModel> initializeTemplateCache();
 
     protected abstract ICache<ExpressionCacheKey,Object> initializeExpressionCache();
+
+    /**
+     * <p>
+     *   Initializes the fragment cache. Returns {@code null} by default (no fragment cache).
+     * </p>
+     *
+     * @return the fragment cache, or {@code null} if it should not be used
+     * @since 3.1.3
+     */
+    protected ICache<FragmentCacheKey,FragmentCacheEntry> initializeFragmentCache() {
+        return null;
+    }
     
 }
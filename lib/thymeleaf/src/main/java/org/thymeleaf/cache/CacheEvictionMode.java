@@ -0,0 +1,66 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+/**
+ * <p>
+ *   Standard eviction policies that can be applied to size-limited {@link StandardCache} instances,
+ *   normally selected by means of the {@link StandardCacheManager} configuration.
+ * </p>
+ * <ul>
+ *   <li>{@link #FIFO}: oldest inserted entries are evicted first ({@link FIFOCacheEvictionPolicy}).
+ *       This is the default.</li>
+ *   <li>{@link #LRU}: least recently accessed entries are evicted first, using lock striping
+ *       ({@link LRUCacheEvictionPolicy}).</li>
+ *   <li>{@link #W_TINY_LFU}: frequency-aware, scan-resistant admission and eviction
+ *       ({@link WTinyLFUCacheEvictionPolicy}).</li>
+ * </ul>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public enum CacheEvictionMode {
+
+    FIFO, LRU, W_TINY_LFU;
+
+
+    /**
+     * <p>
+     *   Creates a new eviction policy instance of this type, for a cache with the specified maximum size.
+     * </p>
+     *
+     * @param maxSize the maximum size of the cache (must be &gt; 0).
+     * @param <K> the type of the cache keys
+     * @return the new eviction policy.
+     */
+    public <K> ICacheEvictionPolicy<K> createEvictionPolicy(final int maxSize) {
+        switch (this) {
+            case LRU:
+                return new LRUCacheEvictionPolicy<K>(maxSize);
+            case W_TINY_LFU:
+                return new WTinyLFUCacheEvictionPolicy<K>(maxSize);
+            default:
+                return new FIFOCacheEvictionPolicy<K>(maxSize);
+        }
+    }
+
+}
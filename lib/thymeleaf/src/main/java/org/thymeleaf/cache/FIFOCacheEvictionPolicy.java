@@ -0,0 +1,99 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+import java.util.Arrays;
+
+import org.thymeleaf.util.Validate;
+
+
+/**
+ * <p>
+ *   FIFO (first in, first out) implementation of {@link ICacheEvictionPolicy}. When the maximum
+ *   size is reached, the oldest inserted key is evicted, no matter how often it has been accessed.
+ * </p>
+ * <p>
+ *   Keys are tracked in a fixed-size ring, and retrievals are not recorded at all, which makes
+ *   this the cheapest policy on the read path. This is the default policy used by {@link StandardCache}.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ * @param <K> The type of the cache keys
+ */
+public final class FIFOCacheEvictionPolicy<K> implements ICacheEvictionPolicy<K> {
+
+    private final int maxSize;
+    private final Object[] fifo;
+    private int fifoPointer;
+
+
+    public FIFOCacheEvictionPolicy(final int maxSize) {
+        super();
+        Validate.isTrue(maxSize > 0, "Cache max size must be > 0");
+        this.maxSize = maxSize;
+        this.fifo = new Object[this.maxSize];
+        Arrays.fill(this.fifo, null);
+        this.fifoPointer = 0;
+    }
+
+
+    @SuppressWarnings("unchecked")
+    public K recordInsertion(final K key) {
+        synchronized (this.fifo) {
+            final Object removedKey = this.fifo[this.fifoPointer];
+            this.fifo[this.fifoPointer] = key;
+            this.fifoPointer = (this.fifoPointer + 1) % this.maxSize;
+            return (K) removedKey;
+        }
+    }
+
+
+    public void recordAccess(final K key) {
+        // FIFO is not used for this --> better performance, but no LRU (only insertion order will apply)
+    }
+
+
+    public void recordRemoval(final K key) {
+        // FIFO is also updated to avoid 'removed' keys remaining at FIFO (which could end up reducing cache size to 1)
+        if (key == null) {
+            return;
+        }
+        synchronized (this.fifo) {
+            for (int i = 0; i < this.maxSize; i++) {
+                if (key.equals(this.fifo[i])) {
+                    this.fifo[i] = null;
+                    break;
+                }
+            }
+        }
+    }
+
+
+    public void clear() {
+        synchronized (this.fifo) {
+            Arrays.fill(this.fifo, null);
+            this.fifoPointer = 0;
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.util.Validate;
+
+
+/**
+ * <p>
+ *   Entries stored in the Fragment Cache: the rendered output of a fragment, along with the
+ *   {@link TemplateModel} it was rendered from.
+ * </p>
+ * <p>
+ *   The template model is kept so that the output can be considered stale (and therefore rendered again)
+ *   as soon as the fragment's template is parsed again, e.g. because it was evicted from the Template Cache
+ *   or its cache entry expired.
+ * </p>
+ * <p>
+ *   Objects of this class <strong>should only be created from inside the engine</strong>.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ */
+public final class FragmentCacheEntry {
+
+    private final TemplateModel templateModel;
+    private final String output;
+
+
+    public FragmentCacheEntry(final TemplateModel templateModel, final String output) {
+        super();
+        Validate.notNull(templateModel, "Template model cannot be null");
+        Validate.notNull(output, "Output cannot be null");
+        this.templateModel = templateModel;
+        this.output = output;
+    }
+
+
+    public TemplateModel getTemplateModel() {
+        return this.templateModel;
+    }
+
+    public String getOutput() {
+        return this.output;
+    }
+
+}
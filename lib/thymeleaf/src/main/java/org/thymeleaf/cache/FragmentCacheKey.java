@@ -0,0 +1,177 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+import java.io.Serializable;
+import java.util.Locale;
+import java.util.Set;
+
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.util.LoggingUtils;
+import org.thymeleaf.util.Validate;
+
+
+/**
+ * <p>
+ *   This class models objects used as keys in the Fragment Cache, which stores the rendered output of
+ *   fragments inserted by means of {@code th:insert} or {@code th:replace} in elements also
+ *   containing a {@code th:cache} attribute.
+ * </p>
+ * <p>
+ *   Objects of this class <strong>should only be created from inside the engine</strong>.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ */
+public final class FragmentCacheKey implements Serializable {
+
+    private static final long serialVersionUID = 2783310594617208136L;
+
+    private final String template;
+    private final Set<String> templateSelectors;
+    private final TemplateMode templateMode;
+    private final Locale locale;
+    private final String discriminator;
+    private final int h;
+
+
+    public FragmentCacheKey(
+            final String template, final Set<String> templateSelectors, final TemplateMode templateMode,
+            final Locale locale, final String discriminator) {
+
+        super();
+
+        Validate.notNull(template, "Template cannot be null");
+        Validate.notNull(templateMode, "Template mode cannot be null");
+        // templateSelectors can be null if we are inserting the entire template
+        // locale can be null if the context specifies no locale
+        // discriminator can be null if the th:cache attribute specifies no value
+
+        this.template = template;
+        this.templateSelectors = templateSelectors;
+        this.templateMode = templateMode;
+        this.locale = locale;
+        this.discriminator = discriminator;
+
+        // This being a cache key, its equals and hashCode methods will potentially execute many
+        // times, so this could help performance
+        this.h = computeHashCode();
+
+    }
+
+    public String getTemplate() {
+        return this.template;
+    }
+
+    public Set<String> getTemplateSelectors() {
+        return this.templateSelectors;
+    }
+
+    public TemplateMode getTemplateMode() {
+        return this.templateMode;
+    }
+
+    public Locale getLocale() {
+        return this.locale;
+    }
+
+    public String getDiscriminator() {
+        return this.discriminator;
+    }
+
+
+    @Override
+    public boolean equals(final Object o) {
+
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof FragmentCacheKey)) {
+            return false;
+        }
+
+        final FragmentCacheKey that = (FragmentCacheKey) o;
+
+        if (this.h != that.h) { // fail fast
+            return false;
+        }
+
+        if (!this.template.equals(that.template)) {
+            return false;
+        }
+        if (this.templateSelectors != null ? !this.templateSelectors.equals(that.templateSelectors) : that.templateSelectors != null) {
+            return false;
+        }
+        if (this.templateMode != that.templateMode) {
+            return false;
+        }
+        if (this.locale != null ? !this.locale.equals(that.locale) : that.locale != null) {
+            return false;
+        }
+        return !(this.discriminator != null ? !this.discriminator.equals(that.discriminator) : that.discriminator != null);
+
+    }
+
+
+    @Override
+    public int hashCode() {
+        return this.h;
+    }
+
+
+    private int computeHashCode() {
+        int result = this.template.hashCode();
+        result = 31 * result + (this.templateSelectors != null ? this.templateSelectors.hashCode() : 0);
+        result = 31 * result + this.templateMode.hashCode();
+        result = 31 * result + (this.locale != null ? this.locale.hashCode() : 0);
+        result = 31 * result + (this.discriminator != null ? this.discriminator.hashCode() : 0);
+        return result;
+    }
+
+
+
+
+    @Override
+    public String toString() {
+        final StringBuilder strBuilder = new StringBuilder();
+        strBuilder.append(LoggingUtils.loggifyTemplateName(this.template));
+        if (this.templateSelectors != null) {
+            strBuilder.append("::");
+            strBuilder.append(this.templateSelectors);
+        }
+        strBuilder.append(" @");
+        strBuilder.append(this.templateMode);
+        if (this.locale != null) {
+            strBuilder.append(" (");
+            strBuilder.append(this.locale);
+            strBuilder.append(')');
+        }
+        if (this.discriminator != null) {
+            strBuilder.append(" [");
+            strBuilder.append(this.discriminator);
+            strBuilder.append(']');
+        }
+        return strBuilder.toString();
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+/**
+ * <p>
+ *   Defines the policy used by a size-limited {@link StandardCache} in order to decide which
+ *   entries should be evicted when the maximum size of the cache is reached.
+ * </p>
+ * <p>
+ *   Policies only track <i>keys</i>: values are always stored by the cache itself. The cache
+ *   will notify the policy of every insertion, successful retrieval (hit) and removal of a key,
+ *   and will remove from its storage the key (if any) returned by
+ *   {@link #recordInsertion(Object)}.
+ * </p>
+ * <p>
+ *   Note that policies are stateful and each cache must use its own policy instance. See
+ *   {@link CacheEvictionMode} for the standard policies available.
+ * </p>
+ * <p>
+ *   Implementations of this interface should be <b>thread-safe</b>.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ * @param <K> The type of the cache keys
+ */
+public interface ICacheEvictionPolicy<K> {
+
+    /**
+     * <p>
+     *   Records the insertion of a new key into the cache, returning the key that should be
+     *   evicted as a result of it (if any).
+     * </p>
+     * <p>
+     *   Note the returned key might be the same one just inserted, if the policy decides that
+     *   the new entry should not be admitted into the cache.
+     * </p>
+     *
+     * @param key the key of the new entry.
+     * @return the key that should be evicted from the cache, or {@code null} if none.
+     */
+    public K recordInsertion(final K key);
+
+    /**
+     * <p>
+     *   Records a successful retrieval (a cache <i>hit</i>) for the specified key.
+     * </p>
+     * <p>
+     *   As this method is called on the read path of the cache, implementations should make
+     *   it as cheap as possible, even if that means some accesses are not recorded under
+     *   contention.
+     * </p>
+     *
+     * @param key the key that has been accessed.
+     */
+    public void recordAccess(final K key);
+
+    /**
+     * <p>
+     *   Records the explicit removal of a key from the cache (for example, because its entry
+     *   was no longer valid).
+     * </p>
+     *
+     * @param key the key that has been removed.
+     */
+    public void recordRemoval(final K key);
+
+    /**
+     * <p>
+     *   Removes all the keys tracked by this policy.
+     * </p>
+     */
+    public void clear();
+
+}
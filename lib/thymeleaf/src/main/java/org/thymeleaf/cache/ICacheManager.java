@@ -105,6 +105,29 @@ public interface ICacheManager {
      */
     public ICache<ExpressionCacheKey,Object> getExpressionCache();
 
+
+    /**
+     * <p>
+     *   Returns the cache of rendered fragments.
+     * </p>
+     * <p>
+     *   This cache stores the output of fragments inserted by means of {@code th:insert} or
+     *   {@code th:replace} in elements also containing a {@code th:cache} attribute, which declares
+     *   the inserted fragment does not depend on the context (other than its locale, and the
+     *   optional result of the {@code th:cache} expression).
+     * </p>
+     * <p>
+     *   Implementations not offering this cache will return {@code null}, in which case
+     *   {@code th:cache} attributes will have no effect.
+     * </p>
+     *
+     * @return the cache of rendered fragments
+     * @since 3.1.3
+     */
+    public default ICache<FragmentCacheKey,FragmentCacheEntry> getFragmentCache() {
+        return null;
+    }
+
     
     /**
      * <p>
@@ -0,0 +1,73 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+/**
+ * <p>
+ *   Specialization of {@link ICache} for the <i>expression cache</i> (see
+ *   {@link ICacheManager#getExpressionCache()}), allowing entries to be looked up directly by
+ *   their type and expression, without the need to create {@link ExpressionCacheKey} objects.
+ * </p>
+ * <p>
+ *   The engine will use these methods whenever the expression cache returned by the cache manager
+ *   implements this interface. Calling {@code get(type, expression)} must be equivalent to calling
+ *   {@code get(new ExpressionCacheKey(type, expression))}.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public interface IExpressionCache extends ICache<ExpressionCacheKey,Object> {
+
+    /**
+     * <p>
+     *   Retrieve a value from the cache.
+     * </p>
+     *
+     * @param type the type of the cached artifact (e.g. {@code "expr"}, {@code "ognl"}...)
+     * @param expression the expression
+     * @return the retrieved value, or null if no value exists for the specified type and expression.
+     */
+    public Object get(final String type, final String expression);
+
+    /**
+     * <p>
+     *   Insert a new value into the cache.
+     * </p>
+     *
+     * @param type the type of the cached artifact (e.g. {@code "expr"}, {@code "ognl"}...)
+     * @param expression the expression
+     * @param value the value to be cached
+     */
+    public void put(final String type, final String expression, final Object value);
+
+    /**
+     * <p>
+     *   Clears a specific entry in the cache.
+     * </p>
+     *
+     * @param type the type of the cached artifact (e.g. {@code "expr"}, {@code "ognl"}...)
+     * @param expression the expression
+     */
+    public void clearKey(final String type, final String expression);
+
+}
@@ -0,0 +1,170 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.thymeleaf.util.Validate;
+
+
+/**
+ * <p>
+ *   LRU (least recently used) implementation of {@link ICacheEvictionPolicy}. When the maximum
+ *   size is reached, the key that has gone unaccessed for the longest time is evicted.
+ * </p>
+ * <p>
+ *   In order to allow insertions and retrievals to scale across threads, keys are distributed
+ *   (by hash) among a number of independently locked <i>stripes</i>, each one of them
+ *   holding a fraction of the maximum size and applying LRU order on its own keys. This makes
+ *   the eviction order an approximation of a global LRU, which is negligible for caches big
+ *   enough to be worth striping. Small caches use a single stripe (i.e. exact LRU).
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ * @param <K> The type of the cache keys
+ */
+public final class LRUCacheEvictionPolicy<K> implements ICacheEvictionPolicy<K> {
+
+    // Stripes will never be smaller than this, so that approximation does not degrade LRU behaviour
+    private static final int MIN_STRIPE_SIZE = 16;
+    private static final int MAX_STRIPES = 64;
+
+    private final Stripe<K>[] stripes;
+    private final int stripeMask;
+
+
+    public LRUCacheEvictionPolicy(final int maxSize) {
+        this(maxSize, computeStripeCount(maxSize));
+    }
+
+
+    @SuppressWarnings("unchecked")
+    public LRUCacheEvictionPolicy(final int maxSize, final int stripeCount) {
+
+        super();
+
+        Validate.isTrue(maxSize > 0, "Cache max size must be > 0");
+        Validate.isTrue(stripeCount > 0 && (stripeCount & (stripeCount - 1)) == 0, "Stripe count must be a power of two");
+        Validate.isTrue(stripeCount <= maxSize, "Stripe count cannot be greater than cache max size");
+
+        this.stripes = new Stripe[stripeCount];
+        this.stripeMask = stripeCount - 1;
+
+        // Remainder of the division is distributed among the first stripes, so that the sum equals maxSize
+        final int baseStripeSize = maxSize / stripeCount;
+        final int remainder = maxSize % stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe<K>(baseStripeSize + (i < remainder ? 1 : 0));
+        }
+
+    }
+
+
+    private static int computeStripeCount(final int maxSize) {
+        final int concurrency = Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors() * 2);
+        int stripeCount = 1;
+        while ((stripeCount << 1) <= concurrency && (maxSize / (stripeCount << 1)) >= MIN_STRIPE_SIZE) {
+            stripeCount <<= 1;
+        }
+        return stripeCount;
+    }
+
+
+    private Stripe<K> stripeFor(final K key) {
+        if (this.stripeMask == 0) {
+            return this.stripes[0];
+        }
+        int h = (key == null ? 0 : key.hashCode());
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return this.stripes[h & this.stripeMask];
+    }
+
+
+
+
+    public K recordInsertion(final K key) {
+        return stripeFor(key).recordInsertion(key);
+    }
+
+
+    public void recordAccess(final K key) {
+        stripeFor(key).recordAccess(key);
+    }
+
+
+    public void recordRemoval(final K key) {
+        stripeFor(key).recordRemoval(key);
+    }
+
+
+    public void clear() {
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i].clear();
+        }
+    }
+
+
+
+
+    private static final class Stripe<K> {
+
+        private final int maxSize;
+        // Access-ordered: iteration will start with the least recently used key
+        private final LinkedHashMap<K,Boolean> keys;
+
+        Stripe(final int maxSize) {
+            super();
+            this.maxSize = maxSize;
+            this.keys = new LinkedHashMap<K,Boolean>(16, 0.75f, true);
+        }
+
+        synchronized K recordInsertion(final K key) {
+            this.keys.put(key, Boolean.TRUE);
+            if (this.keys.size() <= this.maxSize) {
+                return null;
+            }
+            final Iterator<K> eldestIterator = this.keys.keySet().iterator();
+            final K eldest = eldestIterator.next();
+            eldestIterator.remove();
+            return eldest;
+        }
+
+        synchronized void recordAccess(final K key) {
+            // In access-ordered LinkedHashMaps, get() moves the entry to the tail
+            this.keys.get(key);
+        }
+
+        synchronized void recordRemoval(final K key) {
+            this.keys.remove(key);
+        }
+
+        synchronized void clear() {
+            this.keys.clear();
+        }
+
+    }
+
+}
@@ -20,7 +20,6 @@
 package org.thymeleaf.cache;
 
 import java.lang.ref.SoftReference;
-import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -98,12 +97,37 @@ public StandardCache(final String name, final boolean useSoftReferences,
     public StandardCache(final String name, final boolean useSoftReferences,
             final int initialCapacity, final int maxSize, final ICacheEntryValidityChecker<? super K, ? super V> entryValidityChecker,
             final Logger logger, final boolean enableCounters) {
+        this(name, useSoftReferences, initialCapacity, maxSize, entryValidityChecker, logger, enableCounters,
+                (maxSize > 0? new FIFOCacheEvictionPolicy<K>(maxSize) : null));
+    }
+
+    /**
+     * <p>
+     *   Creates a new cache, specifying the {@link ICacheEvictionPolicy} that will be applied
+     *   when {@code maxSize} is reached.
+     * </p>
+     *
+     * @param name the name of the cache.
+     * @param useSoftReferences whether soft references should be used for cache values.
+     * @param initialCapacity the initial capacity of the cache.
+     * @param maxSize the maximum size of the cache, or -1 for no limit.
+     * @param entryValidityChecker the (optional) validity checker for entries.
+     * @param logger the logger for tracing (might be null).
+     * @param enableCounters whether put/get/hit/miss counters should be maintained.
+     * @param evictionPolicy the eviction policy, which must be a new instance not shared with any other cache.
+     *                       Ignored (and can be null) if the cache has no maximum size.
+     * @since 3.1.3
+     */
+    public StandardCache(final String name, final boolean useSoftReferences,
+            final int initialCapacity, final int maxSize, final ICacheEntryValidityChecker<? super K, ? super V> entryValidityChecker,
+            final Logger logger, final boolean enableCounters, final ICacheEvictionPolicy<K> evictionPolicy) {
 
         super();
 
         Validate.notEmpty(name, "Name cannot be null or empty");
         Validate.isTrue(initialCapacity > 0, "Initial capacity must be > 0");
         Validate.isTrue(maxSize != 0, "Cache max size must be either -1 (no limit) or > 0");
+        Validate.isTrue(maxSize < 0 || evictionPolicy != null, "Eviction policy cannot be null if cache has a max size");
 
         this.name = name;
         this.useSoftReferences = useSoftReferences;
@@ -114,7 +138,8 @@ public StandardCache(final String name, final boolean useSoftReferences,
         this.traceExecution = (logger != null && logger.isTraceEnabled());
         this.enableCounters = (this.traceExecution || enableCounters);
         this.dataContainer =
-                new CacheDataContainer<K,V>(this.name, initialCapacity, maxSize, this.traceExecution, this.logger);
+                new CacheDataContainer<K,V>(
+                        this.name, initialCapacity, (maxSize > 0? evictionPolicy : null), this.traceExecution, this.logger);
 
         this.getCount = new AtomicLong(0);
         this.putCount = new AtomicLong(0);
@@ -365,31 +390,22 @@ private void outputReportIfNeeded() {
 
         private final String name;
         private final boolean sizeLimit;
-        private final int maxSize;
         private final boolean traceExecution;
         private final Logger logger;
 
         private final ConcurrentHashMap<K,CacheEntry<V>> container;
-        private final Object[] fifo;
-        private int fifoPointer;
+        private final ICacheEvictionPolicy<K> evictionPolicy;
 
 
         CacheDataContainer(final String name, final int initialCapacity,
-                final int maxSize, final boolean traceExecution, final Logger logger) {
+                final ICacheEvictionPolicy<K> evictionPolicy, final boolean traceExecution, final Logger logger) {
 
             super();
 
             this.name = name;
             this.container = new ConcurrentHashMap<K,CacheEntry<V>>(initialCapacity, 0.9f, 2);
-            this.maxSize = maxSize;
-            this.sizeLimit = (maxSize >= 0);
-            if (this.sizeLimit) {
-                this.fifo = new Object[this.maxSize];
-                Arrays.fill(this.fifo, null);
-            } else {
-                this.fifo = null;
-            }
-            this.fifoPointer = 0;
+            this.evictionPolicy = evictionPolicy;
+            this.sizeLimit = (evictionPolicy != null);
             this.traceExecution = traceExecution;
             this.logger = logger;
 
@@ -397,8 +413,13 @@ private void outputReportIfNeeded() {
 
 
         public CacheEntry<V> get(final Object key) {
-            // FIFO is not used for this --> better performance, but no LRU (only insertion order will apply)
-            return this.container.get(key);
+            final CacheEntry<V> entry = this.container.get(key);
+            if (entry != null && this.sizeLimit) {
+                @SuppressWarnings("unchecked")
+                final K typedKey = (K) key;
+                this.evictionPolicy.recordAccess(typedKey);
+            }
+            return entry;
         }
 
 
@@ -433,13 +454,11 @@ private int putWithoutTracing(final K key, final CacheEntry<V> value) {
             }
 
             if (this.sizeLimit) {
-                synchronized (this.fifo) {
-                    final Object removedKey = this.fifo[this.fifoPointer];
-                    if (removedKey != null) {
-                        this.container.remove(removedKey);
-                    }
-                    this.fifo[this.fifoPointer] = key;
-                    this.fifoPointer = (this.fifoPointer + 1) % this.maxSize;
+                // Synchronization (if any) is responsibility of the eviction policy, so that
+                // policies can allow concurrent puts
+                final K removedKey = this.evictionPolicy.recordInsertion(key);
+                if (removedKey != null) {
+                    this.container.remove(removedKey);
                 }
             }
 
@@ -452,7 +471,7 @@ private synchronized int putWithTracing(final K key, final CacheEntry<V> value)
             final CacheEntry<V> existing = this.container.putIfAbsent(key, value);
             if (existing == null) {
                 if (this.sizeLimit) {
-                    final Object removedKey = this.fifo[this.fifoPointer];
+                    final K removedKey = this.evictionPolicy.recordInsertion(key);
                     if (removedKey != null) {
                         final CacheEntry<V> removed = this.container.remove(removedKey);
                         if (removed != null) {
@@ -462,8 +481,6 @@ private synchronized int putWithTracing(final K key, final CacheEntry<V> value)
                                     new Object[] {TemplateEngine.threadIndex(), this.name, newSize, this.name, removedKey, newSize});
                         }
                     }
-                    this.fifo[this.fifoPointer] = key;
-                    this.fifoPointer = (this.fifoPointer + 1) % this.maxSize;
                 }
             }
             return this.container.size();
@@ -480,16 +497,11 @@ public int remove(final K key) {
 
 
         private int removeWithoutTracing(final K key) {
-            // FIFO is also updated to avoid 'removed' keys remaining at FIFO (which could end up reducing cache size to 1)
+            // Eviction policy is also updated to avoid 'removed' keys remaining tracked (which could end up reducing cache size)
             final CacheEntry<V> removed = this.container.remove(key);
             if (removed != null) {
                 if (this.sizeLimit && key != null) {
-                    for (int i = 0; i < this.maxSize; i++) {
-                        if (key.equals(this.fifo[i])) {
-                            this.fifo[i] = null;
-                            break;
-                        }
-                    }
+                    this.evictionPolicy.recordRemoval(key);
                 }
             }
             return -1;
@@ -497,19 +509,14 @@ private int removeWithoutTracing(final K key) {
 
 
         private synchronized int removeWithTracing(final K key) {
-            // FIFO is also updated to avoid 'removed' keys remaining at FIFO (which could end up reducing cache size to 1)
+            // Eviction policy is also updated to avoid 'removed' keys remaining tracked (which could end up reducing cache size)
             final CacheEntry<V> removed = this.container.remove(key);
             if (removed == null) {
                 // When tracing is active, this means nothing was removed
                 return -1;
             }
             if (this.sizeLimit && key != null) {
-                for (int i = 0; i < this.maxSize; i++) {
-                    if (key.equals(this.fifo[i])) {
-                        this.fifo[i] = null;
-                        break;
-                    }
-                }
+                this.evictionPolicy.recordRemoval(key);
             }
             return this.container.size();
         }
@@ -517,6 +524,9 @@ private synchronized int removeWithTracing(final K key) {
 
         public void clear() {
             this.container.clear();
+            if (this.sizeLimit) {
+                this.evictionPolicy.clear();
+            }
         }
 
 
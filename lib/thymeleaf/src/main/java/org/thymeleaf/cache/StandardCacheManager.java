@@ -23,6 +23,7 @@
 import org.slf4j.LoggerFactory;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.util.Validate;
 
 
 /**
@@ -57,8 +58,21 @@
  *   <li>An (optional) <i>validity checker</i> implementing {@link ICacheEntryValidityChecker},
  *       which will be applied on each entry upon retrieval from cache in order to ensure
  *       it is still valid and can be used.
+ *   <li>Its <i>eviction mode</i> (see {@link CacheEvictionMode}): the policy that will be used
+ *       for choosing the entries to be evicted once the maximum size is reached. Defaults to
+ *       {@link CacheEvictionMode#FIFO}.</li>
  * </ul>
  * <p>
+ *   Additionally, the expression cache can be configured to use <i>typed lookups</i>, in which case a
+ *   {@link StandardExpressionCache} will be used instead of a {@link StandardCache}. This allows the engine
+ *   to look up cached expressions without creating any key objects, at the cost of not outputting
+ *   trace logs for the expression cache.
+ * </p>
+ * <p>
+ *   The fragment cache (see {@link ICacheManager#getFragmentCache()}) is only used for fragment insertions
+ *   explicitly marked with {@code th:cache}, and can be disabled by setting its maximum size to {@code 0}.
+ * </p>
+ * <p>
  *   Note a class with this name existed since 2.0.0, but it was completely reimplemented
  *   in Thymeleaf 3.0
  * </p>
@@ -106,6 +120,13 @@ public class StandardCacheManager extends AbstractCacheManager {
      */
     public static final ICacheEntryValidityChecker<TemplateCacheKey,TemplateModel> DEFAULT_TEMPLATE_CACHE_VALIDITY_CHECKER = new StandardParsedTemplateEntryValidator();
 
+    /**
+     * Default template cache eviction mode: {@link CacheEvictionMode#FIFO}
+     *
+     * @since 3.1.3
+     */
+    public static final CacheEvictionMode DEFAULT_TEMPLATE_CACHE_EVICTION_MODE = CacheEvictionMode.FIFO;
+
     
     /**
      * Default expression cache name: {@value}
@@ -142,6 +163,77 @@ public class StandardCacheManager extends AbstractCacheManager {
      */
     public static final ICacheEntryValidityChecker<ExpressionCacheKey,Object> DEFAULT_EXPRESSION_CACHE_VALIDITY_CHECKER = null;
 
+    /**
+     * Default expression cache eviction mode: {@link CacheEvictionMode#FIFO}
+     *
+     * @since 3.1.3
+     */
+    public static final CacheEvictionMode DEFAULT_EXPRESSION_CACHE_EVICTION_MODE = CacheEvictionMode.FIFO;
+
+    /**
+     * Default expression cache "use typed lookups" flag: {@value}
+     *
+     * @since 3.1.3
+     */
+    public static final boolean DEFAULT_EXPRESSION_CACHE_USE_TYPED_LOOKUPS = false;
+
+
+    /**
+     * Default fragment cache name: {@value}
+     *
+     * @since 3.1.3
+     */
+    public static final String DEFAULT_FRAGMENT_CACHE_NAME = "FRAGMENT_CACHE";
+
+    /**
+     * Default fragment cache initial size: {@value}
+     *
+     * @since 3.1.3
+     */
+    public static final int DEFAULT_FRAGMENT_CACHE_INITIAL_SIZE = 20;
+
+    /**
+     * Default fragment cache maximum size: {@value}
+     *
+     * @since 3.1.3
+     */
+    public static final int DEFAULT_FRAGMENT_CACHE_MAX_SIZE = 200;
+
+    /**
+     * Default fragment cache "enable counters" flag: {@value}
+     *
+     * @since 3.1.3
+     */
+    public static final boolean DEFAULT_FRAGMENT_CACHE_ENABLE_COUNTERS = false;
+
+    /**
+     * Default fragment cache "use soft references" flag: {@value}
+     *
+     * @since 3.1.3
+     */
+    public static final boolean DEFAULT_FRAGMENT_CACHE_USE_SOFT_REFERENCES = true;
+
+    /**
+     * Default fragment cache logger name: null (default behaviour = org.thymeleaf.TemplateEngine.cache.FRAGMENT_CACHE)
+     *
+     * @since 3.1.3
+     */
+    public static final String DEFAULT_FRAGMENT_CACHE_LOGGER_NAME = null;
+
+    /**
+     * Default fragment cache validity checker: an instance of {@link StandardFragmentCacheEntryValidator}.
+     *
+     * @since 3.1.3
+     */
+    public static final ICacheEntryValidityChecker<FragmentCacheKey,FragmentCacheEntry> DEFAULT_FRAGMENT_CACHE_VALIDITY_CHECKER = new StandardFragmentCacheEntryValidator();
+
+    /**
+     * Default fragment cache eviction mode: {@link CacheEvictionMode#FIFO}
+     *
+     * @since 3.1.3
+     */
+    public static final CacheEvictionMode DEFAULT_FRAGMENT_CACHE_EVICTION_MODE = CacheEvictionMode.FIFO;
+
     
     
     
@@ -152,6 +244,7 @@ public class StandardCacheManager extends AbstractCacheManager {
     private boolean templateCacheUseSoftReferences = DEFAULT_TEMPLATE_CACHE_USE_SOFT_REFERENCES;
     private String templateCacheLoggerName = DEFAULT_TEMPLATE_CACHE_LOGGER_NAME;
     private ICacheEntryValidityChecker<TemplateCacheKey,TemplateModel> templateCacheValidityChecker = DEFAULT_TEMPLATE_CACHE_VALIDITY_CHECKER;
+    private CacheEvictionMode templateCacheEvictionMode = DEFAULT_TEMPLATE_CACHE_EVICTION_MODE;
 
     private String expressionCacheName = DEFAULT_EXPRESSION_CACHE_NAME;
     private int expressionCacheInitialSize = DEFAULT_EXPRESSION_CACHE_INITIAL_SIZE;
@@ -160,6 +253,17 @@ public class StandardCacheManager extends AbstractCacheManager {
     private boolean expressionCacheUseSoftReferences = DEFAULT_EXPRESSION_CACHE_USE_SOFT_REFERENCES;
     private String expressionCacheLoggerName = DEFAULT_EXPRESSION_CACHE_LOGGER_NAME;
     private ICacheEntryValidityChecker<ExpressionCacheKey,Object> expressionCacheValidityChecker = DEFAULT_EXPRESSION_CACHE_VALIDITY_CHECKER;
+    private CacheEvictionMode expressionCacheEvictionMode = DEFAULT_EXPRESSION_CACHE_EVICTION_MODE;
+    private boolean expressionCacheUseTypedLookups = DEFAULT_EXPRESSION_CACHE_USE_TYPED_LOOKUPS;
+
+    private String fragmentCacheName = DEFAULT_FRAGMENT_CACHE_NAME;
+    private int fragmentCacheInitialSize = DEFAULT_FRAGMENT_CACHE_INITIAL_SIZE;
+    private int fragmentCacheMaxSize = DEFAULT_FRAGMENT_CACHE_MAX_SIZE;
+    private boolean fragmentCacheEnableCounters = DEFAULT_FRAGMENT_CACHE_ENABLE_COUNTERS;
+    private boolean fragmentCacheUseSoftReferences = DEFAULT_FRAGMENT_CACHE_USE_SOFT_REFERENCES;
+    private String fragmentCacheLoggerName = DEFAULT_FRAGMENT_CACHE_LOGGER_NAME;
+    private ICacheEntryValidityChecker<FragmentCacheKey,FragmentCacheEntry> fragmentCacheValidityChecker = DEFAULT_FRAGMENT_CACHE_VALIDITY_CHECKER;
+    private CacheEvictionMode fragmentCacheEvictionMode = DEFAULT_FRAGMENT_CACHE_EVICTION_MODE;
     
     
     
@@ -178,7 +282,8 @@ protected final ICache<TemplateCacheKey, TemplateModel> initializeTemplateCache(
         return new StandardCache<TemplateCacheKey, TemplateModel>(
                 getTemplateCacheName(), getTemplateCacheUseSoftReferences(), 
                 getTemplateCacheInitialSize(), maxSize,
-                getTemplateCacheValidityChecker(), getTemplateCacheLogger(), getTemplateCacheEnableCounters());
+                getTemplateCacheValidityChecker(), getTemplateCacheLogger(), getTemplateCacheEnableCounters(),
+                (maxSize > 0? getTemplateCacheEvictionMode().<TemplateCacheKey>createEvictionPolicy(maxSize) : null));
     }
 
     
@@ -188,10 +293,31 @@ protected final ICache<ExpressionCacheKey, Object> initializeExpressionCache() {
         if (maxSize == 0) {
             return null;
         }
+        if (getExpressionCacheUseTypedLookups()) {
+            return new StandardExpressionCache(
+                    getExpressionCacheName(), getExpressionCacheUseSoftReferences(), maxSize,
+                    getExpressionCacheValidityChecker(), getExpressionCacheEnableCounters(),
+                    (maxSize > 0? getExpressionCacheEvictionMode().<ExpressionCacheKey>createEvictionPolicy(maxSize) : null));
+        }
         return new StandardCache<ExpressionCacheKey, Object>(
                 getExpressionCacheName(), getExpressionCacheUseSoftReferences(), 
                 getExpressionCacheInitialSize(), maxSize,
-                getExpressionCacheValidityChecker(), getExpressionCacheLogger(), getExpressionCacheEnableCounters());
+                getExpressionCacheValidityChecker(), getExpressionCacheLogger(), getExpressionCacheEnableCounters(),
+                (maxSize > 0? getExpressionCacheEvictionMode().<ExpressionCacheKey>createEvictionPolicy(maxSize) : null));
+    }
+
+
+    @Override
+    protected final ICache<FragmentCacheKey, FragmentCacheEntry> initializeFragmentCache() {
+        final int maxSize = getFragmentCacheMaxSize();
+        if (maxSize == 0) {
+            return null;
+        }
+        return new StandardCache<FragmentCacheKey, FragmentCacheEntry>(
+                getFragmentCacheName(), getFragmentCacheUseSoftReferences(),
+                getFragmentCacheInitialSize(), maxSize,
+                getFragmentCacheValidityChecker(), getFragmentCacheLogger(), getFragmentCacheEnableCounters(),
+                (maxSize > 0? getFragmentCacheEvictionMode().<FragmentCacheKey>createEvictionPolicy(maxSize) : null));
     }
     
     
@@ -224,6 +350,14 @@ public String getTemplateCacheLoggerName() {
     public ICacheEntryValidityChecker<TemplateCacheKey,TemplateModel> getTemplateCacheValidityChecker() {
         return this.templateCacheValidityChecker;
     }
+
+    /**
+     * @return the eviction mode for the template cache
+     * @since 3.1.3
+     */
+    public CacheEvictionMode getTemplateCacheEvictionMode() {
+        return this.templateCacheEvictionMode;
+    }
     
     public final Logger getTemplateCacheLogger() {
         final String loggerName = getTemplateCacheLoggerName();
@@ -264,6 +398,22 @@ public ICacheEntryValidityChecker<ExpressionCacheKey,Object> getExpressionCacheV
         return this.expressionCacheValidityChecker;
     }
 
+    /**
+     * @return the eviction mode for the expression cache
+     * @since 3.1.3
+     */
+    public CacheEvictionMode getExpressionCacheEvictionMode() {
+        return this.expressionCacheEvictionMode;
+    }
+
+    /**
+     * @return whether the expression cache will be a {@link StandardExpressionCache} allowing typed lookups
+     * @since 3.1.3
+     */
+    public boolean getExpressionCacheUseTypedLookups() {
+        return this.expressionCacheUseTypedLookups;
+    }
+
     public final Logger getExpressionCacheLogger() {
         final String loggerName = getExpressionCacheLoggerName();
         if (loggerName != null) {
@@ -274,6 +424,80 @@ public final Logger getExpressionCacheLogger() {
 
 
 
+    /**
+     * @return the name of the fragment cache
+     * @since 3.1.3
+     */
+    public String getFragmentCacheName() {
+        return this.fragmentCacheName;
+    }
+
+    /**
+     * @return whether the fragment cache uses soft references
+     * @since 3.1.3
+     */
+    public boolean getFragmentCacheUseSoftReferences() {
+        return this.fragmentCacheUseSoftReferences;
+    }
+
+    private boolean getFragmentCacheEnableCounters() {
+        return this.fragmentCacheEnableCounters;
+    }
+
+    /**
+     * @return the initial size of the fragment cache
+     * @since 3.1.3
+     */
+    public int getFragmentCacheInitialSize() {
+        return this.fragmentCacheInitialSize;
+    }
+
+    /**
+     * @return the maximum size of the fragment cache
+     * @since 3.1.3
+     */
+    public int getFragmentCacheMaxSize() {
+        return this.fragmentCacheMaxSize;
+    }
+
+    /**
+     * @return the name of the logger for the fragment cache
+     * @since 3.1.3
+     */
+    public String getFragmentCacheLoggerName() {
+        return this.fragmentCacheLoggerName;
+    }
+
+    /**
+     * @return the validity checker for the fragment cache
+     * @since 3.1.3
+     */
+    public ICacheEntryValidityChecker<FragmentCacheKey,FragmentCacheEntry> getFragmentCacheValidityChecker() {
+        return this.fragmentCacheValidityChecker;
+    }
+
+    /**
+     * @return the eviction mode for the fragment cache
+     * @since 3.1.3
+     */
+    public CacheEvictionMode getFragmentCacheEvictionMode() {
+        return this.fragmentCacheEvictionMode;
+    }
+
+    /**
+     * @return the logger for the fragment cache
+     * @since 3.1.3
+     */
+    public final Logger getFragmentCacheLogger() {
+        final String loggerName = getFragmentCacheLoggerName();
+        if (loggerName != null) {
+            return LoggerFactory.getLogger(loggerName);
+        }
+        return LoggerFactory.getLogger(TemplateEngine.class.getName() + ".cache." + getFragmentCacheName());
+    }
+
+
+
     
     
     public void setTemplateCacheName(final String templateCacheName) {
@@ -303,6 +527,15 @@ public void setTemplateCacheValidityChecker(final ICacheEntryValidityChecker<Tem
     public void setTemplateCacheEnableCounters(boolean templateCacheEnableCounters) {
         this.templateCacheEnableCounters = templateCacheEnableCounters;
     }
+
+    /**
+     * @param templateCacheEvictionMode the eviction mode for the template cache
+     * @since 3.1.3
+     */
+    public void setTemplateCacheEvictionMode(final CacheEvictionMode templateCacheEvictionMode) {
+        Validate.notNull(templateCacheEvictionMode, "Template cache eviction mode cannot be null");
+        this.templateCacheEvictionMode = templateCacheEvictionMode;
+    }
     
     
     public void setExpressionCacheName(final String expressionCacheName) {
@@ -332,6 +565,91 @@ public void setExpressionCacheValidityChecker(final ICacheEntryValidityChecker<E
     public void setExpressionCacheEnableCounters(boolean expressionCacheEnableCounters) {
         this.expressionCacheEnableCounters = expressionCacheEnableCounters;
     }
+
+    /**
+     * @param expressionCacheEvictionMode the eviction mode for the expression cache
+     * @since 3.1.3
+     */
+    public void setExpressionCacheEvictionMode(final CacheEvictionMode expressionCacheEvictionMode) {
+        Validate.notNull(expressionCacheEvictionMode, "Expression cache eviction mode cannot be null");
+        this.expressionCacheEvictionMode = expressionCacheEvictionMode;
+    }
+
+    /**
+     * @param expressionCacheUseTypedLookups whether the expression cache should be a {@link StandardExpressionCache}
+     *                                       allowing typed lookups
+     * @since 3.1.3
+     */
+    public void setExpressionCacheUseTypedLookups(final boolean expressionCacheUseTypedLookups) {
+        this.expressionCacheUseTypedLookups = expressionCacheUseTypedLookups;
+    }
+
+
+
+    /**
+     * @param fragmentCacheName the name of the fragment cache
+     * @since 3.1.3
+     */
+    public void setFragmentCacheName(final String fragmentCacheName) {
+        this.fragmentCacheName = fragmentCacheName;
+    }
+
+    /**
+     * @param fragmentCacheInitialSize the initial size of the fragment cache
+     * @since 3.1.3
+     */
+    public void setFragmentCacheInitialSize(final int fragmentCacheInitialSize) {
+        this.fragmentCacheInitialSize = fragmentCacheInitialSize;
+    }
+
+    /**
+     * @param fragmentCacheMaxSize the maximum size of the fragment cache ({@code 0} disables it)
+     * @since 3.1.3
+     */
+    public void setFragmentCacheMaxSize(final int fragmentCacheMaxSize) {
+        this.fragmentCacheMaxSize = fragmentCacheMaxSize;
+    }
+
+    /**
+     * @param fragmentCacheUseSoftReferences whether the fragment cache should use soft references
+     * @since 3.1.3
+     */
+    public void setFragmentCacheUseSoftReferences(final boolean fragmentCacheUseSoftReferences) {
+        this.fragmentCacheUseSoftReferences = fragmentCacheUseSoftReferences;
+    }
+
+    /**
+     * @param fragmentCacheLoggerName the name of the logger for the fragment cache
+     * @since 3.1.3
+     */
+    public void setFragmentCacheLoggerName(final String fragmentCacheLoggerName) {
+        this.fragmentCacheLoggerName = fragmentCacheLoggerName;
+    }
+
+    /**
+     * @param fragmentCacheValidityChecker the validity checker for the fragment cache
+     * @since 3.1.3
+     */
+    public void setFragmentCacheValidityChecker(final ICacheEntryValidityChecker<FragmentCacheKey, FragmentCacheEntry> fragmentCacheValidityChecker) {
+        this.fragmentCacheValidityChecker = fragmentCacheValidityChecker;
+    }
+
+    /**
+     * @param fragmentCacheEnableCounters whether the fragment cache should keep hit/miss counters
+     * @since 3.1.3
+     */
+    public void setFragmentCacheEnableCounters(final boolean fragmentCacheEnableCounters) {
+        this.fragmentCacheEnableCounters = fragmentCacheEnableCounters;
+    }
+
+    /**
+     * @param fragmentCacheEvictionMode the eviction mode for the fragment cache
+     * @since 3.1.3
+     */
+    public void setFragmentCacheEvictionMode(final CacheEvictionMode fragmentCacheEvictionMode) {
+        Validate.notNull(fragmentCacheEvictionMode, "Fragment cache eviction mode cannot be null");
+        this.fragmentCacheEvictionMode = fragmentCacheEvictionMode;
+    }
     
     
     
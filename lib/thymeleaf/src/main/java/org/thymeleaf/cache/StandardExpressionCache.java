@@ -0,0 +1,351 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+import java.lang.ref.SoftReference;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.thymeleaf.util.Validate;
+
+
+/**
+ * <p>
+ *   Implementation of {@link IExpressionCache} specifically designed for the expression cache,
+ *   which is queried many times during the processing of every template.
+ * </p>
+ * <p>
+ *   Entries are stored in one map per entry <i>type</i>, keyed directly by the expression {@code String}
+ *   (or by the {@link ExpressionCacheKey} itself for two-part keys), so that cache hits performed
+ *   through {@link #get(String, String)} require no allocation and no locking. Counters (if enabled)
+ *   are maintained by means of {@link LongAdder} objects in order to avoid contention among threads.
+ * </p>
+ * <p>
+ *   Just like {@link StandardCache}, a maximum size can be specified (enforced by an
+ *   {@link ICacheEvictionPolicy}), as well as the use of soft references and an optional
+ *   validity checker. Unlike {@link StandardCache}, this implementation does not output trace logs.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class StandardExpressionCache implements IExpressionCache {
+
+
+    private final String name;
+    private final boolean useSoftReferences;
+    private final int maxSize;
+    private final ICacheEntryValidityChecker<? super ExpressionCacheKey, Object> entryValidityChecker;
+    private final ICacheEvictionPolicy<ExpressionCacheKey> evictionPolicy;
+
+    private final ConcurrentHashMap<String,ConcurrentHashMap<Object,CacheEntry>> entriesByType;
+
+    private final boolean enableCounters;
+    private final LongAdder getCount;
+    private final LongAdder putCount;
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+
+
+
+
+    public StandardExpressionCache(final String name, final boolean useSoftReferences, final int maxSize,
+                                   final ICacheEntryValidityChecker<? super ExpressionCacheKey, Object> entryValidityChecker,
+                                   final boolean enableCounters, final ICacheEvictionPolicy<ExpressionCacheKey> evictionPolicy) {
+
+        super();
+
+        Validate.notEmpty(name, "Name cannot be null or empty");
+        Validate.isTrue(maxSize != 0, "Cache max size must be either -1 (no limit) or > 0");
+        Validate.isTrue(maxSize < 0 || evictionPolicy != null, "Eviction policy cannot be null if cache has a max size");
+
+        this.name = name;
+        this.useSoftReferences = useSoftReferences;
+        this.maxSize = maxSize;
+        this.entryValidityChecker = entryValidityChecker;
+        this.evictionPolicy = (maxSize > 0? evictionPolicy : null);
+
+        this.entriesByType = new ConcurrentHashMap<String, ConcurrentHashMap<Object, CacheEntry>>(8, 0.75f, 2);
+
+        this.enableCounters = enableCounters;
+        this.getCount = new LongAdder();
+        this.putCount = new LongAdder();
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+
+    }
+
+
+
+
+    public Object get(final String type, final String expression) {
+        final ConcurrentHashMap<Object,CacheEntry> entries = this.entriesByType.get(type);
+        final CacheEntry entry = (entries == null? null : entries.get(expression));
+        return resolveEntry(entries, expression, entry, this.entryValidityChecker);
+    }
+
+
+    public void put(final String type, final String expression, final Object value) {
+        putEntry(type, expression, new ExpressionCacheKey(type, expression), value);
+    }
+
+
+    public void clearKey(final String type, final String expression) {
+        removeEntry(type, expression);
+    }
+
+
+
+
+    public Object get(final ExpressionCacheKey key) {
+        return get(key, this.entryValidityChecker);
+    }
+
+
+    public Object get(final ExpressionCacheKey key,
+                      final ICacheEntryValidityChecker<? super ExpressionCacheKey, ? super Object> validityChecker) {
+        final Object subKey = computeSubKey(key);
+        final ConcurrentHashMap<Object,CacheEntry> entries = this.entriesByType.get(key.getType());
+        final CacheEntry entry = (entries == null? null : entries.get(subKey));
+        return resolveEntry(entries, subKey, entry, validityChecker);
+    }
+
+
+    public void put(final ExpressionCacheKey key, final Object value) {
+        putEntry(key.getType(), computeSubKey(key), key, value);
+    }
+
+
+    public void clearKey(final ExpressionCacheKey key) {
+        removeEntry(key.getType(), computeSubKey(key));
+    }
+
+
+    public void clear() {
+        this.entriesByType.clear();
+        if (this.evictionPolicy != null) {
+            this.evictionPolicy.clear();
+        }
+    }
+
+
+    /**
+     * <p>
+     *   Returns all the keys contained in this cache. Note this method might return keys for entries
+     *   that are already invalid, so the result of calling {@link #get(ExpressionCacheKey)} for these keys might
+     *   be {@code null}.
+     * </p>
+     * <p>
+     *   Note the returned set is a snapshot, built at the moment this method is called.
+     * </p>
+     *
+     * @return the complete set of cache keys. Might include keys for already-invalid (non-cleaned) entries.
+     */
+    public Set<ExpressionCacheKey> keySet() {
+        final Set<ExpressionCacheKey> keys = new HashSet<ExpressionCacheKey>();
+        for (final ConcurrentHashMap<Object,CacheEntry> entries : this.entriesByType.values()) {
+            for (final CacheEntry entry : entries.values()) {
+                keys.add(entry.key);
+            }
+        }
+        return keys;
+    }
+
+
+
+
+    private Object resolveEntry(
+            final ConcurrentHashMap<Object,CacheEntry> entries, final Object subKey, final CacheEntry entry,
+            final ICacheEntryValidityChecker<? super ExpressionCacheKey, ? super Object> validityChecker) {
+
+        if (this.enableCounters) {
+            this.getCount.increment();
+        }
+
+        if (entry == null) {
+            if (this.enableCounters) {
+                this.missCount.increment();
+            }
+            return null;
+        }
+
+        final Object value = entry.getValue();
+        if (value == null ||
+                (validityChecker != null && !validityChecker.checkIsValueStillValid(entry.key, value, entry.creationTimeInMillis))) {
+            // Either the soft reference has been cleared by GC or the entry is not valid anymore
+            if (entries.remove(subKey, entry) && this.evictionPolicy != null) {
+                this.evictionPolicy.recordRemoval(entry.key);
+            }
+            if (this.enableCounters) {
+                this.missCount.increment();
+            }
+            return null;
+        }
+
+        if (this.evictionPolicy != null) {
+            this.evictionPolicy.recordAccess(entry.key);
+        }
+        if (this.enableCounters) {
+            this.hitCount.increment();
+        }
+
+        return value;
+
+    }
+
+
+    private void putEntry(final String type, final Object subKey, final ExpressionCacheKey key, final Object value) {
+
+        if (this.enableCounters) {
+            this.putCount.increment();
+        }
+
+        ConcurrentHashMap<Object,CacheEntry> entries = this.entriesByType.get(type);
+        if (entries == null) {
+            entries = new ConcurrentHashMap<Object, CacheEntry>(32, 0.9f, 2);
+            final ConcurrentHashMap<Object,CacheEntry> existingEntries = this.entriesByType.putIfAbsent(type, entries);
+            if (existingEntries != null) {
+                entries = existingEntries;
+            }
+        }
+
+        final CacheEntry existing = entries.putIfAbsent(subKey, new CacheEntry(key, value, this.useSoftReferences));
+        if (existing != null || this.evictionPolicy == null) {
+            return;
+        }
+
+        final ExpressionCacheKey removedKey = this.evictionPolicy.recordInsertion(key);
+        if (removedKey != null) {
+            final ConcurrentHashMap<Object,CacheEntry> removedKeyEntries = this.entriesByType.get(removedKey.getType());
+            if (removedKeyEntries != null) {
+                removedKeyEntries.remove(computeSubKey(removedKey));
+            }
+        }
+
+    }
+
+
+    private void removeEntry(final String type, final Object subKey) {
+        final ConcurrentHashMap<Object,CacheEntry> entries = this.entriesByType.get(type);
+        if (entries == null) {
+            return;
+        }
+        final CacheEntry removed = entries.remove(subKey);
+        if (removed != null && this.evictionPolicy != null) {
+            this.evictionPolicy.recordRemoval(removed.key);
+        }
+    }
+
+
+    private static Object computeSubKey(final ExpressionCacheKey key) {
+        // Single-expression keys (the vast majority) are stored by their expression, so that they can be
+        // retrieved without creating a key object
+        return (key.getExpression1() == null? key.getExpression0() : key);
+    }
+
+
+
+
+    public String getName() {
+        return this.name;
+    }
+
+    public boolean hasMaxSize() {
+        return (this.maxSize > 0);
+    }
+
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    public boolean getUseSoftReferences() {
+        return this.useSoftReferences;
+    }
+
+    public int size() {
+        int size = 0;
+        for (final ConcurrentHashMap<Object,CacheEntry> entries : this.entriesByType.values()) {
+            size += entries.size();
+        }
+        return size;
+    }
+
+    public long getPutCount() {
+        return this.putCount.sum();
+    }
+
+    public long getGetCount() {
+        return this.getCount.sum();
+    }
+
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    public long getMissCount(){
+        return this.missCount.sum();
+    }
+
+
+    public double getHitRatio() {
+        long hitCount = getHitCount();
+        long getCount = getGetCount();
+
+        if (hitCount == 0 || getCount == 0) {
+            return 0;
+        }
+
+        return (double) hitCount / (double) getCount;
+    }
+
+    public double getMissRatio() {
+       return 1 - getHitRatio();
+    }
+
+
+
+
+    static final class CacheEntry {
+
+        final ExpressionCacheKey key;
+        final long creationTimeInMillis;
+        private final Object value;
+        private final SoftReference<Object> valueReference;
+
+        CacheEntry(final ExpressionCacheKey key, final Object value, final boolean useSoftReferences) {
+            super();
+            this.key = key;
+            this.value = (useSoftReferences? null : value);
+            this.valueReference = (useSoftReferences? new SoftReference<Object>(value) : null);
+            this.creationTimeInMillis = System.currentTimeMillis();
+        }
+
+        Object getValue() {
+            return (this.valueReference == null? this.value : this.valueReference.get());
+        }
+
+    }
+
+
+}
@@ -0,0 +1,48 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+
+/**
+ * <p>
+ *   Default validity checker for the Fragment Cache, which considers rendered fragments valid for as long as
+ *   the template they were rendered from is.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class StandardFragmentCacheEntryValidator
+        implements ICacheEntryValidityChecker<FragmentCacheKey,FragmentCacheEntry> {
+
+    private static final long serialVersionUID = -6071393419560412752L;
+
+    public StandardFragmentCacheEntryValidator() {
+        super();
+    }
+
+    public boolean checkIsValueStillValid(
+            final FragmentCacheKey key, final FragmentCacheEntry value, final long entryCreationTimestamp) {
+        return value.getTemplateModel().getTemplateData().getValidity().isCacheStillValid();
+    }
+
+}
@@ -0,0 +1,408 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+import java.util.HashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.thymeleaf.util.Validate;
+
+
+/**
+ * <p>
+ *   W-TinyLFU implementation of {@link ICacheEvictionPolicy}: a frequency-aware policy that
+ *   is resistant to <i>scans</i> (i.e. bursts of keys that are accessed only once, such as
+ *   one-off templates) which would otherwise flush frequently used entries out of the cache.
+ * </p>
+ * <p>
+ *   Keys are first inserted into a small LRU <i>admission window</i> (1% of the maximum size). Keys
+ *   evicted from this window are candidates for entering the <i>main</i> area (a segmented LRU with
+ *   <i>probation</i> and <i>protected</i> segments), but they will only be admitted if their estimated
+ *   access frequency is higher than that of the key that would have to be evicted from the main area
+ *   in order to make room for them. Frequencies are estimated by means of a compact, periodically aged
+ *   count-min sketch of 4-bit counters.
+ * </p>
+ * <p>
+ *   All structures are guarded by a single lock. In order to keep the read path cheap, accesses are
+ *   only recorded when this lock can be acquired without waiting, so some accesses might not be
+ *   recorded under heavy contention. This has no effect on correctness, only on the precision of
+ *   the frequency estimations.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ * @param <K> The type of the cache keys
+ */
+public final class WTinyLFUCacheEvictionPolicy<K> implements ICacheEvictionPolicy<K> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private static final int WINDOW_PERCENTAGE = 1;
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private final ReentrantLock lock;
+
+    private final int windowMaxSize;
+    private final int mainMaxSize;
+    private final int protectedMaxSize;
+
+    private final HashMap<K,Node<K>> nodes;
+    private final NodeQueue<K>[] queues;
+    private final FrequencySketch sketch;
+
+
+    @SuppressWarnings("unchecked")
+    public WTinyLFUCacheEvictionPolicy(final int maxSize) {
+
+        super();
+
+        Validate.isTrue(maxSize > 0, "Cache max size must be > 0");
+
+        this.lock = new ReentrantLock();
+
+        this.windowMaxSize = Math.max(1, (maxSize * WINDOW_PERCENTAGE) / 100);
+        this.mainMaxSize = maxSize - this.windowMaxSize;
+        this.protectedMaxSize = (this.mainMaxSize * PROTECTED_PERCENTAGE) / 100;
+
+        this.nodes = new HashMap<K, Node<K>>();
+        this.queues = new NodeQueue[] { new NodeQueue<K>(), new NodeQueue<K>(), new NodeQueue<K>() };
+        this.sketch = new FrequencySketch(maxSize);
+
+    }
+
+
+
+
+    public K recordInsertion(final K key) {
+
+        this.lock.lock();
+        try {
+
+            this.sketch.increment(key);
+
+            if (this.nodes.containsKey(key)) {
+                // Should not happen (keys are removed from the policy when removed from the cache), but
+                // if it does, this is not a new key so there is no need to evict anything
+                return null;
+            }
+
+            final Node<K> node = new Node<K>(key, WINDOW);
+            this.nodes.put(key, node);
+            this.queues[WINDOW].addLast(node);
+
+            return evictFromWindowIfNeeded();
+
+        } finally {
+            this.lock.unlock();
+        }
+
+    }
+
+
+    private K evictFromWindowIfNeeded() {
+
+        final NodeQueue<K> window = this.queues[WINDOW];
+        if (window.size <= this.windowMaxSize) {
+            return null;
+        }
+
+        final Node<K> candidate = window.first;
+        window.remove(candidate);
+
+        final NodeQueue<K> probation = this.queues[PROBATION];
+        final NodeQueue<K> protectedQueue = this.queues[PROTECTED];
+
+        if (probation.size + protectedQueue.size < this.mainMaxSize) {
+            // There is still room in the main area: no admission needed
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+            return null;
+        }
+
+        final Node<K> victim = (probation.first != null ? probation.first : protectedQueue.first);
+        if (victim == null) {
+            // Main area has zero size: the candidate can never be admitted
+            this.nodes.remove(candidate.key);
+            return candidate.key;
+        }
+
+        if (this.sketch.frequency(candidate.key) > this.sketch.frequency(victim.key)) {
+            this.queues[victim.queue].remove(victim);
+            this.nodes.remove(victim.key);
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+            return victim.key;
+        }
+
+        this.nodes.remove(candidate.key);
+        return candidate.key;
+
+    }
+
+
+    public void recordAccess(final K key) {
+
+        if (!this.lock.tryLock()) {
+            // Lossy under contention: see class comment
+            return;
+        }
+        try {
+
+            this.sketch.increment(key);
+
+            final Node<K> node = this.nodes.get(key);
+            if (node == null) {
+                return;
+            }
+
+            if (node.queue == PROBATION) {
+                // A second access promotes keys from probation to the protected segment
+                this.queues[PROBATION].remove(node);
+                node.queue = PROTECTED;
+                this.queues[PROTECTED].addLast(node);
+                if (this.queues[PROTECTED].size > this.protectedMaxSize) {
+                    final Node<K> demoted = this.queues[PROTECTED].first;
+                    this.queues[PROTECTED].remove(demoted);
+                    demoted.queue = PROBATION;
+                    this.queues[PROBATION].addLast(demoted);
+                }
+            } else {
+                this.queues[node.queue].moveToLast(node);
+            }
+
+        } finally {
+            this.lock.unlock();
+        }
+
+    }
+
+
+    public void recordRemoval(final K key) {
+        this.lock.lock();
+        try {
+            final Node<K> node = this.nodes.remove(key);
+            if (node != null) {
+                this.queues[node.queue].remove(node);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+
+    public void clear() {
+        this.lock.lock();
+        try {
+            this.nodes.clear();
+            for (int i = 0; i < this.queues.length; i++) {
+                this.queues[i].clear();
+            }
+            this.sketch.clear();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+
+
+
+    private static final class Node<K> {
+
+        final K key;
+        int queue;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(final K key, final int queue) {
+            super();
+            this.key = key;
+            this.queue = queue;
+        }
+
+    }
+
+
+
+
+    /*
+     * Doubly-linked queue of nodes, ordered from least (first) to most (last) recently used.
+     */
+    private static final class NodeQueue<K> {
+
+        Node<K> first;
+        Node<K> last;
+        int size;
+
+        NodeQueue() {
+            super();
+        }
+
+        void addLast(final Node<K> node) {
+            node.prev = this.last;
+            node.next = null;
+            if (this.last == null) {
+                this.first = node;
+            } else {
+                this.last.next = node;
+            }
+            this.last = node;
+            this.size++;
+        }
+
+        void remove(final Node<K> node) {
+            if (node.prev == null) {
+                this.first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                this.last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            this.size--;
+        }
+
+        void moveToLast(final Node<K> node) {
+            if (node != this.last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            this.first = null;
+            this.last = null;
+            this.size = 0;
+        }
+
+    }
+
+
+
+
+    /*
+     * Count-min sketch with four 4-bit counters per key, packed in longs (sixteen counters per long).
+     * Once the number of increments reaches the sample size, all counters are halved so that the
+     * sketch ages and keeps reflecting recent access frequency.
+     */
+    static final class FrequencySketch {
+
+        private static final long[] SEEDS = new long[] {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final long ONE_MASK = 0x1111111111111111L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int size;
+
+
+        FrequencySketch(final int maxSize) {
+            super();
+            int tableSize = 8;
+            while (tableSize < maxSize && tableSize < (1 << 30)) {
+                tableSize <<= 1;
+            }
+            this.table = new long[tableSize];
+            this.tableMask = tableSize - 1;
+            this.sampleSize = (maxSize > Integer.MAX_VALUE / 10 ? Integer.MAX_VALUE : maxSize * 10);
+            this.size = 0;
+        }
+
+
+        int frequency(final Object key) {
+            final int hash = spread(key == null ? 0 : key.hashCode());
+            final int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                final int index = indexOf(hash, i);
+                final int count = (int) ((this.table[index] >>> ((start + i) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+
+        void increment(final Object key) {
+            final int hash = spread(key == null ? 0 : key.hashCode());
+            final int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                added |= incrementAt(indexOf(hash, i), start + i);
+            }
+            if (added && ++this.size >= this.sampleSize) {
+                reset();
+            }
+        }
+
+
+        void clear() {
+            for (int i = 0; i < this.table.length; i++) {
+                this.table[i] = 0L;
+            }
+            this.size = 0;
+        }
+
+
+        private boolean incrementAt(final int i, final int j) {
+            final int offset = j << 2;
+            final long mask = (0xfL << offset);
+            if ((this.table[i] & mask) != mask) {
+                this.table[i] += (1L << offset);
+                return true;
+            }
+            return false;
+        }
+
+
+        private void reset() {
+            int count = 0;
+            for (int i = 0; i < this.table.length; i++) {
+                count += Long.bitCount(this.table[i] & ONE_MASK);
+                this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+            }
+            this.size = (this.size >>> 1) - (count >>> 2);
+        }
+
+
+        private int indexOf(final int item, final int i) {
+            long hash = (item + SEEDS[i]) * SEEDS[i];
+            hash += (hash >>> 32);
+            return ((int) hash) & this.tableMask;
+        }
+
+
+        private static int spread(final int x) {
+            int h = ((x >>> 16) ^ x) * 0x45d9f3b;
+            h = ((h >>> 16) ^ h) * 0x45d9f3b;
+            return (h >>> 16) ^ h;
+        }
+
+    }
+
+}
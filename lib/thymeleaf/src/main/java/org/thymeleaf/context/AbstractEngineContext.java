@@ -56,9 +56,10 @@ public abstract class AbstractEngineContext implements IEngineContext {
     // NOTE we are not extending AbstractContext or AbstractExpressionContext on purpose, as the variable-oriented
     // methods are going to be handled by the subclasses, not any superclasses.
 
-    private final IEngineConfiguration configuration;
-    private final Map<String,Object> templateResolutionAttributes;
-    private final Locale locale;
+    // Not final because engine contexts can be reused (see #reinitialize)
+    private IEngineConfiguration configuration;
+    private Map<String,Object> templateResolutionAttributes;
+    private Locale locale;
 
     private IExpressionObjects expressionObjects = null;
     private IdentifierSequences identifierSequences = null;
@@ -85,6 +86,22 @@ protected AbstractEngineContext(
     }
 
 
+    /*
+     * Reinitializes this context so that it can be reused for processing a new template, discarding any
+     * state linked to its previous use (see StandardEngineContextFactory#releaseEngineContext).
+     */
+    void reinitialize(
+            final IEngineConfiguration configuration,
+            final Map<String,Object> templateResolutionAttributes,
+            final Locale locale) {
+        this.configuration = configuration;
+        this.locale = locale;
+        this.templateResolutionAttributes = templateResolutionAttributes;
+        this.expressionObjects = null;
+        this.identifierSequences = null;
+    }
+
+
     public final IEngineConfiguration getConfiguration() {
         return this.configuration;
     }
@@ -0,0 +1,108 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.context;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>
+ *   Basic abstract implementation for the {@link IAsyncLazyContextVariable} interface.
+ * </p>
+ * <p>
+ *   By extending this class instead of directly implementing the {@link IAsyncLazyContextVariable} interface,
+ *   users can make sure that their variables will be loaded only once (per template execution), no matter
+ *   whether loading is started by the template engine before processing the template or by the first
+ *   expression resolving the variable.
+ * </p>
+ * <p>
+ *   An example:
+ * </p>
+ * <pre><code>
+ * context.setVariable(
+ *     "users",
+ *     new AsyncLazyContextVariable&lt;List&lt;User&gt;&gt;() {
+ *         &#64;Override
+ *         protected CompletableFuture&lt;List&lt;User&gt;&gt; loadValueAsync() {
+ *             return CompletableFuture.supplyAsync(() -&gt; userService.findAllUsers(), executor);
+ *         }
+ *     });
+ * </code></pre>
+ *
+ * @param <T> the type of the value being returned by this variable
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public abstract class AsyncLazyContextVariable<T> implements IAsyncLazyContextVariable<T> {
+
+
+    private volatile CompletableFuture<T> value = null;
+
+    protected AsyncLazyContextVariable() {
+        super();
+    }
+
+
+    /**
+     * <p>
+     *   Starts loading the value (only the first time this is called), and returns a future for it.
+     * </p>
+     *
+     * @return the future value.
+     */
+    public final CompletableFuture<T> getValueAsync() {
+        CompletableFuture<T> v = this.value;
+        if (v == null) {
+            synchronized (this) {
+                v = this.value;
+                if (v == null) {
+                    try {
+                        v = loadValueAsync();
+                        if (v == null) {
+                            v = CompletableFuture.completedFuture(null);
+                        }
+                    } catch (final RuntimeException e) {
+                        // Errors starting the load will be reported when the value is actually needed
+                        v = new CompletableFuture<T>();
+                        v.completeExceptionally(e);
+                    }
+                    this.value = v;
+                }
+            }
+        }
+        return v;
+    }
+
+
+    /**
+     * <p>
+     *   Start the actual loading of the variable's value, returning a future for it.
+     * </p>
+     * <p>
+     *   This method will be called only once, the first time this variable is prefetched or resolved.
+     * </p>
+     *
+     * @return the future value.
+     */
+    protected abstract CompletableFuture<T> loadValueAsync();
+
+}
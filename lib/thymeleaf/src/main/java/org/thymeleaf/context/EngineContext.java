@@ -159,6 +159,61 @@ public EngineContext(
     }
 
 
+    /*
+     * Reinitializes this context so that it can be reused for processing a new template, reusing all its
+     * level structures (already grown to the sizes needed by previous executions).
+     */
+    void reinitialize(
+            final IEngineConfiguration configuration,
+            final TemplateData templateData,
+            final Map<String,Object> templateResolutionAttributes,
+            final Locale locale,
+            final Map<String, Object> variables) {
+
+        reinitialize(configuration, templateResolutionAttributes, locale);
+
+        this.levels[0] = 0;
+        this.templateDatas[0] = templateData;
+        this.lastTemplateData = templateData;
+
+        this.templateStack.add(templateData);
+
+        if (variables != null) {
+            setVariables(variables);
+        }
+
+    }
+
+
+    /*
+     * Clears all the variables and other per-execution structures of this context (without shrinking them), so
+     * that it does not retain any references to objects from the last execution while it is not being used.
+     */
+    void clear() {
+
+        reinitialize(getConfiguration(), null, getLocale());
+
+        for (int i = 0; i < this.maps.length; i++) {
+            if (this.maps[i] != null) {
+                this.maps[i].clear();
+            }
+        }
+        Arrays.fill(this.levels, Integer.MAX_VALUE);
+        Arrays.fill(this.selectionTargets, null);
+        Arrays.fill(this.inliners, null);
+        Arrays.fill(this.templateDatas, null);
+        Arrays.fill(this.elementTags, null);
+
+        this.level = 0;
+        this.index = 0;
+        this.lastSelectionTarget = null;
+        this.lastInliner = null;
+        this.lastTemplateData = null;
+        this.templateStack.clear();
+
+    }
+
+
     public boolean containsVariable(final String name) {
         int n = this.index + 1;
         Object value;
@@ -199,6 +254,26 @@ public Object getVariable(final String key) {
     }
 
 
+    public Object getUnresolvedVariable(final String key) {
+        int n = this.index + 1;
+        Object value;
+        HashMap map;
+        while (n-- != 0) {
+            map = this.maps[n];
+            if (map != null && map.size() > 0) {
+                value = map.get(key);
+                if (value != null) {
+                    if (value == NON_EXISTING || value == NULL) {
+                        return null;
+                    }
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+
     public Set<String> getVariableNames() {
 
         final Set<String> variableNames = new HashSet<String>();
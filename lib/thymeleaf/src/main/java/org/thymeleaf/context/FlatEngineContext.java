@@ -0,0 +1,744 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.context;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.engine.TemplateData;
+import org.thymeleaf.inline.IInliner;
+import org.thymeleaf.inline.NoOpInliner;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.util.Validate;
+
+/**
+ * <p>
+ *   Non-web implementation of the {@link IEngineContext} interface that stores all the variables of all levels in
+ *   a single, flat open-addressing hash table.
+ * </p>
+ * <p>
+ *   Unlike {@link EngineContext}, which keeps a separate map for each level with local variables and needs to look
+ *   for variables level by level from the top, this implementation keeps only the currently visible value of each
+ *   variable in the table (so that retrieving a variable needs a single hash lookup whatever the nesting depth)
+ *   along with a <em>journal</em> of the values overwritten at each level, which are restored when the level is
+ *   decreased. This makes setting and unsetting local variables (e.g. iteration variables) cheap and
+ *   allocation-free, which especially benefits templates making heavy use of {@code th:each} and
+ *   {@code th:with} at deep nesting levels.
+ * </p>
+ * <p>
+ *   This implementation can be selected by means of
+ *   {@link StandardEngineContextFactory#StandardEngineContextFactory(boolean)}. Note that, as it happens with
+ *   {@link EngineContext}, <b>this is an internal implementation, and that there is no reason for users' code to
+ *   directly reference or use it instead of its implemented interfaces</b>.
+ * </p>
+ * <p>
+ *   This class is NOT thread-safe. Thread-safety is not a requirement for context implementations.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class FlatEngineContext extends AbstractEngineContext implements IEngineContext {
+
+    private static final int DEFAULT_TABLE_SIZE = 32; // Must be a power of 2
+    private static final int DEFAULT_JOURNAL_SIZE = 16;
+    private static final int DEFAULT_LEVELS_SIZE = 10;
+    private static final int DEFAULT_ELEMENT_HIERARCHY_SIZE = 20;
+
+
+    // Signals a variable that does not exist at the current level, either because it was never set or because
+    // it has been removed. Names are never removed from the table, so this is also the value of removed variables.
+    private static final Object ABSENT = new Object() {
+        @Override
+        public String toString() {
+            return "(*removed*)";
+        }
+    };
+
+
+    // The variable table: names, currently visible values and the levels at which these values were set (-1 if
+    // the variable was never set). Open addressing with linear probing.
+    private String[] names;
+    private Object[] values;
+    private int[] valueLevels;
+    private int size;
+    private int threshold;
+
+    // The journal of overwritten values: for each entry, the slot of the variable and the value (and level of
+    // that value) that will have to be restored when the level at which it was overwritten is decreased. Entries
+    // for each level start at the position specified by journalStarts[level].
+    private int[] journalSlots;
+    private Object[] journalValues;
+    private int[] journalValueLevels;
+    private int journalSize;
+    private int[] journalStarts;
+
+    private int level = 0;
+    private SelectionTarget[] selectionTargets;
+    private IInliner[] inliners;
+    private TemplateData[] templateDatas;
+    private IProcessableElementTag[] elementTags;
+
+    private SelectionTarget lastSelectionTarget = null;
+    private IInliner lastInliner = null;
+    private TemplateData lastTemplateData = null;
+
+
+
+    /**
+     * <p>
+     *   Creates a new instance of this {@link IEngineContext} implementation.
+     * </p>
+     * <p>
+     *   Note that implementations of {@link IEngineContext} are not meant to be used in order to call
+     *   the template engine (use implementations of {@link IContext} such as {@link Context} or {@link WebContext}
+     *   instead). This is therefore mostly an <b>internal</b> implementation, and users should have no reason
+     *   to ever call this constructor except in very specific integration/extension scenarios.
+     * </p>
+     *
+     * @param configuration the configuration instance being used.
+     * @param templateData the template data for the template to be processed.
+     * @param templateResolutionAttributes the template resolution attributes.
+     * @param locale the locale.
+     * @param variables the context variables, probably coming from another {@link IContext} implementation.
+     */
+    public FlatEngineContext(
+            final IEngineConfiguration configuration,
+            final TemplateData templateData,
+            final Map<String,Object> templateResolutionAttributes,
+            final Locale locale,
+            final Map<String, Object> variables) {
+
+        super(configuration, templateResolutionAttributes, locale);
+
+        int tableSize = DEFAULT_TABLE_SIZE;
+        if (variables != null) {
+            while (tableSize * 3 / 4 <= variables.size() + 4) {
+                tableSize <<= 1;
+            }
+        }
+        this.names = new String[tableSize];
+        this.values = new Object[tableSize];
+        this.valueLevels = new int[tableSize];
+        this.size = 0;
+        this.threshold = tableSize * 3 / 4;
+
+        this.journalSlots = new int[DEFAULT_JOURNAL_SIZE];
+        this.journalValues = new Object[DEFAULT_JOURNAL_SIZE];
+        this.journalValueLevels = new int[DEFAULT_JOURNAL_SIZE];
+        this.journalSize = 0;
+        this.journalStarts = new int[DEFAULT_LEVELS_SIZE];
+
+        this.selectionTargets = new SelectionTarget[DEFAULT_LEVELS_SIZE];
+        this.inliners = new IInliner[DEFAULT_LEVELS_SIZE];
+        this.templateDatas = new TemplateData[DEFAULT_LEVELS_SIZE];
+        this.elementTags = new IProcessableElementTag[DEFAULT_ELEMENT_HIERARCHY_SIZE];
+
+        this.templateDatas[0] = templateData;
+        this.lastTemplateData = templateData;
+
+        if (variables != null) {
+            setVariables(variables);
+        }
+
+    }
+
+
+
+
+    /*
+     * Reinitializes this context so that it can be reused for processing a new template, reusing all its
+     * structures (already grown to the sizes needed by previous executions).
+     */
+    void reinitialize(
+            final IEngineConfiguration configuration,
+            final TemplateData templateData,
+            final Map<String,Object> templateResolutionAttributes,
+            final Locale locale,
+            final Map<String, Object> variables) {
+
+        reinitialize(configuration, templateResolutionAttributes, locale);
+
+        this.templateDatas[0] = templateData;
+        this.lastTemplateData = templateData;
+
+        if (variables != null) {
+            setVariables(variables);
+        }
+
+    }
+
+
+    /*
+     * Clears all the variables and other per-execution structures of this context (without shrinking them), so
+     * that it does not retain any references to objects from the last execution while it is not being used.
+     */
+    void clear() {
+
+        reinitialize(getConfiguration(), null, getLocale());
+
+        Arrays.fill(this.names, null);
+        Arrays.fill(this.values, null);
+        this.size = 0;
+
+        Arrays.fill(this.journalValues, null);
+        this.journalSize = 0;
+
+        Arrays.fill(this.selectionTargets, null);
+        Arrays.fill(this.inliners, null);
+        Arrays.fill(this.templateDatas, null);
+        Arrays.fill(this.elementTags, null);
+
+        this.level = 0;
+        this.lastSelectionTarget = null;
+        this.lastInliner = null;
+        this.lastTemplateData = null;
+
+    }
+
+
+
+
+    public boolean containsVariable(final String name) {
+        final int slot = findSlot(name);
+        return slot >= 0 && this.values[slot] != ABSENT;
+    }
+
+
+    public Object getVariable(final String key) {
+        final int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        final Object value = this.values[slot];
+        if (value == ABSENT) {
+            return null;
+        }
+        return resolveLazy(value);
+    }
+
+
+    public Object getUnresolvedVariable(final String key) {
+        final int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        final Object value = this.values[slot];
+        return (value == ABSENT ? null : value);
+    }
+
+
+    public Set<String> getVariableNames() {
+        final Set<String> variableNames = new HashSet<String>(this.size + 1, 1.0f);
+        for (int i = 0; i < this.names.length; i++) {
+            if (this.names[i] != null && this.values[i] != ABSENT) {
+                variableNames.add(this.names[i]);
+            }
+        }
+        return variableNames;
+    }
+
+
+    public void setVariable(final String name, final Object value) {
+
+        Validate.notNull(name, "Variable name cannot be null");
+
+        final int slot = findOrCreateSlot(name);
+
+        if (this.valueLevels[slot] != this.level && this.level > 0) {
+            // The current value was set at a lower level (or never), so it will need to be restored afterwards
+            journal(slot);
+        }
+
+        this.values[slot] = value;
+        this.valueLevels[slot] = this.level;
+
+    }
+
+
+    public void setVariables(final Map<String, Object> variables) {
+        if (variables == null || variables.isEmpty()) {
+            return;
+        }
+        for (final Map.Entry<String, Object> entry : variables.entrySet()) {
+            setVariable(entry.getKey(), entry.getValue());
+        }
+    }
+
+
+
+
+    public void removeVariable(final String name) {
+        if (containsVariable(name)) {
+            setVariable(name, ABSENT);
+        }
+    }
+
+
+
+
+    public boolean isVariableLocal(final String name) {
+        // Variables at level 0 are not local!
+        final int slot = findSlot(name);
+        return slot >= 0 && this.values[slot] != ABSENT && this.valueLevels[slot] > 0;
+    }
+
+
+
+
+    public boolean hasSelectionTarget() {
+        if (this.lastSelectionTarget != null) {
+            return true;
+        }
+        int n = this.level + 1;
+        while (n-- != 0) {
+            if (this.selectionTargets[n] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    public Object getSelectionTarget() {
+        if (this.lastSelectionTarget != null) {
+            return this.lastSelectionTarget.selectionTarget;
+        }
+        int n = this.level + 1;
+        while (n-- != 0) {
+            if (this.selectionTargets[n] != null) {
+                this.lastSelectionTarget = this.selectionTargets[n];
+                return this.lastSelectionTarget.selectionTarget;
+            }
+        }
+        return null;
+    }
+
+
+    public void setSelectionTarget(final Object selectionTarget) {
+        this.lastSelectionTarget = new SelectionTarget(selectionTarget);
+        this.selectionTargets[this.level] = this.lastSelectionTarget;
+    }
+
+
+
+
+    public IInliner getInliner() {
+        if (this.lastInliner != null) {
+            if (this.lastInliner == NoOpInliner.INSTANCE) {
+                return null;
+            }
+            return this.lastInliner;
+        }
+        int n = this.level + 1;
+        while (n-- != 0) {
+            if (this.inliners[n] != null) {
+                this.lastInliner = this.inliners[n];
+                if (this.lastInliner == NoOpInliner.INSTANCE) {
+                    return null;
+                }
+                return this.lastInliner;
+            }
+        }
+        return null;
+    }
+
+
+    public void setInliner(final IInliner inliner) {
+        // We use NoOpInliner.INSTANCE in order to signal when inlining has actually been disabled
+        this.lastInliner = (inliner == null? NoOpInliner.INSTANCE : inliner);
+        this.inliners[this.level] = this.lastInliner;
+    }
+
+
+
+
+    public TemplateData getTemplateData() {
+        if (this.lastTemplateData != null) {
+            return this.lastTemplateData;
+        }
+        int n = this.level + 1;
+        while (n-- != 0) {
+            if (this.templateDatas[n] != null) {
+                this.lastTemplateData = this.templateDatas[n];
+                return this.lastTemplateData;
+            }
+        }
+        return null;
+    }
+
+
+    public void setTemplateData(final TemplateData templateData) {
+        Validate.notNull(templateData, "Template Data cannot be null");
+        this.lastTemplateData = templateData;
+        this.templateDatas[this.level] = this.lastTemplateData;
+    }
+
+
+
+
+    public List<TemplateData> getTemplateStack() {
+        final List<TemplateData> templateStack = new ArrayList<TemplateData>(4);
+        for (int i = 0; i <= this.level; i++) {
+            if (this.templateDatas[i] != null) {
+                templateStack.add(this.templateDatas[i]);
+            }
+        }
+        return Collections.unmodifiableList(templateStack);
+    }
+
+
+
+
+    public void setElementTag(final IProcessableElementTag elementTag) {
+        if (this.elementTags.length <= this.level) {
+            this.elementTags = Arrays.copyOf(this.elementTags, Math.max(this.level + 1, this.elementTags.length + DEFAULT_ELEMENT_HIERARCHY_SIZE));
+        }
+        this.elementTags[this.level] = elementTag;
+    }
+
+
+
+
+    public List<IProcessableElementTag> getElementStack() {
+        return getElementStackAbove(-1);
+    }
+
+
+    public List<IProcessableElementTag> getElementStackAbove(final int contextLevel) {
+        final List<IProcessableElementTag> elementStack = new ArrayList<IProcessableElementTag>(this.level);
+        for (int i = contextLevel + 1; i <= this.level && i < this.elementTags.length; i++) {
+            if (this.elementTags[i] != null) {
+                elementStack.add(this.elementTags[i]);
+            }
+        }
+        return Collections.unmodifiableList(elementStack);
+    }
+
+
+
+
+    public int level() {
+        return this.level;
+    }
+
+
+    public void increaseLevel() {
+
+        this.level++;
+
+        if (this.selectionTargets.length == this.level) {
+            final int newLength = this.selectionTargets.length + DEFAULT_LEVELS_SIZE;
+            this.selectionTargets = Arrays.copyOf(this.selectionTargets, newLength);
+            this.inliners = Arrays.copyOf(this.inliners, newLength);
+            this.templateDatas = Arrays.copyOf(this.templateDatas, newLength);
+            this.journalStarts = Arrays.copyOf(this.journalStarts, newLength);
+        }
+
+        this.journalStarts[this.level] = this.journalSize;
+
+    }
+
+
+    public void decreaseLevel() {
+
+        Validate.isTrue(this.level > 0, "Cannot decrease variable map level below 0");
+
+        // Restore all the values overwritten at this level, in reverse order
+        final int journalStart = this.journalStarts[this.level];
+        while (this.journalSize > journalStart) {
+            this.journalSize--;
+            final int slot = this.journalSlots[this.journalSize];
+            this.values[slot] = this.journalValues[this.journalSize];
+            this.valueLevels[slot] = this.journalValueLevels[this.journalSize];
+            this.journalValues[this.journalSize] = null;
+        }
+
+        if (this.selectionTargets[this.level] != null) {
+            this.selectionTargets[this.level] = null;
+            this.lastSelectionTarget = null;
+        }
+        if (this.inliners[this.level] != null) {
+            this.inliners[this.level] = null;
+            this.lastInliner = null;
+        }
+        if (this.templateDatas[this.level] != null) {
+            this.templateDatas[this.level] = null;
+            this.lastTemplateData = null;
+        }
+
+        if (this.level < this.elementTags.length) {
+            this.elementTags[this.level] = null;
+        }
+
+        this.level--;
+
+    }
+
+
+
+
+    public String getStringRepresentationByLevel() {
+
+        final List<Map<String,Object>> variablesByLevel = computeVariablesByLevel();
+
+        final StringBuilder strBuilder = new StringBuilder();
+        strBuilder.append('{');
+        int n = this.level + 1;
+        while (n-- != 0) {
+            final Map<String,Object> levelVars = new LinkedHashMap<String, Object>();
+            for (final Map.Entry<String,Object> entry : variablesByLevel.get(n).entrySet()) {
+                if (entry.getValue() == ABSENT) {
+                    // We only have to add this if it is really removing anything
+                    int n2 = n;
+                    while (n2-- != 0) {
+                        if (variablesByLevel.get(n2).containsKey(entry.getKey())) {
+                            if (variablesByLevel.get(n2).get(entry.getKey()) != ABSENT) {
+                                levelVars.put(entry.getKey(), entry.getValue());
+                            }
+                            break;
+                        }
+                    }
+                    continue;
+                }
+                levelVars.put(entry.getKey(), entry.getValue());
+            }
+            if (n == 0 || !levelVars.isEmpty() || this.selectionTargets[n] != null || this.inliners[n] != null || this.templateDatas[n] != null) {
+                if (strBuilder.length() > 1) {
+                    strBuilder.append(',');
+                }
+                strBuilder.append(n).append(":");
+                if (!levelVars.isEmpty() || n == 0) {
+                    strBuilder.append(levelVars);
+                }
+                if (this.selectionTargets[n] != null) {
+                    strBuilder.append("<").append(this.selectionTargets[n].selectionTarget).append(">");
+                }
+                if (this.inliners[n] != null) {
+                    strBuilder.append("[").append(this.inliners[n].getName()).append("]");
+                }
+                if (this.templateDatas[n] != null) {
+                    strBuilder.append("(").append(this.templateDatas[n].getTemplate()).append(")");
+                }
+            }
+        }
+        strBuilder.append("}[");
+        strBuilder.append(this.level);
+        strBuilder.append(']');
+        return strBuilder.toString();
+
+    }
+
+
+
+
+    @Override
+    public String toString() {
+
+        final List<Map<String,Object>> variablesByLevel = computeVariablesByLevel();
+
+        final Map<String,Object> equivalentMap = new LinkedHashMap<String, Object>();
+        for (int i = 0; i <= this.level; i++) {
+            for (final Map.Entry<String,Object> entry : variablesByLevel.get(i).entrySet()) {
+                if (entry.getValue() == ABSENT) {
+                    equivalentMap.remove(entry.getKey());
+                    continue;
+                }
+                equivalentMap.put(entry.getKey(), entry.getValue());
+            }
+        }
+        final String textInliningStr = (getInliner() != null? "[" + getInliner().getName() + "]" : "" );
+        final String templateDataStr = "(" + getTemplateData().getTemplate() + ")";
+        return equivalentMap.toString() + (hasSelectionTarget()? "<" + getSelectionTarget() + ">" : "") + textInliningStr + templateDataStr;
+
+    }
+
+
+    /*
+     * Rebuilds the variables set at each level (sorted by name) from the table and the journal. Only used for
+     * building String representations, so performance is not a concern here.
+     */
+    private List<Map<String,Object>> computeVariablesByLevel() {
+        final List<Map<String,Object>> variablesByLevel = new ArrayList<Map<String, Object>>(this.level + 1);
+        for (int i = 0; i <= this.level; i++) {
+            variablesByLevel.add(new TreeMap<String, Object>());
+        }
+        for (int i = 0; i < this.names.length; i++) {
+            if (this.names[i] != null) {
+                addLevelVariable(variablesByLevel, this.valueLevels[i], this.names[i], this.values[i]);
+            }
+        }
+        for (int i = 0; i < this.journalSize; i++) {
+            final int slot = this.journalSlots[i];
+            addLevelVariable(variablesByLevel, this.journalValueLevels[i], this.names[slot], this.journalValues[i]);
+        }
+        return variablesByLevel;
+    }
+
+
+    private static void addLevelVariable(
+            final List<Map<String,Object>> variablesByLevel, final int level, final String name, final Object value) {
+        // Variables never set, or removed from level 0, simply do not exist
+        if (level < 0 || (level == 0 && value == ABSENT)) {
+            return;
+        }
+        variablesByLevel.get(level).put(name, value);
+    }
+
+
+
+
+    private int findSlot(final String name) {
+        if (name == null) {
+            return -1;
+        }
+        final String[] tableNames = this.names;
+        final int mask = tableNames.length - 1;
+        int i = hash(name) & mask;
+        String tableName;
+        while ((tableName = tableNames[i]) != null) {
+            if (tableName == name || tableName.equals(name)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+
+    private int findOrCreateSlot(final String name) {
+        final int mask = this.names.length - 1;
+        int i = hash(name) & mask;
+        String tableName;
+        while ((tableName = this.names[i]) != null) {
+            if (tableName == name || tableName.equals(name)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        this.names[i] = name;
+        this.values[i] = ABSENT;
+        this.valueLevels[i] = -1;
+        this.size++;
+        if (this.size > this.threshold) {
+            grow();
+            return findSlot(name);
+        }
+        return i;
+    }
+
+
+    private void grow() {
+
+        final String[] oldNames = this.names;
+        final Object[] oldValues = this.values;
+        final int[] oldValueLevels = this.valueLevels;
+
+        final int newLength = oldNames.length << 1;
+        final int mask = newLength - 1;
+        this.names = new String[newLength];
+        this.values = new Object[newLength];
+        this.valueLevels = new int[newLength];
+        this.threshold = newLength * 3 / 4;
+
+        // Slots change, so we need to know the new slot of each variable in order to update the journal
+        final int[] newSlots = new int[oldNames.length];
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] != null) {
+                int j = hash(oldNames[i]) & mask;
+                while (this.names[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                this.names[j] = oldNames[i];
+                this.values[j] = oldValues[i];
+                this.valueLevels[j] = oldValueLevels[i];
+                newSlots[i] = j;
+            }
+        }
+        for (int i = 0; i < this.journalSize; i++) {
+            this.journalSlots[i] = newSlots[this.journalSlots[i]];
+        }
+
+    }
+
+
+    private void journal(final int slot) {
+        if (this.journalSize == this.journalSlots.length) {
+            final int newLength = this.journalSlots.length << 1;
+            this.journalSlots = Arrays.copyOf(this.journalSlots, newLength);
+            this.journalValues = Arrays.copyOf(this.journalValues, newLength);
+            this.journalValueLevels = Arrays.copyOf(this.journalValueLevels, newLength);
+        }
+        this.journalSlots[this.journalSize] = slot;
+        this.journalValues[this.journalSize] = this.values[slot];
+        this.journalValueLevels[this.journalSize] = this.valueLevels[slot];
+        this.journalSize++;
+    }
+
+
+    private static int hash(final String name) {
+        final int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+
+
+
+    private static Object resolveLazy(final Object variable) {
+        /*
+         * Check the possibility that this variable is a lazy one, in which case we should not return it directly
+         * but instead make sure it is initialized and return its value.
+         */
+        if (variable != null && variable instanceof ILazyContextVariable) {
+            return ((ILazyContextVariable)variable).getValue();
+        }
+        return variable;
+    }
+
+
+
+    /*
+     * This class works as a wrapper for the selection target, in order to differentiate whether we
+     * have set a selection target, we have not, or we have set it but it's null
+     */
+    private static final class SelectionTarget {
+
+        final Object selectionTarget;
+
+        SelectionTarget(final Object selectionTarget) {
+            super();
+            this.selectionTarget = selectionTarget;
+        }
+
+    }
+
+
+}
@@ -0,0 +1,91 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.context;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.thymeleaf.exceptions.TemplateProcessingException;
+
+/**
+ * <p>
+ *   Interface to be implemented by lazy context variables whose value can be loaded asynchronously.
+ * </p>
+ * <p>
+ *   Before a template is processed, the template engine will start loading the asynchronous lazy variables that
+ *   are referenced by name from expressions in the template, so that all of them are loaded concurrently while
+ *   the template is processed. Expressions using them will only block (if they have not finished loading yet)
+ *   when they are first resolved, in the same way as any other {@link ILazyContextVariable}.
+ * </p>
+ * <p>
+ *   Same as lazy variables, this <em>prefetching</em> is only performed on <strong>first-level</strong>
+ *   variables added to the context. Also note variables will be prefetched if they are referenced from the
+ *   template, even if the expressions referencing them end up not being executed (e.g. because of a
+ *   {@code th:if}).
+ * </p>
+ * <p>
+ *   The {@link AsyncLazyContextVariable} abstract class contains a sensible implementation of this interface, best
+ *   suited to be used for extension than the bare interface, in most cases.
+ * </p>
+ *
+ * @param <T> the type of the value being returned by this variable
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public interface IAsyncLazyContextVariable<T> extends ILazyContextVariable<T> {
+
+    /**
+     * <p>
+     *   Returns a future for the variable value, starting to load it if this has not been done yet.
+     * </p>
+     * <p>
+     *   This method might be called more than once (even concurrently), and should always return a future for the
+     *   same single load operation.
+     * </p>
+     *
+     * @return the future variable value
+     */
+    public CompletableFuture<T> getValueAsync();
+
+
+    /**
+     * <p>
+     *   Returns the variable value, waiting for it to be loaded if needed.
+     * </p>
+     *
+     * @return the variable value
+     */
+    @Override
+    public default T getValue() {
+        try {
+            return getValueAsync().join();
+        } catch (final CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new TemplateProcessingException("Error loading the value of an asynchronous lazy variable", cause);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.context;
+
+/**
+ * <p>
+ *   Interface to be implemented by context variables holding state that belongs to the template execution using
+ *   them, and which therefore cannot be shared with a different template execution running at the same time.
+ * </p>
+ * <p>
+ *   Fragments rendered in parallel ({@code th:parallel}) are executed by other threads on a copy of the variables
+ *   of the context at the insertion point. When such copy is made, variables implementing this interface are
+ *   replaced by the result of calling {@link #detach()} on them.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public interface IDetachableContextVariable {
+
+    /**
+     * <p>
+     *   Returns an object equivalent to this variable that can be used by a template execution running in a
+     *   different thread, independently of the template execution using this object.
+     * </p>
+     *
+     * @return the detached variable value
+     */
+    public Object detach();
+
+}
@@ -184,6 +184,24 @@ public interface IEngineContext extends ITemplateContext {
      */
     public boolean isVariableLocal(final String name);
 
+    /**
+     * <p>
+     *   Returns the value of a variable without resolving it if it is an {@link ILazyContextVariable}, in which case
+     *   the lazy variable object itself is returned. This allows copying the variables into a different context
+     *   without forcing the resolution of lazy variables that might never be used.
+     * </p>
+     * <p>
+     *   Default implementation simply calls {@link #getVariable(String)}, and therefore resolves lazy variables.
+     * </p>
+     *
+     * @param name the name of the variable to be retrieved.
+     * @return the value of the variable, or {@code null} if the variable is not defined.
+     * @since 3.1.3
+     */
+    public default Object getUnresolvedVariable(final String name) {
+        return getVariable(name);
+    }
+
     /**
      * <p>
      *   Increase the <em>context level</em>. This is usually a consequence of the
@@ -88,4 +88,27 @@ public IEngineContext createEngineContext(
             final Map<String, Object> templateResolutionAttributes, final IContext context);
 
 
+    /**
+     * <p>
+     *   Releases an {@link IEngineContext} previously created by this factory once the engine has finished
+     *   processing the template it was created for, so that the factory can reuse it for future executions.
+     * </p>
+     * <p>
+     *   This method will only be called if engine context pooling has been enabled at the Template Engine
+     *   (see {@link org.thymeleaf.TemplateEngine#setEngineContextPoolingEnabled(boolean)}), and only for
+     *   engine contexts created by the engine itself during non-throttled executions. The engine will not
+     *   use the released engine context anymore after calling this method.
+     * </p>
+     * <p>
+     *   Default implementation does nothing.
+     * </p>
+     *
+     * @param engineContext the engine context to be released.
+     * @since 3.1.3
+     */
+    public default void releaseEngineContext(final IEngineContext engineContext) {
+        // Nothing to do by default
+    }
+
+
 }
@@ -21,6 +21,7 @@
 
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -41,6 +42,12 @@
  * <p>
  *   This is the default factory implementation used by {@link org.thymeleaf.TemplateEngine}.
  * </p>
+ * <p>
+ *   Since 3.1.3, this factory can be configured to return {@link FlatEngineContext} instances instead of
+ *   {@link EngineContext} for non-web contexts (see {@link #StandardEngineContextFactory(boolean)}). Also,
+ *   non-web engine contexts released by the engine (see {@link #releaseEngineContext(IEngineContext)}) are
+ *   kept in a small bounded pool and reused instead of creating new ones.
+ * </p>
  *
  * @author Daniel Fern&aacute;ndez
  *
@@ -49,11 +56,46 @@
  */
 public final class StandardEngineContextFactory implements IEngineContextFactory {
 
+    private static final int ENGINE_CONTEXT_POOL_SIZE = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    private final boolean flatEngineContexts;
+    private final EngineContextPool engineContextPool;
 
 
 
     public StandardEngineContextFactory() {
+        this(false);
+    }
+
+
+    /**
+     * <p>
+     *   Creates a new instance of this factory, specifying the implementation of {@link IEngineContext} to be
+     *   used for non-web contexts.
+     * </p>
+     *
+     * @param flatEngineContexts whether {@link FlatEngineContext} instances (a flat variable table, optimized
+     *                           for templates with many local variables at deep nesting levels) should be
+     *                           created instead of {@link EngineContext} instances (a map per level).
+     * @since 3.1.3
+     */
+    public StandardEngineContextFactory(final boolean flatEngineContexts) {
         super();
+        this.flatEngineContexts = flatEngineContexts;
+        this.engineContextPool = new EngineContextPool(ENGINE_CONTEXT_POOL_SIZE);
+    }
+
+
+    /**
+     * <p>
+     *   Returns whether this factory creates {@link FlatEngineContext} instances for non-web contexts.
+     * </p>
+     *
+     * @return whether flat engine contexts are created.
+     * @since 3.1.3
+     */
+    public boolean isFlatEngineContexts() {
+        return this.flatEngineContexts;
     }
 
 
@@ -79,7 +121,7 @@ public IEngineContext createEngineContext(
                         webContext.getExchange(),
                         webContext.getLocale(), Collections.EMPTY_MAP);
             }
-            return new EngineContext(
+            return createEngineContext(
                     configuration, templateData, templateResolutionAttributes,
                     context.getLocale(), Collections.EMPTY_MAP);
         }
@@ -96,11 +138,95 @@ public IEngineContext createEngineContext(
                     webContext.getLocale(), variables);
         }
 
-        return new EngineContext(
+        return createEngineContext(
                 configuration, templateData, templateResolutionAttributes,
                 context.getLocale(), variables);
 
     }
 
 
+    @Override
+    public void releaseEngineContext(final IEngineContext engineContext) {
+        if (engineContext == null || engineContext.level() != 0) {
+            return;
+        }
+        // Only instances of exactly the class this factory creates are pooled
+        if (this.flatEngineContexts) {
+            if (engineContext.getClass() == FlatEngineContext.class) {
+                ((FlatEngineContext) engineContext).clear();
+                this.engineContextPool.release(engineContext);
+            }
+        } else {
+            if (engineContext.getClass() == EngineContext.class) {
+                ((EngineContext) engineContext).clear();
+                this.engineContextPool.release(engineContext);
+            }
+        }
+    }
+
+
+
+
+    private IEngineContext createEngineContext(
+            final IEngineConfiguration configuration, final TemplateData templateData,
+            final Map<String, Object> templateResolutionAttributes,
+            final Locale locale, final Map<String,Object> variables) {
+
+        final IEngineContext pooled = this.engineContextPool.allocate();
+
+        if (this.flatEngineContexts) {
+            if (pooled != null) {
+                ((FlatEngineContext) pooled).reinitialize(
+                        configuration, templateData, templateResolutionAttributes, locale, variables);
+                return pooled;
+            }
+            return new FlatEngineContext(configuration, templateData, templateResolutionAttributes, locale, variables);
+        }
+
+        if (pooled != null) {
+            ((EngineContext) pooled).reinitialize(
+                    configuration, templateData, templateResolutionAttributes, locale, variables);
+            return pooled;
+        }
+        return new EngineContext(configuration, templateData, templateResolutionAttributes, locale, variables);
+
+    }
+
+
+
+
+    /*
+     * Bounded pool of released engine contexts. It never blocks: if no pooled engine contexts are available a new
+     * one is created, and engine contexts released when the pool is full are simply discarded. Critical sections
+     * are minimal and never block inside, so this is also safe to use from virtual threads.
+     */
+    private static final class EngineContextPool {
+
+        private final IEngineContext[] pool;
+        private int size;
+
+        private EngineContextPool(final int poolSize) {
+            super();
+            this.pool = new IEngineContext[poolSize];
+            this.size = 0;
+        }
+
+        private synchronized IEngineContext allocate() {
+            if (this.size == 0) {
+                return null;
+            }
+            final IEngineContext engineContext = this.pool[--this.size];
+            this.pool[this.size] = null;
+            return engineContext;
+        }
+
+        private synchronized void release(final IEngineContext engineContext) {
+            if (this.size < this.pool.length) {
+                this.pool[this.size++] = engineContext;
+            }
+        }
+
+    }
+
+
 }
@@ -169,6 +169,20 @@ public Object getVariable(final String key) {
     }
 
 
+    public Object getUnresolvedVariable(final String key) {
+        if (SESSION_VARIABLE_NAME.equals(key)) {
+            return this.sessionAttributeMap;
+        }
+        if (PARAM_VARIABLE_NAME.equals(key)) {
+            return this.requestParameterMap;
+        }
+        if (APPLICATION_VARIABLE_NAME.equals(key)) {
+            return this.applicationAttributeMap;
+        }
+        return this.exchangeAttributeMap.getUnresolvedVariable(key);
+    }
+
+
     public Set<String> getVariableNames() {
         // Note this set will NOT include 'param', 'session' or 'application', as they are considered special
         // ways to access attributes/parameters in these Servlet API structures
@@ -654,6 +668,11 @@ public Object getVariable(final String name) {
         }
 
 
+        public Object getUnresolvedVariable(final String name) {
+            return this.webExchange.getAttributeValue(name);
+        }
+
+
         public Set<String> getVariableNames() {
             return this.webExchange.getAllAttributeNames();
         }
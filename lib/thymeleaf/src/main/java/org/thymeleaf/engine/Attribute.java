@@ -55,6 +55,7 @@ final class Attribute implements IAttribute {
     final int col;
 
     private volatile IStandardExpression standardExpression = null;
+    private volatile CachedOutput cachedOutput = null;
 
 
 
@@ -148,6 +149,16 @@ void setCachedStandardExpression(final IStandardExpression standardExpression) {
     }
 
 
+    Object getCachedOutput(final Object owner) {
+        final CachedOutput output = this.cachedOutput;
+        return (output != null && output.owner == owner ? output.output : null);
+    }
+
+    void setCachedOutput(final Object owner, final Object output) {
+        this.cachedOutput = new CachedOutput(owner, output);
+    }
+
+
 
     /*
      * This method allows the easy creation of instances derivate from this one but keeping some specific fields
@@ -223,4 +234,23 @@ public String toString() {
 
 
 
+
+
+
+    /*
+     * Output computed by a processor (the owner) from a context-independent expression in this attribute
+     */
+    private static final class CachedOutput {
+
+        final Object owner;
+        final Object output;
+
+        CachedOutput(final Object owner, final Object output) {
+            super();
+            this.owner = owner;
+            this.output = output;
+        }
+
+    }
+
 }
@@ -0,0 +1,151 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.thymeleaf.web.IWebApplication;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.IWebRequest;
+import org.thymeleaf.web.IWebSession;
+
+/*
+ * Web exchange used for rendering fragments in parallel (th:parallel) from a web context.
+ *
+ * Web engine contexts store their variables as exchange attributes, so fragments rendered in other threads cannot
+ * directly use the original exchange: they would be modifying (and reading) the attributes of the exchange being
+ * used for the rest of the template at the same time. This exchange delegates everything to the original one
+ * except for its attributes, which are a private copy of the variables of the context at the insertion point.
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+final class DetachedWebExchange implements IWebExchange {
+
+    private final IWebExchange webExchange;
+    private final Map<String,Object> attributes;
+
+
+
+    DetachedWebExchange(final IWebExchange webExchange, final Map<String,Object> attributes) {
+        super();
+        this.webExchange = webExchange;
+        this.attributes = new LinkedHashMap<String, Object>(attributes);
+    }
+
+
+
+
+    public IWebRequest getRequest() {
+        return this.webExchange.getRequest();
+    }
+
+
+    public IWebSession getSession() {
+        return this.webExchange.getSession();
+    }
+
+
+    public IWebApplication getApplication() {
+        return this.webExchange.getApplication();
+    }
+
+
+    @Override
+    public boolean hasSession() {
+        return this.webExchange.hasSession();
+    }
+
+
+    public Principal getPrincipal() {
+        return this.webExchange.getPrincipal();
+    }
+
+
+    public Locale getLocale() {
+        return this.webExchange.getLocale();
+    }
+
+
+    public String getContentType() {
+        return this.webExchange.getContentType();
+    }
+
+
+    public String getCharacterEncoding() {
+        return this.webExchange.getCharacterEncoding();
+    }
+
+
+
+
+    public boolean containsAttribute(final String name) {
+        return this.attributes.containsKey(name);
+    }
+
+
+    public int getAttributeCount() {
+        return this.attributes.size();
+    }
+
+
+    public Set<String> getAllAttributeNames() {
+        return Collections.unmodifiableSet(this.attributes.keySet());
+    }
+
+
+    public Map<String, Object> getAttributeMap() {
+        return Collections.unmodifiableMap(this.attributes);
+    }
+
+
+    public Object getAttributeValue(final String name) {
+        return this.attributes.get(name);
+    }
+
+
+    public void setAttributeValue(final String name, final Object value) {
+        // Same as in the Servlet API, setting a null value is equivalent to removing the attribute
+        if (value == null) {
+            this.attributes.remove(name);
+            return;
+        }
+        this.attributes.put(name, value);
+    }
+
+
+    public void removeAttribute(final String name) {
+        this.attributes.remove(name);
+    }
+
+
+
+
+    public String transformURL(final String url) {
+        return this.webExchange.transformURL(url);
+    }
+
+
+}
@@ -19,11 +19,16 @@
  */
 package org.thymeleaf.engine;
 
+import org.thymeleaf.context.IExpressionContext;
 import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.exceptions.TemplateProcessingException;
 import org.thymeleaf.model.ICDATASection;
 import org.thymeleaf.model.IComment;
 import org.thymeleaf.model.IProcessableElementTag;
 import org.thymeleaf.model.IText;
+import org.thymeleaf.standard.expression.AssignationUtils;
+import org.thymeleaf.standard.expression.EachUtils;
+import org.thymeleaf.standard.expression.Expression;
 import org.thymeleaf.standard.expression.FragmentExpression;
 import org.thymeleaf.standard.expression.IStandardExpression;
 import org.thymeleaf.standard.expression.IStandardExpressionParser;
@@ -215,6 +220,66 @@ public static IStandardExpression computeAttributeExpression(
     }
 
 
+    /*
+     * Returns whether the expression in the specified attribute has been parsed and cached in the Attribute object
+     * (so that it does not require preprocessing) and it is context-independent, i.e. whether any output computed
+     * from the result of its execution can be cached by means of cacheAttributeOutput(...).
+     */
+    public static boolean isContextIndependentAttributeExpression(
+            final IProcessableElementTag tag, final AttributeName attributeName) {
+
+        if (!(tag instanceof AbstractProcessableElementTag)) {
+            return false;
+        }
+
+        final Attribute attribute = (Attribute) ((AbstractProcessableElementTag)tag).getAttribute(attributeName);
+        if (attribute == null) {
+            return false;
+        }
+
+        final IStandardExpression expression = attribute.getCachedStandardExpression();
+        return (expression instanceof Expression && ((Expression) expression).isContextIndependent());
+
+    }
+
+
+    /*
+     * Returns the output cached by the specified processor (owner) for an attribute with a context-independent
+     * expression by means of cacheAttributeOutput(...), or null if there is none.
+     */
+    public static Object getCachedAttributeOutput(
+            final IProcessableElementTag tag, final AttributeName attributeName, final Object owner) {
+
+        if (!(tag instanceof AbstractProcessableElementTag)) {
+            return null;
+        }
+
+        final Attribute attribute = (Attribute) ((AbstractProcessableElementTag)tag).getAttribute(attributeName);
+        return (attribute == null ? null : attribute.getCachedOutput(owner));
+
+    }
+
+
+    /*
+     * Caches in the Attribute object itself the output computed by a processor (owner) from the result of executing
+     * its expression, so that it can be reused in later executions of the same (cached) template. This is only
+     * done if the expression has been cached in the attribute (so that it does not require preprocessing) and it
+     * is context-independent. Returns whether the output has been cached.
+     */
+    public static boolean cacheAttributeOutput(
+            final IProcessableElementTag tag, final AttributeName attributeName, final Object owner, final Object output) {
+
+        if (output == null || !isContextIndependentAttributeExpression(tag, attributeName)) {
+            return false;
+        }
+
+        final Attribute attribute = (Attribute) ((AbstractProcessableElementTag)tag).getAttribute(attributeName);
+        attribute.setCachedOutput(owner, output);
+        return true;
+
+    }
+
+
     private static IStandardExpression parseAttributeExpression(final ITemplateContext context, final String attributeValue) {
         final IStandardExpressionParser expressionParser = StandardExpressions.getExpressionParser(context.getConfiguration());
         return expressionParser.parseExpression(context, attributeValue);
@@ -222,6 +287,76 @@ private static IStandardExpression parseAttributeExpression(final ITemplateConte
 
 
 
+
+    /*
+     * Parses in advance the expressions in the attributes of all the processable elements in a template model, so
+     * that they are available in the expression cache (and in the Attribute objects themselves, as done by
+     * computeAttributeExpression(...)) before the template is processed for the first time. This is meant for
+     * warming up caches.
+     *
+     * Only attributes with associated processors are considered, and attributes that need preprocessing (_) are
+     * skipped because their expressions depend on the context. Values that cannot be parsed as a Standard Expression
+     * are ignored, except for the "each" and "with" attributes which are parsed with their specific syntaxes.
+     *
+     * Returns the number of attribute values successfully parsed.
+     */
+    public static int computeAttributeExpressions(final IExpressionContext context, final TemplateModel templateModel) {
+
+        final Object parser =
+                context.getConfiguration().getExecutionAttributes().get(StandardExpressions.STANDARD_EXPRESSION_PARSER_ATTRIBUTE_NAME);
+        if (!(parser instanceof IStandardExpressionParser)) {
+            // No Standard Expressions in this configuration, so nothing to compute
+            return 0;
+        }
+        final IStandardExpressionParser expressionParser = (IStandardExpressionParser) parser;
+
+        int count = 0;
+        for (final IEngineTemplateEvent event : templateModel.queue) {
+
+            if (!(event instanceof AbstractProcessableElementTag)) {
+                continue;
+            }
+
+            final Attributes attributes = ((AbstractProcessableElementTag) event).attributes;
+            if (attributes == null || attributes.attributes == null) {
+                continue;
+            }
+
+            for (final Attribute attribute : attributes.attributes) {
+
+                final String attributeValue = attribute.value;
+                if (attributeValue == null || !attribute.definition.hasAssociatedProcessors() ||
+                        attributeValue.indexOf('_') >= 0 || attribute.getCachedStandardExpression() != null) {
+                    continue;
+                }
+
+                final String attributeName = attribute.definition.getAttributeName().getAttributeName();
+                try {
+                    if ("each".equals(attributeName)) {
+                        EachUtils.parseEach(context, attributeValue);
+                    } else if ("with".equals(attributeName)) {
+                        AssignationUtils.parseAssignationSequence(context, attributeValue, false);
+                    } else {
+                        final IStandardExpression expression = expressionParser.parseExpression(context, attributeValue);
+                        if (expression != null && !(expression instanceof FragmentExpression)) {
+                            attribute.setCachedStandardExpression(expression);
+                        }
+                    }
+                    count++;
+                } catch (final TemplateProcessingException ignored) {
+                    // Not an expression (or not one with the expected syntax): nothing to compute in advance
+                }
+
+            }
+
+        }
+
+        return count;
+
+    }
+
+
+
     private EngineEventUtils() {
         super();
     }
@@ -0,0 +1,47 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/*
+ * Interface implemented by engine writers that write to byte-based outputs and are able to directly copy content
+ * that has already been encoded in their output charset (e.g. the pre-rendered static segments of compiled
+ * template models), instead of encoding it again.
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+interface IPreEncodedContentWriter {
+
+    /*
+     * Returns the charset pre-encoded content should be encoded with, or null if the writer is not
+     * accepting pre-encoded content at the moment.
+     */
+    Charset getPreEncodedCharset();
+
+    /*
+     * Writes the specified bytes directly to output. Returns false if the bytes could not be written
+     * (in which case the content should be written as chars instead).
+     */
+    boolean writePreEncoded(final byte[] bytes) throws IOException;
+
+}
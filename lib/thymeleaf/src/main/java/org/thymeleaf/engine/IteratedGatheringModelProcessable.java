@@ -19,12 +19,16 @@
  */
 package org.thymeleaf.engine;
 
-import java.lang.reflect.Array;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.thymeleaf.IEngineConfiguration;
@@ -93,7 +97,7 @@ enum IterationWhiteSpaceHandling {ZERO_ITER, SINGLE_ITER, MULTIPLE_ITER}
 
         this.iterStatusVariable = new IterationStatusVar();
         this.iterStatusVariable.index = 0;
-        this.iterStatusVariable.size = computeIteratedObjectSize(iteratedObject);
+        this.iterStatusVariable.size = computeIteratedObjectSize(iteratedObject, this.iterator);
 
         this.precedingWhitespace = precedingWhitespace;
 
@@ -407,7 +411,7 @@ private boolean processIterationModel(final TemplateFlowController flowControlle
      * to compute this size without traversing the entire collection/iterator (which we want to avoid), so
      * null will be returned.
      */
-    private static Integer computeIteratedObjectSize(final Object iteratedObject) {
+    private static Integer computeIteratedObjectSize(final Object iteratedObject, final Iterator<?> iterator) {
         if (iteratedObject == null) {
             return Integer.valueOf(0);
         }
@@ -418,7 +422,7 @@ private static Integer computeIteratedObjectSize(final Object iteratedObject) {
             return Integer.valueOf(((Map<?, ?>) iteratedObject).size());
         }
         if (iteratedObject.getClass().isArray()) {
-            return Integer.valueOf(Array.getLength(iteratedObject));
+            return Integer.valueOf(((AbstractArrayIterator) iterator).length);
         }
         if (iteratedObject instanceof Iterable<?>) {
             return null; // Cannot determine before actually iterating
@@ -426,6 +430,10 @@ private static Integer computeIteratedObjectSize(final Object iteratedObject) {
         if (iteratedObject instanceof Iterator<?>) {
             return null; // Cannot determine before actually iterating
         }
+        if (iterator instanceof SpliteratorIterator) {
+            // Will be known only if the spliterator reports SIZED (and is not bigger than what we can count)
+            return ((SpliteratorIterator) iterator).size;
+        }
         return Integer.valueOf(1); // In this case, we will iterate the object as a collection of size 1
     }
 
@@ -434,37 +442,28 @@ private static Integer computeIteratedObjectSize(final Object iteratedObject) {
 
     /*
      * Creates, from the iterated object (e.g. right part of a th:each expression), the iterator that will be used.
+     *
+     * Arrays (both of objects and primitives) and random-access lists are iterated by index, so that no
+     * reflection is needed for arrays and no iterator object needs to be created by the lists. Streams and
+     * spliterators are iterated by means of their spliterator, so that their size can be known in advance
+     * whenever they are SIZED (e.g. a spliterator-based source that retrieves a large result set in pages, but
+     * knows its total size beforehand).
      */
     private static Iterator<?> computeIteratedObjectIterator(final Object iteratedObject) {
         if (iteratedObject == null) {
             return Collections.EMPTY_LIST.iterator();
         }
         if (iteratedObject instanceof Collection<?>) {
+            if (iteratedObject instanceof List<?> && iteratedObject instanceof RandomAccess) {
+                return new RandomAccessListIterator((List<?>) iteratedObject);
+            }
             return ((Collection<?>)iteratedObject).iterator();
         }
         if (iteratedObject instanceof Map<?,?>) {
             return ((Map<?,?>)iteratedObject).entrySet().iterator();
         }
         if (iteratedObject.getClass().isArray()) {
-            return new Iterator<Object>() {
-
-                protected final Object array = iteratedObject;
-                protected final int length = Array.getLength(this.array);
-                private int i = 0;
-
-                public boolean hasNext() {
-                    return this.i < this.length;
-                }
-
-                public Object next() {
-                    return Array.get(this.array, i++);
-                }
-
-                public void remove() {
-                    throw new UnsupportedOperationException("Cannot remove from an array iterator");
-                }
-
-            };
+            return computeArrayIterator(iteratedObject);
         }
         if (iteratedObject instanceof Iterable<?>) {
             return ((Iterable<?>)iteratedObject).iterator();
@@ -493,7 +492,10 @@ public void remove() {
             };
         }
         if (iteratedObject instanceof Stream<?>) {
-            return ((Stream<?>)iteratedObject).iterator();
+            return new SpliteratorIterator(((Stream<?>)iteratedObject).spliterator());
+        }
+        if (iteratedObject instanceof Spliterator<?>) {
+            return new SpliteratorIterator((Spliterator<?>)iteratedObject);
         }
         return Collections.singletonList(iteratedObject).iterator();
     }
@@ -501,6 +503,288 @@ public void remove() {
 
 
 
+    private static AbstractArrayIterator computeArrayIterator(final Object array) {
+        if (array instanceof Object[]) {
+            return new ObjectArrayIterator((Object[]) array);
+        }
+        if (array instanceof int[]) {
+            return new IntArrayIterator((int[]) array);
+        }
+        if (array instanceof long[]) {
+            return new LongArrayIterator((long[]) array);
+        }
+        if (array instanceof double[]) {
+            return new DoubleArrayIterator((double[]) array);
+        }
+        if (array instanceof float[]) {
+            return new FloatArrayIterator((float[]) array);
+        }
+        if (array instanceof short[]) {
+            return new ShortArrayIterator((short[]) array);
+        }
+        if (array instanceof byte[]) {
+            return new ByteArrayIterator((byte[]) array);
+        }
+        if (array instanceof char[]) {
+            return new CharArrayIterator((char[]) array);
+        }
+        return new BooleanArrayIterator((boolean[]) array);
+    }
+
+
+
+
+    private abstract static class AbstractIndexedIterator implements Iterator<Object> {
+
+        final int length;
+        int i = 0;
+
+        AbstractIndexedIterator(final int length) {
+            super();
+            this.length = length;
+        }
+
+        public final boolean hasNext() {
+            return this.i < this.length;
+        }
+
+        public final Object next() {
+            if (this.i >= this.length) {
+                throw new NoSuchElementException();
+            }
+            return get(this.i++);
+        }
+
+        abstract Object get(final int index);
+
+        public final void remove() {
+            throw new UnsupportedOperationException("Cannot remove from an indexed iteration");
+        }
+
+    }
+
+
+    private static final class RandomAccessListIterator extends AbstractIndexedIterator {
+
+        private final List<?> list;
+
+        RandomAccessListIterator(final List<?> list) {
+            super(list.size());
+            this.list = list;
+        }
+
+        Object get(final int index) {
+            return this.list.get(index);
+        }
+
+    }
+
+
+    private abstract static class AbstractArrayIterator extends AbstractIndexedIterator {
+
+        AbstractArrayIterator(final int length) {
+            super(length);
+        }
+
+    }
+
+
+    private static final class ObjectArrayIterator extends AbstractArrayIterator {
+
+        private final Object[] array;
+
+        ObjectArrayIterator(final Object[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return this.array[index];
+        }
+
+    }
+
+
+    private static final class IntArrayIterator extends AbstractArrayIterator {
+
+        private final int[] array;
+
+        IntArrayIterator(final int[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Integer.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class LongArrayIterator extends AbstractArrayIterator {
+
+        private final long[] array;
+
+        LongArrayIterator(final long[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Long.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class DoubleArrayIterator extends AbstractArrayIterator {
+
+        private final double[] array;
+
+        DoubleArrayIterator(final double[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Double.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class FloatArrayIterator extends AbstractArrayIterator {
+
+        private final float[] array;
+
+        FloatArrayIterator(final float[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Float.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class ShortArrayIterator extends AbstractArrayIterator {
+
+        private final short[] array;
+
+        ShortArrayIterator(final short[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Short.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class ByteArrayIterator extends AbstractArrayIterator {
+
+        private final byte[] array;
+
+        ByteArrayIterator(final byte[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Byte.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class CharArrayIterator extends AbstractArrayIterator {
+
+        private final char[] array;
+
+        CharArrayIterator(final char[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Character.valueOf(this.array[index]);
+        }
+
+    }
+
+
+    private static final class BooleanArrayIterator extends AbstractArrayIterator {
+
+        private final boolean[] array;
+
+        BooleanArrayIterator(final boolean[] array) {
+            super(array.length);
+            this.array = array;
+        }
+
+        Object get(final int index) {
+            return Boolean.valueOf(this.array[index]);
+        }
+
+    }
+
+
+
+
+    /*
+     * Iterator over a spliterator, advancing it one element at a time (so that sources retrieving their data
+     * in chunks are only asked for a new chunk when needed). Size is computed at creation time, before any
+     * elements are traversed, and will be null if the spliterator does not know it exactly.
+     */
+    private static final class SpliteratorIterator implements Iterator<Object>, Consumer<Object> {
+
+        private final Spliterator<?> spliterator;
+        final Integer size;
+        private boolean nextReady = false;
+        private Object next = null;
+
+        SpliteratorIterator(final Spliterator<?> spliterator) {
+            super();
+            this.spliterator = spliterator;
+            final long exactSize = spliterator.getExactSizeIfKnown();
+            this.size = (exactSize >= 0L && exactSize <= Integer.MAX_VALUE ? Integer.valueOf((int) exactSize) : null);
+        }
+
+        public void accept(final Object element) {
+            this.nextReady = true;
+            this.next = element;
+        }
+
+        public boolean hasNext() {
+            if (!this.nextReady) {
+                this.spliterator.tryAdvance(this);
+            }
+            return this.nextReady;
+        }
+
+        public Object next() {
+            if (!this.nextReady && !hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Object element = this.next;
+            this.nextReady = false;
+            this.next = null;
+            return element;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException("Cannot remove from a Spliterator iterator");
+        }
+
+    }
+
+
+
+
 
 
 
@@ -0,0 +1,244 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import org.thymeleaf.util.Validate;
+
+
+/**
+ * <p>
+ *   Writer implementation that encodes its output into an {@link OutputStream} using a specific
+ *   {@link Charset}, in a similar way to {@link java.io.OutputStreamWriter}, but which is also able to
+ *   directly copy to the output stream template content that has already been pre-encoded in that charset
+ *   (e.g. the static segments of compiled template models, see
+ *   {@link org.thymeleaf.TemplateEngine#setTemplateModelCompilationEnabled(boolean)}).
+ * </p>
+ * <p>
+ *   This class is mainly for <strong>internal use</strong>, and is used by
+ *   {@link org.thymeleaf.TemplateEngine#process(org.thymeleaf.TemplateSpec, org.thymeleaf.context.IContext, OutputStream, Charset)}.
+ *   Note that, as it happens with {@link java.io.OutputStreamWriter}, this writer needs to be flushed
+ *   in order to make sure all output has been written to the output stream.
+ * </p>
+ * <p>
+ *   Objects of this class are <strong>not thread-safe</strong>.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class OutputStreamTemplateWriter extends Writer implements IPreEncodedContentWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final OutputStream outputStream;
+    private final Charset charset;
+    private final CharsetEncoder encoder;
+    private final CharBuffer charBuffer;
+    private final ByteBuffer byteBuffer;
+
+    private long writtenBytes = 0L;
+    private boolean closed = false;
+
+
+
+    public OutputStreamTemplateWriter(final OutputStream outputStream, final Charset charset) {
+        super();
+        Validate.notNull(outputStream, "Output stream cannot be null");
+        Validate.notNull(charset, "Charset cannot be null");
+        this.outputStream = outputStream;
+        this.charset = charset;
+        // Same behaviour as java.io.OutputStreamWriter regarding malformed and unmappable input
+        this.encoder =
+                charset.newEncoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.charBuffer = CharBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        this.byteBuffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+    }
+
+
+
+
+    public Charset getCharset() {
+        return this.charset;
+    }
+
+
+    /*
+     * Returns the number of bytes output so far, including those still buffered. Pending chars are encoded
+     * first so that they are also counted (chars awaiting a surrogate pair, if any, are not).
+     */
+    long getByteCount() throws IOException {
+        if (!this.closed) {
+            encodeChars(false);
+        }
+        return this.writtenBytes + this.byteBuffer.position();
+    }
+
+
+
+
+    @Override
+    public void write(final int c) throws IOException {
+        if (!this.charBuffer.hasRemaining()) {
+            encodeChars(false);
+        }
+        this.charBuffer.put((char) c);
+    }
+
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (!this.charBuffer.hasRemaining()) {
+                encodeChars(false);
+            }
+            final int chunk = Math.min(remaining, this.charBuffer.remaining());
+            final int position = this.charBuffer.position();
+            str.getChars(offset, offset + chunk, this.charBuffer.array(), position);
+            this.charBuffer.position(position + chunk);
+            offset += chunk;
+            remaining -= chunk;
+        }
+    }
+
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (!this.charBuffer.hasRemaining()) {
+                encodeChars(false);
+            }
+            final int chunk = Math.min(remaining, this.charBuffer.remaining());
+            this.charBuffer.put(cbuf, offset, chunk);
+            offset += chunk;
+            remaining -= chunk;
+        }
+    }
+
+
+
+
+    public Charset getPreEncodedCharset() {
+        return this.charset;
+    }
+
+
+    public boolean writePreEncoded(final byte[] bytes) throws IOException {
+
+        encodeChars(false);
+        if (this.charBuffer.position() > 0) {
+            // There are chars pending encoding (a high surrogate waiting for its pair), so pre-encoded content
+            // cannot be written yet without altering the order of the output
+            return false;
+        }
+
+        if (bytes.length <= this.byteBuffer.remaining()) {
+            this.byteBuffer.put(bytes);
+            return true;
+        }
+
+        writeBytes();
+        this.outputStream.write(bytes);
+        this.writtenBytes += bytes.length;
+        return true;
+
+    }
+
+
+
+
+    @Override
+    public void flush() throws IOException {
+        encodeChars(false);
+        writeBytes();
+        this.outputStream.flush();
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        encodeChars(true);
+        CoderResult result;
+        while ((result = this.encoder.flush(this.byteBuffer)).isOverflow()) {
+            writeBytes();
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        writeBytes();
+        this.closed = true;
+        this.outputStream.close();
+    }
+
+
+
+
+    private void encodeChars(final boolean endOfInput) throws IOException {
+
+        this.charBuffer.flip();
+
+        while (true) {
+            final CoderResult result = this.encoder.encode(this.charBuffer, this.byteBuffer, endOfInput);
+            if (result.isUnderflow()) {
+                break;
+            }
+            if (result.isOverflow()) {
+                writeBytes();
+                continue;
+            }
+            result.throwException();
+        }
+
+        // Anything not consumed (e.g. an unpaired high surrogate) will stay for the next call
+        this.charBuffer.compact();
+
+    }
+
+
+    private void writeBytes() throws IOException {
+        if (this.byteBuffer.position() > 0) {
+            this.outputStream.write(this.byteBuffer.array(), 0, this.byteBuffer.position());
+            this.writtenBytes += this.byteBuffer.position();
+            this.byteBuffer.clear();
+        }
+    }
+
+
+}
@@ -19,7 +19,9 @@
  */
 package org.thymeleaf.engine;
 
+import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayDeque;
 
 import org.thymeleaf.exceptions.TemplateOutputException;
 import org.thymeleaf.model.ICDATASection;
@@ -29,8 +31,10 @@
 import org.thymeleaf.model.IOpenElementTag;
 import org.thymeleaf.model.IProcessingInstruction;
 import org.thymeleaf.model.IStandaloneElementTag;
+import org.thymeleaf.model.ITemplateEnd;
 import org.thymeleaf.model.IText;
 import org.thymeleaf.model.IXMLDeclaration;
+import org.thymeleaf.util.FastStringWriter;
 
 
 /**
@@ -42,7 +46,16 @@
 public final class OutputTemplateHandler extends AbstractTemplateHandler {
 
 
-    private final Writer writer;
+    private final Writer outputWriter;
+
+    // Writer to which events are being written: the output writer itself, or a buffer if output is waiting
+    // for fragments being rendered in parallel (th:parallel)
+    private Writer writer;
+
+    // Output waiting to be written in document order: ParallelFragmentText events (not rendered yet) followed by
+    // the buffers containing the output of all the events that came after them. Note throttled executions never
+    // produce ParallelFragmentText events, so their output is never held here instead of being throttled.
+    private ArrayDeque<Object> pendingOutput = null;
 
 
 
@@ -58,6 +71,7 @@ public OutputTemplateHandler(final Writer writer) {
         if (writer == null) {
             throw new IllegalArgumentException("Writer cannot be null");
         }
+        this.outputWriter = writer;
         this.writer = writer;
     }
 
@@ -66,7 +80,14 @@ public OutputTemplateHandler(final Writer writer) {
 
     @Override
     public void handleText(final IText text) {
-        
+
+        if (text instanceof ParallelFragmentText) {
+            deferParallelFragmentText((ParallelFragmentText) text);
+            // Just in case someone set us a 'next'
+            super.handleText(text);
+            return;
+        }
+
         try {
             text.write(this.writer);
         } catch (final Exception e) {
@@ -230,4 +251,77 @@ public void handleProcessingInstruction(final IProcessingInstruction processingI
 
     
     
-}
\ No newline at end of file
+
+
+
+    @Override
+    public void handleTemplateEnd(final ITemplateEnd templateEnd) {
+
+        if (this.pendingOutput != null) {
+            try {
+                writePendingOutput(true);
+            } catch (final IOException e) {
+                throw new TemplateOutputException(
+                        "An error happened during template rendering",
+                        templateEnd.getTemplateName(), templateEnd.getLine(), templateEnd.getCol(), e);
+            }
+        }
+
+        // Just in case someone set us a 'next'
+        super.handleTemplateEnd(templateEnd);
+
+    }
+
+
+
+
+    private void deferParallelFragmentText(final ParallelFragmentText text) {
+
+        if (this.pendingOutput == null) {
+            this.pendingOutput = new ArrayDeque<Object>(8);
+        }
+
+        // Everything coming after the fragment will be buffered until the fragment itself has been written
+        final FastStringWriter buffer = new FastStringWriter(1024);
+        this.pendingOutput.add(text);
+        this.pendingOutput.add(buffer);
+        this.writer = buffer;
+
+        // Fragments preceding this one might have already been rendered, so we write as much as we can
+        try {
+            writePendingOutput(false);
+        } catch (final IOException e) {
+            throw new TemplateOutputException(
+                    "An error happened during template rendering",
+                    text.getTemplateName(), text.getLine(), text.getCol(), e);
+        }
+
+    }
+
+
+    /*
+     * Writes pending output in document order, stopping at the first fragment not rendered yet unless we are
+     * told to wait for them. Once everything has been written, events are written directly to output again.
+     */
+    private void writePendingOutput(final boolean waitForFragments) throws IOException {
+
+        while (!this.pendingOutput.isEmpty()) {
+            final Object pending = this.pendingOutput.peekFirst();
+            if (pending instanceof ParallelFragmentText) {
+                final ParallelFragmentText text = (ParallelFragmentText) pending;
+                if (!waitForFragments && !text.isDone()) {
+                    return;
+                }
+                text.write(this.outputWriter);
+            } else {
+                this.outputWriter.write(pending.toString());
+            }
+            this.pendingOutput.removeFirst();
+        }
+
+        this.writer = this.outputWriter;
+
+    }
+
+
+}
@@ -0,0 +1,63 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/*
+ * Keeps track of the fragments being rendered in parallel (th:parallel) on behalf of a template execution, so that
+ * any of them still running can be cancelled once the execution finishes, be it normally (fragments that were
+ * never written to output) or because of an error.
+ *
+ * Instances are only registered for the non-throttled executions started by the TemplateEngine, as throttled
+ * executions need all their output to go through the throttled writer as it is produced.
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+final class ParallelFragmentTasks {
+
+    private final List<Future<?>> tasks = new ArrayList<Future<?>>(4);
+
+
+
+    ParallelFragmentTasks() {
+        super();
+    }
+
+
+
+
+    synchronized void add(final Future<?> task) {
+        this.tasks.add(task);
+    }
+
+
+    synchronized void cancelAll() {
+        for (final Future<?> task : this.tasks) {
+            task.cancel(true);
+        }
+        this.tasks.clear();
+    }
+
+
+}
@@ -0,0 +1,130 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.thymeleaf.exceptions.TemplateEngineException;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.model.IModelVisitor;
+import org.thymeleaf.model.IText;
+
+/*
+ * Event representing the output of a fragment that is being rendered in parallel (th:parallel) by the fragment
+ * rendering executor.
+ *
+ * It behaves as a text event, but its text is not available until rendering of the fragment finishes, and asking
+ * for it will block until then. In order to avoid this, OutputTemplateHandler does not write these events
+ * directly, but buffers any output coming after them until they can be written in document order.
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+final class ParallelFragmentText extends AbstractTemplateEvent implements IText, IEngineTemplateEvent {
+
+    private final Future<String> output;
+
+
+
+    ParallelFragmentText(final Future<String> output, final String templateName, final int line, final int col) {
+        super(templateName, line, col);
+        this.output = output;
+    }
+
+
+
+
+    boolean isDone() {
+        return this.output.isDone();
+    }
+
+
+    public String getText() {
+        try {
+            return this.output.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TemplateProcessingException(
+                    "Interrupted while waiting for a fragment being rendered in parallel",
+                    getTemplateName(), getLine(), getCol(), e);
+        } catch (final CancellationException e) {
+            // Outstanding fragments are cancelled when the execution that inserted them finishes or fails
+            throw new TemplateProcessingException(
+                    "Rendering of a fragment in parallel was cancelled",
+                    getTemplateName(), getLine(), getCol(), e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof TemplateEngineException) {
+                throw (TemplateEngineException) cause;
+            }
+            throw new TemplateProcessingException(
+                    "An error happened during the parallel rendering of a fragment",
+                    getTemplateName(), getLine(), getCol(), cause);
+        }
+    }
+
+
+    public int length() {
+        return getText().length();
+    }
+
+
+    public char charAt(final int index) {
+        return getText().charAt(index);
+    }
+
+
+    public CharSequence subSequence(final int start, final int end) {
+        return getText().subSequence(start, end);
+    }
+
+
+
+
+    public void accept(final IModelVisitor visitor) {
+        visitor.visit(this);
+    }
+
+
+    public void write(final Writer writer) throws IOException {
+        writer.write(getText());
+    }
+
+
+
+
+    public void beHandled(final ITemplateHandler handler) {
+        handler.handleText(this);
+    }
+
+
+
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+
+
+}
@@ -30,6 +30,7 @@
 import org.thymeleaf.context.ITemplateContext;
 import org.thymeleaf.engine.TemplateModelController.SkipBody;
 import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.metrics.TemplateExecutionMetrics;
 import org.thymeleaf.model.ICDATASection;
 import org.thymeleaf.model.ICloseElementTag;
 import org.thymeleaf.model.IComment;
@@ -43,6 +44,7 @@
 import org.thymeleaf.model.ITemplateStart;
 import org.thymeleaf.model.IText;
 import org.thymeleaf.model.IXMLDeclaration;
+import org.thymeleaf.processor.IProcessor;
 import org.thymeleaf.processor.cdatasection.ICDATASectionProcessor;
 import org.thymeleaf.processor.comment.ICommentProcessor;
 import org.thymeleaf.processor.doctype.IDocTypeProcessor;
@@ -114,6 +116,7 @@ public final class ProcessorTemplateHandler implements ITemplateHandler {
     private ITemplateContext context = null;
     private IEngineContext engineContext = null;
     private TemplateFlowController flowController = null; // optional, only if the template should be throttled
+    private TemplateExecutionMetrics executionMetrics = null; // optional, only if the execution is being sampled
 
 
     // These arrays will be initialized with all the registered processors for the different kind of non-element
@@ -197,9 +200,50 @@ public void setNext(final ITemplateHandler next) {
 
 
 
+    /*
+     * Resets this handler to its initial state so that it can be reused for processing a new template (see
+     * TemplateEngine#setEngineContextPoolingEnabled). The structure handlers, and also the processor arrays and the
+     * model controller if the new template uses the same configuration and template mode, will be reused.
+     */
+    void reset() {
+        this.next = null;
+        this.context = null;
+        this.engineContext = null;
+        this.flowController = null;
+        this.executionMetrics = null;
+        this.initialContextLevel = null;
+        this.currentGatheringModel = null;
+        this.throttleEngine = false;
+        if (this.pendingProcessings != null) {
+            Arrays.fill(this.pendingProcessings, null);
+        }
+        this.pendingProcessingsSize = 0;
+        this.decreaseContextLevelProcessable = null;
+        if (this.modelController != null) {
+            this.modelController.reset(null);
+        }
+        // Structure handlers are reset before each use, but we don't want them to keep references to objects
+        // from the last execution while this handler is not being used
+        this.elementTagStructureHandler.reset();
+        this.elementModelStructureHandler.reset();
+        this.templateBoundariesStructureHandler.reset();
+        this.cdataSectionStructureHandler.reset();
+        this.commentStructureHandler.reset();
+        this.docTypeStructureHandler.reset();
+        this.processingInstructionStructureHandler.reset();
+        this.textStructureHandler.reset();
+        this.xmlDeclarationStructureHandler.reset();
+    }
+
+
+
+
     @Override
     public void setContext(final ITemplateContext context) {
 
+        final IEngineConfiguration previousConfiguration = this.configuration;
+        final TemplateMode previousTemplateMode = this.templateMode;
+
         this.context = context;
         Validate.notNull(this.context, "Context cannot be null");
         Validate.notNull(this.context.getTemplateMode(), "Template Mode returned by context cannot be null");
@@ -213,6 +257,12 @@ public void setContext(final ITemplateContext context) {
 
         this.templateMode = this.context.getTemplateMode(); // Just a way to avoid doing the call each time
 
+        // If this handler is being reused (after a reset) with the same configuration and template mode, the
+        // processor arrays and model controller it already has are still valid
+        final boolean reusable =
+                (this.modelController != null &&
+                        this.configuration == previousConfiguration && this.templateMode == previousTemplateMode);
+
         if (this.context instanceof IEngineContext) {
             this.engineContext = (IEngineContext) this.context;
         } else {
@@ -225,10 +275,18 @@ public void setContext(final ITemplateContext context) {
         }
 
         // Instance the gatherer
-        this.modelController = new TemplateModelController(this.configuration, this.templateMode, this, this.engineContext);
+        if (reusable) {
+            this.modelController.reset(this.engineContext);
+        } else {
+            this.modelController = new TemplateModelController(this.configuration, this.templateMode, this, this.engineContext);
+        }
         this.modelController.setTemplateFlowController(this.flowController); // Might have been already initialized or not
         this.decreaseContextLevelProcessable = new DecreaseContextLevelProcessable(this.engineContext, this.flowController);
 
+        if (reusable) {
+            return;
+        }
+
         // Obtain all processor sets and compute sizes
         final Set<ITemplateBoundariesProcessor> templateBoundariesProcessorSet = this.configuration.getTemplateBoundariesProcessors(this.templateMode);
         final Set<ICDATASectionProcessor> cdataSectionProcessorSet = this.configuration.getCDATASectionProcessors(this.templateMode);
@@ -259,6 +317,30 @@ public void setContext(final ITemplateContext context) {
 
 
 
+    public void setExecutionMetrics(final TemplateExecutionMetrics executionMetrics) {
+        this.executionMetrics = executionMetrics;
+    }
+
+
+
+    /*
+     * Processor executions are only timed if the current execution is being sampled for metrics
+     */
+    private long startProcessorExecution() {
+        return (this.executionMetrics == null ? 0L : System.nanoTime());
+    }
+
+
+    private void finishProcessorExecution(final IProcessor processor, final long startNanos) {
+        if (this.executionMetrics != null) {
+            this.executionMetrics.recordProcessorExecution(
+                    this.context.getTemplateData().getTemplate(), processor, System.nanoTime() - startNanos);
+        }
+    }
+
+
+
+
     public void setFlowController(final TemplateFlowController flowController) {
         this.flowController = flowController;
         this.throttleEngine = (this.flowController != null);
@@ -527,9 +609,10 @@ public void handleText(final IText itext) {
 
 
         /*
-         * FAIL FAST in case this structure has no associated processors.
+         * FAIL FAST in case this structure has no associated processors, or it is a pre-rendered static segment
+         * (which by definition does not need any processing).
          */
-        if (this.textProcessors.length == 0) {
+        if (this.textProcessors.length == 0 || itext instanceof StaticTemplateSegment) {
             this.next.handleText(itext);
             return;
         }
@@ -557,7 +640,9 @@ public void handleText(final IText itext) {
 
             structureHandler.reset();
 
+            final long startNanos = startProcessorExecution();
             this.textProcessors[i].process(this.context, text, structureHandler);
+            finishProcessorExecution(this.textProcessors[i], startNanos);
 
             if (structureHandler.setText) {
 
@@ -662,7 +747,9 @@ public void handleComment(final IComment icomment) {
 
             structureHandler.reset();
 
+            final long startNanos = startProcessorExecution();
             this.commentProcessors[i].process(this.context, comment, structureHandler);
+            finishProcessorExecution(this.commentProcessors[i], startNanos);
 
             if (structureHandler.setContent) {
 
@@ -767,7 +854,9 @@ public void handleCDATASection(final ICDATASection icdataSection) {
 
             structureHandler.reset();
 
+            final long startNanos = startProcessorExecution();
             this.cdataSectionProcessors[i].process(this.context, cdataSection, structureHandler);
+            finishProcessorExecution(this.cdataSectionProcessors[i], startNanos);
 
             if (structureHandler.setContent) {
 
@@ -915,7 +1004,9 @@ public void handleStandaloneElement(final IStandaloneElementTag istandaloneEleme
             if (processor instanceof IElementTagProcessor) {
 
                 final IElementTagProcessor elementProcessor = ((IElementTagProcessor)processor);
+                final long startNanos = startProcessorExecution();
                 elementProcessor.process(this.context, standaloneElementTag, tagStructureHandler);
+                finishProcessorExecution(elementProcessor, startNanos);
 
                 // Apply any context modifications made by the processor (local vars, inlining, etc.)
                 tagStructureHandler.applyContextModifications(this.engineContext);
@@ -1128,7 +1219,9 @@ public void handleStandaloneElement(final IStandaloneElementTag istandaloneEleme
                 final Model processedModel = new Model(gatheredModel);
 
                 // Execute the processor on the just-created Model
+                final long startNanos = startProcessorExecution();
                 ((IElementModelProcessor) processor).process(this.context, processedModel, modelStructureHandler);
+                finishProcessorExecution(processor, startNanos);
 
                 // Apply any context modifications made by the processor (local vars, inlining, etc.)
                 modelStructureHandler.applyContextModifications(this.engineContext);
@@ -1311,7 +1404,9 @@ public void handleOpenElement(final IOpenElementTag iopenElementTag) {
             if (processor instanceof IElementTagProcessor) {
 
                 final IElementTagProcessor elementProcessor = ((IElementTagProcessor)processor);
+                final long startNanos = startProcessorExecution();
                 elementProcessor.process(this.context, openElementTag, tagStructureHandler);
+                finishProcessorExecution(elementProcessor, startNanos);
 
                 // Apply any context modifications made by the processor (local vars, inlining, etc.)
                 tagStructureHandler.applyContextModifications(this.engineContext);
@@ -1507,7 +1602,9 @@ public void handleOpenElement(final IOpenElementTag iopenElementTag) {
                 final Model processedModel = new Model(gatheredModel);
 
                 // Execute the processor on the just-created Model
+                final long startNanos = startProcessorExecution();
                 ((IElementModelProcessor) processor).process(this.context, processedModel, modelStructureHandler);
+                finishProcessorExecution(processor, startNanos);
 
                 // Apply any context modifications made by the processor (local vars, inlining, etc.)
                 modelStructureHandler.applyContextModifications(this.engineContext);
@@ -1755,7 +1852,9 @@ public void handleDocType(final IDocType idocType) {
 
             structureHandler.reset();
 
+            final long startNanos = startProcessorExecution();
             this.docTypeProcessors[i].process(this.context, docType, structureHandler);
+            finishProcessorExecution(this.docTypeProcessors[i], startNanos);
 
             if (structureHandler.setDocType) {
 
@@ -1866,7 +1965,9 @@ public void handleXMLDeclaration(final IXMLDeclaration ixmlDeclaration) {
 
             structureHandler.reset();
 
+            final long startNanos = startProcessorExecution();
             this.xmlDeclarationProcessors[i].process(this.context, xmlDeclaration, structureHandler);
+            finishProcessorExecution(this.xmlDeclarationProcessors[i], startNanos);
 
             if (structureHandler.setXMLDeclaration) {
 
@@ -1976,7 +2077,9 @@ public void handleProcessingInstruction(final IProcessingInstruction iprocessing
 
             structureHandler.reset();
 
+            final long startNanos = startProcessorExecution();
             this.processingInstructionProcessors[i].process(this.context, processingInstruction, structureHandler);
+            finishProcessorExecution(this.processingInstructionProcessors[i], startNanos);
 
             if (structureHandler.setProcessingInstruction) {
 
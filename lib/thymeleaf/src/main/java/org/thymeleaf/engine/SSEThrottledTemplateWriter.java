@@ -20,6 +20,7 @@
 package org.thymeleaf.engine;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 
 /**
  *
@@ -94,6 +95,20 @@ public void endEvent() throws IOException {
 
 
 
+    @Override
+    public Charset getPreEncodedCharset() {
+        // Output needs to be prefixed line by line, so pre-encoded content cannot be directly copied
+        return null;
+    }
+
+
+    @Override
+    public boolean writePreEncoded(final byte[] bytes) throws IOException {
+        return false;
+    }
+
+
+
     @Override
     public void write(final int c) throws IOException {
 
@@ -0,0 +1,171 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.thymeleaf.model.IModelVisitor;
+import org.thymeleaf.model.IText;
+
+/*
+ * Event representing a sequence of consecutive, balanced template events with no processors associated, which
+ * has been pre-rendered into its output markup by the TemplateModelCompiler.
+ *
+ * It behaves as a text event (so that it is simply written to output by the handler chain), but keeps the
+ * original events so that model visitors see the same structure they would have seen before compilation.
+ *
+ * When written to a writer able to accept pre-encoded content (byte-based outputs), its UTF-8 or ISO-8859-1
+ * encoded form is lazily computed once and then directly copied to output for every execution.
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+final class StaticTemplateSegment extends AbstractTemplateEvent implements IText, IEngineTemplateEvent {
+
+    final IEngineTemplateEvent[] events;
+    final char[] content;
+
+    private volatile String computedContentStr = null;
+
+    // Lazily computed pre-encoded forms of the content. NOT_ENCODABLE signals the content cannot be represented
+    // in the charset (only possible for ISO-8859-1), so that encoding is not attempted again.
+    private static final byte[] NOT_ENCODABLE = new byte[0];
+    private volatile byte[] utf8Bytes = null;
+    private volatile byte[] iso88591Bytes = null;
+
+
+
+    StaticTemplateSegment(
+            final IEngineTemplateEvent[] events, final char[] content,
+            final String templateName, final int line, final int col) {
+        super(templateName, line, col);
+        this.events = events;
+        this.content = content;
+    }
+
+
+
+
+    public String getText() {
+        String c = this.computedContentStr;
+        if (c == null) {
+            this.computedContentStr = c = new String(this.content);
+        }
+        return c;
+    }
+
+
+    public int length() {
+        return this.content.length;
+    }
+
+
+    public char charAt(final int index) {
+        return this.content[index];
+    }
+
+
+    public CharSequence subSequence(final int start, final int end) {
+        return getText().subSequence(start, end);
+    }
+
+
+
+
+    public void accept(final IModelVisitor visitor) {
+        for (int i = 0; i < this.events.length; i++) {
+            this.events[i].accept(visitor);
+        }
+    }
+
+
+    public void write(final Writer writer) throws IOException {
+        if (writer instanceof IPreEncodedContentWriter) {
+            final IPreEncodedContentWriter preEncodedContentWriter = (IPreEncodedContentWriter) writer;
+            final byte[] bytes = getBytes(preEncodedContentWriter.getPreEncodedCharset());
+            if (bytes != null && preEncodedContentWriter.writePreEncoded(bytes)) {
+                return;
+            }
+        }
+        writer.write(this.content, 0, this.content.length);
+    }
+
+
+
+
+    /*
+     * Returns the content encoded in the specified charset, or null if pre-encoding is not supported for that
+     * charset (only UTF-8 and ISO-8859-1 are), or the content cannot be represented in it.
+     */
+    byte[] getBytes(final Charset charset) {
+        if (charset == null) {
+            return null;
+        }
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            byte[] b = this.utf8Bytes;
+            if (b == null) {
+                this.utf8Bytes = b = getText().getBytes(StandardCharsets.UTF_8);
+            }
+            return b;
+        }
+        if (StandardCharsets.ISO_8859_1.equals(charset)) {
+            byte[] b = this.iso88591Bytes;
+            if (b == null) {
+                this.iso88591Bytes = b = computeISO88591Bytes(this.content);
+            }
+            return (b == NOT_ENCODABLE ? null : b);
+        }
+        return null;
+    }
+
+
+    private static byte[] computeISO88591Bytes(final char[] content) {
+        final byte[] bytes = new byte[content.length];
+        for (int i = 0; i < content.length; i++) {
+            final char c = content[i];
+            if (c > 0xFF) {
+                // Cannot be represented, it will be written (and replaced) through the writer's own encoder
+                return NOT_ENCODABLE;
+            }
+            bytes[i] = (byte) c;
+        }
+        return bytes;
+    }
+
+
+
+
+    public void beHandled(final ITemplateHandler handler) {
+        handler.handleText(this);
+    }
+
+
+
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+
+
+}
@@ -0,0 +1,331 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.model.IAttribute;
+import org.thymeleaf.standard.expression.FragmentSignatureUtils;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.util.StringUtils;
+
+/*
+ * Index of the elements in a complete (non-selected) markup TemplateModel that can be matched by simple
+ * fragment selectors, i.e. selectors consisting only of a name (like "header" in ~{layout :: header}).
+ *
+ * Such a selector matches, at any depth, elements with that name and elements referenced by that name by means of
+ * the th:fragment/th:ref attributes (same as the TemplateFragmentMarkupReferenceResolver does at the parser level).
+ * This index allows computing the model resulting from applying these selectors as a slice of the complete model's
+ * events, instead of parsing the template again with a block selector.
+ *
+ * The index is built once per complete template model (see TemplateModel#getFragmentIndex()). The models selected
+ * from it are kept in the index itself instead of in the template cache, so that they do not take any cache entries
+ * of their own and are discarded together with the complete model when it is evicted or invalidated.
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+final class TemplateFragmentIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final TemplateModel templateModel;
+    private final boolean html;
+    // Position of the event closing the element opened at each position (only for open and standalone tags)
+    private final int[] elementEnds;
+    private final Map<String,int[]> positionsByElementName;
+    private final Map<String,int[]> positionsByReference;
+    // Compiled models hide their elements inside static segments, so they cannot be selected from
+    private final boolean selectable;
+    // Models already selected, by selector set (there is one per fragment insertion written in templates)
+    private final ConcurrentHashMap<Set<String>,TemplateModel> selections =
+            new ConcurrentHashMap<Set<String>, TemplateModel>(10, 0.75f, 2);
+
+
+
+    static boolean isIndexableSelector(final String selector) {
+        final int selectorLen = selector.length();
+        if (selectorLen == 0) {
+            return false;
+        }
+        char c;
+        for (int i = 0; i < selectorLen; i++) {
+            c = selector.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_') {
+                continue;
+            }
+            if (i > 0 && ((c >= '0' && c <= '9') || c == '-')) {
+                continue;
+            }
+            return false;
+        }
+        return true;
+    }
+
+
+
+
+    TemplateFragmentIndex(final TemplateModel templateModel) {
+
+        super();
+
+        this.templateModel = templateModel;
+        this.html = (templateModel.getTemplateMode() == TemplateMode.HTML);
+
+        final String[] referenceAttributeNames =
+                computeReferenceAttributeNames(this.html, templateModel.getConfiguration().getStandardDialectPrefix());
+
+        final IEngineTemplateEvent[] queue = templateModel.queue;
+        this.elementEnds = new int[queue.length];
+        Arrays.fill(this.elementEnds, -1);
+
+        final Map<String,List<Integer>> elementNamePositions = new HashMap<String, List<Integer>>(20);
+        final Map<String,List<Integer>> referencePositions = new HashMap<String, List<Integer>>(20);
+
+        final int[] openPositions = new int[queue.length];
+        int openCount = 0;
+        boolean selectable = true;
+
+        for (int i = 0; i < queue.length; i++) {
+
+            final IEngineTemplateEvent event = queue[i];
+
+            if (event instanceof StaticTemplateSegment) {
+                selectable = false;
+                break;
+            }
+
+            if (event instanceof CloseElementTag) {
+                if (!((CloseElementTag) event).isUnmatched() && openCount > 0) {
+                    this.elementEnds[openPositions[--openCount]] = i;
+                }
+                continue;
+            }
+
+            final AbstractProcessableElementTag tag;
+            if (event instanceof OpenElementTag) {
+                openPositions[openCount++] = i;
+                tag = (AbstractProcessableElementTag) event;
+            } else if (event instanceof StandaloneElementTag) {
+                this.elementEnds[i] = i;
+                tag = (AbstractProcessableElementTag) event;
+            } else {
+                continue;
+            }
+
+            final String elementName = tag.getElementCompleteName();
+            addPosition(elementNamePositions, (this.html ? elementName.toLowerCase() : elementName), i);
+
+            if (referenceAttributeNames != null) {
+                final IAttribute[] attributes = tag.getAllAttributes();
+                for (int j = 0; j < attributes.length; j++) {
+                    final String reference =
+                            computeReference(templateModel.getConfiguration(), referenceAttributeNames, attributes[j]);
+                    if (reference != null) {
+                        addPosition(referencePositions, reference, i);
+                    }
+                }
+            }
+
+        }
+
+        this.positionsByElementName = toPositionArrays(elementNamePositions);
+        this.positionsByReference = toPositionArrays(referencePositions);
+        this.selectable = selectable;
+
+    }
+
+
+
+
+    /*
+     * Returns the model previously selected from this index for the specified selectors, or null if there is none.
+     */
+    TemplateModel getSelection(final Set<String> templateSelectors) {
+        return this.selections.get(templateSelectors);
+    }
+
+
+    /*
+     * Returns the model resulting from applying the specified (indexable) selectors on the complete template model,
+     * or null if it cannot be computed from the index (should only happen for non-balanced or compiled models).
+     */
+    TemplateModel select(final TemplateData templateData, final Set<String> templateSelectors) {
+
+        if (!this.selectable) {
+            return null;
+        }
+
+        final TemplateModel selection = this.selections.get(templateSelectors);
+        if (selection != null) {
+            return selection;
+        }
+
+        int[] positions = NO_POSITIONS;
+        for (final String templateSelector : templateSelectors) {
+            positions = merge(positions, this.positionsByElementName.get(this.html ? templateSelector.toLowerCase() : templateSelector));
+            positions = merge(positions, this.positionsByReference.get(templateSelector));
+        }
+
+        final IEngineTemplateEvent[] queue = this.templateModel.queue;
+        final List<IEngineTemplateEvent> selected = new ArrayList<IEngineTemplateEvent>();
+        selected.add(TemplateStart.TEMPLATE_START_INSTANCE);
+
+        int selectedEnd = -1;
+        for (int i = 0; i < positions.length; i++) {
+            final int start = positions[i];
+            if (start <= selectedEnd) {
+                // Nested inside an already selected element, and therefore already selected
+                continue;
+            }
+            final int end = this.elementEnds[start];
+            if (end < 0) {
+                return null;
+            }
+            for (int j = start; j <= end; j++) {
+                selected.add(queue[j]);
+            }
+            selectedEnd = end;
+        }
+
+        selected.add(TemplateEnd.TEMPLATE_END_INSTANCE);
+
+        final TemplateModel newSelection =
+                new TemplateModel(
+                        this.templateModel.getConfiguration(), templateData,
+                        selected.toArray(new IEngineTemplateEvent[selected.size()]));
+        final TemplateModel previousSelection = this.selections.putIfAbsent(templateSelectors, newSelection);
+        return (previousSelection != null ? previousSelection : newSelection);
+
+    }
+
+
+
+
+    private static String[] computeReferenceAttributeNames(final boolean html, final String standardDialectPrefix) {
+        if (standardDialectPrefix == null) {
+            // No reference resolver is used at the parser level if there is no Standard Dialect
+            return null;
+        }
+        if (html) {
+            final String prefix = standardDialectPrefix.toLowerCase();
+            return new String[] {
+                    prefix + ":ref", "data-" + prefix + "-ref", prefix + ":fragment", "data-" + prefix + "-fragment" };
+        }
+        return new String[] { standardDialectPrefix + ":ref", standardDialectPrefix + ":fragment" };
+    }
+
+
+    /*
+     * Returns the name this attribute references its element by: the (trimmed) value of a ref attribute, or the
+     * fragment name in a fragment attribute, trimmed with the same rules used for parsing fragment signatures.
+     */
+    private String computeReference(
+            final IEngineConfiguration configuration, final String[] referenceAttributeNames, final IAttribute attribute) {
+
+        final String attributeName =
+                (this.html ? attribute.getAttributeCompleteName().toLowerCase() : attribute.getAttributeCompleteName());
+
+        for (int i = 0; i < referenceAttributeNames.length; i++) {
+            if (!referenceAttributeNames[i].equals(attributeName)) {
+                continue;
+            }
+            final String value = attribute.getValue();
+            if (value == null) {
+                return null;
+            }
+            if (attributeName.endsWith("ref")) {
+                return value.trim();
+            }
+            if (StringUtils.isEmptyOrWhitespace(value)) {
+                return null;
+            }
+            try {
+                return FragmentSignatureUtils.parseFragmentSignature(configuration, value).getFragmentName();
+            } catch (final TemplateProcessingException e) {
+                // Not a valid fragment signature: such fragment could never be inserted anyway
+                return null;
+            }
+        }
+
+        return null;
+
+    }
+
+
+    private static void addPosition(final Map<String,List<Integer>> positions, final String name, final int position) {
+        List<Integer> namePositions = positions.get(name);
+        if (namePositions == null) {
+            namePositions = new ArrayList<Integer>(2);
+            positions.put(name, namePositions);
+        }
+        namePositions.add(Integer.valueOf(position));
+    }
+
+
+    private static Map<String,int[]> toPositionArrays(final Map<String,List<Integer>> positions) {
+        final Map<String,int[]> positionArrays = new HashMap<String, int[]>(positions.size() + 1, 1.0f);
+        for (final Map.Entry<String,List<Integer>> entry : positions.entrySet()) {
+            final List<Integer> namePositions = entry.getValue();
+            final int[] positionArray = new int[namePositions.size()];
+            for (int i = 0; i < positionArray.length; i++) {
+                positionArray[i] = namePositions.get(i).intValue();
+            }
+            positionArrays.put(entry.getKey(), positionArray);
+        }
+        return positionArrays;
+    }
+
+
+    /*
+     * Merges two sorted arrays of positions, removing duplicates
+     */
+    private static int[] merge(final int[] a, final int[] b) {
+        if (b == null || b.length == 0) {
+            return a;
+        }
+        if (a.length == 0) {
+            return b;
+        }
+        final int[] merged = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            final int next;
+            if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+                next = a[i++];
+            } else {
+                next = b[j++];
+            }
+            if (n == 0 || merged[n - 1] != next) {
+                merged[n++] = next;
+            }
+        }
+        return (n == merged.length ? merged : Arrays.copyOf(merged, n));
+    }
+
+}
@@ -19,12 +19,18 @@
  */
 package org.thymeleaf.engine;
 
+import java.io.IOException;
 import java.io.Writer;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,11 +43,23 @@
 import org.thymeleaf.cache.ICacheManager;
 import org.thymeleaf.cache.NonCacheableCacheEntryValidity;
 import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.EngineContext;
+import org.thymeleaf.context.Contexts;
 import org.thymeleaf.context.IContext;
+import org.thymeleaf.context.IDetachableContextVariable;
 import org.thymeleaf.context.IEngineContext;
 import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.context.FlatEngineContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.context.WebEngineContext;
 import org.thymeleaf.exceptions.TemplateInputException;
+import org.thymeleaf.exceptions.TemplateOutputException;
 import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.metrics.ITemplateEngineMetrics;
+import org.thymeleaf.metrics.TemplateExecutionMetrics;
+import org.thymeleaf.metrics.TemplateExecutionMetricsSampler;
+import org.thymeleaf.model.IText;
 import org.thymeleaf.postprocessor.IPostProcessor;
 import org.thymeleaf.preprocessor.IPreProcessor;
 import org.thymeleaf.templatemode.TemplateMode;
@@ -55,6 +73,7 @@
 import org.thymeleaf.templateresolver.ITemplateResolver;
 import org.thymeleaf.templateresolver.TemplateResolution;
 import org.thymeleaf.templateresource.ITemplateResource;
+import org.thymeleaf.util.FastStringWriter;
 import org.thymeleaf.util.LoggingUtils;
 import org.thymeleaf.util.Validate;
 
@@ -72,6 +91,7 @@ public final class TemplateManager {
 
     private static final int DEFAULT_PARSER_POOL_SIZE = 40;
     private static final int DEFAULT_PARSER_BLOCK_SIZE = 2048;
+    private static final int DEFAULT_PROCESSOR_TEMPLATE_HANDLER_POOL_SIZE = 40;
 
     private final IEngineConfiguration configuration;
 
@@ -84,6 +104,15 @@ public final class TemplateManager {
 
 
     private final ICache<TemplateCacheKey,TemplateModel> templateCache; // might be null! (= no cache)
+    private final TemplateModelSnapshotStore templateModelSnapshotStore; // might be null! (= no snapshots)
+    private final boolean templateModelCompilationEnabled;
+    private final ITemplateEngineMetrics metrics; // might be null! (= no metrics)
+    private final TemplateExecutionMetricsSampler executionMetricsSampler; // might be null! (= no metrics)
+    private final ProcessorTemplateHandlerPool processorTemplateHandlerPool; // might be null! (= no pooling)
+
+    // Fragments being rendered in parallel (th:parallel) by the executions currently allowing it
+    private final ConcurrentHashMap<IEngineContext,ParallelFragmentTasks> parallelFragmentTasksByContext =
+            new ConcurrentHashMap<IEngineContext, ParallelFragmentTasks>(16);
 
 
 
@@ -96,12 +125,95 @@ public final class TemplateManager {
      * @param configuration the engine configuration
      */
     public TemplateManager(final IEngineConfiguration configuration) {
-        
+        this(configuration, null);
+    }
+
+
+    /**
+     * <p>
+     *   This constructor should only be called directly for <strong>testing purposes</strong>.
+     * </p>
+     *
+     * @param configuration the engine configuration
+     * @param templateModelSnapshotStore the store for template model snapshots (can be null)
+     * @since 3.1.3
+     */
+    public TemplateManager(
+            final IEngineConfiguration configuration, final TemplateModelSnapshotStore templateModelSnapshotStore) {
+        this(configuration, templateModelSnapshotStore, false);
+    }
+
+
+    /**
+     * <p>
+     *   This constructor should only be called directly for <strong>testing purposes</strong>.
+     * </p>
+     *
+     * @param configuration the engine configuration
+     * @param templateModelSnapshotStore the store for template model snapshots (can be null)
+     * @param templateModelCompilationEnabled whether cached template models should be compiled into
+     *                                        static and dynamic segments
+     * @since 3.1.3
+     */
+    public TemplateManager(
+            final IEngineConfiguration configuration, final TemplateModelSnapshotStore templateModelSnapshotStore,
+            final boolean templateModelCompilationEnabled) {
+        this(configuration, templateModelSnapshotStore, templateModelCompilationEnabled, 0);
+    }
+
+
+    /**
+     * <p>
+     *   This constructor should only be called directly for <strong>testing purposes</strong>.
+     * </p>
+     *
+     * @param configuration the engine configuration
+     * @param templateModelSnapshotStore the store for template model snapshots (can be null)
+     * @param templateModelCompilationEnabled whether cached template models should be compiled into
+     *                                        static and dynamic segments
+     * @param metricsSamplingInterval the interval at which executions are sampled for processor-level
+     *                                metrics, if metrics are configured (0 = no sampling)
+     * @since 3.1.3
+     */
+    public TemplateManager(
+            final IEngineConfiguration configuration, final TemplateModelSnapshotStore templateModelSnapshotStore,
+            final boolean templateModelCompilationEnabled, final int metricsSamplingInterval) {
+        this(configuration, templateModelSnapshotStore, templateModelCompilationEnabled, metricsSamplingInterval, false);
+    }
+
+
+    /**
+     * <p>
+     *   This constructor should only be called directly for <strong>testing purposes</strong>.
+     * </p>
+     *
+     * @param configuration the engine configuration
+     * @param templateModelSnapshotStore the store for template model snapshots (can be null)
+     * @param templateModelCompilationEnabled whether cached template models should be compiled into
+     *                                        static and dynamic segments
+     * @param metricsSamplingInterval the interval at which executions are sampled for processor-level
+     *                                metrics, if metrics are configured (0 = no sampling)
+     * @param engineContextPoolingEnabled whether engine contexts and processor handlers should be reused
+     *                                    among executions
+     * @since 3.1.3
+     */
+    public TemplateManager(
+            final IEngineConfiguration configuration, final TemplateModelSnapshotStore templateModelSnapshotStore,
+            final boolean templateModelCompilationEnabled, final int metricsSamplingInterval,
+            final boolean engineContextPoolingEnabled) {
+
         super();
 
         Validate.notNull(configuration, "Configuration cannot be null");
 
         this.configuration = configuration;
+        this.templateModelSnapshotStore = templateModelSnapshotStore;
+        this.templateModelCompilationEnabled = templateModelCompilationEnabled;
+        this.metrics = this.configuration.getMetrics();
+        this.executionMetricsSampler =
+                (this.metrics != null ? new TemplateExecutionMetricsSampler(this.metrics, metricsSamplingInterval) : null);
+        this.processorTemplateHandlerPool =
+                (engineContextPoolingEnabled ? new ProcessorTemplateHandlerPool(DEFAULT_PROCESSOR_TEMPLATE_HANDLER_POOL_SIZE) : null);
 
         final ICacheManager cacheManager = this.configuration.getCacheManager();
 
@@ -127,6 +239,23 @@ public TemplateManager(final IEngineConfiguration configuration) {
     
     
     
+    /**
+     * <p>
+     *   Returns the object in charge of sampling the executions of this Template Engine for processor-level
+     *   metrics, if metrics are configured.
+     * </p>
+     * <p>
+     *   This method is meant for <strong>internal</strong> use only.
+     * </p>
+     *
+     * @return the execution metrics sampler (might be null).
+     * @since 3.1.3
+     */
+    public TemplateExecutionMetricsSampler getExecutionMetricsSampler() {
+        return this.executionMetricsSampler;
+    }
+
+
     /**
      * <p>
      *   Clears the template cache.
@@ -232,7 +361,13 @@ public TemplateModel parseStandalone(
          * First look at the cache - it might be already cached
          */
         if (useCache && this.templateCache != null) {
-            final TemplateModel cached =  this.templateCache.get(cacheKey);
+            TemplateModel cached =  this.templateCache.get(cacheKey);
+            if (cached == null && cleanTemplateSelectors != null) {
+                // Fragments selected by name are not cached on their own, but together with the complete template
+                cached = getSelectedFromCompleteTemplateModel(
+                        ownerTemplate, template, cleanTemplateSelectors, templateMode, templateResolutionAttributes);
+            }
+            recordTemplateCacheAccess(template, cached != null);
             if (cached != null) {
                 /*
                  * Just at the end, and importantly AFTER CACHING, check if we need to apply any pre-processors
@@ -290,28 +425,36 @@ public TemplateModel parseStandalone(
 
 
         /*
-         *  Create the Template Handler that will be in charge of building the TemplateModel
+         * If the template is cacheable and only simple fragment selectors are being applied, try to select the
+         * fragment from the complete (and cached) template model, so that the template does not need to be parsed
+         * again for each different set of selectors.
          */
-        final ModelBuilderTemplateHandler builderHandler = new ModelBuilderTemplateHandler(this.configuration, templateData);
+        TemplateModel templateModel =
+                (useCache && this.templateCache != null && templateResolution.getValidity().isCacheable() ?
+                        selectFromCompleteTemplateModel(
+                                templateResolution, templateData, ownerTemplate, template,
+                                templateMode, templateResolutionAttributes) :
+                        null);
+        final boolean selectedFromCompleteTemplateModel = (templateModel != null);
 
 
         /*
-         * PROCESS THE TEMPLATE
+         * PROCESS THE TEMPLATE (or load its snapshot, if it has one and it is cacheable)
          */
-        final ITemplateParser parser = getParserForTemplateMode(templateData.getTemplateMode());
-        parser.parseStandalone(
-                this.configuration,
-                ownerTemplate, template, cleanTemplateSelectors, templateData.getTemplateResource(),
-                templateData.getTemplateMode(), templateResolution.getUseDecoupledLogic(), builderHandler);
-
-        final TemplateModel templateModel = builderHandler.getModel();
+        if (templateModel == null) {
+            templateModel =
+                    parseTemplateModel(
+                            (useCache && this.templateCache != null? cacheKey : null),
+                            templateResolution, templateData, ownerTemplate, template, cleanTemplateSelectors);
+        }
 
 
         /*
-         * Cache the template if it is cacheable
+         * Cache the template if it is cacheable (unless it has been selected from the complete template model, in
+         * which case it is already kept by the fragment index of the latter)
          */
         if (useCache && this.templateCache != null) {
-            if (templateResolution.getValidity().isCacheable()) {
+            if (templateResolution.getValidity().isCacheable() && !selectedFromCompleteTemplateModel) {
                 this.templateCache.put(cacheKey, templateModel);
             }
         }
@@ -328,6 +471,79 @@ public TemplateModel parseStandalone(
 
 
 
+    /**
+     * <p>
+     *   Parses a template in exactly the same way {@link #parseAndProcess(TemplateSpec, IContext, Writer)} would do,
+     *   caching the result (if the template is cacheable) but not processing it.
+     * </p>
+     * <p>
+     *   This is meant for <i>warming up</i> the template cache, so that the corresponding parsed templates are
+     *   already available the first time they are processed. Note no pre-processors are applied to the returned
+     *   model.
+     * </p>
+     *
+     * @param templateSpec the template specification.
+     * @return the parsed template (either obtained from cache or parsed for the occasion).
+     * @since 3.1.3
+     */
+    public TemplateModel parseStandalone(final TemplateSpec templateSpec) {
+
+        Validate.notNull(templateSpec, "Template Specification cannot be null");
+
+        final String template = templateSpec.getTemplate();
+        final Set<String> templateSelectors = templateSpec.getTemplateSelectors();
+        final TemplateMode templateMode = templateSpec.getTemplateMode();
+        final Map<String, Object> templateResolutionAttributes = templateSpec.getTemplateResolutionAttributes();
+
+        final TemplateCacheKey cacheKey =
+                new TemplateCacheKey(
+                        null, // ownerTemplate
+                        template, templateSelectors,
+                        0, 0, // lineOffset, colOffset
+                        templateMode,
+                        templateResolutionAttributes);
+
+        /*
+         * First look at the cache - it might be already cached
+         */
+        if (this.templateCache != null) {
+            final TemplateModel cached =  this.templateCache.get(cacheKey);
+            recordTemplateCacheAccess(template, cached != null);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        /*
+         * Resolve the template and build the TemplateData object
+         */
+        final TemplateResolution templateResolution =
+                resolveTemplate(this.configuration, null, template, templateResolutionAttributes, true);
+        final TemplateData templateData =
+                buildTemplateData(templateResolution, template, templateSelectors, templateMode, true);
+
+        /*
+         * Parse the template into a TemplateModel (or load its snapshot, if it has one)
+         */
+        final TemplateModel templateModel =
+                parseTemplateModel(
+                        (this.templateCache != null? cacheKey : null),
+                        templateResolution, templateData, null, template, templateSelectors);
+
+        /*
+         * Cache the template if it is cacheable
+         */
+        if (this.templateCache != null && templateResolution.getValidity().isCacheable()) {
+            this.templateCache.put(cacheKey, templateModel);
+        }
+
+        return templateModel;
+
+    }
+
+
+
+
     /*
      * This method manually applies preprocessors to template models that have just been parsed or obtained from
      * cache. This is needed for fragments, just before these fragments (coming from templates, not simply parsed
@@ -528,6 +744,173 @@ public void process(
 
 
 
+    /**
+     * <p>
+     *   Processes a template model (normally an inserted fragment) in parallel with the template currently being
+     *   executed, by means of the specified executor.
+     * </p>
+     * <p>
+     *   Processing is performed on a new engine context containing a copy of the variables in the specified
+     *   context (lazy variables are copied unresolved, and {@link IDetachableContextVariable} variables
+     *   are detached) plus the additional variables specified, if any. Its selection target and inliner are also
+     *   kept.
+     * </p>
+     * <p>
+     *   The returned text event should be inserted as non-processable text into the model of the template being
+     *   executed. Its output will be written in document order once processing finishes, without blocking the
+     *   processing of the rest of the template until then. If the execution fails, any template models still
+     *   being processed in parallel on its behalf are cancelled.
+     * </p>
+     * <p>
+     *   Parallel processing is only possible for the non-throttled executions started by the
+     *   {@link TemplateEngine}, and for contexts which variables can be safely copied (those created by the default
+     *   engine context implementations). Otherwise, including executions already processing a template model in
+     *   parallel (so that executors with a bounded amount of threads cannot be exhausted by nested fragments),
+     *   this method returns {@code null} and the template model should be processed as usual.
+     * </p>
+     *
+     * @param template the template model to be processed.
+     * @param context the context of the template being executed.
+     * @param variables additional variables to be set (e.g. fragment parameters), can be null.
+     * @param executor the executor that will process the template model.
+     * @return the text event containing the output of the template model, or null if the template model cannot
+     *         be processed in parallel.
+     * @since 3.1.3
+     */
+    public IText processInParallel(
+            final TemplateModel template,
+            final ITemplateContext context,
+            final Map<String,Object> variables,
+            final Executor executor) {
+
+        Validate.isTrue(
+                this.configuration == template.getConfiguration(),
+                "Specified template was built by a different Template Engine instance");
+        Validate.notNull(executor, "Executor cannot be null");
+
+        // Only executions registered for parallel processing will allow it (this leaves out throttled executions,
+        // and also the executions of template models already being processed in parallel)
+        final ParallelFragmentTasks parallelFragmentTasks = this.parallelFragmentTasksByContext.get(context);
+        if (parallelFragmentTasks == null || !isDetachable(context)) {
+            return null;
+        }
+
+        final IEngineContext detachedContext = createDetachedEngineContext(template, context, variables);
+
+        final FutureTask<String> task = new FutureTask<String>(() -> {
+            final FastStringWriter stringWriter = new FastStringWriter(200);
+            process(template, detachedContext, stringWriter);
+            return stringWriter.toString();
+        });
+
+        parallelFragmentTasks.add(task);
+
+        try {
+            executor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            // The executor cannot take more work, so we will simply render the fragment ourselves
+            task.run();
+        }
+
+        return new ParallelFragmentText(task, template.getTemplateData().getTemplate(), -1, -1);
+
+    }
+
+
+    /*
+     * Only the default engine context implementations are known to hold nothing else than their variables (plus
+     * the web exchange, for web contexts). Any others (e.g. the Spring WebFlux ones) could hold objects that
+     * would be lost when copying their variables into a new context.
+     */
+    private static boolean isDetachable(final ITemplateContext context) {
+        final Class<?> contextClass = context.getClass();
+        return contextClass == EngineContext.class ||
+                contextClass == FlatEngineContext.class ||
+                contextClass == WebEngineContext.class;
+    }
+
+
+    /*
+     * Registers an execution as allowing parallel processing of template models, if a fragment rendering executor
+     * has been configured. Returns null if the execution was not registered (nothing to be disposed afterwards).
+     */
+    private ParallelFragmentTasks registerParallelFragmentTasks(final IEngineContext engineContext) {
+        if (this.configuration.getFragmentRenderingExecutor() == null) {
+            return null;
+        }
+        final ParallelFragmentTasks parallelFragmentTasks = new ParallelFragmentTasks();
+        // If the engine context is already registered, this is a nested execution: the outer one owns the tasks
+        return (this.parallelFragmentTasksByContext.putIfAbsent(engineContext, parallelFragmentTasks) == null?
+                    parallelFragmentTasks : null);
+    }
+
+
+    /*
+     * Unregisters an execution from parallel processing of template models, cancelling any of them still being
+     * processed (which will only be the case if the execution failed or their output was never written).
+     */
+    private void disposeParallelFragmentTasks(
+            final IEngineContext engineContext, final ParallelFragmentTasks parallelFragmentTasks) {
+        if (parallelFragmentTasks == null) {
+            return;
+        }
+        this.parallelFragmentTasksByContext.remove(engineContext);
+        parallelFragmentTasks.cancelAll();
+    }
+
+
+    /*
+     * Creates a new engine context that can be used for processing a template model in a different thread, not
+     * sharing any variable storage with the specified context.
+     */
+    private IEngineContext createDetachedEngineContext(
+            final TemplateModel template, final ITemplateContext context, final Map<String,Object> variables) {
+
+        final Set<String> variableNames = context.getVariableNames();
+        final Map<String,Object> detachedVariables =
+                new LinkedHashMap<String, Object>(variableNames.size() + (variables == null? 0 : variables.size()) + 1, 1.0f);
+        for (final String variableName : variableNames) {
+            final Object value =
+                    (context instanceof IEngineContext?
+                            ((IEngineContext) context).getUnresolvedVariable(variableName) : context.getVariable(variableName));
+            detachedVariables.put(
+                    variableName,
+                    (value instanceof IDetachableContextVariable? ((IDetachableContextVariable) value).detach() : value));
+        }
+        if (variables != null) {
+            detachedVariables.putAll(variables);
+        }
+
+        // Web engine contexts store their variables as attributes of the web exchange, so we cannot let the new
+        // context use the original exchange
+        final IContext detachedContext;
+        if (Contexts.isWebContext(context)) {
+            detachedContext =
+                    new WebContext(
+                            new DetachedWebExchange(Contexts.asWebContext(context).getExchange(), detachedVariables),
+                            context.getLocale());
+        } else {
+            detachedContext = new Context(context.getLocale(), detachedVariables);
+        }
+
+        final IEngineContext engineContext =
+                this.configuration.getEngineContextFactory().createEngineContext(
+                        this.configuration, template.getTemplateData(), context.getTemplateResolutionAttributes(),
+                        detachedContext);
+
+        if (context.hasSelectionTarget()) {
+            engineContext.setSelectionTarget(context.getSelectionTarget());
+        }
+        if (context.getInliner() != null) {
+            engineContext.setInliner(context.getInliner());
+        }
+
+        return engineContext;
+
+    }
+
+
+
 
 
 
@@ -550,6 +933,43 @@ public void parseAndProcess(
         Validate.notNull(context, "Context cannot be null");
         Validate.notNull(writer, "Writer cannot be null");
 
+        if (this.metrics == null) {
+            doParseAndProcess(templateSpec, context, writer, null);
+            return;
+        }
+
+        final long startNanos = System.nanoTime();
+
+        final TemplateExecutionMetrics executionMetrics =
+                this.executionMetricsSampler.start();
+        try {
+            doParseAndProcess(templateSpec, context, writer, executionMetrics);
+        } finally {
+            if (executionMetrics != null) {
+                executionMetrics.finish();
+            }
+        }
+
+        long outputBytes = -1L;
+        if (writer instanceof OutputStreamTemplateWriter) {
+            try {
+                outputBytes = ((OutputStreamTemplateWriter) writer).getByteCount();
+            } catch (final IOException e) {
+                throw new TemplateOutputException(
+                        "An error happened while writing template output", templateSpec.getTemplate(), -1, -1, e);
+            }
+        }
+        this.metrics.recordTemplateRender(templateSpec.getTemplate(), System.nanoTime() - startNanos, outputBytes);
+
+    }
+
+
+    private void doParseAndProcess(
+            final TemplateSpec templateSpec,
+            final IContext context,
+            final Writer writer,
+            final TemplateExecutionMetrics executionMetrics) {
+
 
         // TemplateSpec will already have validated its contents, so need to do it here (template selectors,
         // resolution attributes, etc.)
@@ -574,6 +994,7 @@ public void parseAndProcess(
         if (this.templateCache != null) {
 
             final TemplateModel cached =  this.templateCache.get(cacheKey);
+            recordTemplateCacheAccess(template, cached != null);
 
             if (cached != null) {
 
@@ -585,14 +1006,25 @@ public void parseAndProcess(
                  * This is PARSE + PROCESS, so its called from the TemplateEngine, and the only case in which we should apply
                  * both pre-processors and post-processors (besides creating a last output-to-writer step)
                  */
-                final ProcessorTemplateHandler processorTemplateHandler = new ProcessorTemplateHandler();
+                final ProcessorTemplateHandler processorTemplateHandler = allocateProcessorTemplateHandler();
+                processorTemplateHandler.setExecutionMetrics(executionMetrics);
                 final ITemplateHandler processingHandlerChain =
                         createTemplateProcessingHandlerChain(engineContext, true, true, processorTemplateHandler, writer);
 
-                cached.process(processingHandlerChain);
+                // Start loading asynchronous lazy variables so that they are ready (or closer to) when first used
+                cached.getVariableReferences().prefetchAsyncLazyVariables(engineContext);
+
+                final ParallelFragmentTasks parallelFragmentTasks = registerParallelFragmentTasks(engineContext);
+                try {
+                    cached.process(processingHandlerChain);
+                } finally {
+                    disposeParallelFragmentTasks(engineContext, parallelFragmentTasks);
+                }
 
                 EngineContextManager.disposeEngineContext(engineContext);
 
+                releaseProcessingObjects(engineContext, context, processorTemplateHandler);
+
                 return;
 
             }
@@ -626,7 +1058,8 @@ public void parseAndProcess(
          * This is PARSE + PROCESS, so its called from the TemplateEngine, and the only case in which we should apply
          * both pre-processors and post-processors (besides creating a last output-to-writer step)
          */
-        final ProcessorTemplateHandler processorTemplateHandler = new ProcessorTemplateHandler();
+        final ProcessorTemplateHandler processorTemplateHandler = allocateProcessorTemplateHandler();
+        processorTemplateHandler.setExecutionMetrics(executionMetrics);
         final ITemplateHandler processingHandlerChain =
                 createTemplateProcessingHandlerChain(engineContext, true, true, processorTemplateHandler, writer);
 
@@ -638,36 +1071,41 @@ public void parseAndProcess(
 
 
         /*
-         * If the resolved template is cacheable, so we will first read it as an object, cache it, and then process it
+         * Allow fragments to be rendered in parallel, if configured
          */
-        if (templateResolution.getValidity().isCacheable() && this.templateCache != null) {
+        final ParallelFragmentTasks parallelFragmentTasks = registerParallelFragmentTasks(engineContext);
+        try {
 
-            // Create the handler chain to create the Template object
-            final ModelBuilderTemplateHandler builderHandler = new ModelBuilderTemplateHandler(this.configuration, templateData);
+            /*
+             * If the resolved template is cacheable, so we will first read it as an object, cache it, and then process it
+             */
+            if (templateResolution.getValidity().isCacheable() && this.templateCache != null) {
 
-            // Process the template into a TemplateModel
-            parser.parseStandalone(
-                    this.configuration,
-                    null, template, templateSelectors, templateData.getTemplateResource(),
-                    engineContext.getTemplateMode(), templateResolution.getUseDecoupledLogic(), builderHandler);
+                // Process the template into a TemplateModel (or load its snapshot, if it has one)
+                final TemplateModel templateModel =
+                        parseTemplateModel(cacheKey, templateResolution, templateData, null, template, templateSelectors);
 
-            // Obtain the TemplateModel
-            final TemplateModel templateModel = builderHandler.getModel();
+                // Put the new template into cache
+                this.templateCache.put(cacheKey, templateModel);
 
-            // Put the new template into cache
-            this.templateCache.put(cacheKey, templateModel);
+                // Start loading asynchronous lazy variables so that they are ready (or closer to) when first used
+                templateModel.getVariableReferences().prefetchAsyncLazyVariables(engineContext);
 
-            // Process the read (+cached) template itself
-            templateModel.process(processingHandlerChain);
+                // Process the read (+cached) template itself
+                templateModel.process(processingHandlerChain);
 
-        } else {
+            } else {
 
-            //  Process the template, which is not cacheable (so no worry about caching)
-            parser.parseStandalone(
-                    this.configuration,
-                    null, template, templateSelectors, templateData.getTemplateResource(),
-                    engineContext.getTemplateMode(), templateResolution.getUseDecoupledLogic(),  processingHandlerChain);
+                //  Process the template, which is not cacheable (so no worry about caching)
+                parser.parseStandalone(
+                        this.configuration,
+                        null, template, templateSelectors, templateData.getTemplateResource(),
+                        engineContext.getTemplateMode(), templateResolution.getUseDecoupledLogic(),  processingHandlerChain);
+
+            }
 
+        } finally {
+            disposeParallelFragmentTasks(engineContext, parallelFragmentTasks);
         }
 
 
@@ -677,6 +1115,12 @@ public void parseAndProcess(
         EngineContextManager.disposeEngineContext(engineContext);
 
 
+        /*
+         * Release the objects used for processing, if they are pooled
+         */
+        releaseProcessingObjects(engineContext, context, processorTemplateHandler);
+
+
     }
 
 
@@ -722,6 +1166,7 @@ public ThrottledTemplateProcessor parseAndProcessThrottled(final TemplateSpec te
         if (this.templateCache != null) {
 
             final TemplateModel cached =  this.templateCache.get(cacheKey);
+            recordTemplateCacheAccess(template, cached != null);
 
             if (cached != null) {
 
@@ -738,6 +1183,9 @@ public ThrottledTemplateProcessor parseAndProcessThrottled(final TemplateSpec te
                 final ITemplateHandler processingHandlerChain =
                         createTemplateProcessingHandlerChain(engineContext, true, true, processorTemplateHandler, throttledTemplateWriter);
 
+                // Start loading asynchronous lazy variables so that they are ready (or closer to) when first used
+                cached.getVariableReferences().prefetchAsyncLazyVariables(engineContext);
+
                 /*
                  * Return the throttled template processor
                  */
@@ -782,23 +1230,15 @@ public ThrottledTemplateProcessor parseAndProcessThrottled(final TemplateSpec te
                 createTemplateProcessingHandlerChain(engineContext, true, true, processorTemplateHandler, throttledTemplateWriter);
 
 
-        /*
-         * Obtain the parser
-         */
-        final ITemplateParser parser = getParserForTemplateMode(engineContext.getTemplateMode());
-
-
         /*
          * Parse the template into a TemplateModel. Even if we are not using the cache, throttled template processings
          * will always be processed first into a TemplateModel, so that throttling can then be applied on an
          * already-in-memory sequence of events
          */
-        final ModelBuilderTemplateHandler builderHandler = new ModelBuilderTemplateHandler(this.configuration, templateData);
-        parser.parseStandalone(
-                this.configuration,
-                null, template, templateSelectors, templateData.getTemplateResource(),
-                engineContext.getTemplateMode(), templateResolution.getUseDecoupledLogic(), builderHandler);
-        final TemplateModel templateModel = builderHandler.getModel();
+        final TemplateModel templateModel =
+                parseTemplateModel(
+                        (this.templateCache != null? cacheKey : null),
+                        templateResolution, templateData, null, template, templateSelectors);
 
 
         /*
@@ -812,6 +1252,12 @@ public ThrottledTemplateProcessor parseAndProcessThrottled(final TemplateSpec te
         }
 
 
+        /*
+         * Start loading asynchronous lazy variables so that they are ready (or closer to) when first used
+         */
+        templateModel.getVariableReferences().prefetchAsyncLazyVariables(engineContext);
+
+
         /*
          * Return the throttled template processor
          */
@@ -826,6 +1272,163 @@ public ThrottledTemplateProcessor parseAndProcessThrottled(final TemplateSpec te
 
 
 
+    private ProcessorTemplateHandler allocateProcessorTemplateHandler() {
+        if (this.processorTemplateHandlerPool != null) {
+            final ProcessorTemplateHandler processorTemplateHandler = this.processorTemplateHandlerPool.allocate();
+            if (processorTemplateHandler != null) {
+                return processorTemplateHandler;
+            }
+        }
+        return new ProcessorTemplateHandler();
+    }
+
+
+    /*
+     * Only called once processing has finished successfully: objects used in executions that raised exceptions
+     * could be left in an inconsistent state, so they are simply discarded.
+     */
+    private void releaseProcessingObjects(
+            final IEngineContext engineContext, final IContext context,
+            final ProcessorTemplateHandler processorTemplateHandler) {
+        if (this.processorTemplateHandlerPool == null) {
+            return;
+        }
+        if (engineContext != context) {
+            // The engine context was created for this execution, so it can be released to its factory
+            this.configuration.getEngineContextFactory().releaseEngineContext(engineContext);
+        }
+        processorTemplateHandler.reset();
+        this.processorTemplateHandlerPool.release(processorTemplateHandler);
+    }
+
+
+    private void recordTemplateCacheAccess(final String template, final boolean hit) {
+        if (this.metrics != null) {
+            this.metrics.recordTemplateCacheAccess(template, hit);
+        }
+    }
+
+
+
+
+    /*
+     * Parses a template into a TemplateModel. If a snapshot store has been configured and a cache key is specified
+     * (i.e. the resulting model is going to be cached), a valid snapshot will be loaded instead of parsing the
+     * template, and a new snapshot will be written if there is none.
+     *
+     * Also, if template model compilation is enabled, models for cached templates that are going to be processed
+     * directly (i.e. not inserted as fragments, which processors might inspect) will be compiled into static and
+     * dynamic segments.
+     */
+    private TemplateModel parseTemplateModel(
+            final TemplateCacheKey cacheKey, final TemplateResolution templateResolution, final TemplateData templateData,
+            final String ownerTemplate, final String template, final Set<String> templateSelectors) {
+
+        TemplateModelSnapshotStore.TemplateResourceFingerprint fingerprint = null;
+        if (cacheKey != null && this.templateModelSnapshotStore != null
+                && this.templateModelSnapshotStore.isSnapshotable(cacheKey, templateResolution)) {
+            fingerprint = this.templateModelSnapshotStore.computeFingerprint(templateData.getTemplateResource());
+            if (fingerprint != null) {
+                final TemplateModel snapshot =
+                        this.templateModelSnapshotStore.load(this.configuration, cacheKey, templateData, fingerprint);
+                if (snapshot != null) {
+                    return compileIfNeeded(cacheKey, snapshot);
+                }
+            }
+        }
+
+        final ModelBuilderTemplateHandler builderHandler = new ModelBuilderTemplateHandler(this.configuration, templateData);
+
+        final long startNanos = (this.metrics != null ? System.nanoTime() : 0L);
+
+        final ITemplateParser parser = getParserForTemplateMode(templateData.getTemplateMode());
+        parser.parseStandalone(
+                this.configuration,
+                ownerTemplate, template, templateSelectors, templateData.getTemplateResource(),
+                templateData.getTemplateMode(), templateResolution.getUseDecoupledLogic(), builderHandler);
+
+        if (this.metrics != null) {
+            this.metrics.recordTemplateParse(template, templateData.getTemplateMode(), System.nanoTime() - startNanos);
+        }
+
+        final TemplateModel templateModel = builderHandler.getModel();
+
+        if (fingerprint != null) {
+            this.templateModelSnapshotStore.store(cacheKey, templateModel, fingerprint);
+        }
+
+        return compileIfNeeded(cacheKey, templateModel);
+
+    }
+
+
+    /*
+     * Computes the model for a fragment of a template as a slice of the complete template's model, using the
+     * fragment index of the latter. The complete template model is obtained from the template cache (or parsed
+     * and cached if not there yet), so that all fragment lookups on a template share the same parsed events.
+     *
+     * Returns null if the selectors applied are not simple (name-only) ones, or the template uses decoupled logic
+     * (which might depend on the selectors), in which case the template should be parsed normally.
+     */
+    private TemplateModel selectFromCompleteTemplateModel(
+            final TemplateResolution templateResolution, final TemplateData templateData,
+            final String ownerTemplate, final String template, final TemplateMode templateMode,
+            final Map<String,Object> templateResolutionAttributes) {
+
+        final Set<String> templateSelectors = templateData.getTemplateSelectors();
+        if (templateSelectors == null || !templateData.getTemplateMode().isMarkup() || templateResolution.getUseDecoupledLogic()) {
+            return null;
+        }
+        for (final String templateSelector : templateSelectors) {
+            if (!TemplateFragmentIndex.isIndexableSelector(templateSelector)) {
+                return null;
+            }
+        }
+
+        final TemplateCacheKey completeCacheKey =
+                new TemplateCacheKey(ownerTemplate, template, null, 0, 0, templateMode, templateResolutionAttributes);
+
+        TemplateModel completeTemplateModel = this.templateCache.get(completeCacheKey);
+        if (completeTemplateModel == null) {
+            final TemplateData completeTemplateData =
+                    buildTemplateData(templateResolution, template, null, templateMode, true);
+            completeTemplateModel =
+                    parseTemplateModel(completeCacheKey, templateResolution, completeTemplateData, ownerTemplate, template, null);
+            this.templateCache.put(completeCacheKey, completeTemplateModel);
+        }
+
+        return completeTemplateModel.getFragmentIndex().select(templateData, templateSelectors);
+
+    }
+
+
+    /*
+     * Returns the model for a fragment of a template already selected from the complete template's model (see
+     * selectFromCompleteTemplateModel(...)), if the latter is still in the template cache.
+     */
+    private TemplateModel getSelectedFromCompleteTemplateModel(
+            final String ownerTemplate, final String template, final Set<String> templateSelectors,
+            final TemplateMode templateMode, final Map<String,Object> templateResolutionAttributes) {
+
+        final TemplateCacheKey completeCacheKey =
+                new TemplateCacheKey(ownerTemplate, template, null, 0, 0, templateMode, templateResolutionAttributes);
+
+        final TemplateModel completeTemplateModel = this.templateCache.get(completeCacheKey);
+        return (completeTemplateModel == null ? null : completeTemplateModel.getSelectedFragmentModel(templateSelectors));
+
+    }
+
+
+    private TemplateModel compileIfNeeded(final TemplateCacheKey cacheKey, final TemplateModel templateModel) {
+        if (!this.templateModelCompilationEnabled || cacheKey == null || cacheKey.getOwnerTemplate() != null) {
+            return templateModel;
+        }
+        return TemplateModelCompiler.compile(this.configuration, templateModel);
+    }
+
+
+
+
     private static TemplateResolution resolveTemplate(
             final IEngineConfiguration configuration,
             final String ownerTemplate,
@@ -1021,4 +1624,40 @@ private static ITemplateHandler createTemplateProcessingHandlerChain(
 
 
 
+    /*
+     * Bounded pool of processor template handlers, used when engine context pooling is enabled. It never blocks: if
+     * no pooled handlers are available a new one is created, and handlers released when the pool is full are simply
+     * discarded. Critical sections are minimal and never block inside, so this is also safe to use from virtual
+     * threads (unlike thread-local caching, it does not retain one handler per thread).
+     */
+    private static final class ProcessorTemplateHandlerPool {
+
+        private final ProcessorTemplateHandler[] pool;
+        private int size;
+
+        private ProcessorTemplateHandlerPool(final int poolSize) {
+            super();
+            this.pool = new ProcessorTemplateHandler[poolSize];
+            this.size = 0;
+        }
+
+        private synchronized ProcessorTemplateHandler allocate() {
+            if (this.size == 0) {
+                return null;
+            }
+            final ProcessorTemplateHandler processorTemplateHandler = this.pool[--this.size];
+            this.pool[this.size] = null;
+            return processorTemplateHandler;
+        }
+
+        private synchronized void release(final ProcessorTemplateHandler processorTemplateHandler) {
+            if (this.size < this.pool.length) {
+                this.pool[this.size++] = processorTemplateHandler;
+            }
+        }
+
+    }
+
+
+
 }
@@ -21,6 +21,7 @@
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Set;
 
 import org.thymeleaf.IEngineConfiguration;
 import org.thymeleaf.exceptions.TemplateProcessingException;
@@ -44,6 +45,11 @@ public final class TemplateModel implements IModel {
     final TemplateData templateData;
     final IEngineTemplateEvent[] queue; // This is final because this IModel is IMMUTABLE
 
+    // Lazily built, only for complete markup templates from which fragments are selected
+    private volatile TemplateFragmentIndex fragmentIndex = null;
+    // Lazily built, only for top-level templates processed by the engine
+    private volatile TemplateVariableReferences variableReferences = null;
+
 
     // Package-protected constructor, because we don't want anyone creating these objects from outside the engine.
     // If a processor (be it standard or custom-made) wants to create a piece of model, that should be a Model
@@ -83,6 +89,36 @@ public final TemplateMode getTemplateMode() {
     }
 
 
+    /*
+     * Returns the model previously selected from the fragment index of this (complete) model for the specified
+     * selectors, or null if there is none. This never builds the index.
+     */
+    TemplateModel getSelectedFragmentModel(final Set<String> templateSelectors) {
+        final TemplateFragmentIndex index = this.fragmentIndex;
+        return (index == null ? null : index.getSelection(templateSelectors));
+    }
+
+
+    TemplateFragmentIndex getFragmentIndex() {
+        TemplateFragmentIndex index = this.fragmentIndex;
+        if (index == null) {
+            // Building it twice on concurrent first accesses is harmless, only some selections might be computed twice
+            this.fragmentIndex = index = new TemplateFragmentIndex(this);
+        }
+        return index;
+    }
+
+
+    TemplateVariableReferences getVariableReferences() {
+        TemplateVariableReferences references = this.variableReferences;
+        if (references == null) {
+            // Same as with the fragment index, computing these twice on concurrent first accesses is harmless
+            this.variableReferences = references = new TemplateVariableReferences(this);
+        }
+        return references;
+    }
+
+
 
     public final int size() {
         return this.queue.length;
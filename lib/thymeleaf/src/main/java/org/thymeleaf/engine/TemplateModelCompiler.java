@@ -0,0 +1,330 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.processor.cdatasection.ICDATASectionProcessor;
+import org.thymeleaf.processor.comment.ICommentProcessor;
+import org.thymeleaf.processor.text.ITextProcessor;
+import org.thymeleaf.standard.processor.StandardConditionalCommentProcessor;
+import org.thymeleaf.standard.processor.StandardInliningCDATASectionProcessor;
+import org.thymeleaf.standard.processor.StandardInliningCommentProcessor;
+import org.thymeleaf.standard.processor.StandardInliningTextProcessor;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.util.ProcessorConfigurationUtils;
+
+/*
+ * Compiles parsed TemplateModel objects into a plan of static and dynamic segments: sequences of consecutive events
+ * that have no processors associated (and therefore always produce the same output) are pre-rendered into a
+ * single StaticTemplateSegment, so that they are written to output in one call instead of being dispatched one by
+ * one through the whole handler chain on every execution.
+ *
+ * In order to be completely transparent to processors, only balanced sequences of events are compiled (i.e. every
+ * element opened in a segment is also closed in it) and nothing is compiled inside the body of an element that has
+ * processors associated. Also, models are not compiled at all for template modes other than HTML and XML, or
+ * if there are pre-processors or post-processors configured for their template mode (as these would see the
+ * compiled segments instead of the original events).
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+final class TemplateModelCompiler {
+
+    private static final int MIN_SEGMENT_EVENTS = 2;
+
+
+    static TemplateModel compile(final IEngineConfiguration configuration, final TemplateModel templateModel) {
+
+        final TemplateMode templateMode = templateModel.getTemplateMode();
+        if (templateMode != TemplateMode.HTML && templateMode != TemplateMode.XML) {
+            return templateModel;
+        }
+        if (!configuration.getPreProcessors(templateMode).isEmpty() ||
+                !configuration.getPostProcessors(templateMode).isEmpty()) {
+            return templateModel;
+        }
+
+        final StaticEventFilter filter = new StaticEventFilter(configuration, templateMode);
+
+        final IEngineTemplateEvent[] queue = templateModel.queue;
+        final List<IEngineTemplateEvent> compiledQueue = new ArrayList<IEngineTemplateEvent>(queue.length);
+        compiledQueue.add(queue[0]); // TemplateStart
+
+        final int end = queue.length - 1; // TemplateEnd will be the last one
+
+        int i = 1;
+        while (i < end) {
+
+            if (queue[i] instanceof OpenElementTag && !filter.isStatic(queue[i])) {
+                // Nothing is compiled inside the body of an element with processors, as these could need to see
+                // (and manipulate) each of the events in it separately
+                final int elementEnd = computeElementEnd(queue, i, end);
+                for (int j = i; j < elementEnd; j++) {
+                    compiledQueue.add(queue[j]);
+                }
+                i = elementEnd;
+                continue;
+            }
+
+            final int segmentEnd = computeStaticSegmentEnd(filter, queue, i, end);
+
+            if (segmentEnd - i >= MIN_SEGMENT_EVENTS) {
+                compiledQueue.add(createSegment(queue, i, segmentEnd));
+                i = segmentEnd;
+            } else {
+                compiledQueue.add(queue[i]);
+                i++;
+            }
+
+        }
+
+        compiledQueue.add(queue[end]); // TemplateEnd
+
+        if (compiledQueue.size() == queue.length) {
+            // Nothing could be compiled
+            return templateModel;
+        }
+
+        return new TemplateModel(
+                templateModel.configuration, templateModel.templateData,
+                compiledQueue.toArray(new IEngineTemplateEvent[compiledQueue.size()]));
+
+    }
+
+
+
+
+    /*
+     * Returns the (exclusive) index of the end of the longest balanced sequence of static events starting at 'start'.
+     */
+    private static int computeStaticSegmentEnd(
+            final StaticEventFilter filter, final IEngineTemplateEvent[] queue, final int start, final int end) {
+
+        int balancedEnd = start;
+        int depth = 0;
+
+        for (int i = start; i < end; i++) {
+
+            final IEngineTemplateEvent event = queue[i];
+            if (!filter.isStatic(event)) {
+                break;
+            }
+
+            if (event instanceof OpenElementTag) {
+                depth++;
+            } else if (event instanceof CloseElementTag) {
+                if (depth == 0) {
+                    // This closes an element opened before the start of the segment
+                    break;
+                }
+                depth--;
+            }
+
+            if (depth == 0) {
+                balancedEnd = i + 1;
+            }
+
+        }
+
+        if (balancedEnd > start && balancedEnd < end &&
+                isElement(queue[balancedEnd]) && !filter.isStatic(queue[balancedEnd])) {
+            // Whitespace directly preceding an element with processors is left out of the segment, as it might be
+            // needed on its own (e.g. for computing the whitespace to be output between iterations of a th:each)
+            final IEngineTemplateEvent last = queue[balancedEnd - 1];
+            if (last instanceof Text && ((Text) last).isWhitespace()) {
+                balancedEnd--;
+            }
+        }
+
+        return balancedEnd;
+
+    }
+
+
+    /*
+     * Returns the (exclusive) index of the close tag matching the open tag at 'start'. If no matching close
+     * tag can be found, the end of the queue is returned.
+     */
+    private static int computeElementEnd(final IEngineTemplateEvent[] queue, final int start, final int end) {
+
+        int depth = 0;
+
+        for (int i = start; i < end; i++) {
+
+            final IEngineTemplateEvent event = queue[i];
+            if (event instanceof OpenElementTag) {
+                depth++;
+            } else if (event instanceof CloseElementTag && !((CloseElementTag) event).unmatched) {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+
+        }
+
+        return end;
+
+    }
+
+
+    private static boolean isElement(final IEngineTemplateEvent event) {
+        return event instanceof OpenElementTag || event instanceof StandaloneElementTag;
+    }
+
+
+    private static StaticTemplateSegment createSegment(
+            final IEngineTemplateEvent[] queue, final int start, final int end) {
+
+        final IEngineTemplateEvent[] events = Arrays.copyOfRange(queue, start, end);
+
+        final CharArrayWriter writer = new CharArrayWriter(256);
+        try {
+            for (int i = 0; i < events.length; i++) {
+                events[i].write(writer);
+            }
+        } catch (final IOException e) {
+            // Should never happen, as we are writing to memory
+            throw new TemplateProcessingException("Error while pre-rendering static template segment", e);
+        }
+
+        final IEngineTemplateEvent first = events[0];
+        return new StaticTemplateSegment(
+                events, writer.toCharArray(), first.getTemplateName(), first.getLine(), first.getCol());
+
+    }
+
+
+
+
+    /*
+     * Determines which events can be considered static for a specific configuration and template mode. Texts,
+     * comments and CDATA sections are only considered if the processors configured for them are the standard
+     * inlining ones (which we know to do nothing on events without inlined expressions).
+     */
+    private static final class StaticEventFilter {
+
+        private final boolean staticTexts;
+        private final boolean staticComments;
+        private final boolean staticCDATASections;
+        private final boolean staticDocTypes;
+        private final boolean staticXMLDeclarations;
+        private final boolean staticProcessingInstructions;
+
+
+        StaticEventFilter(final IEngineConfiguration configuration, final TemplateMode templateMode) {
+
+            super();
+
+            this.staticTexts = areStandardTextProcessors(configuration.getTextProcessors(templateMode));
+            this.staticComments = areStandardCommentProcessors(configuration.getCommentProcessors(templateMode));
+            this.staticCDATASections = areStandardCDATASectionProcessors(configuration.getCDATASectionProcessors(templateMode));
+            this.staticDocTypes = configuration.getDocTypeProcessors(templateMode).isEmpty();
+            this.staticXMLDeclarations = configuration.getXMLDeclarationProcessors(templateMode).isEmpty();
+            this.staticProcessingInstructions = configuration.getProcessingInstructionProcessors(templateMode).isEmpty();
+
+        }
+
+
+        boolean isStatic(final IEngineTemplateEvent event) {
+
+            if (event instanceof OpenElementTag) {
+                return !((OpenElementTag) event).hasAssociatedProcessors();
+            }
+            if (event instanceof CloseElementTag) {
+                return !((CloseElementTag) event).unmatched;
+            }
+            if (event instanceof StandaloneElementTag) {
+                return !((StandaloneElementTag) event).hasAssociatedProcessors();
+            }
+            if (event instanceof Text) {
+                return this.staticTexts && !((Text) event).isInlineable();
+            }
+            if (event instanceof Comment) {
+                // Conditional comments and inlined expressions both need a '[' in the comment's content
+                return this.staticComments && ((Comment) event).getContent().indexOf('[') < 0;
+            }
+            if (event instanceof CDATASection) {
+                return this.staticCDATASections && !((CDATASection) event).isInlineable();
+            }
+            if (event instanceof DocType) {
+                return this.staticDocTypes;
+            }
+            if (event instanceof XMLDeclaration) {
+                return this.staticXMLDeclarations;
+            }
+            if (event instanceof ProcessingInstruction) {
+                return this.staticProcessingInstructions;
+            }
+            return false;
+
+        }
+
+
+        private static boolean areStandardTextProcessors(final Set<ITextProcessor> processors) {
+            for (final ITextProcessor processor : processors) {
+                if (!(ProcessorConfigurationUtils.unwrap(processor) instanceof StandardInliningTextProcessor)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+
+        private static boolean areStandardCommentProcessors(final Set<ICommentProcessor> processors) {
+            for (final ICommentProcessor processor : processors) {
+                final ICommentProcessor unwrapped = ProcessorConfigurationUtils.unwrap(processor);
+                if (!(unwrapped instanceof StandardInliningCommentProcessor) &&
+                        !(unwrapped instanceof StandardConditionalCommentProcessor)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+
+        private static boolean areStandardCDATASectionProcessors(final Set<ICDATASectionProcessor> processors) {
+            for (final ICDATASectionProcessor processor : processors) {
+                if (!(ProcessorConfigurationUtils.unwrap(processor) instanceof StandardInliningCDATASectionProcessor)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+
+
+
+    private TemplateModelCompiler() {
+        super();
+    }
+
+
+}
@@ -101,7 +101,7 @@ enum SkipBody {
     private final IEngineConfiguration configuration;
     private final TemplateMode templateMode;
     private final ProcessorTemplateHandler processorTemplateHandler;
-    private final IEngineContext context;
+    private IEngineContext context; // not final, as it can be reset for reusing this controller
 
     private TemplateFlowController templateFlowController;
 
@@ -148,6 +148,32 @@ enum SkipBody {
     }
 
 
+    /*
+     * Resets this controller to its initial state so that it can be reused (along with its processor template
+     * handler) for processing a new template with the same configuration and template mode.
+     */
+    void reset(final IEngineContext context) {
+
+        this.context = context;
+        this.templateFlowController = null;
+
+        this.gatheredModel = null;
+
+        this.modelLevel = 0;
+
+        Arrays.fill(this.skipBodyByLevel, null);
+        this.skipBodyByLevel[this.modelLevel] = SkipBody.PROCESS;
+        this.skipBody = this.skipBodyByLevel[this.modelLevel];
+
+        Arrays.fill(this.skipCloseTagByLevel, false);
+        Arrays.fill(this.unskippedFirstElementByLevel, null);
+
+        this.lastEvent = null;
+        this.secondToLastEvent = null;
+
+    }
+
+
     void setTemplateFlowController(final TemplateFlowController templateFlowController) {
         this.templateFlowController = templateFlowController;
     }
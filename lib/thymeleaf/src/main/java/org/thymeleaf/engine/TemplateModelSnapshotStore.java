@@ -0,0 +1,805 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.Thymeleaf;
+import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.model.AttributeValueQuotes;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.TemplateResolution;
+import org.thymeleaf.templateresource.ITemplateResource;
+import org.thymeleaf.util.LoggingUtils;
+import org.thymeleaf.util.Validate;
+
+
+/**
+ * <p>
+ *   Persistent, on-disk store of parsed {@link TemplateModel} objects, meant to avoid re-parsing template markup
+ *   every time the JVM starts.
+ * </p>
+ * <p>
+ *   When configured at the {@link TemplateEngine} (see
+ *   {@link TemplateEngine#setTemplateModelSnapshotStore(TemplateModelSnapshotStore)}), the {@link TemplateManager}
+ *   will write a binary snapshot of every cacheable template it parses into the configured directory, and will
+ *   load (memory-map) these snapshots back instead of parsing the template markup whenever the template is not
+ *   found in the template cache.
+ * </p>
+ * <p>
+ *   Snapshots are validated against a fingerprint (length and hash) of the contents of the template resource, and
+ *   also against the version of Thymeleaf that created them, so that modified templates are always re-parsed.
+ *   Element and attribute definitions are not stored in snapshots, but resolved by name on load from the engine
+ *   configuration, so snapshots are not affected by changes in the configured dialects.
+ * </p>
+ * <p>
+ *   Only templates resolved as cacheable, not using decoupled template logic and not specifying template
+ *   resolution attributes will be snapshotted.
+ * </p>
+ * <p>
+ *   Objects of this class are <strong>thread-safe</strong>.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class TemplateModelSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateModelSnapshotStore.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x544C4D53; // "TLMS"
+    private static final int SNAPSHOT_FORMAT_VERSION = 1;
+    private static final String SNAPSHOT_FILE_SUFFIX = ".tlms";
+
+    private static final byte EVENT_TEXT = 1;
+    private static final byte EVENT_COMMENT = 2;
+    private static final byte EVENT_CDATA_SECTION = 3;
+    private static final byte EVENT_DOCTYPE = 4;
+    private static final byte EVENT_XML_DECLARATION = 5;
+    private static final byte EVENT_PROCESSING_INSTRUCTION = 6;
+    private static final byte EVENT_OPEN_ELEMENT = 7;
+    private static final byte EVENT_CLOSE_ELEMENT = 8;
+    private static final byte EVENT_STANDALONE_ELEMENT = 9;
+
+    private static final int NULL_INDEX = -1;
+
+    private static final long FNV64_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV64_PRIME = 0x100000001b3L;
+
+    private static final TemplateMode[] TEMPLATE_MODES = TemplateMode.values();
+    private static final AttributeValueQuotes[] ATTRIBUTE_VALUE_QUOTES = AttributeValueQuotes.values();
+
+    private final File directory;
+
+
+
+
+    /**
+     * <p>
+     *   Creates a new snapshot store, which will read and write snapshots in the specified directory.
+     * </p>
+     * <p>
+     *   The directory will be created when the first snapshot is written, if it does not exist yet.
+     * </p>
+     *
+     * @param directory the directory where snapshots will be stored.
+     */
+    public TemplateModelSnapshotStore(final File directory) {
+        super();
+        Validate.notNull(directory, "Snapshot directory cannot be null");
+        Validate.isTrue(
+                !directory.exists() || directory.isDirectory(),
+                "Snapshot directory \"" + directory.getAbsolutePath() + "\" exists but is not a directory");
+        this.directory = directory;
+    }
+
+
+
+
+    /**
+     * <p>
+     *   Returns the directory in which snapshots are stored.
+     * </p>
+     *
+     * @return the snapshot directory.
+     */
+    public File getDirectory() {
+        return this.directory;
+    }
+
+
+
+
+    /**
+     * <p>
+     *   Deletes all the snapshots contained in the snapshot directory.
+     * </p>
+     */
+    public void clear() {
+        final File[] snapshotFiles = this.directory.listFiles();
+        if (snapshotFiles == null) {
+            return;
+        }
+        for (final File snapshotFile : snapshotFiles) {
+            if (snapshotFile.getName().endsWith(SNAPSHOT_FILE_SUFFIX) && !snapshotFile.delete()) {
+                logger.warn(
+                        "[THYMELEAF][{}] Could not delete template model snapshot \"{}\"",
+                        TemplateEngine.threadIndex(), snapshotFile.getAbsolutePath());
+            }
+        }
+    }
+
+
+
+
+    /*
+     * Determines whether a template (already resolved) can be snapshotted at all.
+     */
+    boolean isSnapshotable(final TemplateCacheKey cacheKey, final TemplateResolution templateResolution) {
+        if (!templateResolution.getValidity().isCacheable() || templateResolution.getUseDecoupledLogic()) {
+            return false;
+        }
+        final Map<String,Object> templateResolutionAttributes = cacheKey.getTemplateResolutionAttributes();
+        return (templateResolutionAttributes == null || templateResolutionAttributes.isEmpty());
+    }
+
+
+
+
+    /*
+     * Computes the fingerprint of the template resource (its contents' length and FNV-1a hash), which will be used
+     * for determining whether an existing snapshot is still valid. Returns null if the resource could not be read.
+     */
+    TemplateResourceFingerprint computeFingerprint(final ITemplateResource templateResource) {
+
+        Reader reader = null;
+        try {
+
+            reader = templateResource.reader();
+
+            final char[] buffer = new char[4096];
+            long hash = FNV64_OFFSET_BASIS;
+            long length = 0L;
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    hash ^= buffer[i];
+                    hash *= FNV64_PRIME;
+                }
+                length += read;
+            }
+
+            return new TemplateResourceFingerprint(length, hash);
+
+        } catch (final IOException e) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(
+                        "[THYMELEAF][{}] Could not compute fingerprint of template resource \"{}\": {}",
+                        new Object[] {TemplateEngine.threadIndex(), templateResource.getDescription(), e.getMessage()});
+            }
+            return null;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (final IOException ignored) {
+                    // Nothing to do here
+                }
+            }
+        }
+
+    }
+
+
+
+
+    /*
+     * Loads a snapshot for the specified template, returning null if there is no snapshot or it is not valid anymore.
+     */
+    TemplateModel load(
+            final IEngineConfiguration configuration, final TemplateCacheKey cacheKey,
+            final TemplateData templateData, final TemplateResourceFingerprint fingerprint) {
+
+        final String descriptor = computeDescriptor(cacheKey, templateData);
+        final File snapshotFile = computeSnapshotFile(descriptor);
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+
+        try {
+
+            // Snapshots are small, so they are read into the heap instead of mapped: mappings (and, on some
+            // platforms, the file locks that come with them) would live until GC, making replacing or deleting
+            // recently loaded snapshots fail.
+            final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotFile.toPath()));
+
+            final TemplateModel templateModel = readSnapshot(configuration, templateData, descriptor, fingerprint, buffer);
+
+            if (logger.isTraceEnabled()) {
+                logger.trace(
+                        "[THYMELEAF][{}] Template model snapshot for template \"{}\" {}",
+                        new Object[] {TemplateEngine.threadIndex(), LoggingUtils.loggifyTemplateName(templateData.getTemplate()),
+                                      (templateModel != null? "loaded" : "is outdated")});
+            }
+
+            return templateModel;
+
+        } catch (final Exception e) {
+            // Snapshots are just an optimization: a corrupt or unreadable snapshot should never make processing fail
+            logger.warn(
+                    "[THYMELEAF][{}] Could not read template model snapshot \"{}\" for template \"{}\", template will " +
+                    "be parsed again: {}",
+                    new Object[] {TemplateEngine.threadIndex(), snapshotFile.getAbsolutePath(),
+                                  LoggingUtils.loggifyTemplateName(templateData.getTemplate()), e.getMessage()});
+            return null;
+        }
+
+    }
+
+
+
+
+    /*
+     * Writes a snapshot for the specified template. Failures are logged, but never propagated.
+     */
+    void store(
+            final TemplateCacheKey cacheKey, final TemplateModel templateModel,
+            final TemplateResourceFingerprint fingerprint) {
+
+        final String descriptor = computeDescriptor(cacheKey, templateModel.getTemplateData());
+        final File snapshotFile = computeSnapshotFile(descriptor);
+
+        File tempFile = null;
+        try {
+
+            final byte[] snapshot = writeSnapshot(descriptor, fingerprint, templateModel);
+            if (snapshot == null) {
+                // The model contains events that cannot be snapshotted
+                return;
+            }
+
+            if (!this.directory.isDirectory() && !this.directory.mkdirs() && !this.directory.isDirectory()) {
+                throw new IOException("Could not create directory \"" + this.directory.getAbsolutePath() + "\"");
+            }
+
+            // Snapshots are first written into a temporary file and then moved, so that concurrent readers
+            // (or writers) never see a partially written snapshot
+            tempFile = File.createTempFile("snapshot", ".tmp", this.directory);
+            final FileOutputStream outputStream = new FileOutputStream(tempFile);
+            try {
+                outputStream.write(snapshot);
+            } finally {
+                outputStream.close();
+            }
+
+            try {
+                Files.move(
+                        tempFile.toPath(), snapshotFile.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempFile = null;
+
+        } catch (final Exception e) {
+            logger.warn(
+                    "[THYMELEAF][{}] Could not write template model snapshot \"{}\" for template \"{}\": {}",
+                    new Object[] {TemplateEngine.threadIndex(), snapshotFile.getAbsolutePath(),
+                                  LoggingUtils.loggifyTemplateName(templateModel.getTemplateData().getTemplate()),
+                                  e.getMessage()});
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+
+    }
+
+
+
+
+    private static String computeDescriptor(final TemplateCacheKey cacheKey, final TemplateData templateData) {
+        final StringBuilder strBuilder = new StringBuilder(64);
+        strBuilder.append(cacheKey.getOwnerTemplate());
+        strBuilder.append('\u0000').append(cacheKey.getTemplate());
+        strBuilder.append('\u0000').append(cacheKey.getTemplateSelectors());
+        strBuilder.append('\u0000').append(cacheKey.getLineOffset());
+        strBuilder.append('\u0000').append(cacheKey.getColOffset());
+        strBuilder.append('\u0000').append(templateData.getTemplateMode());
+        return strBuilder.toString();
+    }
+
+
+    private File computeSnapshotFile(final String descriptor) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-1
+            throw new IllegalStateException("SHA-1 message digest is not available", e);
+        }
+        final byte[] hash = digest.digest(descriptor.getBytes(StandardCharsets.UTF_8));
+        final StringBuilder strBuilder = new StringBuilder(hash.length * 2 + SNAPSHOT_FILE_SUFFIX.length());
+        for (final byte b : hash) {
+            strBuilder.append(Character.forDigit((b >> 4) & 0xF, 16));
+            strBuilder.append(Character.forDigit(b & 0xF, 16));
+        }
+        strBuilder.append(SNAPSHOT_FILE_SUFFIX);
+        return new File(this.directory, strBuilder.toString());
+    }
+
+
+
+
+    /*
+     * ---------------------------------------------------------------------------------------------------
+     * SNAPSHOT FORMAT (all numbers big-endian):
+     *
+     *    int     magic number ("TLMS")
+     *    int     format version
+     *    string  Thymeleaf version
+     *    string  template descriptor (owner template, template, selectors, offsets and template mode)
+     *    long    template resource length (in chars)
+     *    long    template resource hash (FNV-1a, 64 bit)
+     *    int     number of strings in the string table, followed by the strings (length in bytes + UTF-8)
+     *    int     number of events (excluding TemplateStart and TemplateEnd), followed by the events, each
+     *            one starting with a byte specifying its type. Strings are referenced by their index in the
+     *            string table (-1 meaning null).
+     * ---------------------------------------------------------------------------------------------------
+     */
+
+
+    private static byte[] writeSnapshot(
+            final String descriptor, final TemplateResourceFingerprint fingerprint, final TemplateModel templateModel)
+            throws IOException {
+
+        final StringTable stringTable = new StringTable();
+
+        final IEngineTemplateEvent[] queue = templateModel.queue;
+        final ByteArrayOutputStream eventBytes = new ByteArrayOutputStream(queue.length * 24);
+        final DataOutputStream events = new DataOutputStream(eventBytes);
+
+        // First and last events will always be TemplateStart and TemplateEnd, which are not snapshotted
+        for (int i = 1; i < queue.length - 1; i++) {
+            if (!writeEvent(events, stringTable, queue[i])) {
+                return null;
+            }
+        }
+        events.flush();
+
+        final ByteArrayOutputStream snapshotBytes = new ByteArrayOutputStream(eventBytes.size() + 1024);
+        final DataOutputStream snapshot = new DataOutputStream(new BufferedOutputStream(snapshotBytes));
+
+        snapshot.writeInt(SNAPSHOT_MAGIC);
+        snapshot.writeInt(SNAPSHOT_FORMAT_VERSION);
+        writeString(snapshot, Thymeleaf.getVersion());
+        writeString(snapshot, descriptor);
+        snapshot.writeLong(fingerprint.length);
+        snapshot.writeLong(fingerprint.hash);
+
+        snapshot.writeInt(stringTable.strings.size());
+        for (final String string : stringTable.strings) {
+            writeString(snapshot, string);
+        }
+
+        snapshot.writeInt(queue.length - 2);
+        eventBytes.writeTo(snapshot);
+
+        snapshot.flush();
+
+        return snapshotBytes.toByteArray();
+
+    }
+
+
+    private static boolean writeEvent(
+            final DataOutputStream out, final StringTable stringTable, final IEngineTemplateEvent event)
+            throws IOException {
+
+        if (event instanceof OpenElementTag) {
+            final OpenElementTag tag = (OpenElementTag) event;
+            out.writeByte(EVENT_OPEN_ELEMENT);
+            writeElementTag(out, stringTable, tag);
+            writeAttributes(out, stringTable, tag.attributes);
+        } else if (event instanceof CloseElementTag) {
+            final CloseElementTag tag = (CloseElementTag) event;
+            out.writeByte(EVENT_CLOSE_ELEMENT);
+            writeElementTag(out, stringTable, tag);
+            out.writeInt(stringTable.indexOf(tag.trailingWhiteSpace));
+            out.writeBoolean(tag.unmatched);
+        } else if (event instanceof StandaloneElementTag) {
+            final StandaloneElementTag tag = (StandaloneElementTag) event;
+            out.writeByte(EVENT_STANDALONE_ELEMENT);
+            writeElementTag(out, stringTable, tag);
+            writeAttributes(out, stringTable, tag.attributes);
+            out.writeBoolean(tag.minimized);
+        } else if (event instanceof Text) {
+            final Text text = (Text) event;
+            out.writeByte(EVENT_TEXT);
+            writeLocation(out, stringTable, text);
+            out.writeInt(stringTable.indexOf(text.getContentText()));
+        } else if (event instanceof Comment) {
+            final Comment comment = (Comment) event;
+            out.writeByte(EVENT_COMMENT);
+            writeLocation(out, stringTable, comment);
+            out.writeInt(stringTable.indexOf(comment.prefix));
+            out.writeInt(stringTable.indexOf(comment.getContentText()));
+            out.writeInt(stringTable.indexOf(comment.suffix));
+        } else if (event instanceof CDATASection) {
+            final CDATASection cdataSection = (CDATASection) event;
+            out.writeByte(EVENT_CDATA_SECTION);
+            writeLocation(out, stringTable, cdataSection);
+            out.writeInt(stringTable.indexOf(cdataSection.prefix));
+            out.writeInt(stringTable.indexOf(cdataSection.getContentText()));
+            out.writeInt(stringTable.indexOf(cdataSection.suffix));
+        } else if (event instanceof DocType) {
+            final DocType docType = (DocType) event;
+            out.writeByte(EVENT_DOCTYPE);
+            writeLocation(out, stringTable, docType);
+            out.writeInt(stringTable.indexOf(docType.getDocType()));
+            out.writeInt(stringTable.indexOf(docType.getKeyword()));
+            out.writeInt(stringTable.indexOf(docType.getElementName()));
+            out.writeInt(stringTable.indexOf(docType.getPublicId()));
+            out.writeInt(stringTable.indexOf(docType.getSystemId()));
+            out.writeInt(stringTable.indexOf(docType.getInternalSubset()));
+        } else if (event instanceof XMLDeclaration) {
+            final XMLDeclaration xmlDeclaration = (XMLDeclaration) event;
+            out.writeByte(EVENT_XML_DECLARATION);
+            writeLocation(out, stringTable, xmlDeclaration);
+            out.writeInt(stringTable.indexOf(xmlDeclaration.getXmlDeclaration()));
+            out.writeInt(stringTable.indexOf(xmlDeclaration.getKeyword()));
+            out.writeInt(stringTable.indexOf(xmlDeclaration.getVersion()));
+            out.writeInt(stringTable.indexOf(xmlDeclaration.getEncoding()));
+            out.writeInt(stringTable.indexOf(xmlDeclaration.getStandalone()));
+        } else if (event instanceof ProcessingInstruction) {
+            final ProcessingInstruction processingInstruction = (ProcessingInstruction) event;
+            out.writeByte(EVENT_PROCESSING_INSTRUCTION);
+            writeLocation(out, stringTable, processingInstruction);
+            out.writeInt(stringTable.indexOf(processingInstruction.getProcessingInstruction()));
+            out.writeInt(stringTable.indexOf(processingInstruction.getTarget()));
+            out.writeInt(stringTable.indexOf(processingInstruction.getContent()));
+        } else {
+            return false;
+        }
+
+        return true;
+
+    }
+
+
+    private static void writeLocation(
+            final DataOutputStream out, final StringTable stringTable, final AbstractTemplateEvent event)
+            throws IOException {
+        out.writeInt(stringTable.indexOf(event.templateName));
+        out.writeInt(event.line);
+        out.writeInt(event.col);
+    }
+
+
+    private static void writeElementTag(
+            final DataOutputStream out, final StringTable stringTable, final AbstractElementTag tag)
+            throws IOException {
+        writeLocation(out, stringTable, tag);
+        out.writeByte(tag.templateMode.ordinal());
+        out.writeInt(stringTable.indexOf(tag.elementCompleteName));
+        out.writeBoolean(tag.synthetic);
+    }
+
+
+    private static void writeAttributes(
+            final DataOutputStream out, final StringTable stringTable, final Attributes attributes)
+            throws IOException {
+
+        if (attributes == null) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+
+        final Attribute[] attributeArray = attributes.attributes;
+        if (attributeArray == null) {
+            out.writeInt(NULL_INDEX);
+        } else {
+            out.writeInt(attributeArray.length);
+            for (final Attribute attribute : attributeArray) {
+                out.writeInt(stringTable.indexOf(attribute.completeName));
+                out.writeInt(stringTable.indexOf(attribute.operator));
+                out.writeInt(stringTable.indexOf(attribute.value));
+                out.writeByte(attribute.valueQuotes == null? NULL_INDEX : attribute.valueQuotes.ordinal());
+                out.writeInt(stringTable.indexOf(attribute.templateName));
+                out.writeInt(attribute.line);
+                out.writeInt(attribute.col);
+            }
+        }
+
+        final String[] innerWhiteSpaces = attributes.innerWhiteSpaces;
+        if (innerWhiteSpaces == null) {
+            out.writeInt(NULL_INDEX);
+        } else {
+            out.writeInt(innerWhiteSpaces.length);
+            for (final String innerWhiteSpace : innerWhiteSpaces) {
+                out.writeInt(stringTable.indexOf(innerWhiteSpace));
+            }
+        }
+
+    }
+
+
+    private static void writeString(final DataOutputStream out, final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+
+
+
+    private static TemplateModel readSnapshot(
+            final IEngineConfiguration configuration, final TemplateData templateData, final String descriptor,
+            final TemplateResourceFingerprint fingerprint, final ByteBuffer in) {
+
+        if (in.getInt() != SNAPSHOT_MAGIC) {
+            throw new IllegalStateException("Not a template model snapshot");
+        }
+        if (in.getInt() != SNAPSHOT_FORMAT_VERSION
+                || !Thymeleaf.getVersion().equals(readString(in))
+                || !descriptor.equals(readString(in))
+                || in.getLong() != fingerprint.length
+                || in.getLong() != fingerprint.hash) {
+            return null;
+        }
+
+        final String[] strings = new String[in.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(in);
+        }
+
+        final ElementDefinitions elementDefinitions = configuration.getElementDefinitions();
+        final AttributeDefinitions attributeDefinitions = configuration.getAttributeDefinitions();
+
+        final int eventCount = in.getInt();
+        final IEngineTemplateEvent[] queue = new IEngineTemplateEvent[eventCount + 2];
+        queue[0] = TemplateStart.TEMPLATE_START_INSTANCE;
+        for (int i = 1; i <= eventCount; i++) {
+            queue[i] = readEvent(in, strings, elementDefinitions, attributeDefinitions);
+        }
+        queue[queue.length - 1] = TemplateEnd.TEMPLATE_END_INSTANCE;
+
+        return new TemplateModel(configuration, templateData, queue);
+
+    }
+
+
+    private static IEngineTemplateEvent readEvent(
+            final ByteBuffer in, final String[] strings,
+            final ElementDefinitions elementDefinitions, final AttributeDefinitions attributeDefinitions) {
+
+        final byte eventType = in.get();
+
+        final String templateName = readStringRef(in, strings);
+        final int line = in.getInt();
+        final int col = in.getInt();
+
+        switch (eventType) {
+            case EVENT_OPEN_ELEMENT: {
+                final TemplateMode templateMode = TEMPLATE_MODES[in.get()];
+                final String elementCompleteName = readStringRef(in, strings);
+                final boolean synthetic = in.get() != 0;
+                final Attributes attributes = readAttributes(in, strings, attributeDefinitions, templateMode);
+                return new OpenElementTag(
+                        templateMode, elementDefinitions.forName(templateMode, elementCompleteName), elementCompleteName,
+                        attributes, synthetic, templateName, line, col);
+            }
+            case EVENT_CLOSE_ELEMENT: {
+                final TemplateMode templateMode = TEMPLATE_MODES[in.get()];
+                final String elementCompleteName = readStringRef(in, strings);
+                final boolean synthetic = in.get() != 0;
+                final String trailingWhiteSpace = readStringRef(in, strings);
+                final boolean unmatched = in.get() != 0;
+                return new CloseElementTag(
+                        templateMode, elementDefinitions.forName(templateMode, elementCompleteName), elementCompleteName,
+                        trailingWhiteSpace, synthetic, unmatched, templateName, line, col);
+            }
+            case EVENT_STANDALONE_ELEMENT: {
+                final TemplateMode templateMode = TEMPLATE_MODES[in.get()];
+                final String elementCompleteName = readStringRef(in, strings);
+                final boolean synthetic = in.get() != 0;
+                final Attributes attributes = readAttributes(in, strings, attributeDefinitions, templateMode);
+                final boolean minimized = in.get() != 0;
+                return new StandaloneElementTag(
+                        templateMode, elementDefinitions.forName(templateMode, elementCompleteName), elementCompleteName,
+                        attributes, synthetic, minimized, templateName, line, col);
+            }
+            case EVENT_TEXT:
+                return new Text(readStringRef(in, strings), templateName, line, col);
+            case EVENT_COMMENT: {
+                final String prefix = readStringRef(in, strings);
+                final String content = readStringRef(in, strings);
+                final String suffix = readStringRef(in, strings);
+                return new Comment(prefix, content, suffix, templateName, line, col);
+            }
+            case EVENT_CDATA_SECTION: {
+                final String prefix = readStringRef(in, strings);
+                final String content = readStringRef(in, strings);
+                final String suffix = readStringRef(in, strings);
+                return new CDATASection(prefix, content, suffix, templateName, line, col);
+            }
+            case EVENT_DOCTYPE: {
+                final String docType = readStringRef(in, strings);
+                final String keyword = readStringRef(in, strings);
+                final String elementName = readStringRef(in, strings);
+                final String publicId = readStringRef(in, strings);
+                final String systemId = readStringRef(in, strings);
+                final String internalSubset = readStringRef(in, strings);
+                return new DocType(
+                        docType, keyword, elementName, publicId, systemId, internalSubset, templateName, line, col);
+            }
+            case EVENT_XML_DECLARATION: {
+                final String xmlDeclaration = readStringRef(in, strings);
+                final String keyword = readStringRef(in, strings);
+                final String version = readStringRef(in, strings);
+                final String encoding = readStringRef(in, strings);
+                final String standalone = readStringRef(in, strings);
+                return new XMLDeclaration(
+                        xmlDeclaration, keyword, version, encoding, standalone, templateName, line, col);
+            }
+            case EVENT_PROCESSING_INSTRUCTION: {
+                final String processingInstruction = readStringRef(in, strings);
+                final String target = readStringRef(in, strings);
+                final String content = readStringRef(in, strings);
+                return new ProcessingInstruction(processingInstruction, target, content, templateName, line, col);
+            }
+            default:
+                throw new IllegalStateException("Unrecognized event type in snapshot: " + eventType);
+        }
+
+    }
+
+
+    private static Attributes readAttributes(
+            final ByteBuffer in, final String[] strings,
+            final AttributeDefinitions attributeDefinitions, final TemplateMode templateMode) {
+
+        if (in.get() == 0) {
+            return null;
+        }
+
+        final int attributeCount = in.getInt();
+        final Attribute[] attributes;
+        if (attributeCount == NULL_INDEX) {
+            attributes = null;
+        } else {
+            attributes = new Attribute[attributeCount];
+            for (int i = 0; i < attributeCount; i++) {
+                final String completeName = readStringRef(in, strings);
+                final String operator = readStringRef(in, strings);
+                final String value = readStringRef(in, strings);
+                final byte valueQuotesOrdinal = in.get();
+                final String templateName = readStringRef(in, strings);
+                final int line = in.getInt();
+                final int col = in.getInt();
+                attributes[i] =
+                        new Attribute(
+                                attributeDefinitions.forName(templateMode, completeName), completeName, operator, value,
+                                (valueQuotesOrdinal == NULL_INDEX? null : ATTRIBUTE_VALUE_QUOTES[valueQuotesOrdinal]),
+                                templateName, line, col);
+            }
+        }
+
+        final int innerWhiteSpaceCount = in.getInt();
+        final String[] innerWhiteSpaces;
+        if (innerWhiteSpaceCount == NULL_INDEX) {
+            innerWhiteSpaces = null;
+        } else {
+            innerWhiteSpaces = new String[innerWhiteSpaceCount];
+            for (int i = 0; i < innerWhiteSpaceCount; i++) {
+                innerWhiteSpaces[i] = readStringRef(in, strings);
+            }
+        }
+
+        return new Attributes(attributes, innerWhiteSpaces);
+
+    }
+
+
+    private static String readStringRef(final ByteBuffer in, final String[] strings) {
+        final int index = in.getInt();
+        return (index == NULL_INDEX? null : strings[index]);
+    }
+
+
+    private static String readString(final ByteBuffer in) {
+        final byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+
+
+    /*
+     * Contents fingerprint of a template resource, used for validating snapshots.
+     */
+    static final class TemplateResourceFingerprint {
+
+        final long length;
+        final long hash;
+
+        TemplateResourceFingerprint(final long length, final long hash) {
+            super();
+            this.length = length;
+            this.hash = hash;
+        }
+
+    }
+
+
+
+
+    /*
+     * Deduplicating string table. Most strings in a template (element and attribute names, whitespace, template name)
+     * are repeated many times, so storing them just once makes snapshots much smaller.
+     */
+    private static final class StringTable {
+
+        private final Map<String,Integer> indexes = new HashMap<String, Integer>(256);
+        private final List<String> strings = new ArrayList<String>(256);
+
+        int indexOf(final String string) {
+            if (string == null) {
+                return NULL_INDEX;
+            }
+            final Integer index = this.indexes.get(string);
+            if (index != null) {
+                return index.intValue();
+            }
+            final int newIndex = this.strings.size();
+            this.strings.add(string);
+            this.indexes.put(string, Integer.valueOf(newIndex));
+            return newIndex;
+        }
+
+    }
+
+
+}
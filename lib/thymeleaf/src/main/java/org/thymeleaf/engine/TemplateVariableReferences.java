@@ -0,0 +1,182 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.thymeleaf.context.IAsyncLazyContextVariable;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.context.IEngineContext;
+import org.thymeleaf.model.IAttribute;
+import org.thymeleaf.model.ICDATASection;
+import org.thymeleaf.model.IComment;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.model.IText;
+
+/*
+ * Names of the variables referenced from the variable expressions (${...}) in a TemplateModel, i.e. every
+ * identifier in these expressions that is not a property, method, expression object or static member name.
+ *
+ * This is an approximation (it might include names that are not variables, and will not include variables only
+ * referenced from other templates), used for starting to load the asynchronous lazy variables the template will
+ * probably need before processing it (see IAsyncLazyContextVariable).
+ *
+ * References are computed once per template model (see TemplateModel#getVariableReferences()).
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+final class TemplateVariableReferences {
+
+    private final String[] variableNames;
+
+
+
+    TemplateVariableReferences(final TemplateModel templateModel) {
+
+        super();
+
+        final Set<String> names = new HashSet<String>(16);
+        for (final IEngineTemplateEvent event : templateModel.queue) {
+            if (event instanceof IProcessableElementTag) {
+                for (final IAttribute attribute : ((IProcessableElementTag) event).getAllAttributes()) {
+                    scan(attribute.getValue(), names);
+                }
+            } else if (event instanceof StaticTemplateSegment) {
+                // Pre-rendered static segments contain no expressions by definition
+                continue;
+            } else if (event instanceof IText) {
+                scan(((IText) event).getText(), names);
+            } else if (event instanceof IComment) {
+                scan(((IComment) event).getContent(), names);
+            } else if (event instanceof ICDATASection) {
+                scan(((ICDATASection) event).getContent(), names);
+            }
+        }
+
+        this.variableNames = names.toArray(new String[names.size()]);
+
+    }
+
+
+    /*
+     * Starts loading the asynchronous lazy variables in the context that are referenced from the template.
+     */
+    void prefetchAsyncLazyVariables(final IContext context) {
+        for (final String variableName : this.variableNames) {
+            final Object value =
+                    (context instanceof IEngineContext?
+                            ((IEngineContext) context).getUnresolvedVariable(variableName) : context.getVariable(variableName));
+            if (value instanceof IAsyncLazyContextVariable<?>) {
+                ((IAsyncLazyContextVariable<?>) value).getValueAsync();
+            }
+        }
+    }
+
+
+
+
+    static void scan(final String text, final Set<String> names) {
+
+        if (text == null) {
+            return;
+        }
+
+        final int textLen = text.length();
+        int i = text.indexOf("${");
+        while (i >= 0) {
+            i = scanExpression(text, textLen, i + 2, names);
+            i = (i < textLen ? text.indexOf("${", i) : -1);
+        }
+
+    }
+
+
+    /*
+     * Scans the contents of a ${...} expression starting at the specified position, returning the position after
+     * its closing brace (or the end of the text if not closed)
+     */
+    private static int scanExpression(final String text, final int textLen, final int start, final Set<String> names) {
+
+        int depth = 1;
+        boolean inLiteral = false;
+        char previous = '{'; // last non-whitespace char outside identifiers
+
+        int i = start;
+        while (i < textLen) {
+
+            final char c = text.charAt(i);
+
+            if (inLiteral) {
+                if (c == '\\') {
+                    i += 2;
+                    continue;
+                }
+                if (c == '\'') {
+                    inLiteral = false;
+                    previous = c;
+                }
+                i++;
+                continue;
+            }
+
+            if (c == '\'') {
+                inLiteral = true;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                if (--depth == 0) {
+                    return i + 1;
+                }
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < textLen && Character.isJavaIdentifierPart(text.charAt(end))) {
+                    end++;
+                }
+                // Properties, methods (a.b), expression objects (#a) and static members (@a@b) are not variables
+                if (previous != '.' && previous != '#' && previous != '@') {
+                    names.add(text.substring(i, end));
+                }
+                previous = 'a';
+                i = end;
+                continue;
+            } else if (Character.isDigit(c)) {
+                // Skip numbers so that their digits are not taken as part of identifiers
+                while (i < textLen && Character.isLetterOrDigit(text.charAt(i))) {
+                    i++;
+                }
+                previous = '0';
+                continue;
+            }
+
+            if (!Character.isWhitespace(c)) {
+                previous = c;
+            }
+            i++;
+
+        }
+
+        return textLen;
+
+    }
+
+
+}
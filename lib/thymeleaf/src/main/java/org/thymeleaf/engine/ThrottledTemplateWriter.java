@@ -36,13 +36,14 @@
  * @since 3.0.0
  *
  */
-class ThrottledTemplateWriter extends Writer implements IThrottledTemplateWriterControl {
+class ThrottledTemplateWriter extends Writer implements IThrottledTemplateWriterControl, IPreEncodedContentWriter {
 
     private final String templateName;
     private final TemplateFlowController flowController;
 
     private IThrottledTemplateWriterAdapter adapter;
     private Writer writer;
+    private Charset charset;
 
     private boolean flushable;
 
@@ -53,6 +54,7 @@ class ThrottledTemplateWriter extends Writer implements IThrottledTemplateWriter
         this.flowController = flowController;
         this.adapter = null;
         this.writer = null;
+        this.charset = null;
         this.flushable = false;
     }
 
@@ -121,6 +123,7 @@ void setOutput(final OutputStream outputStream, final Charset charset, final int
             // Use of a wrapping BufferedWriter is recommended by OutputStreamWriter javadoc for improving efficiency,
             // avoiding frequent converter invocations (note that the character converter also has its own buffer).
             //this.writer = new BufferedWriter(new OutputStreamWriter((ThrottledTemplateWriterOutputStreamAdapter)this.adapter, charset));
+            this.charset = charset;
         }
         ((ThrottledTemplateWriterOutputStreamAdapter)this.adapter).setOutputStream(outputStream);
     }
@@ -172,6 +175,26 @@ void allow(final int limit) {
 
 
 
+    public Charset getPreEncodedCharset() {
+        // Will be null if output is char-based
+        return this.charset;
+    }
+
+
+    public boolean writePreEncoded(final byte[] bytes) throws IOException {
+        if (this.charset == null) {
+            return false;
+        }
+        // Chars already buffered at the Writer -> OutputStream bridge must reach the adapter before these bytes,
+        // and the adapter will take care of limits and overflow in the same way as it does for encoded chars
+        this.writer.flush();
+        this.flushable = false;
+        ((ThrottledTemplateWriterOutputStreamAdapter)this.adapter).write(bytes, 0, bytes.length);
+        return true;
+    }
+
+
+
     @Override
     public void write(final int c) throws IOException {
         this.flushable = true;
@@ -23,6 +23,7 @@
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.text.Format;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -31,6 +32,7 @@
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.thymeleaf.exceptions.TemplateInputException;
 import org.thymeleaf.exceptions.TemplateProcessingException;
@@ -51,6 +53,12 @@ final class StandardMessageResolutionUtils {
     private static final String PROPERTIES_FILE_EXTENSION = ".properties";
     private static final Object[] EMPTY_MESSAGE_PARAMETERS = new Object[0];
 
+    // Compiled message formats, per locale and message. Once the limit of cached messages for a locale is reached,
+    // further messages are simply compiled each time they are formatted.
+    private static final int MAX_CACHED_MESSAGE_FORMATS_PER_LOCALE = 1000;
+    private static final ConcurrentHashMap<Locale,ConcurrentHashMap<String,CompiledMessageFormat>> messageFormatsByLocale =
+            new ConcurrentHashMap<Locale, ConcurrentHashMap<String, CompiledMessageFormat>>(4, 0.9f, 2);
+
 
 
     static Map<String,String> resolveMessagesForTemplate(final ITemplateResource templateResource, final Locale locale) {
@@ -253,8 +261,29 @@ static String formatMessage(final Locale locale, final String message, final Obj
         if (!isFormatCandidate(message)) { // trying to avoid creating MessageFormat if not needed
             return message;
         }
-        final MessageFormat messageFormat = new MessageFormat(message, locale);
-        return messageFormat.format((messageParameters != null? messageParameters : EMPTY_MESSAGE_PARAMETERS));
+
+        final Object[] parameters = (messageParameters != null? messageParameters : EMPTY_MESSAGE_PARAMETERS);
+
+        if (locale == null) {
+            // Formats are cached per locale, so this cannot be cached (the resolver always specifies a locale, though)
+            return new MessageFormat(message, locale).format(parameters);
+        }
+
+        ConcurrentHashMap<String,CompiledMessageFormat> messageFormats = messageFormatsByLocale.get(locale);
+        if (messageFormats == null) {
+            messageFormatsByLocale.putIfAbsent(locale, new ConcurrentHashMap<String, CompiledMessageFormat>(20));
+            messageFormats = messageFormatsByLocale.get(locale);
+        }
+
+        CompiledMessageFormat messageFormat = messageFormats.get(message);
+        if (messageFormat == null) {
+            messageFormat = new CompiledMessageFormat(new MessageFormat(message, locale));
+            if (messageFormats.size() < MAX_CACHED_MESSAGE_FORMATS_PER_LOCALE) {
+                messageFormats.putIfAbsent(message, messageFormat);
+            }
+        }
+
+        return messageFormat.format(parameters);
     }
 
 
@@ -280,4 +309,52 @@ private StandardMessageResolutionUtils() {
         super();
     }
 
+
+
+
+    /*
+     * Message already parsed as a MessageFormat, which can be used by several threads at the same time:
+     *
+     *   - Messages with no arguments at all (e.g. "It''s done") are formatted only once.
+     *   - Messages with only simple arguments (e.g. "Hello {0}") share their MessageFormat, as formatting these
+     *     does not modify the MessageFormat object (formats for Number and Date arguments are created per call).
+     *   - Messages with specific formats for their arguments (e.g. "{0,number,#.##}") are formatted with a copy of
+     *     their MessageFormat, because these formats (DecimalFormat, SimpleDateFormat...) are not thread-safe.
+     */
+    private static final class CompiledMessageFormat {
+
+        private final MessageFormat messageFormat;
+        private final String literal;
+        private final boolean shared;
+
+        CompiledMessageFormat(final MessageFormat messageFormat) {
+            super();
+            this.messageFormat = messageFormat;
+            final Format[] formats = messageFormat.getFormats();
+            if (formats.length == 0) {
+                this.literal = messageFormat.format(EMPTY_MESSAGE_PARAMETERS);
+                this.shared = true;
+            } else {
+                this.literal = null;
+                boolean allDefault = true;
+                for (final Format format : formats) {
+                    if (format != null) {
+                        allDefault = false;
+                        break;
+                    }
+                }
+                this.shared = allDefault;
+            }
+        }
+
+        String format(final Object[] messageParameters) {
+            if (this.literal != null) {
+                return this.literal;
+            }
+            final MessageFormat format = (this.shared? this.messageFormat : (MessageFormat) this.messageFormat.clone());
+            return format.format(messageParameters);
+        }
+
+    }
+
 }
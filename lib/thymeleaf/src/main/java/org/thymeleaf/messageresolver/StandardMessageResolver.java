@@ -24,7 +24,17 @@
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.ITemplateContext;
 import org.thymeleaf.engine.TemplateData;
 import org.thymeleaf.templateresource.ITemplateResource;
@@ -120,12 +130,25 @@
  * <p>
  *   This implementation will cache template-based messages for those templates that are resolved (by their
  *   corresponding {@link org.thymeleaf.templateresolver.ITemplateResolver}) as <em>cacheable</em>. Non-cacheable
- *   templates will not have their messages cached.
+ *   templates will not have their messages cached, unless a refresh interval is set (see below).
  * </p>
  * <p>
  *   Origin-based messages will be always cached.
  * </p>
  * <p>
+ *   <strong>Message refresh</strong>
+ * </p>
+ * <p>
+ *   If a <em>refresh interval</em> is set (see {@link #setMessageRefreshIntervalMs(Long)}), cached messages
+ *   will be reloaded in the background once they have been in cache for longer than the interval. In this case,
+ *   messages for non-cacheable templates are also cached, by template resource (e.g. the template file, and
+ *   never by template name) and only for a limited number of resources, so that they are not read again
+ *   at each resolution either. Until the reload finishes, the previously loaded messages will
+ *   keep being used, so that message resolution never waits for message files being reloaded (except for
+ *   the first time messages are loaded for a template or origin). This allows changes in message files to be
+ *   seen without disabling message caching.
+ * </p>
+ * <p>
  *   <strong>Extensibility</strong>
  * </p>
  * <p>
@@ -149,11 +172,21 @@
  */
 public class StandardMessageResolver extends AbstractMessageResolver {
 
-    private final ConcurrentHashMap<String,ConcurrentHashMap<Locale,Map<String,String>>> messagesByLocaleByTemplate =
-            new ConcurrentHashMap<String,ConcurrentHashMap<Locale,Map<String,String>>>(20, 0.9f, 2);
-    private final ConcurrentHashMap<Class<?>,ConcurrentHashMap<Locale,Map<String,String>>> messagesByLocaleByOrigin =
-            new ConcurrentHashMap<Class<?>,ConcurrentHashMap<Locale,Map<String,String>>>(20, 0.9f, 2);
+    private static final Logger logger = LoggerFactory.getLogger(StandardMessageResolver.class);
+
+    // Max number of non-cacheable template resources whose messages are cached when messages are being refreshed
+    private static final int MAX_CACHED_TEMPLATE_RESOURCES = 500;
+
+    private final ConcurrentHashMap<String,ConcurrentHashMap<Locale,CachedMessages>> messagesByLocaleByTemplate =
+            new ConcurrentHashMap<String,ConcurrentHashMap<Locale,CachedMessages>>(20, 0.9f, 2);
+    private final ConcurrentHashMap<String,ConcurrentHashMap<Locale,CachedMessages>> messagesByLocaleByTemplateResource =
+            new ConcurrentHashMap<String,ConcurrentHashMap<Locale,CachedMessages>>(20, 0.9f, 2);
+    private final ConcurrentHashMap<Class<?>,ConcurrentHashMap<Locale,CachedMessages>> messagesByLocaleByOrigin =
+            new ConcurrentHashMap<Class<?>,ConcurrentHashMap<Locale,CachedMessages>>(20, 0.9f, 2);
     private final Properties defaultMessages;
+    private volatile Long messageRefreshIntervalMs = null;
+    private volatile Executor messageRefreshExecutor = null;
+    private volatile ThreadPoolExecutor defaultMessageRefreshExecutor = null; // created only if needed
 
 
     public StandardMessageResolver() {
@@ -219,6 +252,83 @@ public final void clearDefaultMessages() {
 
 
 
+    /**
+     * <p>
+     *   Returns the interval after which cached messages will be reloaded in the background.
+     * </p>
+     * <p>
+     *   If null (the default), cached messages are never reloaded.
+     * </p>
+     *
+     * @return the refresh interval in milliseconds (can be null).
+     * @since 3.1.3
+     */
+    public final Long getMessageRefreshIntervalMs() {
+        return this.messageRefreshIntervalMs;
+    }
+
+
+    /**
+     * <p>
+     *   Sets the interval after which cached messages will be reloaded in the background.
+     * </p>
+     * <p>
+     *   When set, cached messages will be reloaded in the background once they have been in cache for longer
+     *   than this interval, without making message resolution wait for the reload. Messages for non-cacheable
+     *   templates will also be cached and refreshed, keyed by their template resource (for a limited number of
+     *   resources). Templates without resource base name (like those resolved by a
+     *   {@link org.thymeleaf.templateresolver.StringTemplateResolver}) have no messages and are never cached.
+     * </p>
+     *
+     * @param messageRefreshIntervalMs the refresh interval in milliseconds (can be null).
+     * @since 3.1.3
+     */
+    public final void setMessageRefreshIntervalMs(final Long messageRefreshIntervalMs) {
+        Validate.isTrue(
+                messageRefreshIntervalMs == null || messageRefreshIntervalMs.longValue() >= 0L,
+                "Message refresh interval cannot be negative");
+        this.messageRefreshIntervalMs = messageRefreshIntervalMs;
+    }
+
+
+    /**
+     * <p>
+     *   Returns the executor used for reloading messages in the background.
+     * </p>
+     *
+     * @return the executor (can be null, in which case a single daemon thread owned by this resolver is used).
+     * @since 3.1.3
+     */
+    public final Executor getMessageRefreshExecutor() {
+        return this.messageRefreshExecutor;
+    }
+
+
+    /**
+     * <p>
+     *   Sets the executor used for reloading messages in the background, once they have been cached for longer
+     *   than the message refresh interval (see {@link #setMessageRefreshIntervalMs(Long)}).
+     * </p>
+     * <p>
+     *   If null (the default), messages are reloaded by a single daemon thread owned by this resolver, which
+     *   is only kept alive while there are reloads to be performed.
+     * </p>
+     * <p>
+     *   Whatever the executor, reloads are performed using the context class loader of the thread that
+     *   resolved the expired messages, so that messages can be read from the same class loader as when they
+     *   were first loaded.
+     * </p>
+     *
+     * @param messageRefreshExecutor the executor (can be null).
+     * @since 3.1.3
+     */
+    public final void setMessageRefreshExecutor(final Executor messageRefreshExecutor) {
+        this.messageRefreshExecutor = messageRefreshExecutor;
+    }
+
+
+
+
 
 
 
@@ -238,6 +348,7 @@ public final String resolveMessage(
         Validate.notNull(key, "Message key cannot be null");
 
         final Locale locale = context.getLocale();
+        final Long refreshIntervalMs = this.messageRefreshIntervalMs;
 
         /*
          * FIRST STEP: Look for the message using template-based resolution
@@ -255,35 +366,41 @@ public final String resolveMessage(
                 final ITemplateResource templateResource = templateData.getTemplateResource();
                 final boolean templateCacheable = templateData.getValidity().isCacheable();
 
-                Map<String, String> messagesForLocaleForTemplate;
+                CachedMessages cachedMessagesForLocaleForTemplate = null;
 
                 // We will ONLY cache messages for cacheable templates. This should adequately control cache growth
                 if (templateCacheable) {
 
-                    ConcurrentHashMap<Locale, Map<String, String>> messagesByLocaleForTemplate = this.messagesByLocaleByTemplate.get(template);
-                    if (messagesByLocaleForTemplate == null) {
-                        this.messagesByLocaleByTemplate.putIfAbsent(template, new ConcurrentHashMap<Locale, Map<String, String>>(4));
-                        messagesByLocaleForTemplate = this.messagesByLocaleByTemplate.get(template);
+                    cachedMessagesForLocaleForTemplate =
+                            resolveCachedMessagesForTemplate(
+                                    this.messagesByLocaleByTemplate, template,
+                                    template, templateResource, locale, refreshIntervalMs);
+
+                } else if (refreshIntervalMs != null) {
+
+                    // Messages for non-cacheable templates are only cached if they are being refreshed, keyed by
+                    // their resource (template names might be the entire template, e.g. for StringTemplateResolver)
+                    // and only for a bounded number of resources.
+                    final String templateResourceKey = computeTemplateResourceKey(templateResource);
+                    if (templateResourceKey != null
+                            && (this.messagesByLocaleByTemplateResource.size() < MAX_CACHED_TEMPLATE_RESOURCES
+                                    || this.messagesByLocaleByTemplateResource.containsKey(templateResourceKey))) {
+                        cachedMessagesForLocaleForTemplate =
+                                resolveCachedMessagesForTemplate(
+                                        this.messagesByLocaleByTemplateResource, templateResourceKey,
+                                        template, templateResource, locale, refreshIntervalMs);
                     }
 
-                    messagesForLocaleForTemplate = messagesByLocaleForTemplate.get(locale);
-                    if (messagesForLocaleForTemplate == null) {
-                        messagesForLocaleForTemplate = resolveMessagesForTemplate(template, templateResource, locale);
-                        if (messagesForLocaleForTemplate == null) {
-                            messagesForLocaleForTemplate = Collections.emptyMap();
-                        }
-                        messagesByLocaleForTemplate.putIfAbsent(locale, messagesForLocaleForTemplate);
-                        // We retrieve it again in order to be sure its the stored map (because of the 'putIfAbsent')
-                        messagesForLocaleForTemplate = messagesByLocaleForTemplate.get(locale);
-                    }
+                }
 
+                Map<String, String> messagesForLocaleForTemplate;
+                if (cachedMessagesForLocaleForTemplate != null) {
+                    messagesForLocaleForTemplate = cachedMessagesForLocaleForTemplate.messages;
                 } else {
-
                     messagesForLocaleForTemplate = resolveMessagesForTemplate(template, templateResource, locale);
                     if (messagesForLocaleForTemplate == null) {
                         messagesForLocaleForTemplate = Collections.emptyMap();
                     }
-
                 }
 
                 // Once the messages map has been retrieved, just use it
@@ -304,22 +421,23 @@ public final String resolveMessage(
          */
         if (performOriginBasedResolution && origin != null) {
 
-            ConcurrentHashMap<Locale, Map<String, String>> messagesByLocaleForOrigin = this.messagesByLocaleByOrigin.get(origin);
+            ConcurrentHashMap<Locale, CachedMessages> messagesByLocaleForOrigin = this.messagesByLocaleByOrigin.get(origin);
             if (messagesByLocaleForOrigin == null) {
-                this.messagesByLocaleByOrigin.putIfAbsent(origin, new ConcurrentHashMap<Locale, Map<String, String>>(4));
+                this.messagesByLocaleByOrigin.putIfAbsent(origin, new ConcurrentHashMap<Locale, CachedMessages>(4));
                 messagesByLocaleForOrigin = this.messagesByLocaleByOrigin.get(origin);
             }
 
-            Map<String, String> messagesForLocaleForOrigin = messagesByLocaleForOrigin.get(locale);
-            if (messagesForLocaleForOrigin == null) {
-                messagesForLocaleForOrigin = resolveMessagesForOrigin(origin, locale);
-                if (messagesForLocaleForOrigin == null) {
-                    messagesForLocaleForOrigin = Collections.emptyMap();
-                }
-                messagesByLocaleForOrigin.putIfAbsent(locale, messagesForLocaleForOrigin);
+            CachedMessages cachedMessagesForLocaleForOrigin = messagesByLocaleForOrigin.get(locale);
+            if (cachedMessagesForLocaleForOrigin == null) {
+                messagesByLocaleForOrigin.putIfAbsent(locale, new CachedMessages(resolveMessagesForOrigin(origin, locale)));
                 // We retrieve it again in order to be sure its the stored map (because of the 'putIfAbsent')
-                messagesForLocaleForOrigin = messagesByLocaleForOrigin.get(locale);
+                cachedMessagesForLocaleForOrigin = messagesByLocaleForOrigin.get(locale);
+            } else if (refreshIntervalMs != null) {
+                refreshIfExpired(
+                        messagesByLocaleForOrigin, locale, cachedMessagesForLocaleForOrigin, refreshIntervalMs.longValue(),
+                        () -> resolveMessagesForOrigin(origin, locale));
             }
+            final Map<String, String> messagesForLocaleForOrigin = cachedMessagesForLocaleForOrigin.messages;
 
             // Once the messages map has been retrieved, just use it
             final String message = messagesForLocaleForOrigin.get(key);
@@ -356,6 +474,132 @@ public final String resolveMessage(
 
 
 
+    /*
+     * Returns the cached messages for a template in the specified cache (loading them if not there yet), and
+     * starts reloading them in the background if they have expired.
+     */
+    private CachedMessages resolveCachedMessagesForTemplate(
+            final ConcurrentHashMap<String,ConcurrentHashMap<Locale,CachedMessages>> messagesByLocaleByKey,
+            final String cacheKey, final String template, final ITemplateResource templateResource,
+            final Locale locale, final Long refreshIntervalMs) {
+
+        ConcurrentHashMap<Locale, CachedMessages> messagesByLocaleForTemplate = messagesByLocaleByKey.get(cacheKey);
+        if (messagesByLocaleForTemplate == null) {
+            messagesByLocaleByKey.putIfAbsent(cacheKey, new ConcurrentHashMap<Locale, CachedMessages>(4));
+            messagesByLocaleForTemplate = messagesByLocaleByKey.get(cacheKey);
+        }
+
+        CachedMessages cachedMessagesForLocaleForTemplate = messagesByLocaleForTemplate.get(locale);
+        if (cachedMessagesForLocaleForTemplate == null) {
+            final Map<String, String> messagesForLocaleForTemplate = resolveMessagesForTemplate(template, templateResource, locale);
+            messagesByLocaleForTemplate.putIfAbsent(locale, new CachedMessages(messagesForLocaleForTemplate));
+            // We retrieve it again in order to be sure its the stored map (because of the 'putIfAbsent')
+            cachedMessagesForLocaleForTemplate = messagesByLocaleForTemplate.get(locale);
+        } else if (refreshIntervalMs != null) {
+            refreshIfExpired(
+                    messagesByLocaleForTemplate, locale, cachedMessagesForLocaleForTemplate, refreshIntervalMs.longValue(),
+                    () -> resolveMessagesForTemplate(template, templateResource, locale));
+        }
+        return cachedMessagesForLocaleForTemplate;
+
+    }
+
+
+    /*
+     * Computes the key messages for a non-cacheable template are cached with. Only resources with a base name can
+     * have messages (see StandardMessageResolutionUtils), and their description identifies the resource (e.g. its
+     * path). Resources without a base name (e.g. String templates) are never cached.
+     */
+    private static String computeTemplateResourceKey(final ITemplateResource templateResource) {
+        if (templateResource == null) {
+            return null;
+        }
+        final String baseName = templateResource.getBaseName();
+        if (baseName == null || baseName.length() == 0) {
+            return null;
+        }
+        return templateResource.getDescription();
+    }
+
+
+    /*
+     * Starts reloading cached messages in the background if they have been in cache for longer than the refresh
+     * interval (and they are not already being reloaded). Once reloaded, the new messages replace the cached
+     * ones atomically, so that resolution never sees a partially reloaded set of messages.
+     */
+    private void refreshIfExpired(
+            final ConcurrentHashMap<Locale, CachedMessages> messagesByLocale, final Locale locale,
+            final CachedMessages cachedMessages, final long refreshIntervalMs,
+            final Supplier<Map<String, String>> messagesLoader) {
+
+        if (System.currentTimeMillis() - cachedMessages.loadTimestamp < refreshIntervalMs
+                || !cachedMessages.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        final Executor executor = this.messageRefreshExecutor;
+        // Message files might only be reachable from the class loader of the application using the engine
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            (executor != null ? executor : getDefaultMessageRefreshExecutor()).execute(() -> {
+                final Thread thread = Thread.currentThread();
+                final ClassLoader previousClassLoader = thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                CachedMessages refreshedMessages;
+                try {
+                    refreshedMessages = new CachedMessages(messagesLoader.get());
+                } catch (final Exception e) {
+                    // Keep the previous messages until the next refresh is due
+                    logger.warn(
+                            "[THYMELEAF][{}] Could not reload messages for locale \"{}\"",
+                            TemplateEngine.threadIndex(), locale, e);
+                    refreshedMessages = new CachedMessages(cachedMessages.messages);
+                } finally {
+                    thread.setContextClassLoader(previousClassLoader);
+                }
+                // Replace only if these messages were not removed or replaced in the meantime
+                messagesByLocale.replace(locale, cachedMessages, refreshedMessages);
+            });
+        } catch (final RejectedExecutionException e) {
+            // The refresh will be tried again the next time these messages are used
+            cachedMessages.refreshing.set(false);
+        }
+
+    }
+
+
+
+
+
+
+    private Executor getDefaultMessageRefreshExecutor() {
+        ThreadPoolExecutor executor = this.defaultMessageRefreshExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.defaultMessageRefreshExecutor;
+                if (executor == null) {
+                    // A single thread, which will die when idle so that no lifecycle management is needed
+                    executor =
+                            new ThreadPoolExecutor(
+                                    1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                                    runnable -> {
+                                        final Thread thread = new Thread(runnable, "thymeleaf-message-refresh");
+                                        thread.setDaemon(true);
+                                        return thread;
+                                    });
+                    executor.allowCoreThreadTimeOut(true);
+                    this.defaultMessageRefreshExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+
+
+
+
+
     /**
      * <p>
      *   Resolve messages for a specific template and locale.
@@ -441,4 +685,24 @@ public String createAbsentMessageRepresentation(
     }
 
 
+
+
+    /*
+     * Messages loaded for a template or origin (for a specific locale), along with the time they were loaded at.
+     */
+    private static final class CachedMessages {
+
+        final Map<String,String> messages;
+        final long loadTimestamp;
+        final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        CachedMessages(final Map<String,String> messages) {
+            super();
+            this.messages = (messages != null ? messages : Collections.<String,String>emptyMap());
+            this.loadTimestamp = System.currentTimeMillis();
+        }
+
+    }
+
+
 }
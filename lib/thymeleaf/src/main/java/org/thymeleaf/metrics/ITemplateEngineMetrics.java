@@ -0,0 +1,116 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.metrics;
+
+import org.thymeleaf.templatemode.TemplateMode;
+
+/**
+ * <p>
+ *   Interface to be implemented by all objects in charge of collecting metrics about the executions of a
+ *   Template Engine, e.g. for exporting them to a monitoring system.
+ * </p>
+ * <p>
+ *   Metrics are recorded at two levels:
+ * </p>
+ * <ul>
+ *   <li><strong>Template-level</strong> metrics (template cache hits and misses, parse times and render times)
+ *       are recorded for every template execution.</li>
+ *   <li><strong>Processor-level</strong> metrics (execution times of each processor and counts of variable
+ *       expression evaluations) are only recorded for a sample of template executions (see
+ *       {@link org.thymeleaf.TemplateEngine#setMetricsSamplingInterval(int)}), given that measuring them has a
+ *       higher impact on performance. These metrics are reported for the template in which each processed
+ *       element or evaluated expression actually lives, which might be a fragment inserted into the executed
+ *       template.</li>
+ * </ul>
+ * <p>
+ *   Note that, in order to reduce overhead, implementations of this interface are called synchronously
+ *   during template processing and therefore should be as fast as possible.
+ * </p>
+ * <p>
+ *   Implementations of this interface should be <strong>thread-safe</strong>.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @see org.thymeleaf.TemplateEngine#setMetrics(ITemplateEngineMetrics)
+ *
+ * @since 3.1.3
+ *
+ */
+public interface ITemplateEngineMetrics {
+
+    /**
+     * <p>
+     *   Records an access to the template cache for a template (or fragment) being processed.
+     * </p>
+     *
+     * @param template the template name.
+     * @param hit whether the template was found at the cache or not.
+     */
+    public void recordTemplateCacheAccess(final String template, final boolean hit);
+
+    /**
+     * <p>
+     *   Records the parsing of a template (or fragment) into a template model, which will only happen
+     *   for cacheable templates that could not be found at the template cache.
+     * </p>
+     *
+     * @param template the template name.
+     * @param templateMode the template mode.
+     * @param nanos the time spent parsing, in nanoseconds.
+     */
+    public void recordTemplateParse(final String template, final TemplateMode templateMode, final long nanos);
+
+    /**
+     * <p>
+     *   Records the complete execution (resolution, parsing if needed, and processing) of a template
+     *   by the Template Engine. Throttled executions are not recorded.
+     * </p>
+     *
+     * @param template the template name.
+     * @param nanos the time spent executing the template, in nanoseconds.
+     * @param outputBytes the number of bytes written to output, or -1 if output is char-based
+     *                    (i.e. a {@link java.io.Writer} was specified as output).
+     */
+    public void recordTemplateRender(final String template, final long nanos, final long outputBytes);
+
+    /**
+     * <p>
+     *   Records the execution of a processor (sampled executions only).
+     * </p>
+     *
+     * @param template the name of the template in which the processed event lives.
+     * @param processorClass the class of the processor.
+     * @param nanos the time spent executing the processor, in nanoseconds.
+     */
+    public void recordProcessorExecution(final String template, final Class<?> processorClass, final long nanos);
+
+    /**
+     * <p>
+     *   Records the number of variable expressions (<kbd>${...}</kbd> and <kbd>*{...}</kbd>) evaluated
+     *   during an execution of a template (sampled executions only).
+     * </p>
+     *
+     * @param template the name of the template in which the evaluated expressions live.
+     * @param count the number of evaluated expressions.
+     */
+    public void recordExpressionEvaluations(final String template, final int count);
+
+}
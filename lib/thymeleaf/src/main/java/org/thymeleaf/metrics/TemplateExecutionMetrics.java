@@ -0,0 +1,144 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.util.ProcessorConfigurationUtils;
+
+/**
+ * <p>
+ *   Collects the processor-level metrics (processor execution times and expression evaluation counts) of a
+ *   <strong>sampled</strong> template execution, and reports them to the configured
+ *   {@link ITemplateEngineMetrics}.
+ * </p>
+ * <p>
+ *   Instances of this class are created by the {@link TemplateExecutionMetricsSampler} of the Template Engine,
+ *   and bound to the thread executing the template between calls to
+ *   {@link TemplateExecutionMetricsSampler#start()} and {@link #finish()}.
+ * </p>
+ * <p>
+ *   This class is meant for <strong>internal</strong> use only.
+ * </p>
+ * <p>
+ *   Objects of this class are <strong>not thread-safe</strong>.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class TemplateExecutionMetrics {
+
+    private final TemplateExecutionMetricsSampler sampler;
+    private final ITemplateEngineMetrics metrics;
+    private final TemplateExecutionMetrics previous;
+
+    private final Map<String,int[]> expressionCounts = new HashMap<String, int[]>(4, 1.0f);
+    // Expressions are normally evaluated in sequences belonging to the same template
+    private String lastTemplate = null;
+    private int[] lastCount = null;
+
+
+
+    /**
+     * <p>
+     *   Counts the evaluation of a variable expression, if the execution currently running in this thread
+     *   is being sampled by the Template Engine the expression is being evaluated for.
+     * </p>
+     *
+     * @param context the context the expression is being evaluated with.
+     */
+    public static void recordExpressionEvaluation(final IExpressionContext context) {
+        // Single check for the (by far) most common case, before touching the context at all
+        if (!TemplateExecutionMetricsSampler.isAnyExecutionSampled()) {
+            return;
+        }
+        if (!(context instanceof ITemplateContext)) {
+            return;
+        }
+        final TemplateExecutionMetricsSampler sampler =
+                context.getConfiguration().getTemplateManager().getExecutionMetricsSampler();
+        if (sampler != null) {
+            sampler.recordExpressionEvaluation(context);
+        }
+    }
+
+
+
+    TemplateExecutionMetrics(
+            final TemplateExecutionMetricsSampler sampler, final ITemplateEngineMetrics metrics,
+            final TemplateExecutionMetrics previous) {
+        super();
+        this.sampler = sampler;
+        this.metrics = metrics;
+        this.previous = previous;
+    }
+
+
+
+
+    /**
+     * <p>
+     *   Records the execution of a processor.
+     * </p>
+     *
+     * @param template the name of the template in which the processed event lives.
+     * @param processor the processor (might be wrapped by the engine).
+     * @param nanos the time spent executing the processor, in nanoseconds.
+     */
+    public void recordProcessorExecution(final String template, final IProcessor processor, final long nanos) {
+        this.metrics.recordProcessorExecution(template, ProcessorConfigurationUtils.unwrap(processor).getClass(), nanos);
+    }
+
+
+    void expressionEvaluated(final String template) {
+        if (this.lastTemplate != template) {
+            int[] count = this.expressionCounts.get(template);
+            if (count == null) {
+                count = new int[1];
+                this.expressionCounts.put(template, count);
+            }
+            this.lastTemplate = template;
+            this.lastCount = count;
+        }
+        this.lastCount[0]++;
+    }
+
+
+    /**
+     * <p>
+     *   Finishes the sampled execution, reporting the collected expression evaluation counts and unbinding
+     *   this object from the current thread.
+     * </p>
+     */
+    public void finish() {
+        this.sampler.finish(this.previous);
+        for (final Map.Entry<String,int[]> expressionCount : this.expressionCounts.entrySet()) {
+            this.metrics.recordExpressionEvaluations(expressionCount.getKey(), expressionCount.getValue()[0]);
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.engine.TemplateManager;
+
+/**
+ * <p>
+ *   Decides which template executions of a Template Engine are sampled for processor-level metrics, and keeps
+ *   track of the {@link TemplateExecutionMetrics} object of the sampled execution currently running in each
+ *   thread.
+ * </p>
+ * <p>
+ *   There is one instance of this class per Template Engine (owned by its {@link TemplateManager}), so that the
+ *   sampling of executions in one engine has no effect on others living in the same JVM.
+ * </p>
+ * <p>
+ *   This class is meant for <strong>internal</strong> use only.
+ * </p>
+ * <p>
+ *   Objects of this class are <strong>thread-safe</strong>.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class TemplateExecutionMetricsSampler {
+
+    private final ITemplateEngineMetrics metrics;
+    private final int samplingInterval;
+
+    // Sampled executions currently running in any engine. This allows expression evaluations to skip every other
+    // check (including obtaining the sampler from the context) when no execution is being sampled, which is the
+    // case for almost every evaluation, and for all of them if no metrics are configured.
+    private static final AtomicInteger SAMPLED_EXECUTIONS = new AtomicInteger(0);
+
+    private final ThreadLocal<TemplateExecutionMetrics> current = new ThreadLocal<TemplateExecutionMetrics>();
+
+
+
+    /**
+     * <p>
+     *   Creates a new sampler.
+     * </p>
+     *
+     * @param metrics the metrics object the collected metrics will be reported to.
+     * @param samplingInterval one of every {@code samplingInterval} executions will be sampled (on average).
+     *                         Zero or negative means no executions will be sampled.
+     */
+    public TemplateExecutionMetricsSampler(final ITemplateEngineMetrics metrics, final int samplingInterval) {
+        super();
+        this.metrics = metrics;
+        this.samplingInterval = samplingInterval;
+    }
+
+
+
+
+    /**
+     * <p>
+     *   Decides whether the template execution about to start should be sampled and, if so, creates the
+     *   corresponding metrics object and binds it to the current thread.
+     * </p>
+     *
+     * @return the execution metrics object, or null if this execution should not be sampled.
+     */
+    public TemplateExecutionMetrics start() {
+        if (this.samplingInterval <= 0) {
+            return null;
+        }
+        if (this.samplingInterval > 1 && ThreadLocalRandom.current().nextInt(this.samplingInterval) != 0) {
+            return null;
+        }
+        SAMPLED_EXECUTIONS.incrementAndGet();
+        final TemplateExecutionMetrics executionMetrics =
+                new TemplateExecutionMetrics(this, this.metrics, this.current.get());
+        this.current.set(executionMetrics);
+        return executionMetrics;
+    }
+
+
+    static boolean isAnyExecutionSampled() {
+        return SAMPLED_EXECUTIONS.get() > 0;
+    }
+
+
+    void finish(final TemplateExecutionMetrics previous) {
+        SAMPLED_EXECUTIONS.decrementAndGet();
+        if (previous == null) {
+            this.current.remove();
+        } else {
+            this.current.set(previous);
+        }
+    }
+
+
+    /**
+     * <p>
+     *   Counts the evaluation of a variable expression, if the execution currently running in this thread
+     *   is being sampled.
+     * </p>
+     *
+     * @param context the context the expression is being evaluated with.
+     */
+    public void recordExpressionEvaluation(final IExpressionContext context) {
+        if (!(context instanceof ITemplateContext)) {
+            return;
+        }
+        final TemplateExecutionMetrics executionMetrics = this.current.get();
+        if (executionMetrics != null) {
+            executionMetrics.expressionEvaluated(((ITemplateContext) context).getTemplateData().getTemplate());
+        }
+    }
+
+}
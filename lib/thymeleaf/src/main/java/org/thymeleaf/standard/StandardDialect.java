@@ -44,6 +44,7 @@
 import org.thymeleaf.standard.processor.StandardAttrappendTagProcessor;
 import org.thymeleaf.standard.processor.StandardAttrprependTagProcessor;
 import org.thymeleaf.standard.processor.StandardBlockTagProcessor;
+import org.thymeleaf.standard.processor.StandardCacheTagProcessor;
 import org.thymeleaf.standard.processor.StandardCaseTagProcessor;
 import org.thymeleaf.standard.processor.StandardClassappendTagProcessor;
 import org.thymeleaf.standard.processor.StandardConditionalCommentProcessor;
@@ -67,6 +68,7 @@
 import org.thymeleaf.standard.processor.StandardMethodTagProcessor;
 import org.thymeleaf.standard.processor.StandardNonRemovableAttributeTagProcessor;
 import org.thymeleaf.standard.processor.StandardObjectTagProcessor;
+import org.thymeleaf.standard.processor.StandardParallelTagProcessor;
 import org.thymeleaf.standard.processor.StandardRefAttributeTagProcessor;
 import org.thymeleaf.standard.processor.StandardRemovableAttributeTagProcessor;
 import org.thymeleaf.standard.processor.StandardRemoveTagProcessor;
@@ -463,6 +465,8 @@ public static Set<IProcessor> createStandardProcessorsSet(final String dialectPr
         processors.add(new StandardAttrTagProcessor(TemplateMode.HTML, dialectPrefix));
         processors.add(new StandardAttrappendTagProcessor(TemplateMode.HTML, dialectPrefix));
         processors.add(new StandardAttrprependTagProcessor(TemplateMode.HTML, dialectPrefix));
+        processors.add(new StandardCacheTagProcessor(TemplateMode.HTML, dialectPrefix));
+        processors.add(new StandardParallelTagProcessor(TemplateMode.HTML, dialectPrefix));
         processors.add(new StandardCaseTagProcessor(TemplateMode.HTML, dialectPrefix));
         processors.add(new StandardClassappendTagProcessor(dialectPrefix));
         for (final String attrName : StandardConditionalFixedValueTagProcessor.ATTR_NAMES) {
@@ -565,6 +569,8 @@ public static Set<IProcessor> createStandardProcessorsSet(final String dialectPr
         processors.add(new StandardAttrTagProcessor(TemplateMode.XML, dialectPrefix));
         processors.add(new StandardAttrappendTagProcessor(TemplateMode.XML, dialectPrefix));
         processors.add(new StandardAttrprependTagProcessor(TemplateMode.XML, dialectPrefix));
+        processors.add(new StandardCacheTagProcessor(TemplateMode.XML, dialectPrefix));
+        processors.add(new StandardParallelTagProcessor(TemplateMode.XML, dialectPrefix));
         processors.add(new StandardCaseTagProcessor(TemplateMode.XML, dialectPrefix));
         processors.add(new StandardEachTagProcessor(TemplateMode.XML, dialectPrefix));
         processors.add(new StandardFragmentTagProcessor(TemplateMode.XML, dialectPrefix));
@@ -636,6 +642,8 @@ public static Set<IProcessor> createStandardProcessorsSet(final String dialectPr
          * TEXT: ATTRIBUTE TAG PROCESSORS
          */
         processors.add(new StandardAssertTagProcessor(TemplateMode.TEXT, dialectPrefix));
+        processors.add(new StandardCacheTagProcessor(TemplateMode.TEXT, dialectPrefix));
+        processors.add(new StandardParallelTagProcessor(TemplateMode.TEXT, dialectPrefix));
         processors.add(new StandardCaseTagProcessor(TemplateMode.TEXT, dialectPrefix));
         processors.add(new StandardEachTagProcessor(TemplateMode.TEXT, dialectPrefix));
         // No th:fragment attribute in text modes: no fragment selection available!
@@ -688,6 +696,8 @@ public static Set<IProcessor> createStandardProcessorsSet(final String dialectPr
          * JAVASCRIPT: ATTRIBUTE TAG PROCESSORS
          */
         processors.add(new StandardAssertTagProcessor(TemplateMode.JAVASCRIPT, dialectPrefix));
+        processors.add(new StandardCacheTagProcessor(TemplateMode.JAVASCRIPT, dialectPrefix));
+        processors.add(new StandardParallelTagProcessor(TemplateMode.JAVASCRIPT, dialectPrefix));
         processors.add(new StandardCaseTagProcessor(TemplateMode.JAVASCRIPT, dialectPrefix));
         processors.add(new StandardEachTagProcessor(TemplateMode.JAVASCRIPT, dialectPrefix));
         // No th:fragment attribute in text modes: no fragment selection available!
@@ -740,6 +750,8 @@ public static Set<IProcessor> createStandardProcessorsSet(final String dialectPr
          * CSS: ATTRIBUTE TAG PROCESSORS
          */
         processors.add(new StandardAssertTagProcessor(TemplateMode.CSS, dialectPrefix));
+        processors.add(new StandardCacheTagProcessor(TemplateMode.CSS, dialectPrefix));
+        processors.add(new StandardParallelTagProcessor(TemplateMode.CSS, dialectPrefix));
         processors.add(new StandardCaseTagProcessor(TemplateMode.CSS, dialectPrefix));
         processors.add(new StandardEachTagProcessor(TemplateMode.CSS, dialectPrefix));
         // No th:fragment attribute in text modes: no fragment selection available!
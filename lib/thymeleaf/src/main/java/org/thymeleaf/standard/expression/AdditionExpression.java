@@ -105,6 +105,11 @@ static Object executeAddition(
             rightValue = "null";
         }
 
+        final BigDecimal integralResult = NumericOperationUtil.add(leftValue, rightValue);
+        if (integralResult != null) {
+            return integralResult;
+        }
+
         final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(leftValue);
         if (leftNumberValue != null) {
             final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(rightValue);
@@ -59,7 +59,25 @@ protected Expression() {
     
     
     public abstract String getStringRepresentation();
-    
+
+
+    /**
+     * <p>
+     *   Returns whether the result of executing this expression is known to be the same for every
+     *   context, as is the case of literals and tokens (including those resulting from the folding of
+     *   sub-expressions operating only on literals and tokens at parse time).
+     * </p>
+     * <p>
+     *   Processors can use this in order to cache the output computed from the results of these expressions.
+     * </p>
+     *
+     * @return {@code true} if the expression is context-independent, {@code false} if not.
+     * @since 3.1.3
+     */
+    public boolean isContextIndependent() {
+        return false;
+    }
+
     
     @Override
     public String toString() {
@@ -23,6 +23,7 @@
 import org.thymeleaf.cache.ExpressionCacheKey;
 import org.thymeleaf.cache.ICache;
 import org.thymeleaf.cache.ICacheManager;
+import org.thymeleaf.cache.IExpressionCache;
 
 /**
  * 
@@ -51,6 +52,10 @@ static Object getFromCache(final IEngineConfiguration configuration, final Strin
         final ICacheManager cacheManager = configuration.getCacheManager();
         if (cacheManager != null) {
             final ICache<ExpressionCacheKey,Object> cache = cacheManager.getExpressionCache();
+            if (cache instanceof IExpressionCache) {
+                // Typed lookup: no need to create a key object
+                return ((IExpressionCache) cache).get(type, input);
+            }
             if (cache != null) {
                 return cache.get(new ExpressionCacheKey(type,input));
             }
@@ -63,7 +68,9 @@ static <V> void putIntoCache(final IEngineConfiguration configuration, final Str
         final ICacheManager cacheManager = configuration.getCacheManager();
         if (cacheManager != null) {
             final ICache<ExpressionCacheKey,Object> cache = cacheManager.getExpressionCache();
-            if (cache != null) {
+            if (cache instanceof IExpressionCache) {
+                ((IExpressionCache) cache).put(type, input, value);
+            } else if (cache != null) {
                 cache.put(new ExpressionCacheKey(type,input), value);
             }
         }
@@ -74,7 +81,9 @@ static <V> void removeFromCache(final IEngineConfiguration configuration, final
         final ICacheManager cacheManager = configuration.getCacheManager();
         if (cacheManager != null) {
             final ICache<ExpressionCacheKey,Object> cache = cacheManager.getExpressionCache();
-            if (cache != null) {
+            if (cache instanceof IExpressionCache) {
+                ((IExpressionCache) cache).clearKey(type, input);
+            } else if (cache != null) {
                 cache.clearKey(new ExpressionCacheKey(type,input));
             }
         }
@@ -87,10 +87,16 @@ static Object executeGreaterThan(
 
         Boolean result = null;
 
-        final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(leftValue);
-        final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(rightValue);
+        // Integral (and finite floating point) numbers can be compared without converting them to BigDecimal
+        final int numericComparison = NumericOperationUtil.compare(leftValue, rightValue);
+        final boolean numericComparisonApplied = (numericComparison != NumericOperationUtil.NOT_APPLICABLE);
+
+        final BigDecimal leftNumberValue = (numericComparisonApplied ? null : EvaluationUtils.evaluateAsNumber(leftValue));
+        final BigDecimal rightNumberValue = (numericComparisonApplied ? null : EvaluationUtils.evaluateAsNumber(rightValue));
         
-        if (leftNumberValue != null && rightNumberValue != null) {
+        if (numericComparisonApplied) {
+            result = Boolean.valueOf(numericComparison == 1);
+        } else if (leftNumberValue != null && rightNumberValue != null) {
             result = Boolean.valueOf(leftNumberValue.compareTo(rightNumberValue) == 1);
         } else {
             if (leftValue != null && rightValue != null &&
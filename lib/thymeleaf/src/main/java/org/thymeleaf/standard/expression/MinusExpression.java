@@ -146,6 +146,11 @@ static Object executeMinus(
             operandValue = "null";
         }
 
+        final BigDecimal integralResult = NumericOperationUtil.negate(operandValue);
+        if (integralResult != null) {
+            return integralResult;
+        }
+
         final BigDecimal operandNumberValue = EvaluationUtils.evaluateAsNumber(operandValue);
         if (operandNumberValue != null) {
             // Addition will act as a mathematical 'plus'
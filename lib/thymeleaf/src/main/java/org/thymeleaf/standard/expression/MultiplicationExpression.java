@@ -87,6 +87,11 @@ static Object executeMultiplication(
             rightValue = "null";
         }
 
+        final BigDecimal integralResult = NumericOperationUtil.multiply(leftValue, rightValue);
+        if (integralResult != null) {
+            return integralResult;
+        }
+
         final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(leftValue);
         final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(rightValue);
         if (leftNumberValue != null && rightNumberValue != null) {
@@ -66,6 +66,14 @@ static Number computeValue(final String value) {
     public NumberTokenExpression(final String value) {
         super(computeValue(value));
     }
+
+
+    /*
+     * Used for creating number tokens from the results of folding constant expressions
+     */
+    NumberTokenExpression(final Number value) {
+        super(value);
+    }
     
 
     
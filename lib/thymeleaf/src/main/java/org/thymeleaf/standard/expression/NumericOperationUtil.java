@@ -0,0 +1,180 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/*
+ * Fast paths for the arithmetic and comparison operators of Standard Expressions, applied when both operands
+ * are integral numbers fitting in a long (Integer, Long, Short, Byte, or BigInteger like the number literals) or,
+ * for comparisons, finite floating point numbers.
+ *
+ * Results are exactly the same ones the general path produces by converting operands to BigDecimal: arithmetic
+ * operations still return BigDecimal (with scale 0) so that the type of their results does not change, but
+ * operands are not converted and primitive arithmetic is used. Comparisons do not allocate at all. Whenever a
+ * fast path does not apply (or the result would overflow a long), null or NOT_APPLICABLE is returned and the
+ * general path should be followed.
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+final class NumericOperationUtil {
+
+    static final int NOT_APPLICABLE = Integer.MIN_VALUE;
+
+    // Integral values up to this magnitude can be exactly represented as a double
+    private static final long MAX_EXACT_DOUBLE_INTEGRAL = 1L << 53;
+
+
+
+
+    static BigDecimal add(final Object left, final Object right) {
+        if (!isIntegral(left) || !isIntegral(right)) {
+            return null;
+        }
+        final long l = ((Number) left).longValue();
+        final long r = ((Number) right).longValue();
+        final long result = l + r;
+        if (((l ^ result) & (r ^ result)) < 0) {
+            // Overflow
+            return null;
+        }
+        return BigDecimal.valueOf(result);
+    }
+
+
+    static BigDecimal subtract(final Object left, final Object right) {
+        if (!isIntegral(left) || !isIntegral(right)) {
+            return null;
+        }
+        final long l = ((Number) left).longValue();
+        final long r = ((Number) right).longValue();
+        final long result = l - r;
+        if (((l ^ r) & (l ^ result)) < 0) {
+            // Overflow
+            return null;
+        }
+        return BigDecimal.valueOf(result);
+    }
+
+
+    static BigDecimal multiply(final Object left, final Object right) {
+        if (!isIntegral(left) || !isIntegral(right)) {
+            return null;
+        }
+        final long l = ((Number) left).longValue();
+        final long r = ((Number) right).longValue();
+        final long result = l * r;
+        if (((Math.abs(l) | Math.abs(r)) >>> 31 != 0)) {
+            // Operands might not fit in an int, so check overflow the same way Math.multiplyExact(...) does
+            if ((r != 0 && result / r != l) || (l == Long.MIN_VALUE && r == -1)) {
+                return null;
+            }
+        }
+        return BigDecimal.valueOf(result);
+    }
+
+
+    static BigDecimal remainder(final Object left, final Object right) {
+        if (!isIntegral(left) || !isIntegral(right)) {
+            return null;
+        }
+        final long r = ((Number) right).longValue();
+        if (r == 0L) {
+            // Let the general path raise the corresponding error
+            return null;
+        }
+        return BigDecimal.valueOf(((Number) left).longValue() % r);
+    }
+
+
+    static BigDecimal negate(final Object operand) {
+        if (!isIntegral(operand)) {
+            return null;
+        }
+        final long value = ((Number) operand).longValue();
+        if (value == Long.MIN_VALUE) {
+            return null;
+        }
+        return BigDecimal.valueOf(-value);
+    }
+
+
+
+
+    /*
+     * Returns -1, 0 or 1 (same as BigDecimal#compareTo(...) would), or NOT_APPLICABLE
+     */
+    static int compare(final Object left, final Object right) {
+
+        final boolean leftIntegral = isIntegral(left);
+        final boolean rightIntegral = isIntegral(right);
+
+        if (leftIntegral && rightIntegral) {
+            return Long.compare(((Number) left).longValue(), ((Number) right).longValue());
+        }
+
+        if ((leftIntegral || isFloatingPoint(left)) && (rightIntegral || isFloatingPoint(right))) {
+            if ((leftIntegral && !isExactDouble(((Number) left).longValue())) ||
+                    (rightIntegral && !isExactDouble(((Number) right).longValue()))) {
+                return NOT_APPLICABLE;
+            }
+            final double l = ((Number) left).doubleValue();
+            final double r = ((Number) right).doubleValue();
+            if (Double.isNaN(l) || Double.isInfinite(l) || Double.isNaN(r) || Double.isInfinite(r)) {
+                return NOT_APPLICABLE;
+            }
+            // Note -0.0 and 0.0 are considered equal, same as their BigDecimal representations
+            return (l < r ? -1 : (l > r ? 1 : 0));
+        }
+
+        return NOT_APPLICABLE;
+
+    }
+
+
+
+
+    private static boolean isIntegral(final Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return true;
+        }
+        return (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64);
+    }
+
+
+    private static boolean isFloatingPoint(final Object value) {
+        return (value instanceof Double || value instanceof Float);
+    }
+
+
+    private static boolean isExactDouble(final long value) {
+        return (value <= MAX_EXACT_DOUBLE_INTEGRAL && value >= -MAX_EXACT_DOUBLE_INTEGRAL);
+    }
+
+
+
+
+    private NumericOperationUtil() {
+        super();
+    }
+
+}
@@ -29,9 +29,11 @@
 import ognl.AbstractMemberAccess;
 import ognl.ClassResolver;
 import ognl.MemberAccess;
+import ognl.Node;
 import ognl.OgnlContext;
 import ognl.OgnlException;
 import ognl.OgnlRuntime;
+import ognl.enhance.ExpressionAccessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.thymeleaf.IEngineConfiguration;
@@ -49,6 +51,16 @@
  *   OGNL expression language.
  * </p>
  * <p>
+ *   Optionally, expressions can be <em>compiled</em> into bytecode by means of OGNL's own expression compiler.
+ *   When enabled, expressions that have been executed a number of times for the same type of evaluation root are
+ *   compiled into an accessor class specialized on the types observed during compilation. Should those types
+ *   change in later executions, or should the expression not be compilable at all, execution falls back to the
+ *   OGNL interpreter. Compilation is never applied when restrictions on variable access or instantiation apply.
+ *   Note OGNL's compiler evaluates the expression in order to compile it, so the methods called by an expression
+ *   (e.g. getters) will be called twice during the execution in which it is compiled.
+ *   Note compilation requires <a href="https://www.javassist.org">Javassist</a> to be present in the classpath.
+ * </p>
+ * <p>
  *   Note a class with this name existed since 2.0.9, but it was completely reimplemented
  *   in Thymeleaf 3.0
  * </p>
@@ -75,16 +87,36 @@
     private static MemberAccess MEMBER_ACCESS = new ThymeleafACLMemberAccess();
     private static ThymeleafACLClassResolver CLASS_RESOLVER = new ThymeleafACLClassResolver();
 
+    // Number of interpreted executions of an expression after which it will be compiled (if compilation is enabled)
+    private static final int COMPILATION_THRESHOLD = 10;
+
     private final boolean applyOGNLShortcuts;
+    private final boolean compileExpressions;
 
 
 
 
     public OGNLVariableExpressionEvaluator(final boolean applyOGNLShortcuts) {
+        this(applyOGNLShortcuts, false);
+    }
+
+
+    /**
+     * <p>
+     *   Creates a new OGNL variable expression evaluator, specifying whether expressions should be
+     *   compiled into bytecode.
+     * </p>
+     *
+     * @param applyOGNLShortcuts whether simple property navigation expressions should be evaluated without OGNL.
+     * @param compileExpressions whether frequently executed expressions should be compiled into bytecode.
+     * @since 3.1.3
+     */
+    public OGNLVariableExpressionEvaluator(final boolean applyOGNLShortcuts, final boolean compileExpressions) {
 
         super();
 
         this.applyOGNLShortcuts = applyOGNLShortcuts;
+        this.compileExpressions = compileExpressions;
 
         /*
          * INITIALIZE AND REGISTER THE PROPERTY ACCESSOR
@@ -101,7 +133,22 @@ public final Object evaluate(
             final IExpressionContext context,
             final IStandardVariableExpression expression,
             final StandardExpressionExecutionContext expContext) {
-        return evaluate(context, expression, expContext, this.applyOGNLShortcuts);
+        return evaluate(context, expression, expContext, this.applyOGNLShortcuts, this.compileExpressions);
+    }
+
+
+
+
+    /**
+     * <p>
+     *   Returns whether frequently executed expressions are compiled into bytecode by this evaluator.
+     * </p>
+     *
+     * @return whether expression compilation is enabled.
+     * @since 3.1.3
+     */
+    public boolean isCompileExpressions() {
+        return this.compileExpressions;
     }
 
 
@@ -111,7 +158,8 @@ private static Object evaluate(
         final IExpressionContext context,
         final IStandardVariableExpression expression,
         final StandardExpressionExecutionContext expContext,
-        final boolean applyOGNLShortcuts) {
+        final boolean applyOGNLShortcuts,
+        final boolean compileExpressions) {
        
         try {
 
@@ -172,17 +220,24 @@ private static Object evaluate(
             final Object evaluationRoot =
                     (useSelectionAsRoot && templateContext != null && templateContext.hasSelectionTarget()? templateContext.getSelectionTarget() : templateContext);
 
+            // Compiled accessors access context variables directly, so (same as shortcuts) they are not allowed if
+            // any restrictions apply, in which case OGNL will be in charge of validating all accesses.
+            final boolean doCompileExpression =
+                    compileExpressions &&
+                            !expContext.getRestrictVariableAccess() && !expContext.getRestrictInstantiationAndStatic();
+
             // Execute the expression!
             final Object result;
             try {
-                result = executeExpression(configuration, parsedExpression.expression, contextVariablesMap, evaluationRoot);
+                result = executeExpression(
+                        configuration, parsedExpression, exp, contextVariablesMap, evaluationRoot, doCompileExpression);
             } catch (final OGNLShortcutExpression.OGNLShortcutExpressionNotApplicableException notApplicable) {
                 // We tried to apply shortcuts, but it is not possible for this expression even if it parsed OK,
                 // so we need to empty the cache and try again disabling shortcuts. Once processed for the first time,
                 // an OGNL (non-shortcut) parsed expression will already be cached and this exception will not be
                 // thrown again
                 invalidateComputedOGNLExpression(configuration, expression, exp);
-                return evaluate(context, expression, expContext, false);
+                return evaluate(context, expression, expContext, false, compileExpressions);
             }
 
             if (!expContext.getPerformTypeConversion()) {
@@ -326,18 +381,120 @@ private static ComputedOGNLExpression parseExpression(
 
 
     private static Object executeExpression(
-            final IEngineConfiguration configuration, final Object parsedExpression,
-            final Map<String,Object> context, final Object root)
+            final IEngineConfiguration configuration, final ComputedOGNLExpression parsedExpression, final String exp,
+            final Map<String,Object> context, final Object root, final boolean compile)
             throws Exception {
 
-        if (parsedExpression instanceof OGNLShortcutExpression) {
-            return ((OGNLShortcutExpression) parsedExpression).evaluate(configuration, context, root);
+        if (parsedExpression.expression instanceof OGNLShortcutExpression) {
+            return ((OGNLShortcutExpression) parsedExpression.expression).evaluate(configuration, context, root);
         }
 
         // We create the OgnlContext here instead of just sending the Map as context because that prevents OGNL from
         // creating the OgnlContext empty and then setting the context Map variables one by one
         final OgnlContext ognlContext = new OgnlContext(MEMBER_ACCESS, CLASS_RESOLVER, null, context);
-        return ognl.Ognl.getValue(parsedExpression, ognlContext, root);
+
+        if (!compile || root == null || !parsedExpression.compilable) {
+            return ognl.Ognl.getValue(parsedExpression.expression, ognlContext, root);
+        }
+
+        final CompiledOGNLExpression compiledExpression = parsedExpression.compiledExpression;
+
+        if (compiledExpression == null) {
+
+            final Object result = ognl.Ognl.getValue(parsedExpression.expression, ognlContext, root);
+            // Executions are not counted atomically, this is only an approximate threshold.
+            // Also note OGNL's compiler evaluates the expression against the root in order to determine the types
+            // it navigates, so the execution reaching the threshold will call every method in the expression (e.g.
+            // getters, including lazy loaders) twice. There is no way to compile from the types already observed.
+            if (++parsedExpression.executions >= COMPILATION_THRESHOLD) {
+                parsedExpression.compiledExpression = compileExpression(exp, context, root);
+                if (parsedExpression.compiledExpression == null) {
+                    parsedExpression.compilable = false;
+                }
+            }
+            return result;
+
+        }
+
+        if (compiledExpression.rootClass == root.getClass()) {
+            try {
+                return compiledExpression.accessor.get(ognlContext, root);
+            } catch (final ClassCastException | NullPointerException e) {
+                if (!isThrownByAccessor(e, compiledExpression.accessor)) {
+                    // Thrown by code called from the expression (e.g. a getter), not by the compiled code itself
+                    throw e;
+                }
+                // The types of the objects navigated by the expression are not the same ones observed when compiling
+                // (i.e. the expression is polymorphic), or there are nulls in them (which compiled code does not check).
+                // We will let the interpreter deal with the expression from now on, the same way as when not compiled.
+                // Note this will make methods already called by the compiled code be called again, but only once.
+                parsedExpression.compilable = false;
+            }
+        } else {
+            parsedExpression.compilable = false;
+        }
+
+        return ognl.Ognl.getValue(parsedExpression.expression, ognlContext, root);
+
+    }
+
+
+    /*
+     * Checks whether an exception has been thrown by the code of a compiled accessor (or the OGNL runtime methods
+     * called from it), instead of by any of the methods called by the expression. Accessor classes are generated
+     * in OGNL's own package (e.g. ognl.ASTChain1234Accessor), so the accessor must appear among the topmost OGNL
+     * frames, before the first frame of any other class (the getter that threw, or the caller of the accessor).
+     * Exceptions without stack trace (e.g. because the JVM omitted it) cannot be attributed to the accessor.
+     */
+    private static boolean isThrownByAccessor(final RuntimeException e, final ExpressionAccessor accessor) {
+        final String accessorClassName = accessor.getClass().getName();
+        for (final StackTraceElement element : e.getStackTrace()) {
+            final String className = element.getClassName();
+            if (className.equals(accessorClassName)) {
+                return true;
+            }
+            if (!className.startsWith("ognl.")) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+
+    /*
+     * Checks whether an expression has already been compiled and its compiled accessor is being used. Only meant
+     * to be used for testing purposes.
+     */
+    static boolean isCompiled(final IEngineConfiguration configuration, final String exp) {
+        final Object parsedExpression = ExpressionCache.getFromCache(configuration, exp, EXPRESSION_CACHE_TYPE_OGNL);
+        return parsedExpression instanceof ComputedOGNLExpression &&
+                ((ComputedOGNLExpression) parsedExpression).compilable &&
+                ((ComputedOGNLExpression) parsedExpression).compiledExpression != null;
+    }
+
+
+    private static CompiledOGNLExpression compileExpression(
+            final String exp, final Map<String,Object> context, final Object root) {
+
+        try {
+
+            final OgnlContext ognlContext = new OgnlContext(MEMBER_ACCESS, CLASS_RESOLVER, null, context);
+            final Node compiledNode = ognl.Ognl.compileExpression(ognlContext, root, exp);
+            if (compiledNode == null || compiledNode.getAccessor() == null) {
+                return null;
+            }
+            return new CompiledOGNLExpression(root.getClass(), compiledNode.getAccessor());
+
+        } catch (final Exception | LinkageError e) {
+            // Unsupported expression shapes (or the absence of Javassist) will simply make us keep on using
+            // the interpreter for this expression
+            if (logger.isTraceEnabled()) {
+                logger.trace(
+                        "[THYMELEAF][{}] OGNL expression \"{}\" could not be compiled, it will be interpreted",
+                        new Object[] {TemplateEngine.threadIndex(), exp, e});
+            }
+            return null;
+        }
 
     }
 
@@ -349,6 +506,11 @@ private static final class ComputedOGNLExpression {
         final Object expression;
         final boolean mightNeedExpressionObjects;
 
+        // Compilation state, only used if expression compilation is enabled
+        volatile CompiledOGNLExpression compiledExpression = null;
+        volatile boolean compilable = true;
+        int executions = 0;
+
         ComputedOGNLExpression(final Object expression, final boolean mightNeedExpressionObjects) {
             super();
             this.expression = expression;
@@ -359,6 +521,20 @@ private static final class ComputedOGNLExpression {
     }
 
 
+    private static final class CompiledOGNLExpression {
+
+        final Class<?> rootClass;
+        final ExpressionAccessor accessor;
+
+        CompiledOGNLExpression(final Class<?> rootClass, final ExpressionAccessor accessor) {
+            super();
+            this.rootClass = rootClass;
+            this.accessor = accessor;
+        }
+
+    }
+
+
     static final class ThymeleafACLClassResolver implements ClassResolver {
 
         private final ClassResolver classResolver;
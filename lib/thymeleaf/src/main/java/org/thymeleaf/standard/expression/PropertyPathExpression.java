@@ -0,0 +1,375 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.util.ExpressionUtils;
+
+/*
+ * Variable expression consisting only of a path of property names and literal map keys, like
+ * ${order.customer.name} or ${messages['title']}, which can be evaluated the same way by OGNL and SpringEL
+ * without using any of them.
+ *
+ * Each segment of the path acts as an inline cache of the getters (as method handles) that have been used for
+ * the types of objects found at that position of the path. When more types than MAX_POLYMORPHIC_TYPES are found
+ * the segment becomes megamorphic and getters are looked up in a per-class cache instead.
+ *
+ * Whenever the path finds something it cannot evaluate exactly the same way the expression language would
+ * (nulls, collections, arrays, missing map keys, names without a public getter...), NOT_APPLICABLE is returned
+ * so that the expression is evaluated by the expression language instead.
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+final class PropertyPathExpression {
+
+    static final Object NOT_APPLICABLE = new Object();
+
+    private static final int MAX_POLYMORPHIC_TYPES = 4;
+
+    // Words that have a meaning of their own as OGNL or SpringEL operators or literals
+    private static final Set<String> RESERVED_WORDS =
+            new HashSet<String>(Arrays.asList(
+                    "true", "false", "null", "new", "this", "root", "instanceof", "matches", "between", "in",
+                    "and", "or", "not", "eq", "ne", "neq", "lt", "lte", "le", "gt", "gte", "ge", "div", "mod",
+                    "shl", "shr", "ushr", "band", "bor", "xor", "T"));
+
+    // Names given a special meaning by OGNL's map property accessor
+    private static final Set<String> MAP_PROPERTY_NAMES =
+            new HashSet<String>(Arrays.asList("size", "keys", "keySet", "values", "isEmpty"));
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final Object NO_GETTER = new Object();
+    private static final ClassValue<Map<String,Object>> GETTERS_BY_CLASS =
+            new ClassValue<Map<String, Object>>() {
+                @Override
+                protected Map<String, Object> computeValue(final Class<?> type) {
+                    return new ConcurrentHashMap<String, Object>(4, 0.75f, 2);
+                }
+            };
+
+    private static final Link[] NO_LINKS = new Link[0];
+
+
+    private final Segment[] segments;
+
+
+
+    private PropertyPathExpression(final Segment[] segments) {
+        super();
+        this.segments = segments;
+    }
+
+
+
+
+    /*
+     * Returns the parsed path, or null if the expression is not a pure property/map key path. The first
+     * segment of the path is always a property name.
+     */
+    static PropertyPathExpression parse(final String expression) {
+
+        final List<Segment> segments = new ArrayList<Segment>(4);
+
+        final int len = expression.length();
+        int i = 0;
+        boolean key = false;
+
+        while (true) {
+
+            final int start = i;
+            if (key) {
+                // Literal key: ['...'], with no quotes or escapes inside
+                while (i < len && expression.charAt(i) != '\'' && expression.charAt(i) != '\\') {
+                    i++;
+                }
+                if (i + 1 >= len || expression.charAt(i) != '\'' || expression.charAt(i + 1) != ']') {
+                    return null;
+                }
+                segments.add(new Segment(expression.substring(start, i), true));
+                i += 2;
+            } else {
+                if (i >= len || !Character.isJavaIdentifierStart(expression.charAt(i))) {
+                    return null;
+                }
+                i++;
+                while (i < len && Character.isJavaIdentifierPart(expression.charAt(i))) {
+                    i++;
+                }
+                final String name = expression.substring(start, i);
+                if (RESERVED_WORDS.contains(name)) {
+                    return null;
+                }
+                segments.add(new Segment(name, false));
+            }
+
+            if (i == len) {
+                break;
+            }
+            if (expression.charAt(i) == '.') {
+                key = false;
+                i++;
+            } else if (expression.startsWith("['", i)) {
+                key = true;
+                i += 2;
+            } else {
+                return null;
+            }
+
+        }
+
+        return new PropertyPathExpression(segments.toArray(new Segment[segments.size()]));
+
+    }
+
+
+
+
+    /*
+     * Evaluates the path on the specified root (an IContext if the first segment refers to a variable, or the
+     * selection target). Returns NOT_APPLICABLE if the path could not be completely evaluated, in which
+     * case the expression should be evaluated by the expression language. Note the getters executed before
+     * the point in which the path was found not applicable will be executed again by the expression language,
+     * so only side-effect-free getters should be used in expressions if this evaluation mode is enabled.
+     */
+    Object evaluate(final Object root) {
+
+        Object target = root;
+        for (int i = 0; i < this.segments.length; i++) {
+
+            // Nulls in the middle of the path are an error, which each expression language reports its own way
+            if (target == null) {
+                return NOT_APPLICABLE;
+            }
+
+            final Segment segment = this.segments[i];
+
+            if (segment.key) {
+                // Indexed access with a literal key is only supported for maps
+                if (!(target instanceof Map<?,?>)) {
+                    return NOT_APPLICABLE;
+                }
+                target = ((Map<?,?>) target).get(segment.name);
+            } else if (target instanceof IContext) {
+                target = ((IContext) target).getVariable(segment.name);
+            } else if (target instanceof Map<?,?>) {
+                // OGNL and SpringEL only behave the same for keys that exist and have no special meaning
+                final Map<?,?> map = (Map<?,?>) target;
+                if (MAP_PROPERTY_NAMES.contains(segment.name) || !map.containsKey(segment.name)) {
+                    return NOT_APPLICABLE;
+                }
+                target = map.get(segment.name);
+            } else {
+                final MethodHandle getter = segment.getter(target);
+                if (getter == null) {
+                    return NOT_APPLICABLE;
+                }
+                try {
+                    target = (Object) getter.invokeExact(target);
+                } catch (final Error e) {
+                    throw e;
+                } catch (final Throwable t) {
+                    // Exceptions thrown by getters will be reported by the expression language
+                    return NOT_APPLICABLE;
+                }
+            }
+
+        }
+
+        return target;
+
+    }
+
+
+
+
+    private static Object resolveGetter(final Object target, final String propertyName) {
+
+        final Class<?> type = target.getClass();
+        final Map<String,Object> getters = GETTERS_BY_CLASS.get(type);
+
+        Object getter = getters.get(propertyName);
+        if (getter == null) {
+            getter = computeGetter(target, type, propertyName);
+            getters.put(propertyName, getter);
+        }
+        return (getter == NO_GETTER ? null : getter);
+
+    }
+
+
+    private static Object computeGetter(final Object target, final Class<?> type, final String propertyName) {
+
+        // Objects for which the expression languages apply specific property access mechanisms
+        if (target instanceof Class<?> || target instanceof Collection<?> || target instanceof Iterator<?>
+                || target instanceof Enumeration<?> || type.isArray()) {
+            return NO_GETTER;
+        }
+
+        final BeanInfo beanInfo;
+        try {
+            beanInfo = Introspector.getBeanInfo(type);
+        } catch (final IntrospectionException e) {
+            return NO_GETTER;
+        }
+
+        Method readMethod = null;
+        final PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
+        if (propertyDescriptors != null) {
+            for (final PropertyDescriptor propertyDescriptor : propertyDescriptors) {
+                if (propertyDescriptor.getName().equals(propertyName)) {
+                    readMethod = propertyDescriptor.getReadMethod();
+                    break;
+                }
+            }
+        }
+
+        // Access restrictions are checked by the expression languages, which will report them
+        if (readMethod == null || !ExpressionUtils.isMemberAllowed(target, readMethod.getName())) {
+            return NO_GETTER;
+        }
+
+        readMethod = findPublicMethod(type, readMethod.getName());
+        if (readMethod == null) {
+            return NO_GETTER;
+        }
+
+        try {
+            return MethodHandles.publicLookup().unreflect(readMethod).asType(GETTER_TYPE);
+        } catch (final IllegalAccessException e) {
+            return NO_GETTER;
+        }
+
+    }
+
+
+    /*
+     * The getter returned by introspection might be declared in a non-public class, in which case we need to
+     * find the same method at a public class or interface up in the hierarchy.
+     */
+    private static Method findPublicMethod(final Class<?> type, final String methodName) {
+
+        if (type == null) {
+            return null;
+        }
+
+        if (Modifier.isPublic(type.getModifiers())) {
+            try {
+                final Method method = type.getMethod(methodName);
+                if (Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                    return method;
+                }
+            } catch (final NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        for (final Class<?> interfaceType : type.getInterfaces()) {
+            final Method method = findPublicMethod(interfaceType, methodName);
+            if (method != null) {
+                return method;
+            }
+        }
+
+        return findPublicMethod(type.getSuperclass(), methodName);
+
+    }
+
+
+
+
+    private static final class Segment {
+
+        final String name;
+        final boolean key;
+
+        // Inline cache: types found at this position of the path and their getters (null if not applicable)
+        private volatile Link[] links = NO_LINKS;
+
+        Segment(final String name, final boolean key) {
+            super();
+            this.name = name;
+            this.key = key;
+        }
+
+        MethodHandle getter(final Object target) {
+
+            final Class<?> type = target.getClass();
+
+            final Link[] currentLinks = this.links;
+            for (int i = 0; i < currentLinks.length; i++) {
+                if (currentLinks[i].type == type) {
+                    return currentLinks[i].getter;
+                }
+            }
+
+            final MethodHandle getter = (MethodHandle) resolveGetter(target, this.name);
+
+            // Once megamorphic, getters will always be resolved from the per-class cache. Links are not added
+            // atomically, so a link lost because of a race condition will just be added again afterwards.
+            if (currentLinks.length < MAX_POLYMORPHIC_TYPES) {
+                final Link[] newLinks = Arrays.copyOf(currentLinks, currentLinks.length + 1);
+                newLinks[currentLinks.length] = new Link(type, getter);
+                this.links = newLinks;
+            }
+
+            return getter;
+
+        }
+
+    }
+
+
+    private static final class Link {
+
+        final Class<?> type;
+        final MethodHandle getter;
+
+        Link(final Class<?> type, final MethodHandle getter) {
+            super();
+            this.type = type;
+            this.getter = getter;
+        }
+
+    }
+
+
+}
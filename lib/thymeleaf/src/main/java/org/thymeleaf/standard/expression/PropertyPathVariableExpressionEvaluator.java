@@ -0,0 +1,143 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.util.Validate;
+
+/**
+ * <p>
+ *   Variable expression evaluator that evaluates expressions consisting only of a path of property names and
+ *   literal map keys (like {@code ${order.customer.name}} or {@code ${messages['title']}}) without using
+ *   an expression language, delegating the evaluation of any other expressions to another
+ *   {@link IStandardVariableExpressionEvaluator} (e.g. {@link OGNLVariableExpressionEvaluator} or the SpringEL
+ *   evaluator in the Thymeleaf + Spring integration packages).
+ * </p>
+ * <p>
+ *   Properties are read by means of their public JavaBeans getters, which are cached as method handles at
+ *   each position of the path for the (few) types of objects found there. Context variables and map entries
+ *   are also supported. Anything the path cannot evaluate exactly the same way the delegate expression language
+ *   would (nulls in the middle of the path, collections, arrays, missing map keys, properties without getters,
+ *   exceptions...) makes the expression be evaluated by the delegate evaluator. Expressions evaluated with
+ *   type conversion or with any kind of access restrictions are always evaluated by the delegate.
+ * </p>
+ * <p>
+ *   Note custom property accessors registered at the delegate expression language will not be applied to
+ *   objects navigated by property paths, and that getters executed before a path is found not evaluable will
+ *   be executed again by the delegate, so getters should be free of side effects.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class PropertyPathVariableExpressionEvaluator implements IStandardVariableExpressionEvaluator {
+
+    private static final String EXPRESSION_CACHE_TYPE_PROPERTY_PATH = "ppath";
+    private static final Object NOT_A_PROPERTY_PATH = new Object();
+
+    private final IStandardVariableExpressionEvaluator delegate;
+
+
+
+    public PropertyPathVariableExpressionEvaluator(final IStandardVariableExpressionEvaluator delegate) {
+        super();
+        Validate.notNull(delegate, "Delegate Variable Expression Evaluator cannot be null");
+        this.delegate = delegate;
+    }
+
+
+
+
+    /**
+     * <p>
+     *   Returns the evaluator to which all expressions that are not property paths are delegated.
+     * </p>
+     *
+     * @return the delegate evaluator.
+     */
+    public IStandardVariableExpressionEvaluator getDelegate() {
+        return this.delegate;
+    }
+
+
+
+
+    public Object evaluate(
+            final IExpressionContext context,
+            final IStandardVariableExpression expression,
+            final StandardExpressionExecutionContext expContext) {
+
+        final String exp = expression.getExpression();
+
+        if (exp == null || !(context instanceof ITemplateContext)
+                || expContext.getPerformTypeConversion()
+                || expContext.getRestrictVariableAccess() || expContext.getRestrictInstantiationAndStatic()) {
+            return this.delegate.evaluate(context, expression, expContext);
+        }
+
+        final PropertyPathExpression propertyPath = obtainPropertyPath(context.getConfiguration(), exp);
+        if (propertyPath == null) {
+            return this.delegate.evaluate(context, expression, expContext);
+        }
+
+        // The root object on which the path is evaluated depends on whether a selection target is active or not
+        final ITemplateContext templateContext = (ITemplateContext) context;
+        final Object evaluationRoot =
+                (expression.getUseSelectionAsRoot() && templateContext.hasSelectionTarget()?
+                        templateContext.getSelectionTarget() : templateContext);
+
+        final Object result = propertyPath.evaluate(evaluationRoot);
+        if (result == PropertyPathExpression.NOT_APPLICABLE) {
+            return this.delegate.evaluate(context, expression, expContext);
+        }
+        return result;
+
+    }
+
+
+
+
+    private static PropertyPathExpression obtainPropertyPath(final IEngineConfiguration configuration, final String exp) {
+
+        final Object cached = ExpressionCache.getFromCache(configuration, exp, EXPRESSION_CACHE_TYPE_PROPERTY_PATH);
+        if (cached != null) {
+            return (cached == NOT_A_PROPERTY_PATH ? null : (PropertyPathExpression) cached);
+        }
+
+        final PropertyPathExpression propertyPath = PropertyPathExpression.parse(exp);
+        ExpressionCache.putIntoCache(
+                configuration, exp, (propertyPath == null ? NOT_A_PROPERTY_PATH : propertyPath), EXPRESSION_CACHE_TYPE_PROPERTY_PATH);
+        return propertyPath;
+
+    }
+
+
+
+
+    @Override
+    public String toString() {
+        return "PropertyPath(" + this.delegate.toString() + ")";
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.util.EvaluationUtils;
+
+
+
+/*
+ * Optimization pass applied on Standard Expressions once parsed, before they are cached.
+ *
+ * Sub-expressions that only operate on literals and tokens are executed once at parse time and replaced by a
+ * literal or token holding their result (e.g. 'Total: ' + 'EUR', or true ? 'a' : 'b'), so that the result of
+ * executing the expression is exactly the same one as before folding. Also, consecutive text literals being
+ * appended to a non-constant expression (as produced by literal substitutions like |${a} x| + 'y') are
+ * pre-concatenated.
+ *
+ * Expressions that are completely folded will return true for Expression#isContextIndependent().
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+final class StandardExpressionOptimizer {
+
+
+
+    static Expression optimize(final IExpressionContext context, final Expression expression) {
+
+        if (expression instanceof BinaryOperationExpression) {
+            return optimizeBinaryOperation(context, (BinaryOperationExpression) expression);
+        }
+        if (expression instanceof NegationExpression) {
+            final Expression operand = optimize(context, ((NegationExpression) expression).getOperand());
+            final Expression optimized =
+                    (operand == ((NegationExpression) expression).getOperand() ? expression : new NegationExpression(operand));
+            return (isConstant(operand) ? fold(context, optimized) : optimized);
+        }
+        if (expression instanceof MinusExpression) {
+            final Expression operand = optimize(context, ((MinusExpression) expression).getOperand());
+            final Expression optimized =
+                    (operand == ((MinusExpression) expression).getOperand() ? expression : new MinusExpression(operand));
+            return (isConstant(operand) ? fold(context, optimized) : optimized);
+        }
+        if (expression instanceof ConditionalExpression) {
+            return optimizeConditional(context, (ConditionalExpression) expression);
+        }
+        if (expression instanceof DefaultExpression) {
+            return optimizeDefault(context, (DefaultExpression) expression);
+        }
+        return expression;
+
+    }
+
+
+
+
+    private static Expression optimizeBinaryOperation(
+            final IExpressionContext context, final BinaryOperationExpression expression) {
+
+        final IStandardExpression left = optimizeOperand(context, expression.getLeft());
+        final IStandardExpression right = optimizeOperand(context, expression.getRight());
+
+        if (isConstant(left) && isConstant(right)) {
+            return fold(context, rebuildBinaryOperation(expression, left, right));
+        }
+
+        if (expression instanceof AdditionExpression && left instanceof AdditionExpression && isConstant(right)) {
+            // (X + 'a') + 'b' -> X + 'ab'. Whatever X is, appending a text literal to it will always be a text
+            // concatenation (text literals are never considered numbers), so this does not change the result.
+            final AdditionExpression leftAddition = (AdditionExpression) left;
+            if (leftAddition.getRight() instanceof TextLiteralExpression) {
+                final Expression literals =
+                        fold(context, new AdditionExpression(leftAddition.getRight(), right));
+                if (literals instanceof TextLiteralExpression) {
+                    return new AdditionExpression(leftAddition.getLeft(), literals);
+                }
+            }
+        }
+
+        return rebuildBinaryOperation(expression, left, right);
+
+    }
+
+
+    private static IStandardExpression optimizeOperand(final IExpressionContext context, final IStandardExpression operand) {
+        if (operand instanceof Expression) {
+            return optimize(context, (Expression) operand);
+        }
+        return operand;
+    }
+
+
+    private static Expression rebuildBinaryOperation(
+            final BinaryOperationExpression expression, final IStandardExpression left, final IStandardExpression right) {
+        if (left == expression.getLeft() && right == expression.getRight()) {
+            return expression;
+        }
+        try {
+            return expression.getClass().
+                    getDeclaredConstructor(IStandardExpression.class, IStandardExpression.class).newInstance(left, right);
+        } catch (final Exception e) {
+            // Should never happen for the Standard binary operations, but we can simply avoid optimizing
+            return expression;
+        }
+    }
+
+
+
+
+    private static Expression optimizeConditional(final IExpressionContext context, final ConditionalExpression expression) {
+
+        final Expression condition = optimize(context, expression.getConditionExpression());
+        final Expression thenExpression = optimize(context, expression.getThenExpression());
+        final Expression elseExpression = optimize(context, expression.getElseExpression());
+
+        final Expression optimized =
+                (condition == expression.getConditionExpression() &&
+                        thenExpression == expression.getThenExpression() && elseExpression == expression.getElseExpression() ?
+                            expression : new ConditionalExpression(condition, thenExpression, elseExpression));
+
+        if (!isConstant(condition)) {
+            return optimized;
+        }
+
+        // Only the branch that would be executed needs to be constant for the result to be known
+        final boolean conditionValue;
+        try {
+            conditionValue = EvaluationUtils.evaluateAsBoolean(condition.execute(context));
+        } catch (final RuntimeException e) {
+            return optimized;
+        }
+        if (isConstant(conditionValue ? thenExpression : elseExpression)) {
+            return fold(context, optimized);
+        }
+        return optimized;
+
+    }
+
+
+    private static Expression optimizeDefault(final IExpressionContext context, final DefaultExpression expression) {
+
+        final Expression queriedExpression = optimize(context, expression.getQueriedExpression());
+        final Expression defaultExpression = optimize(context, expression.getDefaultExpression());
+
+        final Expression optimized =
+                (queriedExpression == expression.getQueriedExpression() && defaultExpression == expression.getDefaultExpression() ?
+                        expression : new DefaultExpression(queriedExpression, defaultExpression));
+
+        if (!isConstant(queriedExpression)) {
+            return optimized;
+        }
+
+        // The default expression only needs to be constant if it will actually be executed
+        if (queriedExpression instanceof NullTokenExpression && !isConstant(defaultExpression)) {
+            return optimized;
+        }
+        return fold(context, optimized);
+
+    }
+
+
+
+
+    /*
+     * Executes the (constant) expression and returns a literal or token that will return exactly the same
+     * object when executed. Note execution results are not literal-unwrapped here, because that would change the
+     * result of additions in which the folded expression acts as an operand.
+     */
+    private static Expression fold(final IExpressionContext context, final Expression expression) {
+
+        final Object result;
+        try {
+            result = Expression.execute(
+                    context, expression,
+                    StandardExpressions.getVariableExpressionEvaluator(context.getConfiguration()),
+                    StandardExpressionExecutionContext.NORMAL);
+        } catch (final RuntimeException e) {
+            // Errors (e.g. a division by zero) will be raised at execution time, same as without folding
+            return expression;
+        }
+
+        if (result == null) {
+            return new NullTokenExpression();
+        }
+        if (result instanceof LiteralValue) {
+            return new TextLiteralExpression((LiteralValue) result);
+        }
+        if (result instanceof String) {
+            return new GenericTokenExpression((String) result);
+        }
+        if (result instanceof Boolean) {
+            return new BooleanTokenExpression((Boolean) result);
+        }
+        if (result instanceof Number) {
+            return new NumberTokenExpression((Number) result);
+        }
+        return expression;
+
+    }
+
+
+    private static boolean isConstant(final IStandardExpression expression) {
+        // No-op tokens are not values, but signals for the processors, so they are never folded
+        return expression instanceof Expression &&
+                ((Expression) expression).isContextIndependent() && !(expression instanceof NoOpTokenExpression);
+    }
+
+
+
+
+    private StandardExpressionOptimizer() {
+        super();
+    }
+
+}
@@ -125,11 +125,14 @@ static IStandardExpression parseExpression(
             return cachedExpression;
         }
 
-        final Expression expression = Expression.parse(preprocessedInput.trim());
+        final Expression parsedExpression = Expression.parse(preprocessedInput.trim());
         
-        if (expression == null) {
+        if (parsedExpression == null) {
             throw new TemplateProcessingException("Could not parse as expression: \"" + input + "\"");
         }
+
+        // Sub-expressions operating only on literals are executed now, so that this is not needed at every execution
+        final Expression expression = StandardExpressionOptimizer.optimize(context, parsedExpression);
         
         ExpressionCache.putExpressionIntoCache(configuration, preprocessedInput, expression);
 
@@ -88,6 +88,11 @@ static Object executeSubtraction(
             rightValue = "null";
         }
 
+        final BigDecimal integralResult = NumericOperationUtil.subtract(leftValue, rightValue);
+        if (integralResult != null) {
+            return integralResult;
+        }
+
         final BigDecimal leftNumberValue = EvaluationUtils.evaluateAsNumber(leftValue);
         final BigDecimal rightNumberValue = EvaluationUtils.evaluateAsNumber(rightValue);
         if (leftNumberValue != null && rightNumberValue != null) {
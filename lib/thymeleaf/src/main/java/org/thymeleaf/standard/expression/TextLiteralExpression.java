@@ -60,6 +60,15 @@ public TextLiteralExpression(final String value) {
         Validate.notNull(value, "Value cannot be null");
         this.value = new LiteralValue(unwrapLiteral(value));
     }
+
+
+    /*
+     * Used for creating text literals from the results of folding constant expressions
+     */
+    TextLiteralExpression(final LiteralValue value) {
+        super();
+        this.value = value;
+    }
     
     
     
@@ -68,6 +77,12 @@ public LiteralValue getValue() {
     }
 
 
+    @Override
+    public boolean isContextIndependent() {
+        return true;
+    }
+
+
     private static String unwrapLiteral(final String input) {
         // We know input is not null
         final int inputLen = input.length();
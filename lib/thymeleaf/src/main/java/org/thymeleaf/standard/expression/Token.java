@@ -48,6 +48,12 @@ public Object getValue() {
     public String getStringRepresentation() {
         return this.value.toString(); // Tokens are fine not using the conversion service
     }
+
+
+    @Override
+    public boolean isContextIndependent() {
+        return true;
+    }
     
     
     @Override
@@ -27,6 +27,7 @@
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.IExpressionContext;
 import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.metrics.TemplateExecutionMetrics;
 import org.thymeleaf.util.Validate;
 
 
@@ -163,6 +164,8 @@ static Object executeVariableExpression(
         final StandardExpressionExecutionContext evalExpContext =
             (expression.getConvertToString()? expContext.withTypeConversion() : expContext.withoutTypeConversion());
 
+        TemplateExecutionMetrics.recordExpressionEvaluation(context);
+
         final Object result = expressionEvaluator.evaluate(context, expression, evalExpContext);
 
         if (!expContext.getForbidUnsafeExpressionResults()) {
@@ -119,6 +119,11 @@ protected final void doProcess(
             final String attributeValue,
             final IElementTagStructureHandler structureHandler) {
 
+        // Output computed during a previous execution of a context-independent expression avoids evaluating it again
+        if (doProcessCachedOutput(context, tag, attributeName, attributeValue, structureHandler)) {
+            return;
+        }
+
         final Object expressionResult;
         if (attributeValue != null) {
 
@@ -165,6 +170,36 @@ protected final void doProcess(
     }
 
 
+    /**
+     * <p>
+     *   Process the attribute using output cached by this processor during a previous execution, if any (see
+     *   {@link EngineEventUtils#cacheAttributeOutput(IProcessableElementTag, AttributeName, Object, Object)}).
+     *   This is called before the expression in the attribute is evaluated, so that context-independent
+     *   expressions do not need to be executed again.
+     * </p>
+     * <p>
+     *   The default implementation does nothing and returns {@code false}.
+     * </p>
+     *
+     * @param context the template context
+     * @param tag the tag being processed
+     * @param attributeName the name of the attribute being processed
+     * @param attributeValue the value of the attribute being processed
+     * @param structureHandler the structure handler
+     * @return whether cached output has been applied, so that the expression must not be evaluated
+     *
+     * @since 3.1.3
+     */
+    protected boolean doProcessCachedOutput(
+            final ITemplateContext context,
+            final IProcessableElementTag tag,
+            final AttributeName attributeName,
+            final String attributeValue,
+            final IElementTagStructureHandler structureHandler) {
+        return false;
+    }
+
+
     protected abstract void doProcess(
             final ITemplateContext context,
             final IProcessableElementTag tag,
@@ -21,11 +21,16 @@
 
 import java.io.Writer;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.thymeleaf.IEngineConfiguration;
 import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.cache.FragmentCacheEntry;
+import org.thymeleaf.cache.FragmentCacheKey;
+import org.thymeleaf.cache.ICache;
+import org.thymeleaf.cache.ICacheManager;
 import org.thymeleaf.context.IEngineContext;
 import org.thymeleaf.context.ITemplateContext;
 import org.thymeleaf.engine.AttributeName;
@@ -38,6 +43,7 @@
 import org.thymeleaf.model.IOpenElementTag;
 import org.thymeleaf.model.IProcessableElementTag;
 import org.thymeleaf.model.ITemplateEvent;
+import org.thymeleaf.model.IText;
 import org.thymeleaf.processor.element.AbstractAttributeTagProcessor;
 import org.thymeleaf.processor.element.IElementTagStructureHandler;
 import org.thymeleaf.standard.expression.Fragment;
@@ -50,6 +56,7 @@
 import org.thymeleaf.standard.expression.StandardExpressions;
 import org.thymeleaf.templatemode.TemplateMode;
 import org.thymeleaf.util.EscapedAttributeUtils;
+import org.thymeleaf.util.EvaluationUtils;
 import org.thymeleaf.util.FastStringWriter;
 import org.thymeleaf.util.LoggingUtils;
 import org.thymeleaf.util.StringUtils;
@@ -201,6 +208,64 @@ protected void doProcess(
         }
 
 
+        /*
+         * CHECK WHETHER THE OUTPUT OF THE FRAGMENT CAN BE CACHED. This is declared by means of a th:cache attribute
+         * in the same element, and means the fragment does not depend on the context other than its locale (and the
+         * result of the th:cache expression, if any). In such case, the fragment is processed aside (same as
+         * cross-template-mode insertions are) and its output inserted as mere text, so that later executions only
+         * need to copy the cached output.
+         */
+        final FragmentCacheKey fragmentCacheKey =
+                computeFragmentCacheKey(context, tag, attributeName, fragmentModel, fragmentParameters);
+        if (fragmentCacheKey != null) {
+
+            final String output = computeCachedFragmentOutput(context, fragmentCacheKey, fragmentModel);
+
+            // We will insert the result as NON-PROCESSABLE text (it's already been processed!)
+            if (this.replaceHost) {
+                structureHandler.replaceWith(output, false);
+            } else {
+                structureHandler.setBody(output, false);
+            }
+
+            return;
+
+        }
+
+
+        /*
+         * CHECK WHETHER THE FRAGMENT SHOULD BE RENDERED IN PARALLEL. This is declared by means of a th:parallel
+         * attribute in the same element, and needs a fragment rendering executor to be configured. In such case,
+         * the fragment is processed aside by the executor on a copy of the context variables, and the rest of the
+         * template goes on being processed. Its output will be written in document order once it is ready.
+         * If the current execution does not allow parallel rendering (e.g. throttled executions), the fragment is
+         * simply inserted as usual.
+         */
+        final Executor fragmentRenderingExecutor = computeFragmentRenderingExecutor(context, tag, attributeName);
+        if (fragmentRenderingExecutor != null) {
+
+            final IText output =
+                    configuration.getTemplateManager().processInParallel(
+                            fragmentModel, context, fragmentParameters, fragmentRenderingExecutor);
+
+            if (output != null) {
+
+                final IModel outputModel = context.getModelFactory().createModel(output);
+
+                // We will insert the result as NON-PROCESSABLE (it's being processed already!)
+                if (this.replaceHost) {
+                    structureHandler.replaceWith(outputModel, false);
+                } else {
+                    structureHandler.setBody(outputModel, false);
+                }
+
+                return;
+
+            }
+
+        }
+
+
         /*
          * CHECK WHETHER THIS IS A CROSS-TEMPLATE-MODE INSERTION. Only TemplateModels for the same template mode
          * can be safely inserted into the template being executed and processed just like any other sequences of
@@ -343,6 +408,124 @@ protected void doProcess(
 
 
 
+    /*
+     * Returns null if the output of the inserted fragment should not be cached: no th:cache attribute, th:include,
+     * parameterized fragments, non-cacheable templates, no fragment cache or a th:cache expression returning null
+     * or Boolean.FALSE
+     */
+    private FragmentCacheKey computeFragmentCacheKey(
+            final ITemplateContext context, final IProcessableElementTag tag, final AttributeName attributeName,
+            final TemplateModel fragmentModel, final Map<String, Object> fragmentParameters) {
+
+        if (this.insertOnlyContents) {
+            return null;
+        }
+
+        final String dialectPrefix = attributeName.getPrefix();
+        if (!tag.hasAttribute(dialectPrefix, StandardCacheTagProcessor.ATTR_NAME)) {
+            return null;
+        }
+
+        if (fragmentParameters != null && fragmentParameters.size() > 0) {
+            return null;
+        }
+
+        final TemplateData fragmentTemplateData = fragmentModel.getTemplateData();
+        if (!fragmentTemplateData.getValidity().isCacheable()) {
+            return null;
+        }
+
+        final ICacheManager cacheManager = context.getConfiguration().getCacheManager();
+        if (cacheManager == null || cacheManager.getFragmentCache() == null) {
+            return null;
+        }
+
+        String discriminator = null;
+        final String cacheSpec =
+                EscapedAttributeUtils.unescapeAttribute(
+                        context.getTemplateMode(), tag.getAttributeValue(dialectPrefix, StandardCacheTagProcessor.ATTR_NAME));
+        if (!StringUtils.isEmptyOrWhitespace(cacheSpec)) {
+            final IStandardExpression cacheExpression =
+                    StandardExpressions.getExpressionParser(context.getConfiguration()).parseExpression(context, cacheSpec);
+            final Object cacheExpressionResult = cacheExpression.execute(context);
+            // Only null and Boolean.FALSE disable caching. Any other result (including 0, "false", "off" or "no",
+            // which would evaluate as false in a th:if) is a discriminator, so it cannot silently disable caching.
+            if (cacheExpressionResult == null || Boolean.FALSE.equals(cacheExpressionResult)) {
+                return null;
+            }
+            discriminator = cacheExpressionResult.toString();
+        }
+
+        return new FragmentCacheKey(
+                fragmentTemplateData.getTemplate(), fragmentTemplateData.getTemplateSelectors(),
+                context.getTemplateMode(), context.getLocale(), discriminator);
+
+    }
+
+
+    /*
+     * Returns null if the inserted fragment should not be rendered in parallel: no th:parallel attribute, th:include,
+     * no fragment rendering executor or a th:parallel expression evaluating as false
+     */
+    private Executor computeFragmentRenderingExecutor(
+            final ITemplateContext context, final IProcessableElementTag tag, final AttributeName attributeName) {
+
+        if (this.insertOnlyContents) {
+            return null;
+        }
+
+        final String dialectPrefix = attributeName.getPrefix();
+        if (!tag.hasAttribute(dialectPrefix, StandardParallelTagProcessor.ATTR_NAME)) {
+            return null;
+        }
+
+        final Executor fragmentRenderingExecutor = context.getConfiguration().getFragmentRenderingExecutor();
+        if (fragmentRenderingExecutor == null) {
+            return null;
+        }
+
+        final String parallelSpec =
+                EscapedAttributeUtils.unescapeAttribute(
+                        context.getTemplateMode(), tag.getAttributeValue(dialectPrefix, StandardParallelTagProcessor.ATTR_NAME));
+        if (!StringUtils.isEmptyOrWhitespace(parallelSpec)) {
+            final IStandardExpression parallelExpression =
+                    StandardExpressions.getExpressionParser(context.getConfiguration()).parseExpression(context, parallelSpec);
+            if (!EvaluationUtils.evaluateAsBoolean(parallelExpression.execute(context))) {
+                return null;
+            }
+        }
+
+        return fragmentRenderingExecutor;
+
+    }
+
+
+    private static String computeCachedFragmentOutput(
+            final ITemplateContext context, final FragmentCacheKey fragmentCacheKey, final TemplateModel fragmentModel) {
+
+        final IEngineConfiguration configuration = context.getConfiguration();
+        final ICache<FragmentCacheKey, FragmentCacheEntry> fragmentCache = configuration.getCacheManager().getFragmentCache();
+
+        // Cached output is only used if it was rendered from the same template model we just resolved. If the
+        // fragment's template has been parsed again since, the output will need to be rendered again too.
+        final FragmentCacheEntry cachedEntry = fragmentCache.get(fragmentCacheKey);
+        if (cachedEntry != null && cachedEntry.getTemplateModel() == fragmentModel) {
+            return cachedEntry.getOutput();
+        }
+
+        final Writer stringWriter = new FastStringWriter(200);
+        configuration.getTemplateManager().process(fragmentModel, context, stringWriter);
+        final String output = stringWriter.toString();
+
+        fragmentCache.put(fragmentCacheKey, new FragmentCacheEntry(fragmentModel, output));
+
+        return output;
+
+    }
+
+
+
+
     /*
      * This can return a Fragment, NoOpToken (if nothing should be done) or null
      */
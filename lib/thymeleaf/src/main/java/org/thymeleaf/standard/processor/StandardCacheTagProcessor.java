@@ -0,0 +1,79 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.processor;
+
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.element.AbstractElementTagProcessor;
+import org.thymeleaf.processor.element.IElementTagStructureHandler;
+import org.thymeleaf.templatemode.TemplateMode;
+
+/**
+ * <p>
+ *   Marker processor for the {@code th:cache} attribute, which declares that the fragment inserted by a
+ *   {@code th:insert} or {@code th:replace} attribute in the same element does not depend on the context
+ *   (other than the locale and the optional result of the {@code th:cache} expression), so that its
+ *   rendered output can be stored in the fragment cache.
+ * </p>
+ * <p>
+ *   The {@code th:cache} expression is optional. If it returns {@code null} or {@code Boolean.FALSE}, the
+ *   output of the fragment is not cached for that execution. Any other result (converted to {@code String})
+ *   is used as a discriminator for the cache entry, so that e.g. {@code 0}, {@code "false"}, {@code "off"}
+ *   or {@code "no"} select a cache entry of their own instead of disabling caching.
+ * </p>
+ * <p>
+ *   The attribute is actually read by {@link AbstractStandardFragmentInsertionTagProcessor}, this processor
+ *   simply removes it once the insertion has been performed.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class StandardCacheTagProcessor extends AbstractElementTagProcessor {
+
+    public static final int PRECEDENCE = 1510;
+    public static final String ATTR_NAME = "cache";
+
+
+
+
+
+    public StandardCacheTagProcessor(final TemplateMode templateMode, final String dialectPrefix) {
+        super(templateMode, dialectPrefix, null, false, ATTR_NAME, true, PRECEDENCE);
+    }
+
+
+    @Override
+    protected void doProcess(
+            final ITemplateContext context,
+            final IProcessableElementTag tag,
+            final IElementTagStructureHandler structureHandler) {
+
+        // Nothing to do, this processor is just a marker. Simply remove the attribute
+        final AttributeName attributeName = getMatchingAttributeName().getMatchingAttributeName();
+        structureHandler.removeAttribute(attributeName);
+
+    }
+
+
+}
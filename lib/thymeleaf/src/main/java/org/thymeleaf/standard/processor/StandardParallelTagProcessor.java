@@ -0,0 +1,74 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.processor;
+
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.element.AbstractElementTagProcessor;
+import org.thymeleaf.processor.element.IElementTagStructureHandler;
+import org.thymeleaf.templatemode.TemplateMode;
+
+/**
+ * <p>
+ *   Marker processor for the {@code th:parallel} attribute, which declares that the fragment inserted by a
+ *   {@code th:insert} or {@code th:replace} attribute in the same element can be rendered in parallel with the
+ *   rest of the template, by means of the fragment rendering executor configured at the template engine (see
+ *   {@link org.thymeleaf.TemplateEngine#setFragmentRenderingExecutor(java.util.concurrent.Executor)}). If a
+ *   value is specified, it will be evaluated as a boolean expression determining whether to do so.
+ * </p>
+ * <p>
+ *   The attribute is actually read by {@link AbstractStandardFragmentInsertionTagProcessor}, this processor
+ *   simply removes it once the insertion has been performed.
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class StandardParallelTagProcessor extends AbstractElementTagProcessor {
+
+    public static final int PRECEDENCE = 1520;
+    public static final String ATTR_NAME = "parallel";
+
+
+
+
+
+    public StandardParallelTagProcessor(final TemplateMode templateMode, final String dialectPrefix) {
+        super(templateMode, dialectPrefix, null, false, ATTR_NAME, true, PRECEDENCE);
+    }
+
+
+    @Override
+    protected void doProcess(
+            final ITemplateContext context,
+            final IProcessableElementTag tag,
+            final IElementTagStructureHandler structureHandler) {
+
+        // Nothing to do, this processor is just a marker. Simply remove the attribute
+        final AttributeName attributeName = getMatchingAttributeName().getMatchingAttributeName();
+        structureHandler.removeAttribute(attributeName);
+
+    }
+
+
+}
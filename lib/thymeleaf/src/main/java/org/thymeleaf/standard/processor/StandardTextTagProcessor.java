@@ -21,6 +21,7 @@
 
 import org.thymeleaf.context.ITemplateContext;
 import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.engine.EngineEventUtils;
 import org.thymeleaf.exceptions.TemplateProcessingException;
 import org.thymeleaf.model.IProcessableElementTag;
 import org.thymeleaf.processor.element.IElementTagStructureHandler;
@@ -50,6 +51,25 @@ public StandardTextTagProcessor(final TemplateMode templateMode, final String di
 
 
 
+    @Override
+    protected boolean doProcessCachedOutput(
+            final ITemplateContext context,
+            final IProcessableElementTag tag,
+            final AttributeName attributeName, final String attributeValue,
+            final IElementTagStructureHandler structureHandler) {
+
+        // If the expression is context-independent (e.g. a literal), its escaped output might have been
+        // already computed and cached in the attribute during a previous execution of the same template
+        final Object cachedOutput = EngineEventUtils.getCachedAttributeOutput(tag, attributeName, this);
+        if (cachedOutput == null) {
+            return false;
+        }
+        structureHandler.setBody((String) cachedOutput, false);
+        return true;
+
+    }
+
+
     @Override
     protected void doProcess(
             final ITemplateContext context,
@@ -86,12 +106,14 @@ protected void doProcess(
 
             } else {
 
-                if (input.length() > 100) {
+                if (input.length() > 100 && !EngineEventUtils.isContextIndependentAttributeExpression(tag, attributeName)) {
                     // Might be a large text -> Lazy escaping on the output Writer
                     text = new LazyEscapingCharSequence(context.getConfiguration(), templateMode, input);
                 } else {
-                    // Not large -> better use a bit more of memory, but be faster
-                    text = produceEscapedOutput(templateMode, input);
+                    // Not large (or cacheable) -> better use a bit more of memory, but be faster
+                    final String escapedOutput = produceEscapedOutput(templateMode, input);
+                    EngineEventUtils.cacheAttributeOutput(tag, attributeName, this, escapedOutput);
+                    text = escapedOutput;
                 }
 
             }
@@ -25,6 +25,7 @@
 import java.util.Calendar;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -39,8 +40,21 @@
 public final class DateUtils {
     
     
+    /*
+     * DateFormat objects are NOT thread-safe, so the formats in this map are never used for formatting. They are
+     * only used as prototypes for the per-thread copies in THREAD_DATE_FORMATS, so that formatting requires no
+     * synchronization (which would make all threads formatting with the same pattern and locale wait for each other).
+     */
     private static final Map<DateFormatKey,DateFormat> dateFormats = new ConcurrentHashMap<DateFormatKey, DateFormat>(4, 0.9f, 2);
 
+    private static final ThreadLocal<ThreadDateFormats> THREAD_DATE_FORMATS =
+            new ThreadLocal<ThreadDateFormats>() {
+                @Override
+                protected ThreadDateFormats initialValue() {
+                    return new ThreadDateFormats();
+                }
+            };
+
     /*
      * This SimpleDateFormat defines an almost-ISO8601 formatter.
      *
@@ -48,10 +62,19 @@ public final class DateUtils {
      * timezone as "+02:00" or "Z" instead of "+0200") was not added until Java SE 7. So the use of this
      * SimpleDateFormat object requires additional post-processing.
      *
-     * Note SimpleDateFormat objects are NOT thread-safe, so use of this object must be synchronized.
+     * Note SimpleDateFormat objects are NOT thread-safe, so this object is only used as a prototype for the
+     * per-thread copies in THREAD_ISO8601_DATE_FORMAT.
      */
     private static final SimpleDateFormat ISO8601_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZZZ");
 
+    private static final ThreadLocal<DateFormat> THREAD_ISO8601_DATE_FORMAT =
+            new ThreadLocal<DateFormat>() {
+                @Override
+                protected DateFormat initialValue() {
+                    return (DateFormat) ISO8601_DATE_FORMAT.clone();
+                }
+            };
+
     
     
     
@@ -508,8 +531,29 @@ private static String formatDate(final Object target, final String pattern, fina
             return null;
         }
 
-        final DateFormatKey key = new DateFormatKey(target, pattern, locale);
-        
+        final TimeZone timeZone;
+        final java.util.Date targetDate;
+        if (target instanceof Calendar) {
+            timeZone = ((Calendar) target).getTimeZone();
+            targetDate = ((Calendar) target).getTime();
+        } else if (target instanceof java.util.Date) {
+            timeZone = null;
+            targetDate = (java.util.Date) target;
+        } else {
+            throw new IllegalArgumentException(
+                    "Cannot format object of class \"" + target.getClass().getName() + "\" as a date");
+        }
+
+        // Each thread formats with its own copy of the (shared, but never used) prototype format
+        return THREAD_DATE_FORMATS.get().getDateFormat(pattern, locale, timeZone).format(targetDate);
+
+    }
+
+
+    private static DateFormat getPrototypeDateFormat(final String pattern, final Locale locale, final TimeZone timeZone) {
+
+        final DateFormatKey key = new DateFormatKey(pattern, locale, timeZone);
+
         DateFormat dateFormat = dateFormats.get(key);
         if (dateFormat == null) {
             if (StringUtils.isEmptyOrWhitespace(pattern)) {
@@ -517,25 +561,13 @@ private static String formatDate(final Object target, final String pattern, fina
             } else {
                 dateFormat = new SimpleDateFormat(pattern, locale);
             }
-            if (key.timeZone != null) {
-                dateFormat.setTimeZone(key.timeZone);
+            if (timeZone != null) {
+                dateFormat.setTimeZone(timeZone);
             }
             dateFormats.put(key, dateFormat);
         }
-        
-        if (target instanceof Calendar) {
-            synchronized (dateFormat) {
-                return dateFormat.format(((Calendar) target).getTime());
-            }
-        } else if (target instanceof java.util.Date) {
-            synchronized (dateFormat) {
-                return dateFormat.format((java.util.Date)target);
-            }
-        } else {
-            throw new IllegalArgumentException(
-                    "Cannot format object of class \"" + target.getClass().getName() + "\" as a date");
-        }
-        
+        return dateFormat;
+
     }
 
 
@@ -564,10 +596,7 @@ public static String formatISO(final Object target) {
                     "Cannot format object of class \"" + target.getClass().getName() + "\" as a date");
         }
 
-        final String formatted;
-        synchronized (ISO8601_DATE_FORMAT) {
-            formatted = ISO8601_DATE_FORMAT.format(targetDate);
-        }
+        final String formatted = THREAD_ISO8601_DATE_FORMAT.get().format(targetDate);
 
         final StringBuilder strBuilder = new StringBuilder(formatted.length() + 1);
         strBuilder.append(formatted);
@@ -597,16 +626,12 @@ private static final class DateFormatKey {
         final TimeZone timeZone;
         final Locale locale;
         
-        DateFormatKey(final Object target, final String format, final Locale locale) {
+        DateFormatKey(final String format, final Locale locale, final TimeZone timeZone) {
             super();
             Validate.notNull(locale, "Locale cannot be null");
             this.format = format;
             this.locale = locale;
-            if (target != null && target instanceof Calendar) {
-                this.timeZone = ((Calendar)target).getTimeZone();
-            } else {
-                this.timeZone = null;
-            }
+            this.timeZone = timeZone;
         }
 
         @Override
@@ -652,4 +677,57 @@ public boolean equals(final Object obj) {
 
 
     
+
+
+
+
+    /*
+     * Per-thread copies of the most recently used date formats. Lookups compare the pattern, locale and time zone
+     * directly (no key objects are created) and, when a format is not found, the least recently added one is
+     * replaced with a copy of the corresponding prototype.
+     */
+    private static final class ThreadDateFormats {
+
+        private static final int MAX_SIZE = 16;
+
+        private final String[] patterns = new String[MAX_SIZE];
+        private final Locale[] locales = new Locale[MAX_SIZE];
+        private final TimeZone[] timeZones = new TimeZone[MAX_SIZE];
+        private final DateFormat[] dateFormats = new DateFormat[MAX_SIZE];
+        private int size = 0;
+        private int next = 0;
+
+        ThreadDateFormats() {
+            super();
+        }
+
+        DateFormat getDateFormat(final String pattern, final Locale locale, final TimeZone timeZone) {
+
+            for (int i = 0; i < this.size; i++) {
+                if (Objects.equals(this.patterns[i], pattern)
+                        && this.locales[i].equals(locale)
+                        && Objects.equals(this.timeZones[i], timeZone)) {
+                    return this.dateFormats[i];
+                }
+            }
+
+            final DateFormat dateFormat = (DateFormat) getPrototypeDateFormat(pattern, locale, timeZone).clone();
+
+            this.patterns[this.next] = pattern;
+            this.locales[this.next] = locale;
+            this.timeZones[this.next] = timeZone;
+            this.dateFormats[this.next] = dateFormat;
+            this.next = (this.next + 1) % MAX_SIZE;
+            if (this.size < MAX_SIZE) {
+                this.size++;
+            }
+
+            return dateFormat;
+
+        }
+
+    }
+
+
+    
 }
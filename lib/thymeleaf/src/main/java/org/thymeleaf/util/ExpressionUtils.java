@@ -48,6 +48,7 @@
 import java.util.Properties;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -116,6 +117,22 @@ public final class ExpressionUtils {
     private static final Set<Class<?>> BLOCKED_MEMBER_CALL_JAVA_SUPERS;
 
 
+    // All the above lists are fixed, so the decisions taken on them depend only on the type and member names being
+    // checked. These decisions are cached so that expressions executed on the same types repeatedly (which is what
+    // happens in every template execution) do not need to go through all the checks every time.
+    // Note decisions for instance members are stored per-class in a ClassValue, so that they are released along
+    // with the class itself.
+    private static final int MAX_CACHED_DECISIONS = 1000;
+    private static final ConcurrentHashMap<String,Boolean> TYPE_DECISIONS = new ConcurrentHashMap<>(64);
+    private static final ClassValue<ConcurrentHashMap<String,Boolean>> INSTANCE_MEMBER_DECISIONS =
+            new ClassValue<ConcurrentHashMap<String,Boolean>>() {
+                @Override
+                protected ConcurrentHashMap<String,Boolean> computeValue(final Class<?> type) {
+                    return new ConcurrentHashMap<>(16);
+                }
+            };
+
+
     static {
         ALLOWED_JAVA_CLASS_NAMES = ALLOWED_JAVA_CLASSES.stream().map(c -> c.getName()).collect(Collectors.toSet());
         ALLOWED_JAVA_SUPERS_NAMES = ALLOWED_JAVA_SUPERS.stream().map(c -> c.getName()).collect(Collectors.toSet());
@@ -191,6 +208,22 @@ public static boolean isTypeAllowed(final String typeName) {
 
         Validate.notNull(typeName, "Type name cannot be null");
 
+        final Boolean decision = TYPE_DECISIONS.get(typeName);
+        if (decision != null) {
+            return decision.booleanValue();
+        }
+
+        final boolean allowed = computeTypeAllowed(typeName);
+        if (TYPE_DECISIONS.size() < MAX_CACHED_DECISIONS) {
+            TYPE_DECISIONS.put(typeName, Boolean.valueOf(allowed));
+        }
+        return allowed;
+
+    }
+
+
+    private static boolean computeTypeAllowed(final String typeName) {
+
         final String normalizedTypeName = normalize(typeName);
 
         if (!isTypeBlockedForTypeReference(normalizedTypeName)) {
@@ -271,7 +304,19 @@ public static boolean isMemberAllowed(final Object target, final String memberNa
             return "getName".equals(normalizedMemberName) || isTypeAllowed(targetTypeName);
         }
 
-        return isMemberAllowedForInstanceOfType(target.getClass(), normalizedMemberName);
+        final Class<?> targetType = target.getClass();
+        final ConcurrentHashMap<String,Boolean> decisions = INSTANCE_MEMBER_DECISIONS.get(targetType);
+
+        final Boolean decision = decisions.get(normalizedMemberName);
+        if (decision != null) {
+            return decision.booleanValue();
+        }
+
+        final boolean allowed = isMemberAllowedForInstanceOfType(targetType, normalizedMemberName);
+        if (decisions.size() < MAX_CACHED_DECISIONS) {
+            decisions.put(normalizedMemberName, Boolean.valueOf(allowed));
+        }
+        return allowed;
 
     }
 
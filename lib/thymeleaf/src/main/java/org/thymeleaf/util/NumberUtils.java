@@ -25,6 +25,7 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 
@@ -35,6 +36,12 @@
  */
 public final class NumberUtils {
 
+    private static final int MAX_CACHED_FORMATS = 500;
+
+    // Compiled formats are immutable (see CompiledNumberFormat), so they can be shared among threads
+    private static final ConcurrentHashMap<NumberFormatKey,CompiledNumberFormat> numberFormats =
+            new ConcurrentHashMap<NumberFormatKey, CompiledNumberFormat>(8, 0.9f, 2);
+
     
     
     public static String format(final Number target, final Integer minIntegerDigits, final Locale locale) {
@@ -202,20 +209,64 @@ private static String formatNumber(final Number target, final Integer minInteger
             return null;
         }
 
-        DecimalFormat format = (DecimalFormat)NumberFormat.getNumberInstance(locale);
-        format.setMinimumFractionDigits(fractionDigits.intValue());
-        format.setMaximumFractionDigits(fractionDigits.intValue());
-        if (minIntegerDigits != null) {
-            format.setMinimumIntegerDigits(minIntegerDigits.intValue());
+        final NumberFormatKey key =
+                new NumberFormatKey(
+                        NumberFormatKey.TYPE_NUMBER, locale, minIntegerDigits, fractionDigits,
+                        thousandsPointType, decimalPointType);
+
+        CompiledNumberFormat format = numberFormats.get(key);
+        if (format == null) {
+            format = new CompiledNumberFormat(createNumberFormat(key));
+            cacheNumberFormat(key, format);
         }
-        format.setDecimalSeparatorAlwaysShown(decimalPointType != NumberPointType.NONE && fractionDigits.intValue() > 0);
-        format.setGroupingUsed(thousandsPointType != NumberPointType.NONE);
-        format.setDecimalFormatSymbols(computeDecimalFormatSymbols(decimalPointType, thousandsPointType, locale));
-        
+
         return format.format(target);
     }
 
 
+    private static NumberFormat createNumberFormat(final NumberFormatKey key) {
+
+        switch (key.type) {
+
+            case NumberFormatKey.TYPE_CURRENCY:
+                return NumberFormat.getCurrencyInstance(key.locale);
+
+            case NumberFormatKey.TYPE_PERCENT:
+                final NumberFormat percentFormat = NumberFormat.getPercentInstance(key.locale);
+                percentFormat.setMinimumFractionDigits(key.fractionDigits.intValue());
+                percentFormat.setMaximumFractionDigits(key.fractionDigits.intValue());
+                if (key.minIntegerDigits != null) {
+                    percentFormat.setMinimumIntegerDigits(key.minIntegerDigits.intValue());
+                }
+                return percentFormat;
+
+            default:
+                final DecimalFormat format = (DecimalFormat)NumberFormat.getNumberInstance(key.locale);
+                format.setMinimumFractionDigits(key.fractionDigits.intValue());
+                format.setMaximumFractionDigits(key.fractionDigits.intValue());
+                if (key.minIntegerDigits != null) {
+                    format.setMinimumIntegerDigits(key.minIntegerDigits.intValue());
+                }
+                format.setDecimalSeparatorAlwaysShown(
+                        key.decimalPointType != NumberPointType.NONE && key.fractionDigits.intValue() > 0);
+                format.setGroupingUsed(key.thousandsPointType != NumberPointType.NONE);
+                format.setDecimalFormatSymbols(
+                        computeDecimalFormatSymbols(key.decimalPointType, key.thousandsPointType, key.locale));
+                return format;
+
+        }
+
+    }
+
+
+    private static void cacheNumberFormat(final NumberFormatKey key, final CompiledNumberFormat format) {
+        // Once the cache is full, new formats are simply not cached (they are still used for this execution)
+        if (numberFormats.size() < MAX_CACHED_FORMATS) {
+            numberFormats.put(key, format);
+        }
+    }
+
+
     private static DecimalFormatSymbols computeDecimalFormatSymbols(
             final NumberPointType decimalPointType, final NumberPointType thousandsPointType, final Locale locale) {
 
@@ -282,7 +333,14 @@ public static String formatCurrency(final Number target, final Locale locale) {
             return null;
         }
 
-        NumberFormat format = NumberFormat.getCurrencyInstance(locale);
+        final NumberFormatKey key =
+                new NumberFormatKey(NumberFormatKey.TYPE_CURRENCY, locale, null, null, null, null);
+
+        CompiledNumberFormat format = numberFormats.get(key);
+        if (format == null) {
+            format = new CompiledNumberFormat(createNumberFormat(key));
+            cacheNumberFormat(key, format);
+        }
 
         return format.format(target);
     }
@@ -308,11 +366,13 @@ public static String formatPercent(final Number target, final Integer minInteger
             return null;
         }
 
-        NumberFormat format = NumberFormat.getPercentInstance(locale);
-        format.setMinimumFractionDigits(fractionDigits.intValue());
-        format.setMaximumFractionDigits(fractionDigits.intValue());
-        if (minIntegerDigits != null) {
-            format.setMinimumIntegerDigits(minIntegerDigits.intValue());
+        final NumberFormatKey key =
+                new NumberFormatKey(NumberFormatKey.TYPE_PERCENT, locale, minIntegerDigits, fractionDigits, null, null);
+
+        CompiledNumberFormat format = numberFormats.get(key);
+        if (format == null) {
+            format = new CompiledNumberFormat(createNumberFormat(key));
+            cacheNumberFormat(key, format);
         }
 
         return format.format(target);
@@ -322,4 +382,193 @@ public static String formatPercent(final Number target, final Integer minInteger
     private NumberUtils() {
         super();
     }
+
+
+
+
+    private static final class NumberFormatKey {
+
+        static final int TYPE_NUMBER = 0;
+        static final int TYPE_CURRENCY = 1;
+        static final int TYPE_PERCENT = 2;
+
+        final int type;
+        final Locale locale;
+        final Integer minIntegerDigits;
+        final Integer fractionDigits;
+        final NumberPointType thousandsPointType;
+        final NumberPointType decimalPointType;
+        private final int h;
+
+        NumberFormatKey(
+                final int type, final Locale locale, final Integer minIntegerDigits, final Integer fractionDigits,
+                final NumberPointType thousandsPointType, final NumberPointType decimalPointType) {
+            super();
+            this.type = type;
+            this.locale = locale;
+            this.minIntegerDigits = minIntegerDigits;
+            this.fractionDigits = fractionDigits;
+            this.thousandsPointType = thousandsPointType;
+            this.decimalPointType = decimalPointType;
+            int result = type;
+            result = 31 * result + locale.hashCode();
+            result = 31 * result + (minIntegerDigits == null ? -1 : minIntegerDigits.intValue());
+            result = 31 * result + (fractionDigits == null ? -1 : fractionDigits.intValue());
+            result = 31 * result + (thousandsPointType == null ? -1 : thousandsPointType.ordinal());
+            result = 31 * result + (decimalPointType == null ? -1 : decimalPointType.ordinal());
+            this.h = result;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.h;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof NumberFormatKey)) {
+                return false;
+            }
+            final NumberFormatKey other = (NumberFormatKey) obj;
+            return this.h == other.h
+                    && this.type == other.type
+                    && this.thousandsPointType == other.thousandsPointType
+                    && this.decimalPointType == other.decimalPointType
+                    && (this.minIntegerDigits == null ?
+                            other.minIntegerDigits == null : this.minIntegerDigits.equals(other.minIntegerDigits))
+                    && (this.fractionDigits == null ?
+                            other.fractionDigits == null : this.fractionDigits.equals(other.fractionDigits))
+                    && this.locale.equals(other.locale);
+        }
+
+    }
+
+
+
+
+    /*
+     * Number format compiled from a fully configured NumberFormat object, which is never used for formatting
+     * (NumberFormat objects are NOT thread-safe), only copied when needed.
+     *
+     * For decimal formats with no prefixes, suffixes or multiplier (those for #numbers.formatInteger and
+     * #numbers.formatDecimal in most locales), integral targets (Integer, Long, Short, Byte) are formatted directly
+     * by this object, producing exactly the same output NumberFormat would. Other targets and formats are
+     * formatted by a copy of the original format, which is much cheaper to obtain than a new one.
+     */
+    private static final class CompiledNumberFormat {
+
+        private final NumberFormat format;
+
+        // Fast path for integral targets: only available if integralFormat is true
+        private final boolean integralFormat;
+        private final String negativePrefix;
+        private final char zeroDigit;
+        private final int minIntegerDigits;
+        private final char groupingSeparator;
+        private final int groupingSize; // 0 if no grouping is used
+        private final String fractionPart; // decimal separator and fraction zeros, or empty
+
+        CompiledNumberFormat(final NumberFormat format) {
+
+            super();
+
+            this.format = format;
+
+            if (format instanceof DecimalFormat && isIntegralFormatCompatible((DecimalFormat) format)) {
+
+                final DecimalFormat decimalFormat = (DecimalFormat) format;
+                final DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+
+                this.integralFormat = true;
+                this.negativePrefix = decimalFormat.getNegativePrefix();
+                this.zeroDigit = symbols.getZeroDigit();
+                this.minIntegerDigits = decimalFormat.getMinimumIntegerDigits();
+                this.groupingSeparator = symbols.getGroupingSeparator();
+                this.groupingSize = (decimalFormat.isGroupingUsed() ? decimalFormat.getGroupingSize() : 0);
+
+                final int fractionDigits = decimalFormat.getMinimumFractionDigits();
+                if (fractionDigits > 0 || decimalFormat.isDecimalSeparatorAlwaysShown()) {
+                    final StringBuilder strBuilder = new StringBuilder(fractionDigits + 1);
+                    strBuilder.append(symbols.getDecimalSeparator());
+                    for (int i = 0; i < fractionDigits; i++) {
+                        strBuilder.append(this.zeroDigit);
+                    }
+                    this.fractionPart = strBuilder.toString();
+                } else {
+                    this.fractionPart = "";
+                }
+
+            } else {
+
+                this.integralFormat = false;
+                this.negativePrefix = null;
+                this.zeroDigit = '0';
+                this.minIntegerDigits = 0;
+                this.groupingSeparator = ',';
+                this.groupingSize = 0;
+                this.fractionPart = null;
+
+            }
+
+        }
+
+
+        private static boolean isIntegralFormatCompatible(final DecimalFormat format) {
+            return format.getMultiplier() == 1
+                    && format.getPositivePrefix().isEmpty()
+                    && format.getPositiveSuffix().isEmpty()
+                    && format.getNegativeSuffix().isEmpty()
+                    && format.getMinimumFractionDigits() == format.getMaximumFractionDigits()
+                    // No long value should ever be truncated
+                    && format.getMaximumIntegerDigits() >= 19
+                    && format.getMinimumIntegerDigits() <= format.getMaximumIntegerDigits();
+        }
+
+
+        String format(final Number target) {
+            if (this.integralFormat &&
+                    (target instanceof Integer || target instanceof Long || target instanceof Short || target instanceof Byte)) {
+                return formatIntegral(target.longValue());
+            }
+            return ((NumberFormat) this.format.clone()).format(target);
+        }
+
+
+        private String formatIntegral(final long value) {
+
+            // Digits of the absolute value (Long.MIN_VALUE cannot be negated, so its sign is removed from the string)
+            final String digits = (value == 0L ? "" : (value < 0L ? Long.toString(value).substring(1) : Long.toString(value)));
+            final int digitCount = Math.max(digits.length(), this.minIntegerDigits);
+
+            final StringBuilder strBuilder = new StringBuilder(digitCount + (digitCount / 3) + this.fractionPart.length() + 2);
+            if (value < 0L) {
+                strBuilder.append(this.negativePrefix);
+            }
+
+            final int padding = digitCount - digits.length();
+            for (int i = digitCount - 1; i >= 0; i--) {
+                final int digitPos = digitCount - 1 - i;
+                final char digit = (digitPos < padding ? '0' : digits.charAt(digitPos - padding));
+                strBuilder.append((char) (this.zeroDigit + (digit - '0')));
+                if (this.groupingSize > 0 && i > 0 && i % this.groupingSize == 0) {
+                    strBuilder.append(this.groupingSeparator);
+                }
+            }
+
+            if (digitCount == 0 && this.fractionPart.isEmpty()) {
+                // Same as NumberFormat: with no integer or fraction digits to output, a zero is output
+                strBuilder.append(this.zeroDigit);
+            }
+
+            strBuilder.append(this.fractionPart);
+
+            return strBuilder.toString();
+
+        }
+
+    }
+
 }
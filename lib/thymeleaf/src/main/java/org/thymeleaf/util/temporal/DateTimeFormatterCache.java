@@ -0,0 +1,199 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.util.temporal;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Cache of the DateTimeFormatter objects used by the temporal formatting and creation utilities, which
+ * would otherwise be created (parsing their patterns) for every formatted or parsed object.
+ *
+ * DateTimeFormatter objects are immutable and thread-safe, so they can be shared among all threads. The cache is
+ * bounded: once full, new formatters are simply created and used without being cached.
+ *
+ * @author Daniel Fernandez
+ * @since 3.1.3
+ */
+final class DateTimeFormatterCache {
+
+    private static final int MAX_CACHED_FORMATTERS = 500;
+
+    private static final ConcurrentHashMap<FormatterKey,DateTimeFormatter> formatters =
+            new ConcurrentHashMap<FormatterKey, DateTimeFormatter>(16, 0.9f, 2);
+
+
+
+
+    /*
+     * Equivalent to DateTimeFormatter.ofPattern(pattern, locale).withZone(zoneId), or to the localized formatter
+     * for the target class if the pattern is one of the SHORT, MEDIUM, LONG or FULL format styles.
+     */
+    static DateTimeFormatter forPattern(
+            final String pattern, final Class<?> targetClass, final Locale locale, final ZoneId zoneId) {
+
+        final FormatStyle formatStyle = formatStyle(pattern);
+        final FormatterKey key;
+        if (formatStyle != null) {
+            // Localized formatters only depend on whether the target is a date, a time or anything else
+            final Class<?> styleClass =
+                    (LocalDate.class.isAssignableFrom(targetClass) ?
+                            LocalDate.class : (LocalTime.class.isAssignableFrom(targetClass) ? LocalTime.class : Object.class));
+            key = new FormatterKey(styleClass, pattern, locale, null);
+        } else {
+            key = new FormatterKey(null, pattern, locale, zoneId);
+        }
+
+        DateTimeFormatter formatter = formatters.get(key);
+        if (formatter == null) {
+            if (formatStyle == null) {
+                formatter = DateTimeFormatter.ofPattern(pattern, locale).withZone(zoneId);
+            } else if (key.targetClass == LocalDate.class) {
+                formatter = DateTimeFormatter.ofLocalizedDate(formatStyle).withLocale(locale);
+            } else if (key.targetClass == LocalTime.class) {
+                formatter = DateTimeFormatter.ofLocalizedTime(formatStyle).withLocale(locale);
+            } else {
+                formatter = DateTimeFormatter.ofLocalizedDateTime(formatStyle).withLocale(locale);
+            }
+            cache(key, formatter);
+        }
+        return formatter;
+
+    }
+
+
+    /*
+     * Equivalent to DateTimeFormatter.ofPattern(pattern), which uses the default FORMAT locale (resolved at each
+     * call, so that changes to the default locale are still honored). Unlike forPattern(pattern, ...), format style
+     * names are not mapped to localized formatters: they are plain patterns here (e.g. "LONG"), or invalid ones.
+     */
+    static DateTimeFormatter forPattern(final String pattern) {
+
+        final Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        // No target class nor zone: same key (and formatter) as forPattern(pattern, ...) for non-style patterns
+        final FormatterKey key = new FormatterKey(null, pattern, locale, null);
+
+        DateTimeFormatter formatter = formatters.get(key);
+        if (formatter == null) {
+            formatter = DateTimeFormatter.ofPattern(pattern, locale);
+            cache(key, formatter);
+        }
+        return formatter;
+
+    }
+
+
+    /*
+     * Equivalent to TemporalObjects.formatterFor(target, locale). Formatters are selected depending on the class
+     * of the target, and all supported temporal classes are final, so that class is used as a key.
+     */
+    static DateTimeFormatter forTarget(final Object target, final Locale locale) {
+
+        final FormatterKey key = new FormatterKey(target.getClass(), null, locale, null);
+
+        DateTimeFormatter formatter = formatters.get(key);
+        if (formatter == null) {
+            formatter = TemporalObjects.formatterFor(target, locale);
+            cache(key, formatter);
+        }
+        return formatter;
+
+    }
+
+
+
+
+    private static FormatStyle formatStyle(final String pattern) {
+        switch (pattern) {
+            case "SHORT"  : return FormatStyle.SHORT;
+            case "MEDIUM" : return FormatStyle.MEDIUM;
+            case "LONG"   : return FormatStyle.LONG;
+            case "FULL"   : return FormatStyle.FULL;
+            default       : return null;
+        }
+    }
+
+
+    private static void cache(final FormatterKey key, final DateTimeFormatter formatter) {
+        if (formatters.size() < MAX_CACHED_FORMATTERS) {
+            formatters.put(key, formatter);
+        }
+    }
+
+
+
+
+    private DateTimeFormatterCache() {
+        super();
+    }
+
+
+
+
+    private static final class FormatterKey {
+
+        final Class<?> targetClass;
+        final String pattern;
+        final Locale locale;
+        final ZoneId zoneId;
+        private final int h;
+
+        FormatterKey(final Class<?> targetClass, final String pattern, final Locale locale, final ZoneId zoneId) {
+            super();
+            this.targetClass = targetClass;
+            this.pattern = pattern;
+            this.locale = locale;
+            this.zoneId = zoneId;
+            int result = (targetClass == null ? 0 : targetClass.hashCode());
+            result = 31 * result + (pattern == null ? 0 : pattern.hashCode());
+            result = 31 * result + locale.hashCode();
+            result = 31 * result + (zoneId == null ? 0 : zoneId.hashCode());
+            this.h = result;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.h;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FormatterKey)) {
+                return false;
+            }
+            final FormatterKey other = (FormatterKey) obj;
+            return this.h == other.h
+                    && this.targetClass == other.targetClass
+                    && (this.pattern == null ? other.pattern == null : this.pattern.equals(other.pattern))
+                    && (this.zoneId == null ? other.zoneId == null : this.zoneId.equals(other.zoneId))
+                    && this.locale.equals(other.locale);
+        }
+
+    }
+
+}
@@ -23,7 +23,6 @@
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.Temporal;
 import java.util.TimeZone;
 
@@ -146,7 +145,7 @@ public Temporal createDateTime(String isoDate) {
      * @since 2.1.0
      */
     public Temporal createDate(String isoDate, String pattern) {
-        return LocalDate.parse(isoDate, DateTimeFormatter.ofPattern(pattern));
+        return LocalDate.parse(isoDate, DateTimeFormatterCache.forPattern(pattern));
     }
 
     /**
@@ -155,7 +154,7 @@ public Temporal createDate(String isoDate, String pattern) {
      * @since 2.1.0
      */
     public Temporal createDateTime(String isoDate, String pattern) {
-        return LocalDateTime.parse(isoDate, DateTimeFormatter.ofPattern(pattern));
+        return LocalDateTime.parse(isoDate, DateTimeFormatterCache.forPattern(pattern));
     }
 
     private int integer(final Object number) {
@@ -19,12 +19,9 @@
  */
 package org.thymeleaf.util.temporal;
 
-import java.time.LocalDate;
-import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.chrono.ChronoZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
 import java.util.Locale;
@@ -43,6 +40,7 @@
 public final class TemporalFormattingUtils {
 
     // Even though Java comes with several patterns for ISO8601, we use the same pattern of Thymeleaf #dates utility.
+    // No field in this pattern is locale-dependent, so this formatter is used without applying the locale to it.
     private static final DateTimeFormatter ISO8601_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZZZ");
     
     private final Locale locale;
@@ -159,7 +157,7 @@ public String formatISO(final Object target) {
             return null;
         } else if (target instanceof TemporalAccessor) {
             ChronoZonedDateTime time = TemporalObjects.zonedTime(target, defaultZoneId);
-            return ISO8601_DATE_TIME_FORMATTER.withLocale(locale).format(time);
+            return ISO8601_DATE_TIME_FORMATTER.format(time);
         } else {
             throw new IllegalArgumentException(
                 "Cannot format object of class \"" + target.getClass().getName() + "\" as a date");
@@ -178,10 +176,10 @@ private String formatDate(final Object target, final String pattern, final Local
         try {
             DateTimeFormatter formatter;
             if (StringUtils.isEmptyOrWhitespace(pattern)) {
-                formatter = TemporalObjects.formatterFor(target, formattingLocale);
+                formatter = DateTimeFormatterCache.forTarget(target, formattingLocale);
                 return formatter.format(TemporalObjects.temporal(target));
             } else {
-                formatter = computeFormatter(pattern, target.getClass(), formattingLocale, zoneId);
+                formatter = DateTimeFormatterCache.forPattern(pattern, target.getClass(), formattingLocale, zoneId);
                 return formatter.format(TemporalObjects.zonedTime(target, this.defaultZoneId));
             }
         } catch (final Exception e) {
@@ -190,26 +188,4 @@ private String formatDate(final Object target, final String pattern, final Local
         }
     }
 
-    private static DateTimeFormatter computeFormatter(final String pattern, final Class<?> targetClass,
-                                                      final Locale locale, final ZoneId zoneId) {
-        final FormatStyle formatStyle;
-        switch (pattern) {
-            case "SHORT"  : formatStyle = FormatStyle.SHORT; break;
-            case "MEDIUM" : formatStyle = FormatStyle.MEDIUM; break;
-            case "LONG"   : formatStyle = FormatStyle.LONG; break;
-            case "FULL"   : formatStyle = FormatStyle.FULL; break;
-            default       : formatStyle = null; break;
-        }
-        if (formatStyle != null) {
-            if (LocalDate.class.isAssignableFrom(targetClass)) {
-                return DateTimeFormatter.ofLocalizedDate(formatStyle).withLocale(locale);
-            }
-            if (LocalTime.class.isAssignableFrom(targetClass)) {
-                return DateTimeFormatter.ofLocalizedTime(formatStyle).withLocale(locale);
-            }
-            return DateTimeFormatter.ofLocalizedDateTime(formatStyle).withLocale(locale);
-        }
-        return DateTimeFormatter.ofPattern(pattern, locale).withZone(zoneId);
-    }
-
 }
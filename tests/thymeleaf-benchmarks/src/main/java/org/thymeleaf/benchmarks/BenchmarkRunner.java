@@ -0,0 +1,86 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+
+/**
+ * <p>
+ *   Entry point of the benchmarks JAR. Accepts the same command line options as the standard JMH launcher
+ *   ({@code org.openjdk.jmh.Main}), but always enables the GC profiler so that allocation rates
+ *   ({@code gc.alloc.rate.norm}) are reported for every benchmark.
+ * </p>
+ * <p>
+ *   Example: {@code java -jar target/benchmarks.jar IterationBenchmark -prof stack}
+ * </p>
+ *
+ * @author Daniel Fern&aacute;ndez
+ *
+ * @since 3.1.3
+ *
+ */
+public final class BenchmarkRunner {
+
+
+    public static void main(final String[] args) throws Exception {
+
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList() ||
+                commandLineOptions.shouldListWithParams() || commandLineOptions.shouldListProfilers() ||
+                commandLineOptions.shouldListResultFormats()) {
+            // Nothing to run, the standard launcher will take care of these
+            Main.main(args);
+            return;
+        }
+
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!isGCProfilerSpecified(commandLineOptions)) {
+            options.addProfiler(GCProfiler.class);
+        }
+
+        new Runner(options.build()).run();
+
+    }
+
+
+    private static boolean isGCProfilerSpecified(final CommandLineOptions commandLineOptions) {
+        for (final ProfilerConfig profilerConfig : commandLineOptions.getProfilers()) {
+            if ("gc".equals(profilerConfig.getKlass()) || GCProfiler.class.getName().equals(profilerConfig.getKlass())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+
+    private BenchmarkRunner() {
+        super();
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.engine.AbstractTemplateHandler;
+import org.thymeleaf.model.ICloseElementTag;
+import org.thymeleaf.model.IComment;
+import org.thymeleaf.model.IDocType;
+import org.thymeleaf.model.IOpenElementTag;
+import org.thymeleaf.model.IStandaloneElementTag;
+import org.thymeleaf.model.IText;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateparser.markup.HTMLTemplateParser;
+import org.thymeleaf.templateresource.ClassLoaderTemplateResource;
+import org.thymeleaf.templateresource.ITemplateResource;
+import org.thymeleaf.templateresource.StringTemplateResource;
+
+
+/*
+ * Measures raw parsing of HTML templates (no template cache, no processing): template resource is read into
+ * memory once, and parsing events are sent to a handler that only consumes them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HTMLTemplateParserBenchmark {
+
+    private static final int PARSER_POOL_SIZE = 40;
+    private static final int PARSER_BLOCK_SIZE = 2048;
+
+    // Number of times the body of the benchmark template is repeated, so that both small and large
+    // documents are measured
+    @Param({"1", "50"})
+    public int repetitions;
+
+    private IEngineConfiguration configuration;
+    private HTMLTemplateParser parser;
+    private ITemplateResource resource;
+
+
+
+    @Setup
+    public void setup() throws IOException {
+
+        this.configuration = new TemplateEngine().getConfiguration();
+        this.parser = new HTMLTemplateParser(PARSER_POOL_SIZE, PARSER_BLOCK_SIZE);
+
+        final String page =
+                readResource(BenchmarkTemplateEngines.TEMPLATE_PREFIX + "page" + BenchmarkTemplateEngines.TEMPLATE_SUFFIX);
+        final int bodyStart = page.indexOf("<main>");
+        final int bodyEnd = page.indexOf("</main>") + "</main>".length();
+
+        final StringBuilder template = new StringBuilder(page.length() * this.repetitions);
+        template.append(page, 0, bodyStart);
+        for (int i = 0; i < this.repetitions; i++) {
+            template.append(page, bodyStart, bodyEnd);
+        }
+        template.append(page, bodyEnd, page.length());
+
+        this.resource = new StringTemplateResource(template.toString());
+
+    }
+
+
+    @Benchmark
+    public void parse(final Blackhole blackhole) {
+        this.parser.parseStandalone(
+                this.configuration, null, "page", null, this.resource, TemplateMode.HTML, false,
+                new BlackholeTemplateHandler(blackhole));
+    }
+
+
+
+
+    private static String readResource(final String path) throws IOException {
+        final ITemplateResource resource = new ClassLoaderTemplateResource(path, "UTF-8");
+        final StringBuilder strBuilder = new StringBuilder();
+        final char[] buffer = new char[4096];
+        try (final Reader reader = resource.reader()) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                strBuilder.append(buffer, 0, read);
+            }
+        }
+        return strBuilder.toString();
+    }
+
+
+
+
+    private static final class BlackholeTemplateHandler extends AbstractTemplateHandler {
+
+        private final Blackhole blackhole;
+
+        BlackholeTemplateHandler(final Blackhole blackhole) {
+            super();
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void handleDocType(final IDocType docType) {
+            this.blackhole.consume(docType);
+        }
+
+        @Override
+        public void handleText(final IText text) {
+            this.blackhole.consume(text);
+        }
+
+        @Override
+        public void handleComment(final IComment comment) {
+            this.blackhole.consume(comment);
+        }
+
+        @Override
+        public void handleStandaloneElement(final IStandaloneElementTag standaloneElementTag) {
+            this.blackhole.consume(standaloneElementTag);
+        }
+
+        @Override
+        public void handleOpenElement(final IOpenElementTag openElementTag) {
+            this.blackhole.consume(openElementTag);
+        }
+
+        @Override
+        public void handleCloseElement(final ICloseElementTag closeElementTag) {
+            this.blackhole.consume(closeElementTag);
+        }
+
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.benchmarks;
+
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+
+/*
+ * Measures full processing (with template cache) of a template iterating a list of beans by means of th:each,
+ * for lists of different sizes. Output is discarded, so that only processing itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class IterationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean templateModelCompilation;
+
+    private TemplateEngine templateEngine;
+    private Context context;
+
+
+
+    @Setup
+    public void setup() {
+
+        this.templateEngine = BenchmarkTemplateEngines.configure(new TemplateEngine());
+        this.templateEngine.setTemplateModelCompilationEnabled(this.templateModelCompilation);
+
+        this.context = new Context(Locale.ENGLISH);
+        this.context.setVariable("products", Product.createProducts(this.size));
+
+    }
+
+
+    @Benchmark
+    public void iterate() {
+        this.templateEngine.process("iteration", this.context, Writer.nullWriter());
+    }
+
+}
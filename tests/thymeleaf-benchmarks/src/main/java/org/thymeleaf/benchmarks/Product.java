@@ -0,0 +1,72 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+
+public final class Product {
+
+    private final int id;
+    private final String name;
+    private final BigDecimal price;
+    private final boolean active;
+
+
+
+    public static List<Product> createProducts(final int count) {
+        final List<Product> products = new ArrayList<Product>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(
+                    new Product(i, "Product number " + i, BigDecimal.valueOf(1000L + (i * 37L) % 10000L, 2), (i % 7 != 0)));
+        }
+        return products;
+    }
+
+
+
+    public Product(final int id, final String name, final BigDecimal price, final boolean active) {
+        super();
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.active = active;
+    }
+
+
+    public int getId() {
+        return this.id;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public BigDecimal getPrice() {
+        return this.price;
+    }
+
+    public boolean isActive() {
+        return this.active;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thymeleaf.context.ExpressionContext;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.expression.SPELVariableExpressionEvaluator;
+import org.thymeleaf.standard.expression.StandardExpressionExecutionContext;
+import org.thymeleaf.standard.expression.VariableExpression;
+
+
+/*
+ * Measures evaluation of already-parsed variable expressions by means of SpringEL (the expression language
+ * used by the Spring integrations). Parsed SpEL expressions are cached in the expression cache, so this
+ * measures a cache hit plus the evaluation itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SPELVariableExpressionEvaluatorBenchmark {
+
+    @Param({
+            "product.name",
+            "product.price",
+            "product.active and product.id > 10",
+            "products.size() > 10",
+            "products[3].name.length()",
+            "products.?[active].size()"
+    })
+    public String expression;
+
+    private SPELVariableExpressionEvaluator evaluator;
+    private IExpressionContext context;
+    private VariableExpression variableExpression;
+
+
+
+    @Setup
+    public void setup() {
+
+        final SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+
+        final List<Product> products = Product.createProducts(100);
+        final Map<String,Object> variables = new HashMap<String, Object>();
+        variables.put("products", products);
+        variables.put("product", products.get(42));
+
+        this.evaluator = SPELVariableExpressionEvaluator.INSTANCE;
+        this.context = new ExpressionContext(templateEngine.getConfiguration(), Locale.ENGLISH, variables);
+        this.variableExpression = new VariableExpression(this.expression);
+
+    }
+
+
+    @Benchmark
+    public Object evaluate() {
+        return this.evaluator.evaluate(this.context, this.variableExpression, StandardExpressionExecutionContext.NORMAL);
+    }
+
+}
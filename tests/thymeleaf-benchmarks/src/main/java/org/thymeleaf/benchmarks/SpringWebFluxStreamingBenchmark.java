@@ -0,0 +1,142 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringWebFluxTemplateEngine;
+import org.thymeleaf.spring6.context.webflux.ReactiveDataDriverContextVariable;
+import reactor.core.publisher.Flux;
+
+
+/*
+ * Measures reactive rendering with SpringWebFluxTemplateEngine, in the three available modes: FULL (no chunk
+ * size limit, output in a single buffer), CHUNKED (throttled execution, output split in buffers of limited
+ * size) and DATA-DRIVEN (iterated elements come from a reactive data stream, with chunked output).
+ * All output buffers are consumed and released.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SpringWebFluxStreamingBenchmark {
+
+    private static final int DATA_DRIVER_BUFFER_SIZE_ELEMENTS = 100;
+
+    @Param({"1000"})
+    public int size;
+
+    @Param({"1024", "8192"})
+    public int chunkSizeBytes;
+
+    private SpringWebFluxTemplateEngine templateEngine;
+    private DataBufferFactory bufferFactory;
+    private List<Product> products;
+
+
+
+    @Setup
+    public void setup() {
+        this.templateEngine = BenchmarkTemplateEngines.configure(new SpringWebFluxTemplateEngine());
+        this.bufferFactory = new DefaultDataBufferFactory();
+        this.products = Product.createProducts(this.size);
+    }
+
+
+    @Benchmark
+    public void full(final Blackhole blackhole) {
+        final Context context = createContext(this.products);
+        consume(
+                this.templateEngine.processStream(
+                        "streaming", null, context, this.bufferFactory, MediaType.TEXT_HTML, StandardCharsets.UTF_8,
+                        Integer.MAX_VALUE),
+                blackhole);
+    }
+
+
+    @Benchmark
+    public void chunked(final Blackhole blackhole) {
+        final Context context = createContext(this.products);
+        consume(
+                this.templateEngine.processStream(
+                        "streaming", null, context, this.bufferFactory, MediaType.TEXT_HTML, StandardCharsets.UTF_8,
+                        this.chunkSizeBytes),
+                blackhole);
+    }
+
+
+    @Benchmark
+    public void dataDriven(final Blackhole blackhole) {
+        final Context context =
+                createContext(
+                        new ReactiveDataDriverContextVariable(
+                                Flux.fromIterable(this.products), DATA_DRIVER_BUFFER_SIZE_ELEMENTS));
+        consume(
+                this.templateEngine.processStream(
+                        "streaming", null, context, this.bufferFactory, MediaType.TEXT_HTML, StandardCharsets.UTF_8,
+                        this.chunkSizeBytes),
+                blackhole);
+    }
+
+
+
+
+    private static Context createContext(final Object products) {
+        final Context context = new Context(Locale.ENGLISH);
+        context.setVariable("title", "Reactive product catalogue");
+        context.setVariable("products", products);
+        return context;
+    }
+
+
+    private static void consume(final Publisher<DataBuffer> stream, final Blackhole blackhole) {
+        Flux.from(stream)
+                .doOnNext(buffer -> {
+                    blackhole.consume(buffer.readableByteCount());
+                    DataBufferUtils.release(buffer);
+                })
+                .blockLast();
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thymeleaf.cache.CacheEvictionMode;
+import org.thymeleaf.cache.StandardCache;
+
+
+/*
+ * Measures throughput of a size-limited StandardCache accessed concurrently by several threads, for each of
+ * the available eviction policies. Key space is larger than the cache, and accesses are skewed (most of them
+ * go to a small subset of hot keys) so that there is a realistic mix of hits, misses and evictions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(8)
+public class StandardCacheBenchmark {
+
+    private static final int MAX_SIZE = 1000;
+    private static final int KEY_SPACE = MAX_SIZE * 4;
+    // 80% of accesses will go to 10% of the key space
+    private static final int HOT_KEYS = KEY_SPACE / 10;
+    private static final int HOT_ACCESS_PERCENTAGE = 80;
+
+    @Param({"FIFO", "LRU", "W_TINY_LFU"})
+    public CacheEvictionMode evictionMode;
+
+    private StandardCache<String,Object> cache;
+    private String[] keys;
+
+
+
+    @Setup
+    public void setup() {
+
+        this.cache =
+                new StandardCache<String, Object>(
+                        "benchmark", false, MAX_SIZE / 4, MAX_SIZE, null, null, false,
+                        this.evictionMode.<String>createEvictionPolicy(MAX_SIZE));
+
+        this.keys = new String[KEY_SPACE];
+        for (int i = 0; i < KEY_SPACE; i++) {
+            // Keys built from different String instances than the ones used for lookup, as it happens with
+            // template names and expressions
+            this.keys[i] = new String("cache-key-" + i);
+        }
+
+        for (int i = 0; i < MAX_SIZE; i++) {
+            this.cache.put(this.keys[i], Integer.valueOf(i));
+        }
+
+    }
+
+
+    @Benchmark
+    public Object get() {
+        return this.cache.get(nextKey());
+    }
+
+
+    @Benchmark
+    public Object getOrPut() {
+        final String key = nextKey();
+        final Object value = this.cache.get(key);
+        if (value != null) {
+            return value;
+        }
+        this.cache.put(key, key);
+        return key;
+    }
+
+
+    private String nextKey() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < HOT_ACCESS_PERCENTAGE) {
+            return this.keys[random.nextInt(HOT_KEYS)];
+        }
+        return this.keys[random.nextInt(KEY_SPACE)];
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.context.ExpressionContext;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.standard.expression.IStandardExpressionParser;
+import org.thymeleaf.standard.expression.StandardExpressions;
+
+
+/*
+ * Measures parsing of Standard Expressions, both without expression cache (i.e. the cost of actually parsing)
+ * and with the standard and typed-lookup expression caches (i.e. the cost of a cache hit).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StandardExpressionParserBenchmark {
+
+    private static final String[] EXPRESSIONS =
+            new String[] {
+                    "${product.name}",
+                    "*{price}",
+                    "#{catalogue.title(${user.name})}",
+                    "@{/product/details(id=${product.id},type='full')}",
+                    "${product.active}? 'available' : 'sold out'",
+                    "${product.price} * 2 + ${shipping} ?: 0",
+                    "|Hello ${user.name}, you have ${cart.size()} items|",
+                    "~{fragments :: product(${product})}"
+            };
+
+    @Param({"none", "standard", "typed"})
+    public String expressionCache;
+
+    private IStandardExpressionParser parser;
+    private IExpressionContext context;
+
+
+
+    @Setup
+    public void setup() {
+
+        final StandardCacheManager cacheManager = new StandardCacheManager();
+        if ("none".equals(this.expressionCache)) {
+            cacheManager.setExpressionCacheMaxSize(0);
+        } else if ("typed".equals(this.expressionCache)) {
+            cacheManager.setExpressionCacheUseTypedLookups(true);
+        }
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setCacheManager(cacheManager);
+
+        this.parser = StandardExpressions.getExpressionParser(templateEngine.getConfiguration());
+        this.context = new ExpressionContext(templateEngine.getConfiguration(), Locale.ENGLISH);
+
+    }
+
+
+    @Benchmark
+    public void parseExpressions(final Blackhole blackhole) {
+        for (int i = 0; i < EXPRESSIONS.length; i++) {
+            blackhole.consume(this.parser.parseExpression(this.context, EXPRESSIONS[i]));
+        }
+    }
+
+}
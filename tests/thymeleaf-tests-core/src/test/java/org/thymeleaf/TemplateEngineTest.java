@@ -20,11 +20,14 @@
 package org.thymeleaf;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -212,4 +215,58 @@ public void testDefaultTemplateResolver05() {
     }
 
 
+
+    @Test
+    public void testWarmUp01() {
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        final StringTemplateResolver stringTemplateResolver = new StringTemplateResolver();
+        stringTemplateResolver.setCacheable(true);
+        templateEngine.setTemplateResolver(stringTemplateResolver);
+
+        final String template01 = "<p th:text=\"${one}\">something</p>";
+        final String template02 = "<ul><li th:each=\"i : ${items}\" th:text=\"${i} + 1\">x</li></ul>";
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final TemplateWarmUpResult result;
+        try {
+            result = templateEngine.warmUp(Arrays.asList(template01, template02), executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertFalse(result.hasFailures());
+        Assertions.assertEquals(2, result.getTemplateCount());
+        Assertions.assertEquals(2, result.getParsedTemplateCount());
+        Assertions.assertEquals(3, result.getExpressionCount());
+        Assertions.assertTrue(result.getElapsedNanos() >= 0L);
+
+        final Context context = new Context();
+        context.setLocale(Locale.ENGLISH);
+        context.setVariable("one", "this value");
+        context.setVariable("items", Arrays.asList(Integer.valueOf(1), Integer.valueOf(2)));
+
+        Assertions.assertEquals("<p>this value</p>", templateEngine.process(template01, context));
+        Assertions.assertEquals("<ul><li>2</li><li>3</li></ul>", templateEngine.process(template02, context));
+
+    }
+
+    @Test
+    public void testWarmUp02() {
+
+        final TemplateEngine templateEngine = new TemplateEngine();
+        final ClassLoaderTemplateResolver classLoaderTemplateResolver = new ClassLoaderTemplateResolver();
+        classLoaderTemplateResolver.setCheckExistence(true);
+        templateEngine.setTemplateResolver(classLoaderTemplateResolver);
+
+        final TemplateWarmUpResult result = templateEngine.warmUp(Collections.singletonList("nonexisting"));
+
+        Assertions.assertTrue(result.hasFailures());
+        Assertions.assertEquals(1, result.getTemplateCount());
+        Assertions.assertEquals(0, result.getParsedTemplateCount());
+        Assertions.assertTrue(result.getFailures().containsKey("nonexisting"));
+
+    }
+
+
 }
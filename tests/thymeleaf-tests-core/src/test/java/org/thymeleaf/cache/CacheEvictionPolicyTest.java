@@ -0,0 +1,150 @@
+/*
+ * =============================================================================
+ * 
+ *   Copyright (c) 2011-2016, The THYMELEAF team (http://www.thymeleaf.org)
+ * 
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * 
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * 
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.helpers.NOPLogger;
+
+
+public class CacheEvictionPolicyTest {
+
+    public CacheEvictionPolicyTest() {
+        super();
+    }
+
+
+    @Test
+    public void testFIFO() {
+
+        final ICacheEvictionPolicy<String> policy = new FIFOCacheEvictionPolicy<String>(3);
+
+        Assertions.assertNull(policy.recordInsertion("a"));
+        Assertions.assertNull(policy.recordInsertion("b"));
+        Assertions.assertNull(policy.recordInsertion("c"));
+        policy.recordAccess("a");
+        Assertions.assertEquals("a", policy.recordInsertion("d"));
+        policy.recordRemoval("b");
+        Assertions.assertNull(policy.recordInsertion("e"));
+        Assertions.assertEquals("c", policy.recordInsertion("f"));
+
+    }
+
+
+    @Test
+    public void testLRU() {
+
+        final ICacheEvictionPolicy<String> policy = new LRUCacheEvictionPolicy<String>(3, 1);
+
+        Assertions.assertNull(policy.recordInsertion("a"));
+        Assertions.assertNull(policy.recordInsertion("b"));
+        Assertions.assertNull(policy.recordInsertion("c"));
+        policy.recordAccess("a");
+        Assertions.assertEquals("b", policy.recordInsertion("d"));
+        Assertions.assertEquals("c", policy.recordInsertion("e"));
+        policy.recordRemoval("a");
+        Assertions.assertNull(policy.recordInsertion("f"));
+        Assertions.assertEquals("d", policy.recordInsertion("g"));
+
+    }
+
+
+    @Test
+    public void testLRUStriped() {
+
+        final int maxSize = 1000;
+        final StandardCache<String, String> cache =
+                new StandardCache<String, String>(
+                        "testLRUStriped", false, 16, maxSize, null, NOPLogger.NOP_LOGGER, false,
+                        new LRUCacheEvictionPolicy<String>(maxSize, 8));
+
+        for (int i = 0; i < 5000; i++) {
+            cache.put("key" + i, "value" + i);
+            Assertions.assertTrue(cache.size() <= maxSize);
+        }
+        Assertions.assertEquals(maxSize, cache.size());
+
+    }
+
+
+    @Test
+    public void testWTinyLFUScanResistance() {
+
+        final int maxSize = 100;
+        final StandardCache<String, String> cache =
+                new StandardCache<String, String>(
+                        "testWTinyLFU", false, 16, maxSize, null, NOPLogger.NOP_LOGGER, false,
+                        CacheEvictionMode.W_TINY_LFU.<String>createEvictionPolicy(maxSize));
+
+        // Hot entries, accessed often
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot" + i, "value" + i);
+        }
+        for (int j = 0; j < 5; j++) {
+            for (int i = 0; i < 50; i++) {
+                Assertions.assertNotNull(cache.get("hot" + i));
+            }
+        }
+
+        // A scan of entries accessed only once should not flush the hot ones
+        for (int i = 0; i < 1000; i++) {
+            cache.put("scan" + i, "value" + i);
+            Assertions.assertTrue(cache.size() <= maxSize);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            Assertions.assertNotNull(cache.get("hot" + i));
+        }
+
+    }
+
+
+    @Test
+    public void testClearAndRemoval() {
+
+        for (final CacheEvictionMode mode : CacheEvictionMode.values()) {
+
+            final int maxSize = 10;
+            final StandardCache<String, String> cache =
+                    new StandardCache<String, String>(
+                            "testClear" + mode, false, 2, maxSize, null, NOPLogger.NOP_LOGGER, false,
+                            mode.<String>createEvictionPolicy(maxSize));
+
+            for (int i = 0; i < 25; i++) {
+                cache.put("key" + i, "value" + i);
+            }
+            Assertions.assertTrue(cache.size() <= maxSize);
+
+            cache.clear();
+            Assertions.assertEquals(0, cache.size());
+
+            for (int i = 0; i < maxSize; i++) {
+                cache.put("other" + i, "value" + i);
+            }
+            cache.clearKey("other0");
+            cache.put("last", "value");
+            Assertions.assertEquals(maxSize, cache.size(), "Failed for mode " + mode);
+
+        }
+
+    }
+
+
+}
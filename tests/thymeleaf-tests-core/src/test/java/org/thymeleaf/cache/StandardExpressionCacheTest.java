@@ -0,0 +1,125 @@
+/*
+ * =============================================================================
+ * 
+ *   Copyright (c) 2011-2016, The THYMELEAF team (http://www.thymeleaf.org)
+ * 
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * 
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * 
+ * =============================================================================
+ */
+package org.thymeleaf.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class StandardExpressionCacheTest {
+
+    public StandardExpressionCacheTest() {
+        super();
+    }
+
+
+    @Test
+    public void testTypedAndKeyedLookups() {
+
+        final StandardExpressionCache cache =
+                new StandardExpressionCache("testTypedLookups", false, -1, null, true, null);
+
+        cache.put("expr", "${one}", "ONE");
+        cache.put(new ExpressionCacheKey("ognl", "one"), "OGNL_ONE");
+        cache.put(new ExpressionCacheKey("ognlsc", "java.lang.String", "length"), "SC");
+
+        Assertions.assertEquals("ONE", cache.get("expr", "${one}"));
+        Assertions.assertEquals("ONE", cache.get(new ExpressionCacheKey("expr", "${one}")));
+        Assertions.assertEquals("OGNL_ONE", cache.get("ognl", "one"));
+        Assertions.assertNull(cache.get("expr", "one"));
+        Assertions.assertEquals("SC", cache.get(new ExpressionCacheKey("ognlsc", "java.lang.String", "length")));
+        Assertions.assertNull(cache.get("ognlsc", "java.lang.String"));
+
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertEquals(3, cache.keySet().size());
+        Assertions.assertTrue(cache.keySet().contains(new ExpressionCacheKey("ognl", "one")));
+
+        cache.clearKey("expr", "${one}");
+        Assertions.assertNull(cache.get(new ExpressionCacheKey("expr", "${one}")));
+        Assertions.assertEquals(2, cache.size());
+
+        Assertions.assertEquals(3L, cache.getPutCount());
+        Assertions.assertEquals(7L, cache.getGetCount());
+        Assertions.assertEquals(4L, cache.getHitCount());
+        Assertions.assertEquals(3L, cache.getMissCount());
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+
+    }
+
+
+    @Test
+    public void testMaxSize() {
+
+        final int maxSize = 10;
+        final StandardExpressionCache cache =
+                new StandardExpressionCache(
+                        "testMaxSize", true, maxSize, null, false, CacheEvictionMode.FIFO.<ExpressionCacheKey>createEvictionPolicy(maxSize));
+
+        for (int i = 0; i < 50; i++) {
+            cache.put((i % 2 == 0? "expr" : "ognl"), "exp" + i, "value" + i);
+            Assertions.assertTrue(cache.size() <= maxSize);
+        }
+        Assertions.assertEquals(maxSize, cache.size());
+        Assertions.assertNull(cache.get("expr", "exp0"));
+        Assertions.assertEquals("value49", cache.get("ognl", "exp49"));
+
+        cache.clearKey(new ExpressionCacheKey("ognl", "exp49"));
+        Assertions.assertNull(cache.get("ognl", "exp49"));
+        cache.put("expr", "exp50", "value50");
+        Assertions.assertEquals("value50", cache.get("expr", "exp50"));
+        Assertions.assertTrue(cache.size() <= maxSize);
+
+    }
+
+
+    @Test
+    public void testValidityChecker() {
+
+        final StandardExpressionCache cache =
+                new StandardExpressionCache(
+                        "testValidity", false, -1,
+                        (key, value, entryCreationTimestamp) -> !"invalid".equals(value), false, null);
+
+        cache.put("expr", "a", "valid");
+        cache.put("expr", "b", "invalid");
+
+        Assertions.assertEquals("valid", cache.get("expr", "a"));
+        Assertions.assertNull(cache.get("expr", "b"));
+        Assertions.assertEquals(1, cache.size());
+
+    }
+
+
+    @Test
+    public void testCacheManager() {
+
+        final StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setExpressionCacheUseTypedLookups(true);
+        Assertions.assertTrue(cacheManager.getExpressionCache() instanceof StandardExpressionCache);
+
+        final StandardCacheManager defaultCacheManager = new StandardCacheManager();
+        Assertions.assertTrue(defaultCacheManager.getExpressionCache() instanceof StandardCache);
+
+    }
+
+
+}
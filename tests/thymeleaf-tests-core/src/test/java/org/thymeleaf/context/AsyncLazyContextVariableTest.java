@@ -0,0 +1,220 @@
+/*
+ * =============================================================================
+ * 
+ *   Copyright (c) 2011-2016, The THYMELEAF team (http://www.thymeleaf.org)
+ * 
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * 
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * 
+ * =============================================================================
+ */
+package org.thymeleaf.context;
+
+import java.io.StringWriter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.IThrottledTemplateProcessor;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.exceptions.TemplateEngineException;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class AsyncLazyContextVariableTest {
+
+
+
+    public AsyncLazyContextVariableTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testConcurrentLoading() throws Exception {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+
+            final TemplateEngine templateEngine = createTemplateEngine();
+            final String template = "<p th:text=\"${a}\">a</p><p th:text=\"${b.toLowerCase()}\">b</p>";
+
+            // Variable "a" can only finish loading if "b" has started loading before "a" is used
+            final CountDownLatch latch = new CountDownLatch(2);
+            final Context context = new Context();
+            context.setVariable("a", new WaitingAsyncLazyContextVariable(executor, latch, "A"));
+            context.setVariable("b", new WaitingAsyncLazyContextVariable(executor, latch, "B"));
+
+            Assertions.assertEquals("<p>A</p><p>b</p>", templateEngine.process(template, context));
+
+            // Once more, for the cached template
+            final CountDownLatch latch2 = new CountDownLatch(2);
+            context.setVariable("a", new WaitingAsyncLazyContextVariable(executor, latch2, "A"));
+            context.setVariable("b", new WaitingAsyncLazyContextVariable(executor, latch2, "B"));
+
+            Assertions.assertEquals("<p>A</p><p>b</p>", templateEngine.process(template, context));
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+
+    @Test
+    public void testConcurrentLoadingThrottled() throws Exception {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+
+            final TemplateEngine templateEngine = createTemplateEngine();
+            final String template = "<p th:text=\"${a}\">a</p><p th:text=\"${b.toLowerCase()}\">b</p>";
+
+            // Executed twice: the first time parsing the template, the second one using the cached template
+            for (int i = 0; i < 2; i++) {
+
+                final CountDownLatch latch = new CountDownLatch(2);
+                final Context context = new Context();
+                context.setVariable("a", new WaitingAsyncLazyContextVariable(executor, latch, "A"));
+                context.setVariable("b", new WaitingAsyncLazyContextVariable(executor, latch, "B"));
+
+                final StringWriter writer = new StringWriter();
+                final IThrottledTemplateProcessor throttledProcessor = templateEngine.processThrottled(template, context);
+                while (!throttledProcessor.isFinished()) {
+                    throttledProcessor.process(5, writer);
+                }
+
+                Assertions.assertEquals("<p>A</p><p>b</p>", writer.toString());
+
+            }
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+
+    @Test
+    public void testSingleLoad() {
+
+        final TemplateEngine templateEngine = createTemplateEngine();
+        final String template =
+                "<p th:if=\"${a != null}\" th:text=\"${a}\">a</p><p th:if=\"${false}\" th:text=\"${b}\">b</p>";
+
+        final CountingAsyncLazyContextVariable a = new CountingAsyncLazyContextVariable("A");
+        final CountingAsyncLazyContextVariable b = new CountingAsyncLazyContextVariable("B");
+        final CountingAsyncLazyContextVariable c = new CountingAsyncLazyContextVariable("C");
+        final Context context = new Context();
+        context.setVariable("a", a);
+        context.setVariable("b", b);
+        context.setVariable("c", c);
+
+        Assertions.assertEquals("<p>A</p>", templateEngine.process(template, context));
+
+        Assertions.assertEquals(1, a.loads.get());
+        // Referenced variables are prefetched even if the expressions using them are not executed
+        Assertions.assertEquals(1, b.loads.get());
+        Assertions.assertEquals(0, c.loads.get());
+
+    }
+
+
+    @Test
+    public void testLoadingError() {
+
+        final TemplateEngine templateEngine = createTemplateEngine();
+        final String template = "<p th:text=\"${a}\">a</p>";
+
+        final Context context = new Context();
+        context.setVariable("a", new AsyncLazyContextVariable<String>() {
+            @Override
+            protected CompletableFuture<String> loadValueAsync() {
+                final CompletableFuture<String> future = new CompletableFuture<String>();
+                future.completeExceptionally(new IllegalStateException("Unavailable"));
+                return future;
+            }
+        });
+
+        Assertions.assertThrows(TemplateEngineException.class, () -> templateEngine.process(template, context));
+
+    }
+
+
+
+
+    private static TemplateEngine createTemplateEngine() {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(true);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        return templateEngine;
+    }
+
+
+
+
+    private static final class WaitingAsyncLazyContextVariable extends AsyncLazyContextVariable<String> {
+
+        private final ExecutorService executor;
+        private final CountDownLatch latch;
+        private final String value;
+
+        WaitingAsyncLazyContextVariable(final ExecutorService executor, final CountDownLatch latch, final String value) {
+            super();
+            this.executor = executor;
+            this.latch = latch;
+            this.value = value;
+        }
+
+        @Override
+        protected CompletableFuture<String> loadValueAsync() {
+            this.latch.countDown();
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return (this.latch.await(10, TimeUnit.SECONDS) ? this.value : "TIMEOUT");
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return "INTERRUPTED";
+                }
+            }, this.executor);
+        }
+
+    }
+
+
+    private static final class CountingAsyncLazyContextVariable extends AsyncLazyContextVariable<String> {
+
+        private final AtomicInteger loads = new AtomicInteger(0);
+        private final String value;
+
+        CountingAsyncLazyContextVariable(final String value) {
+            super();
+            this.value = value;
+        }
+
+        @Override
+        protected CompletableFuture<String> loadValueAsync() {
+            this.loads.incrementAndGet();
+            return CompletableFuture.completedFuture(this.value);
+        }
+
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IEngineContext;
+import org.thymeleaf.context.StandardEngineContextFactory;
+import org.thymeleaf.context.TestTemplateEngineConfigurationBuilder;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class EngineContextPoolingTest {
+
+    private static final String TEMPLATE_01 =
+            "<ul th:with=\"prefix='item '\"><li th:each=\"i : ${items}\" th:text=\"${prefix + i}\">item</li></ul>" +
+            "<p th:object=\"${one}\" th:text=\"*{length()}\">0</p><p>[[${one}]]</p>";
+
+
+
+    public EngineContextPoolingTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testPooledOutputIsEqual() {
+
+        final TemplateEngine plainEngine = createTemplateEngine(false);
+        final TemplateEngine poolingEngine = createTemplateEngine(true);
+
+        final String expected = plainEngine.process(TEMPLATE_01, createContext("one value", "a", "b"));
+        Assertions.assertEquals(
+                "<ul><li>item a</li><li>item b</li></ul><p>9</p><p>one value</p>", expected);
+
+        // Executed several times, so that pooled objects are reused
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(expected, poolingEngine.process(TEMPLATE_01, createContext("one value", "a", "b")));
+        }
+
+        // Nothing from previous executions should be left in reused objects
+        Assertions.assertEquals(
+                "<ul><li>item c</li></ul><p>3</p><p>two</p>",
+                poolingEngine.process(TEMPLATE_01, createContext("two", "c")));
+        Assertions.assertEquals(
+                "<ul></ul><p>0</p><p></p>",
+                poolingEngine.process(TEMPLATE_01, createContext("")));
+
+    }
+
+
+    @Test
+    public void testEngineContextReuse() {
+
+        final IEngineConfiguration configuration = TestTemplateEngineConfigurationBuilder.build();
+        final TemplateData templateData1 = TestTemplateDataConfigurationBuilder.build("test01", TemplateMode.HTML);
+        final TemplateData templateData2 = TestTemplateDataConfigurationBuilder.build("test02", TemplateMode.XML);
+
+        final StandardEngineContextFactory factory = new StandardEngineContextFactory();
+
+        final Context context1 = new Context(Locale.US);
+        context1.setVariable("one", "a value");
+        final IEngineContext engineContext1 = factory.createEngineContext(configuration, templateData1, null, context1);
+        engineContext1.increaseLevel();
+        engineContext1.setVariable("two", "local value");
+        engineContext1.setSelectionTarget("target");
+        engineContext1.decreaseLevel();
+
+        factory.releaseEngineContext(engineContext1);
+
+        final Context context2 = new Context(Locale.FRENCH);
+        context2.setVariable("three", "other value");
+        final IEngineContext engineContext2 =
+                factory.createEngineContext(configuration, templateData2, Collections.singletonMap("a", "b"), context2);
+
+        Assertions.assertSame(engineContext1, engineContext2);
+        Assertions.assertEquals(Locale.FRENCH, engineContext2.getLocale());
+        Assertions.assertEquals(0, engineContext2.level());
+        Assertions.assertSame(templateData2, engineContext2.getTemplateData());
+        Assertions.assertEquals(Collections.singletonList(templateData2), engineContext2.getTemplateStack());
+        Assertions.assertEquals(Collections.singletonMap("a", "b"), engineContext2.getTemplateResolutionAttributes());
+        Assertions.assertFalse(engineContext2.containsVariable("one"));
+        Assertions.assertFalse(engineContext2.containsVariable("two"));
+        Assertions.assertEquals("other value", engineContext2.getVariable("three"));
+        Assertions.assertFalse(engineContext2.hasSelectionTarget());
+
+        // Engine contexts that have not been released are never reused
+        final IEngineContext engineContext3 = factory.createEngineContext(configuration, templateData1, null, context1);
+        Assertions.assertNotSame(engineContext2, engineContext3);
+
+    }
+
+
+
+
+    private static TemplateEngine createTemplateEngine(final boolean pooling) {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(true);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setEngineContextPoolingEnabled(pooling);
+        return templateEngine;
+    }
+
+
+    private static Context createContext(final String one, final String... items) {
+        final Context context = new Context(Locale.ENGLISH);
+        context.setVariable("one", one);
+        context.setVariable("items", Arrays.asList(items));
+        return context;
+    }
+
+}
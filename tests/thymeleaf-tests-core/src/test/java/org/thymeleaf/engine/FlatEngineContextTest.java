@@ -0,0 +1,192 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.EngineContext;
+import org.thymeleaf.context.FlatEngineContext;
+import org.thymeleaf.context.StandardEngineContextFactory;
+import org.thymeleaf.context.TestTemplateEngineConfigurationBuilder;
+import org.thymeleaf.standard.inline.StandardTextInliner;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class FlatEngineContextTest {
+
+
+    private static final Locale LOCALE = Locale.US;
+
+    private static final String TEMPLATE_01 =
+            "<table th:with=\"total=${items.size()}\">" +
+            "<tr th:each=\"row, rowStat : ${items}\">" +
+            "<td th:each=\"col : ${items}\" th:with=\"cell=${row + col}\" th:text=\"${cell + '/' + total + '/' + rowStat.index}\">x</td>" +
+            "</tr></table><p th:text=\"${row} ?: 'none'\">r</p>";
+
+
+
+    public FlatEngineContextTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testLevels() {
+
+        final IEngineConfiguration configuration = TestTemplateEngineConfigurationBuilder.build();
+        final TemplateData templateData1 = TestTemplateDataConfigurationBuilder.build("test01", TemplateMode.HTML);
+        final TemplateData templateData2 = TestTemplateDataConfigurationBuilder.build("test02", TemplateMode.HTML);
+
+        final FlatEngineContext vm = new FlatEngineContext(configuration, templateData1, null, LOCALE, null);
+
+        vm.setVariable("one", "a value");
+        Assertions.assertEquals("{0:{one=a value}(test01)}[0]", vm.getStringRepresentationByLevel());
+
+        vm.increaseLevel();
+        vm.setVariable("one", "hello");
+        vm.setVariable("two", "twello");
+        vm.setSelectionTarget("target");
+        Assertions.assertEquals("hello", vm.getVariable("one"));
+        Assertions.assertTrue(vm.isVariableLocal("one"));
+        Assertions.assertEquals("target", vm.getSelectionTarget());
+
+        vm.increaseLevel();
+        vm.removeVariable("one");
+        vm.setTemplateData(templateData2);
+        vm.setInliner(new StandardTextInliner(configuration));
+        Assertions.assertFalse(vm.containsVariable("one"));
+        Assertions.assertNull(vm.getVariable("one"));
+        Assertions.assertEquals(Arrays.asList(templateData1, templateData2), vm.getTemplateStack());
+        Assertions.assertEquals(
+                "{2:{one=(*removed*)}[StandardTextInliner](test02),1:{one=hello, two=twello}<target>,0:{one=a value}(test01)}[2]",
+                vm.getStringRepresentationByLevel());
+        Assertions.assertEquals("{two=twello}<target>[StandardTextInliner](test02)", vm.toString());
+
+        vm.decreaseLevel();
+        Assertions.assertEquals("hello", vm.getVariable("one"));
+        Assertions.assertSame(templateData1, vm.getTemplateData());
+        Assertions.assertNull(vm.getInliner());
+
+        vm.decreaseLevel();
+        Assertions.assertEquals("a value", vm.getVariable("one"));
+        Assertions.assertFalse(vm.containsVariable("two"));
+        Assertions.assertFalse(vm.isVariableLocal("one"));
+        Assertions.assertFalse(vm.hasSelectionTarget());
+        Assertions.assertEquals(Collections.singleton("one"), vm.getVariableNames());
+
+    }
+
+
+    @Test
+    public void testEquivalentToEngineContext() {
+
+        final IEngineConfiguration configuration = TestTemplateEngineConfigurationBuilder.build();
+        final TemplateData templateData = TestTemplateDataConfigurationBuilder.build("test01", TemplateMode.HTML);
+
+        final Random random = new Random(1234L);
+
+        for (int i = 0; i < 100; i++) {
+
+            final Map<String,Object> variables = new LinkedHashMap<String, Object>();
+            for (int j = 0; j < 5; j++) {
+                variables.put("var" + random.nextInt(100), "initial" + j);
+            }
+
+            final FlatEngineContext flat = new FlatEngineContext(configuration, templateData, null, LOCALE, variables);
+            final EngineContext standard = new EngineContext(configuration, templateData, null, LOCALE, variables);
+
+            for (int op = 0; op < 500; op++) {
+
+                final String name = "var" + random.nextInt(100);
+                switch (random.nextInt(5)) {
+                    case 0:
+                    case 1:
+                        final Object value = (random.nextInt(5) == 0 ? null : "value" + op);
+                        flat.setVariable(name, value);
+                        standard.setVariable(name, value);
+                        break;
+                    case 2:
+                        flat.removeVariable(name);
+                        standard.removeVariable(name);
+                        break;
+                    case 3:
+                        flat.increaseLevel();
+                        standard.increaseLevel();
+                        break;
+                    default:
+                        if (standard.level() > 0) {
+                            flat.decreaseLevel();
+                            standard.decreaseLevel();
+                        }
+                }
+
+                Assertions.assertEquals(standard.getVariable(name), flat.getVariable(name));
+                Assertions.assertEquals(standard.containsVariable(name), flat.containsVariable(name));
+                Assertions.assertEquals(standard.isVariableLocal(name), flat.isVariableLocal(name));
+                Assertions.assertEquals(standard.getVariableNames(), flat.getVariableNames());
+                Assertions.assertEquals(standard.getStringRepresentationByLevel(), flat.getStringRepresentationByLevel());
+
+            }
+
+        }
+
+    }
+
+
+    @Test
+    public void testTemplateEngine() {
+
+        final TemplateEngine standardEngine = createTemplateEngine(false);
+        final TemplateEngine flatEngine = createTemplateEngine(true);
+
+        final Context context = new Context(LOCALE);
+        context.setVariable("items", Arrays.asList("a", "b", "c"));
+
+        final String expected = standardEngine.process(TEMPLATE_01, context);
+        Assertions.assertTrue(expected.contains("<td>bc/3/1</td>"));
+        Assertions.assertTrue(expected.endsWith("<p>none</p>"));
+        Assertions.assertEquals(expected, flatEngine.process(TEMPLATE_01, context));
+
+    }
+
+
+
+
+    private static TemplateEngine createTemplateEngine(final boolean flat) {
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(new StringTemplateResolver());
+        templateEngine.setEngineContextFactory(new StandardEngineContextFactory(flat));
+        return templateEngine;
+    }
+
+}
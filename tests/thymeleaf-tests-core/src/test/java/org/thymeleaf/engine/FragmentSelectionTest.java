@@ -0,0 +1,120 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class FragmentSelectionTest {
+
+    private static final String FRAGMENTS =
+            "<th:block th:remove=\"all\">" +
+            "<div th:fragment=\"a\"><span>A</span><p th:fragment=\"b(x)\">B<b th:text=\"${x}\">x</b></p></div>" +
+            "<i th:ref=\"c\">C</i>" +
+            "<i data-th-fragment=\"d\">D1</i><i id=\"dd\" th:fragment=\"d\">D2</i>" +
+            "</th:block>";
+
+
+
+    public FragmentSelectionTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testIndexedSelection() {
+
+        final String template =
+                FRAGMENTS +
+                "<main th:replace=\"~{::a}\">m</main>|" +
+                "<main th:replace=\"~{::b('1')}\">m</main>|" +
+                "<main th:replace=\"~{::c}\">m</main>|" +
+                "<main th:replace=\"~{::d}\">m</main>|" +
+                "<main th:replace=\"~{::i}\">m</main>";
+
+        final String expected =
+                "<div><span>A</span><p>B<b></b></p></div>|" +
+                "<p>B<b>1</b></p>|" +
+                "<i>C</i>|" +
+                "<i>D1</i><i id=\"dd\">D2</i>|" +
+                "<i>C</i><i>D1</i><i id=\"dd\">D2</i>";
+
+        final TemplateEngine templateEngine = createTemplateEngine(true);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(expected, templateEngine.process(template, new Context(Locale.ENGLISH)));
+        }
+
+        // Only the template itself and its complete model (as owner of the fragments) take cache entries
+        Assertions.assertEquals(2, templateEngine.getCacheManager().getTemplateCache().keySet().size());
+
+        // Non-cacheable templates are parsed with the corresponding selectors instead
+        Assertions.assertEquals(expected, createTemplateEngine(false).process(template, new Context(Locale.ENGLISH)));
+
+    }
+
+
+    @Test
+    public void testTrimmedReferences() {
+
+        final String template =
+                "<th:block th:remove=\"all\">" +
+                "<i th:fragment=\"  e  ( y ) \">E<b th:text=\"${y}\">y</b></i><u th:ref=\" f \">F</u>" +
+                "</th:block>" +
+                "<main th:replace=\"~{::e('1')}\">m</main>|" +
+                "<main th:replace=\"~{::f}\">m</main>";
+
+        Assertions.assertEquals(
+                "<i>E<b>1</b></i>|<u>F</u>", createTemplateEngine(true).process(template, new Context(Locale.ENGLISH)));
+
+    }
+
+
+    @Test
+    public void testNonIndexableSelection() {
+
+        final String template =
+                FRAGMENTS +
+                "<main th:replace=\"~{::#dd}\">m</main>";
+
+        Assertions.assertEquals(
+                "<i id=\"dd\">D2</i>", createTemplateEngine(true).process(template, new Context(Locale.ENGLISH)));
+
+    }
+
+
+
+
+    private static TemplateEngine createTemplateEngine(final boolean cacheable) {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(cacheable);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        return templateEngine;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class IterationSourcesTest {
+
+    private static final String TEMPLATE_01 =
+            "<p th:each=\"i : ${items}\" th:text=\"|${i}:${iStat.size}:${iStat.last}|\">x</p>";
+    private static final String TEMPLATE_02 =
+            "<p th:each=\"i : ${items}\" th:text=\"|${i}:${iStat.size}|\">x</p>";
+
+
+
+    public IterationSourcesTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testArrays() {
+
+        Assertions.assertEquals("<p>1:3:false</p><p>2:3:false</p><p>3:3:true</p>", process(new int[] { 1, 2, 3 }));
+        Assertions.assertEquals("<p>4:2:false</p><p>5:2:true</p>", process(new long[] { 4L, 5L }));
+        Assertions.assertEquals("<p>1.5:1:true</p>", process(new double[] { 1.5d }));
+        Assertions.assertEquals("<p>a:2:false</p><p>b:2:true</p>", process(new char[] { 'a', 'b' }));
+        Assertions.assertEquals("<p>true:1:true</p>", process(new boolean[] { true }));
+        Assertions.assertEquals("<p>x:2:false</p><p>y:2:true</p>", process(new String[] { "x", "y" }));
+        Assertions.assertEquals("", process(new int[0]));
+
+    }
+
+
+    @Test
+    public void testLists() {
+
+        Assertions.assertEquals("<p>x:2:false</p><p>y:2:true</p>", process(Arrays.asList("x", "y")));
+        Assertions.assertEquals("<p>x:2:false</p><p>y:2:true</p>", process(new LinkedList<>(Arrays.asList("x", "y"))));
+
+    }
+
+
+    @Test
+    public void testStreamsAndSpliterators() {
+
+        // Sized streams and spliterators are able to report their size before being iterated
+        Assertions.assertEquals("<p>0:2:false</p><p>1:2:true</p>", process(IntStream.range(0, 2).boxed()));
+        Assertions.assertEquals(
+                "<p>x:2:false</p><p>y:2:true</p>", process(Arrays.asList("x", "y").spliterator()));
+
+        // Unsized ones are still iterated, though without size
+        Assertions.assertEquals(
+                "<p>x:null</p><p>y:null</p>",
+                process(TEMPLATE_02, Stream.of("x", "y", "z").filter(s -> !s.equals("z"))));
+        Assertions.assertEquals(
+                "<p>x:null</p>",
+                process(TEMPLATE_02, Spliterators.spliteratorUnknownSize(Arrays.asList("x").iterator(), Spliterator.ORDERED)));
+
+    }
+
+
+
+
+    private static String process(final Object items) {
+        return process(TEMPLATE_01, items);
+    }
+
+
+    private static String process(final String template, final Object items) {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(true);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        final Context context = new Context(Locale.ENGLISH);
+        context.setVariable("items", items);
+        return templateEngine.process(template, context);
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.TemplateSpec;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class OutputStreamTemplateWriterTest {
+
+    private static final String TEMPLATE_01 =
+            "<!DOCTYPE html>\n" +
+            "<html>\n" +
+            "<head><title>Caf\u00E9 \u00E0 la carte</title></head>\n" +
+            "<body>\n" +
+            "  <div class=\"header\"><h1>Men\u00FA</h1><p>Price in \u20AC</p></div>\n" +
+            "  <p th:text=\"${one}\">one</p>\n" +
+            "  <ul>\n" +
+            "    <li th:each=\"i : ${items}\"><span>item</span> <b th:text=\"${i}\">0</b></li>\n" +
+            "  </ul>\n" +
+            "  <div class=\"footer\"><p>Se\u00F1or \uD83D\uDE00</p><br/></div>\n" +
+            "</body>\n" +
+            "</html>";
+
+
+
+    public OutputStreamTemplateWriterTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testWriter() throws Exception {
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final OutputStreamTemplateWriter writer = new OutputStreamTemplateWriter(baos, StandardCharsets.UTF_8);
+
+        writer.write("caf\u00E9 ");
+        Assertions.assertTrue(writer.writePreEncoded("\u20AC ".getBytes(StandardCharsets.UTF_8)));
+        final char[] surrogates = "\uD83D\uDE00".toCharArray();
+        writer.write(surrogates, 0, 1);
+        // A high surrogate is pending its pair, so pre-encoded content cannot be written yet
+        Assertions.assertFalse(writer.writePreEncoded("x".getBytes(StandardCharsets.UTF_8)));
+        writer.write(surrogates, 1, 1);
+        Assertions.assertTrue(writer.writePreEncoded("!".getBytes(StandardCharsets.UTF_8)));
+        writer.flush();
+
+        Assertions.assertEquals("caf\u00E9 \u20AC \uD83D\uDE00!", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+
+    }
+
+
+    @Test
+    public void testStaticSegmentBytes() {
+
+        final TemplateEngine templateEngine = createTemplateEngine(true);
+        final TemplateModel model =
+                templateEngine.getConfiguration().getTemplateManager().parseStandalone(new TemplateSpec(TEMPLATE_01, (TemplateMode)null));
+
+        for (int i = 0; i < model.size(); i++) {
+            if (model.get(i) instanceof StaticTemplateSegment) {
+                final StaticTemplateSegment segment = (StaticTemplateSegment) model.get(i);
+                final String text = segment.getText();
+                Assertions.assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), segment.getBytes(StandardCharsets.UTF_8));
+                // Encoded forms are cached
+                Assertions.assertSame(segment.getBytes(StandardCharsets.UTF_8), segment.getBytes(StandardCharsets.UTF_8));
+                if (text.indexOf('\u20AC') >= 0 || text.indexOf('\uD83D') >= 0) {
+                    Assertions.assertNull(segment.getBytes(StandardCharsets.ISO_8859_1));
+                } else {
+                    Assertions.assertArrayEquals(text.getBytes(StandardCharsets.ISO_8859_1), segment.getBytes(StandardCharsets.ISO_8859_1));
+                }
+                Assertions.assertNull(segment.getBytes(StandardCharsets.UTF_16));
+            }
+        }
+
+    }
+
+
+    @Test
+    public void testByteOutputIsEqual() {
+
+        final TemplateEngine plainEngine = createTemplateEngine(false);
+        final TemplateEngine compilingEngine = createTemplateEngine(true);
+
+        final String expected = plainEngine.process(TEMPLATE_01, createContext());
+
+        for (final Charset charset : Arrays.asList(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16)) {
+            final byte[] expectedBytes = expected.getBytes(charset);
+            // Executed twice, so that the second execution uses the (compiled) cached model
+            Assertions.assertArrayEquals(expectedBytes, processToBytes(plainEngine, charset));
+            Assertions.assertArrayEquals(expectedBytes, processToBytes(compilingEngine, charset));
+            Assertions.assertArrayEquals(expectedBytes, processToBytes(compilingEngine, charset));
+        }
+
+    }
+
+
+
+
+    private static byte[] processToBytes(final TemplateEngine templateEngine, final Charset charset) {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        templateEngine.process(new TemplateSpec(TEMPLATE_01, (TemplateMode)null), createContext(), baos, charset);
+        return baos.toByteArray();
+    }
+
+
+    private static TemplateEngine createTemplateEngine(final boolean compile) {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(true);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateModelCompilationEnabled(compile);
+        return templateEngine;
+    }
+
+
+    private static Context createContext() {
+        final Context context = new Context(Locale.ENGLISH);
+        context.setVariable("one", "one value");
+        context.setVariable("items", Arrays.asList("a", "b", "c"));
+        return context;
+    }
+
+}
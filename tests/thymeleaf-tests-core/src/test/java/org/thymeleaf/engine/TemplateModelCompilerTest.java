@@ -0,0 +1,170 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.TemplateSpec;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class TemplateModelCompilerTest {
+
+    private static final String TEMPLATE_01 =
+            "<!DOCTYPE html>\n" +
+            "<html>\n" +
+            "<head>\n" +
+            "  <title>Static title</title>\n" +
+            "  <meta charset=\"utf-8\">\n" +
+            "  <!-- a static comment -->\n" +
+            "</head>\n" +
+            "<body>\n" +
+            "  <div class=\"header\"><h1>Header</h1><p>Static paragraph</p></div>\n" +
+            "  <p th:text=\"${one}\">one</p>\n" +
+            "  <ul>\n" +
+            "    <li th:each=\"i : ${items}\"><span>item</span> <b th:text=\"${i}\">0</b></li>\n" +
+            "  </ul>\n" +
+            "  <p>Inlined: [[${one}]]</p>\n" +
+            "  <!--[if lt IE 9]><p>old</p><![endif]-->\n" +
+            "  <div class=\"footer\"><p>Footer</p><br/></div>\n" +
+            "</body>\n" +
+            "</html>";
+
+
+
+    public TemplateModelCompilerTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testCompiledOutputIsEqual() {
+
+        final TemplateEngine plainEngine = createTemplateEngine(false);
+        final TemplateEngine compilingEngine = createTemplateEngine(true);
+
+        final String expected = plainEngine.process(TEMPLATE_01, createContext());
+
+        // Executed twice, so that the second execution uses the (compiled) cached model
+        Assertions.assertEquals(expected, compilingEngine.process(TEMPLATE_01, createContext()));
+        Assertions.assertEquals(expected, compilingEngine.process(TEMPLATE_01, createContext()));
+
+    }
+
+
+    @Test
+    public void testCompiledModel() {
+
+        final TemplateEngine plainEngine = createTemplateEngine(false);
+        final TemplateEngine compilingEngine = createTemplateEngine(true);
+
+        final TemplateModel plainModel =
+                plainEngine.getConfiguration().getTemplateManager().parseStandalone(new TemplateSpec(TEMPLATE_01, (TemplateMode)null));
+        final TemplateModel compiledModel =
+                compilingEngine.getConfiguration().getTemplateManager().parseStandalone(new TemplateSpec(TEMPLATE_01, (TemplateMode)null));
+
+        Assertions.assertTrue(compiledModel.size() < plainModel.size());
+        Assertions.assertEquals(plainModel.toString(), compiledModel.toString());
+
+        int segments = 0;
+        for (int i = 0; i < compiledModel.size(); i++) {
+            if (compiledModel.get(i) instanceof StaticTemplateSegment) {
+                segments++;
+                final String segment = compiledModel.get(i).toString();
+                // Nothing with processors or inlined expressions should have been compiled
+                Assertions.assertFalse(segment.contains("th:"));
+                Assertions.assertFalse(segment.contains("[["));
+                Assertions.assertFalse(segment.contains("[if"));
+            }
+        }
+        Assertions.assertTrue(segments > 0);
+
+        // The whole <head> is static, and so are the header and footer divs
+        Assertions.assertTrue(containsSegment(compiledModel, "<head>\n  <title>Static title</title>"));
+        Assertions.assertTrue(containsSegment(compiledModel, "<div class=\"header\"><h1>Header</h1><p>Static paragraph</p></div>"));
+        Assertions.assertTrue(containsSegment(compiledModel, "<div class=\"footer\"><p>Footer</p><br/></div>"));
+
+        // The body of an element with processors should never be compiled
+        Assertions.assertFalse(containsSegment(compiledModel, "<span>item</span>"));
+
+        // Whitespace preceding an iterated element should be kept on its own
+        for (int i = 1; i < compiledModel.size(); i++) {
+            if (compiledModel.get(i).toString().startsWith("<li th:each")) {
+                Assertions.assertFalse(compiledModel.get(i - 1) instanceof StaticTemplateSegment);
+                Assertions.assertEquals("\n    ", compiledModel.get(i - 1).toString());
+            }
+        }
+
+    }
+
+
+    @Test
+    public void testNotCompiledIfNotCacheable() {
+
+        final TemplateEngine compilingEngine = createTemplateEngine(true);
+        ((StringTemplateResolver)compilingEngine.getTemplateResolvers().iterator().next()).setCacheable(false);
+
+        final TemplateModel model =
+                compilingEngine.getConfiguration().getTemplateManager().parseStandalone(new TemplateSpec(TEMPLATE_01, (TemplateMode)null));
+        for (int i = 0; i < model.size(); i++) {
+            Assertions.assertFalse(model.get(i) instanceof StaticTemplateSegment);
+        }
+
+    }
+
+
+
+
+    private static boolean containsSegment(final TemplateModel model, final String markup) {
+        for (int i = 0; i < model.size(); i++) {
+            if (model.get(i) instanceof StaticTemplateSegment && model.get(i).toString().contains(markup)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static TemplateEngine createTemplateEngine(final boolean compile) {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(true);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateModelCompilationEnabled(compile);
+        return templateEngine;
+    }
+
+
+    private static Context createContext() {
+        final Context context = new Context(Locale.ENGLISH);
+        context.setVariable("one", "one value");
+        context.setVariable("items", Arrays.asList("a", "b", "c"));
+        return context;
+    }
+
+}
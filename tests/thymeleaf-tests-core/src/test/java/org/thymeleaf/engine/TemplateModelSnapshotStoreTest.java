@@ -0,0 +1,178 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.TemplateSpec;
+import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.FileTemplateResolver;
+
+
+public final class TemplateModelSnapshotStoreTest {
+
+    private static final String TEMPLATE_01 =
+            "<!DOCTYPE html>\n" +
+            "<html>\n" +
+            "<!-- a comment -->\n" +
+            "<body>\n" +
+            "  <p class='intro' th:text=\"${one}\">something</p>\n" +
+            "  <input type=\"text\" disabled th:value=\"${two}\"/>\n" +
+            "  <br>\n" +
+            "  <script>/*<![CDATA[*/ var a = 1; /*]]>*/</script>\n" +
+            "</body>\n" +
+            "</html>";
+
+    private static final String TEMPLATE_02 =
+            "<!DOCTYPE html>\n" +
+            "<html><body><p th:text=\"${two}\">other</p></body></html>";
+
+
+
+    public TemplateModelSnapshotStoreTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testSnapshotRoundTrip() throws Exception {
+
+        final File baseDir = Files.createTempDirectory("thymeleaf-snapshots").toFile();
+        final File templateFile = writeTemplate(baseDir, TEMPLATE_01);
+        final TemplateModelSnapshotStore store = new TemplateModelSnapshotStore(new File(baseDir, "snapshots"));
+
+        final TemplateEngine templateEngine01 = createTemplateEngine(baseDir, store);
+        final String result01 = templateEngine01.process("page", createContext());
+
+        Assertions.assertEquals(1, countSnapshots(store));
+
+        // A new engine (as if after a restart) should load the snapshot and produce the very same output
+        final TemplateEngine templateEngine02 = createTemplateEngine(baseDir, store);
+        Assertions.assertEquals(result01, templateEngine02.process("page", createContext()));
+
+        // Load the snapshot directly and compare it to a freshly parsed model
+        final TemplateManager templateManager = createTemplateEngine(baseDir, null).getConfiguration().getTemplateManager();
+        final TemplateModel parsed = templateManager.parseStandalone(new TemplateSpec("page", (TemplateMode)null));
+        final TemplateCacheKey cacheKey = new TemplateCacheKey(null, "page", null, 0, 0, null, null);
+        final TemplateModel loaded =
+                store.load(
+                        templateEngine02.getConfiguration(), cacheKey, parsed.getTemplateData(),
+                        store.computeFingerprint(parsed.getTemplateData().getTemplateResource()));
+
+        Assertions.assertNotNull(loaded);
+        Assertions.assertEquals(parsed.size(), loaded.size());
+        Assertions.assertEquals(parsed.toString(), loaded.toString());
+        for (int i = 0; i < parsed.size(); i++) {
+            Assertions.assertEquals(parsed.get(i).getClass(), loaded.get(i).getClass());
+            Assertions.assertEquals(parsed.get(i).getLine(), loaded.get(i).getLine());
+            Assertions.assertEquals(parsed.get(i).getCol(), loaded.get(i).getCol());
+            Assertions.assertEquals(parsed.get(i).getTemplateName(), loaded.get(i).getTemplateName());
+        }
+
+        // Modifying the template should invalidate the snapshot
+        Files.write(templateFile.toPath(), TEMPLATE_02.getBytes(StandardCharsets.UTF_8));
+        Assertions.assertNull(
+                store.load(
+                        templateEngine02.getConfiguration(), cacheKey, parsed.getTemplateData(),
+                        store.computeFingerprint(parsed.getTemplateData().getTemplateResource())));
+
+        final TemplateEngine templateEngine03 = createTemplateEngine(baseDir, store);
+        Assertions.assertEquals(
+                "<!DOCTYPE html>\n<html><body><p>two value</p></body></html>",
+                templateEngine03.process("page", createContext()));
+
+        store.clear();
+        Assertions.assertEquals(0, countSnapshots(store));
+
+    }
+
+
+    @Test
+    public void testNoSnapshotsIfNotCacheable() throws Exception {
+
+        final File baseDir = Files.createTempDirectory("thymeleaf-snapshots").toFile();
+        writeTemplate(baseDir, TEMPLATE_02);
+        final TemplateModelSnapshotStore store = new TemplateModelSnapshotStore(new File(baseDir, "snapshots"));
+
+        final TemplateEngine templateEngine = createTemplateEngine(baseDir, store);
+        ((FileTemplateResolver)templateEngine.getTemplateResolvers().iterator().next()).setCacheable(false);
+
+        Assertions.assertEquals(
+                "<!DOCTYPE html>\n<html><body><p>two value</p></body></html>",
+                templateEngine.process("page", createContext()));
+        Assertions.assertEquals(0, countSnapshots(store));
+
+    }
+
+
+
+
+    private static File writeTemplate(final File baseDir, final String template) throws IOException {
+        final File templateFile = new File(baseDir, "page.html");
+        Files.write(templateFile.toPath(), template.getBytes(StandardCharsets.UTF_8));
+        return templateFile;
+    }
+
+
+    private static TemplateEngine createTemplateEngine(final File baseDir, final TemplateModelSnapshotStore store) {
+        final FileTemplateResolver templateResolver = new FileTemplateResolver();
+        templateResolver.setPrefix(baseDir.getAbsolutePath() + File.separator);
+        templateResolver.setSuffix(".html");
+        templateResolver.setCharacterEncoding("UTF-8");
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateModelSnapshotStore(store);
+        return templateEngine;
+    }
+
+
+    private static Context createContext() {
+        final Context context = new Context(Locale.ENGLISH);
+        context.setVariable("one", "one value");
+        context.setVariable("two", "two value");
+        return context;
+    }
+
+
+    private static int countSnapshots(final TemplateModelSnapshotStore store) {
+        final File[] files = store.getDirectory().listFiles();
+        int count = 0;
+        if (files != null) {
+            for (final File file : files) {
+                if (file.getName().endsWith(".tlms")) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+}
@@ -21,6 +21,7 @@
 
 import org.thymeleaf.cache.NonCacheableCacheEntryValidity;
 import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresource.ITemplateResource;
 import org.thymeleaf.templateresource.StringTemplateResource;
 
 
@@ -33,6 +34,12 @@ public static TemplateData build(final String template, final TemplateMode templ
     }
 
 
+    public static TemplateData build(
+            final String template, final ITemplateResource templateResource, final TemplateMode templateMode) {
+        return new TemplateData(template, null, templateResource, templateMode, NonCacheableCacheEntryValidity.INSTANCE);
+    }
+
+
 
 
     private TestTemplateDataConfigurationBuilder() {
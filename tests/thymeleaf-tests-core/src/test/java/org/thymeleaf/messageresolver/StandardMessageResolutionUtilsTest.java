@@ -0,0 +1,92 @@
+/*
+ * =============================================================================
+ * 
+ *   Copyright (c) 2011-2016, The THYMELEAF team (http://www.thymeleaf.org)
+ * 
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * 
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * 
+ * =============================================================================
+ */
+package org.thymeleaf.messageresolver;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public final class StandardMessageResolutionUtilsTest {
+
+
+
+    public StandardMessageResolutionUtilsTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testFormatMessage() {
+
+        // Message formats are cached, so each message is formatted twice to test both compiled and cached formats
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertNull(StandardMessageResolutionUtils.formatMessage(Locale.US, null, null));
+            Assertions.assertEquals("Hello", StandardMessageResolutionUtils.formatMessage(Locale.US, "Hello", null));
+            Assertions.assertEquals("It's done", StandardMessageResolutionUtils.formatMessage(Locale.US, "It''s done", new Object[] { "x" }));
+            Assertions.assertEquals("Hello John", StandardMessageResolutionUtils.formatMessage(Locale.US, "Hello {0}", new Object[] { "John" }));
+            Assertions.assertEquals("Hello {0}", StandardMessageResolutionUtils.formatMessage(Locale.US, "Hello {0}", null));
+            Assertions.assertEquals("1,234.5 EUR", StandardMessageResolutionUtils.formatMessage(Locale.US, "{0,number,#,##0.##} EUR", new Object[] { Double.valueOf(1234.5) }));
+            Assertions.assertEquals("1.234,5 EUR", StandardMessageResolutionUtils.formatMessage(Locale.GERMANY, "{0,number,#,##0.##} EUR", new Object[] { Double.valueOf(1234.5) }));
+            Assertions.assertEquals("3 items", StandardMessageResolutionUtils.formatMessage(Locale.US, "{0,choice,0#no items|1#one item|1<{0} items}", new Object[] { Integer.valueOf(3) }));
+            Assertions.assertEquals("no items", StandardMessageResolutionUtils.formatMessage(Locale.US, "{0,choice,0#no items|1#one item|1<{0} items}", new Object[] { Integer.valueOf(0) }));
+        }
+
+    }
+
+
+    @Test
+    public void testConcurrentFormatMessage() throws Exception {
+
+        final String message = "{0,number,#.##} / {1}";
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 5000; i++) {
+                        final Object[] parameters = new Object[] { Double.valueOf(i * 1.37), Integer.valueOf(i) };
+                        final String expected = new MessageFormat(message, Locale.US).format(parameters);
+                        if (!expected.equals(StandardMessageResolutionUtils.formatMessage(Locale.US, message, parameters))) {
+                            return Boolean.FALSE;
+                        }
+                    }
+                    return Boolean.TRUE;
+                }));
+            }
+            for (final Future<Boolean> result : results) {
+                Assertions.assertTrue(result.get().booleanValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+}
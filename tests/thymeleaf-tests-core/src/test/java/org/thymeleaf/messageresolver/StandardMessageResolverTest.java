@@ -0,0 +1,228 @@
+/*
+ * =============================================================================
+ * 
+ *   Copyright (c) 2011-2016, The THYMELEAF team (http://www.thymeleaf.org)
+ * 
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * 
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * 
+ * =============================================================================
+ */
+package org.thymeleaf.messageresolver;
+
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.engine.TemplateData;
+import org.thymeleaf.engine.TestTemplateDataConfigurationBuilder;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresource.ClassLoaderTemplateResource;
+import org.thymeleaf.templateresource.ITemplateResource;
+
+
+public final class StandardMessageResolverTest {
+
+
+
+    public StandardMessageResolverTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testCachedMessages() {
+
+        final VersionedMessageResolver messageResolver = new VersionedMessageResolver();
+        final ITemplateContext context = createContext(Locale.US);
+
+        Assertions.assertEquals("v1", messageResolver.resolveMessage(context, StandardMessageResolverTest.class, "version", null));
+        Assertions.assertEquals("v1", messageResolver.resolveMessage(context, StandardMessageResolverTest.class, "version", null));
+        Assertions.assertEquals(1, messageResolver.loads.get());
+
+    }
+
+
+    @Test
+    public void testBackgroundRefresh() throws Exception {
+
+        final QueuedExecutor executor = new QueuedExecutor();
+        final VersionedMessageResolver messageResolver = new VersionedMessageResolver();
+        messageResolver.setMessageRefreshIntervalMs(Long.valueOf(0L));
+        messageResolver.setMessageRefreshExecutor(executor);
+        final ITemplateContext context = createContext(Locale.US);
+
+        Assertions.assertEquals("v1", messageResolver.resolveMessage(context, StandardMessageResolverTest.class, "version", null));
+        Thread.sleep(5L);
+
+        // Expired: a reload is scheduled (only once), but the previous messages are used until it finishes
+        Assertions.assertEquals("v1", messageResolver.resolveMessage(context, StandardMessageResolverTest.class, "version", null));
+        Assertions.assertEquals("v1", messageResolver.resolveMessage(context, StandardMessageResolverTest.class, "version", null));
+        Assertions.assertEquals(1, executor.tasks.size());
+        Assertions.assertEquals(1, messageResolver.loads.get());
+
+        executor.runAll();
+        Assertions.assertEquals(2, messageResolver.loads.get());
+        Assertions.assertEquals("v2", messageResolver.resolveMessage(context, StandardMessageResolverTest.class, "version", null));
+
+    }
+
+
+
+
+    @Test
+    public void testDefaultExecutorRefresh() throws Exception {
+
+        final VersionedMessageResolver messageResolver = new VersionedMessageResolver();
+        messageResolver.setMessageRefreshIntervalMs(Long.valueOf(0L));
+        final ITemplateContext context = createContext(Locale.US);
+
+        Assertions.assertEquals("v1", messageResolver.resolveMessage(context, StandardMessageResolverTest.class, "version", null));
+        Thread.sleep(5L);
+
+        // Reloads should use the context class loader of the thread resolving the expired messages
+        final Thread thread = Thread.currentThread();
+        final ClassLoader previousClassLoader = thread.getContextClassLoader();
+        final ClassLoader classLoader = new URLClassLoader(new URL[0], previousClassLoader);
+        thread.setContextClassLoader(classLoader);
+        try {
+            Assertions.assertEquals("v1", messageResolver.resolveMessage(context, StandardMessageResolverTest.class, "version", null));
+        } finally {
+            thread.setContextClassLoader(previousClassLoader);
+        }
+
+        for (int i = 0; i < 500 && messageResolver.loads.get() < 2; i++) {
+            Thread.sleep(10L);
+        }
+        Assertions.assertEquals(2, messageResolver.loads.get());
+        Assertions.assertSame(classLoader, messageResolver.lastLoadClassLoader);
+        Assertions.assertTrue(messageResolver.lastLoadDaemon);
+
+    }
+
+
+
+
+    @Test
+    public void testNonCacheableTemplates() {
+
+        final TemplateData fileTemplateData =
+                TestTemplateDataConfigurationBuilder.build(
+                        "home", new ClassLoaderTemplateResource("templates/home.html", "UTF-8"), TemplateMode.HTML);
+        final TemplateData stringTemplateData =
+                TestTemplateDataConfigurationBuilder.build("<p th:text=\"#{templateVersion}\">v</p>", TemplateMode.HTML);
+
+        // Messages for non-cacheable templates are read at each resolution if they are not being refreshed
+        final VersionedMessageResolver messageResolver = new VersionedMessageResolver();
+        final ITemplateContext fileContext = createContext(Locale.US, Collections.singletonList(fileTemplateData));
+        Assertions.assertEquals("v1", messageResolver.resolveMessage(fileContext, null, "templateVersion", null));
+        Assertions.assertEquals("v2", messageResolver.resolveMessage(fileContext, null, "templateVersion", null));
+
+        // If they are, they are cached by resource, except for resources that cannot have messages (e.g. Strings)
+        final VersionedMessageResolver refreshedMessageResolver = new VersionedMessageResolver();
+        refreshedMessageResolver.setMessageRefreshIntervalMs(Long.valueOf(60000L));
+        Assertions.assertEquals("v1", refreshedMessageResolver.resolveMessage(fileContext, null, "templateVersion", null));
+        Assertions.assertEquals("v1", refreshedMessageResolver.resolveMessage(fileContext, null, "templateVersion", null));
+        final ITemplateContext stringContext = createContext(Locale.US, Collections.singletonList(stringTemplateData));
+        Assertions.assertEquals("v2", refreshedMessageResolver.resolveMessage(stringContext, null, "templateVersion", null));
+        Assertions.assertEquals("v3", refreshedMessageResolver.resolveMessage(stringContext, null, "templateVersion", null));
+
+    }
+
+
+
+
+    private static ITemplateContext createContext(final Locale locale) {
+        return createContext(locale, Collections.<TemplateData>emptyList());
+    }
+
+
+    private static ITemplateContext createContext(final Locale locale, final List<TemplateData> templateStack) {
+        return (ITemplateContext) Proxy.newProxyInstance(
+                StandardMessageResolverTest.class.getClassLoader(),
+                new Class<?>[] { ITemplateContext.class },
+                (proxy, method, args) -> {
+                    if ("getLocale".equals(method.getName())) {
+                        return locale;
+                    }
+                    if ("getTemplateStack".equals(method.getName())) {
+                        return templateStack;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+
+
+
+    private static final class VersionedMessageResolver extends StandardMessageResolver {
+
+        private final AtomicInteger loads = new AtomicInteger(0);
+        private final AtomicInteger templateLoads = new AtomicInteger(0);
+        private volatile ClassLoader lastLoadClassLoader = null;
+        private volatile boolean lastLoadDaemon = false;
+
+        VersionedMessageResolver() {
+            super();
+        }
+
+        @Override
+        protected Map<String, String> resolveMessagesForTemplate(
+                final String template, final ITemplateResource templateResource, final Locale locale) {
+            return Collections.singletonMap("templateVersion", "v" + this.templateLoads.incrementAndGet());
+        }
+
+        @Override
+        protected Map<String, String> resolveMessagesForOrigin(final Class<?> origin, final Locale locale) {
+            this.lastLoadClassLoader = Thread.currentThread().getContextClassLoader();
+            this.lastLoadDaemon = Thread.currentThread().isDaemon();
+            return Collections.singletonMap("version", "v" + this.loads.incrementAndGet());
+        }
+
+    }
+
+
+    private static final class QueuedExecutor implements Executor {
+
+        private final Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+
+        QueuedExecutor() {
+            super();
+        }
+
+        public void execute(final Runnable task) {
+            this.tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = this.tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.TemplateSpec;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.LazyContextVariable;
+import org.thymeleaf.standard.processor.StandardEachTagProcessor;
+import org.thymeleaf.standard.processor.StandardTextTagProcessor;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class TemplateEngineMetricsTest {
+
+    private static final String TEMPLATE_01 =
+            "<ul><li th:each=\"i : ${items}\" th:text=\"${i}\">item</li></ul><p th:text=\"${one}\">one</p>";
+
+
+
+    public TemplateEngineMetricsTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testTemplateMetrics() {
+
+        final TestMetrics metrics = new TestMetrics();
+        final TemplateEngine templateEngine = createTemplateEngine(metrics, 0);
+
+        final String result = templateEngine.process(TEMPLATE_01, createContext());
+        templateEngine.process(TEMPLATE_01, createContext());
+
+        Assertions.assertEquals(Arrays.asList("miss", "hit"), metrics.cacheAccesses);
+        Assertions.assertEquals(1, metrics.parses);
+        Assertions.assertEquals(TemplateMode.HTML, metrics.parseTemplateMode);
+        Assertions.assertEquals(2, metrics.renders);
+        Assertions.assertEquals(-1L, metrics.lastOutputBytes);
+
+        // Nothing is sampled
+        Assertions.assertTrue(metrics.processorExecutions.isEmpty());
+        Assertions.assertTrue(metrics.expressionEvaluations.isEmpty());
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        templateEngine.process(new TemplateSpec(TEMPLATE_01, (TemplateMode)null), createContext(), outputStream, StandardCharsets.UTF_8);
+
+        Assertions.assertEquals(3, metrics.renders);
+        Assertions.assertEquals(result.getBytes(StandardCharsets.UTF_8).length, metrics.lastOutputBytes);
+        Assertions.assertEquals(outputStream.size(), metrics.lastOutputBytes);
+
+    }
+
+
+    @Test
+    public void testSampledMetrics() {
+
+        final TestMetrics metrics = new TestMetrics();
+        final TemplateEngine templateEngine = createTemplateEngine(metrics, 1);
+
+        templateEngine.process(TEMPLATE_01, createContext());
+
+        // One th:each, plus one th:text for each of the three iterations and another one for the paragraph
+        Assertions.assertEquals(Integer.valueOf(1), metrics.processorExecutions.get(StandardEachTagProcessor.class));
+        Assertions.assertEquals(Integer.valueOf(4), metrics.processorExecutions.get(StandardTextTagProcessor.class));
+        Assertions.assertEquals(Integer.valueOf(5), metrics.expressionEvaluations.get(TEMPLATE_01));
+
+    }
+
+
+    @Test
+    public void testSamplingIsPerEngine() {
+
+        final TestMetrics metrics = new TestMetrics();
+        final TemplateEngine templateEngine = createTemplateEngine(metrics, 1);
+
+        final TestMetrics otherMetrics = new TestMetrics();
+        final TemplateEngine otherTemplateEngine = createTemplateEngine(otherMetrics, 0);
+        final String otherTemplate = "<p th:text=\"${one}\">one</p>";
+
+        // The other engine is executed in the middle of a sampled execution of the first one, in the same thread
+        final Context context = createContext();
+        context.setVariable("one", new LazyContextVariable<String>() {
+            @Override
+            protected String loadValue() {
+                return otherTemplateEngine.process(otherTemplate, createContext());
+            }
+        });
+        templateEngine.process(TEMPLATE_01, context);
+
+        Assertions.assertEquals(Integer.valueOf(5), metrics.expressionEvaluations.get(TEMPLATE_01));
+        Assertions.assertFalse(metrics.expressionEvaluations.containsKey(otherTemplate));
+        Assertions.assertTrue(otherMetrics.expressionEvaluations.isEmpty());
+
+    }
+
+
+    @Test
+    public void testNoMetrics() {
+        final TemplateEngine templateEngine = createTemplateEngine(null, 1);
+        Assertions.assertEquals(
+                "<ul><li>a</li><li>b</li><li>c</li></ul><p>one value</p>",
+                templateEngine.process(TEMPLATE_01, createContext()));
+    }
+
+
+
+
+    private static TemplateEngine createTemplateEngine(final ITemplateEngineMetrics metrics, final int samplingInterval) {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(true);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setMetrics(metrics);
+        templateEngine.setMetricsSamplingInterval(samplingInterval);
+        return templateEngine;
+    }
+
+
+    private static Context createContext() {
+        final Context context = new Context(Locale.ENGLISH);
+        context.setVariable("one", "one value");
+        context.setVariable("items", Arrays.asList("a", "b", "c"));
+        return context;
+    }
+
+
+
+
+    private static final class TestMetrics implements ITemplateEngineMetrics {
+
+        final List<String> cacheAccesses = new ArrayList<String>();
+        int parses = 0;
+        TemplateMode parseTemplateMode = null;
+        int renders = 0;
+        long lastOutputBytes = 0L;
+        final Map<Class<?>,Integer> processorExecutions = new HashMap<Class<?>, Integer>();
+        final Map<String,Integer> expressionEvaluations = new HashMap<String, Integer>();
+
+        public void recordTemplateCacheAccess(final String template, final boolean hit) {
+            this.cacheAccesses.add(hit ? "hit" : "miss");
+        }
+
+        public void recordTemplateParse(final String template, final TemplateMode templateMode, final long nanos) {
+            this.parses++;
+            this.parseTemplateMode = templateMode;
+        }
+
+        public void recordTemplateRender(final String template, final long nanos, final long outputBytes) {
+            this.renders++;
+            this.lastOutputBytes = outputBytes;
+        }
+
+        public void recordProcessorExecution(final String template, final Class<?> processorClass, final long nanos) {
+            final Integer count = this.processorExecutions.get(processorClass);
+            this.processorExecutions.put(processorClass, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+        }
+
+        public void recordExpressionEvaluations(final String template, final int count) {
+            final Integer previous = this.expressionEvaluations.get(template);
+            this.expressionEvaluations.put(template, Integer.valueOf(previous == null ? count : previous.intValue() + count));
+        }
+
+    }
+
+}
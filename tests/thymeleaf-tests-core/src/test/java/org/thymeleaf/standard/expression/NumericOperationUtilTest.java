@@ -0,0 +1,111 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.util.EvaluationUtils;
+
+
+public final class NumericOperationUtilTest {
+
+    private static final Object[] VALUES =
+            new Object[] {
+                    Integer.valueOf(0), Integer.valueOf(-7), Integer.valueOf(42), Integer.valueOf(Integer.MAX_VALUE),
+                    Long.valueOf(3L), Long.valueOf(Long.MAX_VALUE), Long.valueOf(Long.MIN_VALUE), Long.valueOf(1L << 60),
+                    Short.valueOf((short) 5), Byte.valueOf((byte) -2),
+                    BigInteger.valueOf(42L), BigInteger.ONE.shiftLeft(70),
+                    Double.valueOf(0.1), Double.valueOf(-0.0), Double.valueOf(42.0), Double.valueOf(1e300),
+                    Float.valueOf(2.5f), Long.valueOf((1L << 53) + 1),
+                    new BigDecimal("42.00"), "42"
+            };
+
+
+
+    public NumericOperationUtilTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testComparison() {
+        for (final Object left : VALUES) {
+            for (final Object right : VALUES) {
+                final int comparison = NumericOperationUtil.compare(left, right);
+                if (comparison == NumericOperationUtil.NOT_APPLICABLE) {
+                    continue;
+                }
+                final BigDecimal leftNumber = EvaluationUtils.evaluateAsNumber(left);
+                final BigDecimal rightNumber = EvaluationUtils.evaluateAsNumber(right);
+                Assertions.assertEquals(leftNumber.compareTo(rightNumber), comparison, left + " <=> " + right);
+            }
+        }
+        Assertions.assertEquals(NumericOperationUtil.NOT_APPLICABLE, NumericOperationUtil.compare(Double.valueOf(Double.NaN), Integer.valueOf(1)));
+        Assertions.assertEquals(NumericOperationUtil.NOT_APPLICABLE, NumericOperationUtil.compare("42", Integer.valueOf(1)));
+        Assertions.assertEquals(NumericOperationUtil.NOT_APPLICABLE, NumericOperationUtil.compare(Long.valueOf(Long.MAX_VALUE), Double.valueOf(1.0)));
+    }
+
+
+    @Test
+    public void testArithmetic() {
+        for (final Object left : VALUES) {
+            for (final Object right : VALUES) {
+                final BigDecimal leftNumber = EvaluationUtils.evaluateAsNumber(left);
+                final BigDecimal rightNumber = EvaluationUtils.evaluateAsNumber(right);
+                assertSameResult(NumericOperationUtil.add(left, right), leftNumber, rightNumber, '+');
+                assertSameResult(NumericOperationUtil.subtract(left, right), leftNumber, rightNumber, '-');
+                assertSameResult(NumericOperationUtil.multiply(left, right), leftNumber, rightNumber, '*');
+                assertSameResult(NumericOperationUtil.remainder(left, right), leftNumber, rightNumber, '%');
+            }
+            final BigDecimal negated = NumericOperationUtil.negate(left);
+            if (negated != null) {
+                Assertions.assertEquals(EvaluationUtils.evaluateAsNumber(left).multiply(BigDecimal.valueOf(-1)), negated);
+            }
+        }
+        // Overflows go through the general path
+        Assertions.assertNull(NumericOperationUtil.add(Long.valueOf(Long.MAX_VALUE), Integer.valueOf(1)));
+        Assertions.assertNull(NumericOperationUtil.multiply(Long.valueOf(1L << 60), Integer.valueOf(42)));
+        Assertions.assertNull(NumericOperationUtil.remainder(Integer.valueOf(1), Integer.valueOf(0)));
+        Assertions.assertNull(NumericOperationUtil.negate(Long.valueOf(Long.MIN_VALUE)));
+    }
+
+
+    private static void assertSameResult(
+            final BigDecimal result, final BigDecimal left, final BigDecimal right, final char operator) {
+        if (result == null) {
+            return;
+        }
+        final BigDecimal expected;
+        switch (operator) {
+            case '+': expected = left.add(right); break;
+            case '-': expected = left.subtract(right); break;
+            case '*': expected = left.multiply(right); break;
+            default:  expected = left.remainder(right); break;
+        }
+        // equals() also checks the scale
+        Assertions.assertEquals(expected, result, left + " " + operator + " " + right);
+    }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import java.util.Collections;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.standard.StandardDialect;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class OGNLExpressionCompilationTest {
+
+    private static final String TEMPLATE_01 =
+            "<p th:text=\"${order.customer.name}\">n</p>" +
+            "<p th:text=\"${codes['a']}\">c</p>" +
+            "<p th:text=\"${order.customer.name.toUpperCase()}\">u</p>" +
+            "<p th:text=\"${order.total > 100}\">t</p>" +
+            "<p th:text=\"${order.customer.name}\" th:object=\"${order}\">o</p>";
+
+
+
+    public OGNLExpressionCompilationTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testCompiledOutputIsEqual() {
+
+        final TemplateEngine templateEngine = createTemplateEngine(true);
+        final String expected = "<p>John</p><p>ay</p><p>JOHN</p><p>true</p><p>John</p>";
+
+        // Executed more times than the compilation threshold, so that compiled accessors are used
+        for (int i = 0; i < 30; i++) {
+            Assertions.assertEquals(expected, templateEngine.process(TEMPLATE_01, createContext(new Customer("John"), 150)));
+        }
+        Assertions.assertTrue(OGNLVariableExpressionEvaluator.isCompiled(templateEngine.getConfiguration(), "order.customer.name"));
+        Assertions.assertEquals(
+                "<p>Ann</p><p>ay</p><p>ANN</p><p>false</p><p>Ann</p>",
+                templateEngine.process(TEMPLATE_01, createContext(new Customer("Ann"), 10)));
+
+    }
+
+
+    @Test
+    public void testFallbackToInterpreter() {
+
+        final TemplateEngine templateEngine = createTemplateEngine(true);
+
+        for (int i = 0; i < 30; i++) {
+            templateEngine.process(TEMPLATE_01, createContext(new Customer("John"), 150));
+        }
+
+        // Subclass of the type observed at compilation time: compiled code can still be used
+        Assertions.assertEquals(
+                "<p>Vip</p><p>ay</p><p>VIP</p><p>true</p><p>Vip</p>",
+                templateEngine.process(TEMPLATE_01, createContext(new VipCustomer("Vip"), 150)));
+        Assertions.assertTrue(OGNLVariableExpressionEvaluator.isCompiled(templateEngine.getConfiguration(), "order.customer.name"));
+
+        // Unrelated type (also having a name) than the one observed at compilation time
+        Assertions.assertEquals(
+                "<p>Acme</p><p>ay</p><p>ACME</p><p>true</p><p>Acme</p>",
+                templateEngine.process(TEMPLATE_01, createContext(new Supplier("Acme"), 150)));
+        Assertions.assertFalse(OGNLVariableExpressionEvaluator.isCompiled(templateEngine.getConfiguration(), "order.customer.name"));
+
+    }
+
+
+    @Test
+    public void testNullFallbackToInterpreter() {
+
+        final TemplateEngine templateEngine = createTemplateEngine(true);
+
+        for (int i = 0; i < 30; i++) {
+            templateEngine.process(TEMPLATE_01, createContext(new Customer("John"), 150));
+        }
+        Assertions.assertTrue(OGNLVariableExpressionEvaluator.isCompiled(templateEngine.getConfiguration(), "order.customer.name"));
+
+        // Null in the middle of the navigated chain: same error as reported by the interpreter
+        final TemplateEngine plainEngine = createTemplateEngine(false);
+        final Exception expected =
+                Assertions.assertThrows(Exception.class, () -> plainEngine.process(TEMPLATE_01, createContext(null, 150)));
+        final Exception actual =
+                Assertions.assertThrows(Exception.class, () -> templateEngine.process(TEMPLATE_01, createContext(null, 150)));
+        Assertions.assertEquals(expected.getClass(), actual.getClass());
+        Assertions.assertEquals(expected.getMessage(), actual.getMessage());
+        Assertions.assertNotNull(expected.getCause());
+        Assertions.assertEquals(expected.getCause().getClass(), actual.getCause().getClass());
+        Assertions.assertEquals(expected.getCause().getMessage(), actual.getCause().getMessage());
+        Assertions.assertFalse(OGNLVariableExpressionEvaluator.isCompiled(templateEngine.getConfiguration(), "order.customer.name"));
+
+    }
+
+
+
+
+    @Test
+    public void testExceptionsFromCalledMethods() {
+
+        final TemplateEngine templateEngine = createTemplateEngine(true);
+
+        for (int i = 0; i < 30; i++) {
+            templateEngine.process(TEMPLATE_01, createContext(new Customer("John"), 150));
+        }
+        Assertions.assertTrue(OGNLVariableExpressionEvaluator.isCompiled(templateEngine.getConfiguration(), "order.customer.name"));
+
+        // Exceptions thrown by methods called from compiled code should neither make them be called again by the
+        // interpreter, nor disable compilation
+        final FailingCustomer customer = new FailingCustomer();
+        Assertions.assertThrows(Exception.class, () -> templateEngine.process(TEMPLATE_01, createContext(customer, 150)));
+        Assertions.assertEquals(1, customer.calls);
+        Assertions.assertTrue(OGNLVariableExpressionEvaluator.isCompiled(templateEngine.getConfiguration(), "order.customer.name"));
+
+    }
+
+
+
+
+    private static TemplateEngine createTemplateEngine(final boolean compileExpressions) {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(true);
+        final StandardDialect dialect = new StandardDialect();
+        dialect.setVariableExpressionEvaluator(new OGNLVariableExpressionEvaluator(false, compileExpressions));
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setDialect(dialect);
+        return templateEngine;
+    }
+
+
+    private static Context createContext(final Object customer, final int total) {
+        final Context context = new Context(Locale.ENGLISH);
+        context.setVariable("order", new Order(customer, total));
+        context.setVariable("codes", Collections.singletonMap("a", "ay"));
+        return context;
+    }
+
+
+
+
+    public static class Customer {
+
+        private final String name;
+
+        public Customer(final String name) {
+            super();
+            this.name = name;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+    }
+
+
+    public static final class VipCustomer extends Customer {
+
+        public VipCustomer(final String name) {
+            super(name);
+        }
+
+    }
+
+
+    public static final class Supplier {
+
+        private final String name;
+
+        public Supplier(final String name) {
+            super();
+            this.name = name;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+    }
+
+
+    public static final class FailingCustomer extends Customer {
+
+        int calls = 0;
+
+        public FailingCustomer() {
+            super(null);
+        }
+
+        @Override
+        public String getName() {
+            this.calls++;
+            throw new NullPointerException("No name");
+        }
+
+    }
+
+
+    public static final class Order {
+
+        // Not typed, so that objects of unrelated types can be navigated by the same expressions
+        private final Object customer;
+        private final int total;
+
+        public Order(final Object customer, final int total) {
+            super();
+            this.customer = customer;
+            this.total = total;
+        }
+
+        public Object getCustomer() {
+            return this.customer;
+        }
+
+        public int getTotal() {
+            return this.total;
+        }
+
+    }
+
+}
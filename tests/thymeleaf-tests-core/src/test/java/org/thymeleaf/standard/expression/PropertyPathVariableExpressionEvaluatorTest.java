@@ -0,0 +1,201 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.standard.StandardDialect;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class PropertyPathVariableExpressionEvaluatorTest {
+
+    private static final String TEMPLATE_01 =
+            "<p th:text=\"${order.customer.name}\">n</p>" +
+            "<p th:text=\"${codes['a']}\">c</p>" +
+            "<p th:text=\"${codes.a}\">c</p>" +
+            "<p th:text=\"${codes.size}\">s</p>" +
+            "<div th:object=\"${order}\"><p th:text=\"*{customer.name}\">o</p></div>" +
+            "<p th:each=\"o : ${orders}\" th:text=\"${o.customer.name}\">e</p>" +
+            "<p th:text=\"${orders.size()}\">m</p>" +
+            "<p th:text=\"${order.customer.name.toUpperCase()}\">m</p>";
+
+
+
+    public PropertyPathVariableExpressionEvaluatorTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testOutputIsEqual() {
+
+        final TemplateEngine plainEngine = createTemplateEngine(new OGNLVariableExpressionEvaluator(true));
+        final TemplateEngine propertyPathEngine =
+                createTemplateEngine(new PropertyPathVariableExpressionEvaluator(new OGNLVariableExpressionEvaluator(true)));
+
+        final String expected = plainEngine.process(TEMPLATE_01, createContext());
+        Assertions.assertEquals(
+                "<p>John</p><p>ay</p><p>ay</p><p>2</p><div><p>John</p></div>" +
+                "<p>John</p><p>Vip</p><p>ANN</p><p>VIP</p><p>3</p><p>JOHN</p>", expected);
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(expected, propertyPathEngine.process(TEMPLATE_01, createContext()));
+        }
+
+    }
+
+
+    @Test
+    public void testDelegation() {
+
+        final CountingEvaluator countingEvaluator = new CountingEvaluator(new OGNLVariableExpressionEvaluator(true));
+        final TemplateEngine templateEngine =
+                createTemplateEngine(new PropertyPathVariableExpressionEvaluator(countingEvaluator));
+
+        Assertions.assertEquals("<p>John</p>", templateEngine.process("<p th:text=\"${order.customer.name}\">n</p>", createContext()));
+        Assertions.assertEquals(0, countingEvaluator.count.get());
+
+        // Not a property path
+        Assertions.assertEquals("<p>3</p>", templateEngine.process("<p th:text=\"${orders.size()}\">n</p>", createContext()));
+        Assertions.assertEquals(1, countingEvaluator.count.get());
+
+        // Property path that cannot be evaluated without the expression language (special map property name)
+        Assertions.assertEquals("<p>2</p>", templateEngine.process("<p th:text=\"${codes.size}\">n</p>", createContext()));
+        Assertions.assertEquals(2, countingEvaluator.count.get());
+
+        // Null in the middle of the path is reported by the expression language
+        final Context context = createContext();
+        context.setVariable("order", new Order(null));
+        Assertions.assertThrows(
+                Exception.class, () -> templateEngine.process("<p th:text=\"${order.customer.name}\">n</p>", context));
+        Assertions.assertEquals(3, countingEvaluator.count.get());
+
+    }
+
+
+
+
+    private static TemplateEngine createTemplateEngine(final IStandardVariableExpressionEvaluator evaluator) {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(true);
+        final StandardDialect dialect = new StandardDialect();
+        dialect.setVariableExpressionEvaluator(evaluator);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setDialect(dialect);
+        return templateEngine;
+    }
+
+
+    private static Context createContext() {
+        final Map<String,String> codes = new HashMap<String, String>();
+        codes.put("a", "ay");
+        codes.put("b", "bee");
+        final List<Order> orders =
+                Arrays.asList(new Order(new Customer("Vip")), new Order(new VipCustomer("Ann")), new Order(new VipCustomer("Vip")));
+        final Context context = new Context(Locale.ENGLISH);
+        context.setVariable("order", new Order(new Customer("John")));
+        context.setVariable("orders", orders);
+        context.setVariable("codes", codes);
+        return context;
+    }
+
+
+
+
+    private static final class CountingEvaluator implements IStandardVariableExpressionEvaluator {
+
+        private final IStandardVariableExpressionEvaluator delegate;
+        final AtomicInteger count = new AtomicInteger(0);
+
+        CountingEvaluator(final IStandardVariableExpressionEvaluator delegate) {
+            super();
+            this.delegate = delegate;
+        }
+
+        public Object evaluate(
+                final IExpressionContext context, final IStandardVariableExpression expression,
+                final StandardExpressionExecutionContext expContext) {
+            this.count.incrementAndGet();
+            return this.delegate.evaluate(context, expression, expContext);
+        }
+
+    }
+
+
+    public static class Customer {
+
+        private final String name;
+
+        public Customer(final String name) {
+            super();
+            this.name = name;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+    }
+
+
+    public static final class VipCustomer extends Customer {
+
+        public VipCustomer(final String name) {
+            super(name);
+        }
+
+        @Override
+        public String getName() {
+            return super.getName().toUpperCase();
+        }
+
+    }
+
+
+    public static final class Order {
+
+        private final Customer customer;
+
+        public Order(final Customer customer) {
+            super();
+            this.customer = customer;
+        }
+
+        public Customer getCustomer() {
+            return this.customer;
+        }
+
+    }
+
+}
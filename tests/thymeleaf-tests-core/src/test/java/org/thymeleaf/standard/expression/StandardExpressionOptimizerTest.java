@@ -0,0 +1,117 @@
+/*
+ * =============================================================================
+ *
+ *   Copyright (c) 2011-2022, The THYMELEAF team (http://www.thymeleaf.org)
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ * =============================================================================
+ */
+package org.thymeleaf.standard.expression;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.ExpressionContext;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class StandardExpressionOptimizerTest {
+
+
+    public StandardExpressionOptimizerTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testFolding() {
+
+        final TemplateEngine templateEngine = createTemplateEngine();
+        final IExpressionContext context = new ExpressionContext(templateEngine.getConfiguration(), Locale.ENGLISH);
+
+        assertFolded(context, "'a' + 'b'", "ab");
+        assertFolded(context, "true ? 'a' : ${x}", "a");
+        assertFolded(context, "(true ? '5' : 'x') + 1", "51");
+        assertFolded(context, "(2 + 3) * 4", "20");
+        assertFolded(context, "!false", "true");
+        assertFolded(context, "-(3)", "-3");
+        assertFolded(context, "null ?: 'def'", "def");
+
+        assertNotFolded(context, "${x} + 'a'");
+        assertNotFolded(context, "false ? 'a' : ${x}");
+        assertNotFolded(context, "${x} ?: 'def'");
+        assertNotFolded(context, "_");
+        assertNotFolded(context, "1 / 0");
+
+    }
+
+
+    @Test
+    public void testOutputIsEqual() {
+
+        final TemplateEngine templateEngine = createTemplateEngine();
+
+        final String template =
+                "<p th:text=\"'a' + 'b' + ${x}\">t</p>" +
+                "<p th:text=\"|${x} is| + ' ' + 'it'\">t</p>" +
+                "<p th:text=\"'<b>' + (1 + 2)\">t</p>" +
+                "<p th:text=\"${y} ?: 'none'\">t</p>";
+
+        for (int i = 0; i < 5; i++) {
+            final String x = (i % 2 == 0 ? "X" : "Y");
+            final Context context = new Context(Locale.ENGLISH);
+            context.setVariable("x", x);
+            final String expected =
+                    "<p>ab" + x + "</p>" +
+                    "<p>" + x + " is it</p>" +
+                    "<p>&lt;b&gt;3</p>" +
+                    "<p>none</p>";
+            Assertions.assertEquals(expected, templateEngine.process(template, context));
+        }
+
+    }
+
+
+
+
+    private static void assertFolded(final IExpressionContext context, final String input, final String result) {
+        final IStandardExpression expression =
+                StandardExpressions.getExpressionParser(context.getConfiguration()).parseExpression(context, input);
+        Assertions.assertTrue(((Expression) expression).isContextIndependent(), input);
+        Assertions.assertEquals(result, String.valueOf(LiteralValue.unwrap(expression.execute(context))), input);
+    }
+
+
+    private static void assertNotFolded(final IExpressionContext context, final String input) {
+        final IStandardExpression expression =
+                StandardExpressions.getExpressionParser(context.getConfiguration()).parseExpression(context, input);
+        Assertions.assertFalse(((Expression) expression).isContextIndependent(), input);
+    }
+
+
+    private static TemplateEngine createTemplateEngine() {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(true);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        return templateEngine;
+    }
+
+}
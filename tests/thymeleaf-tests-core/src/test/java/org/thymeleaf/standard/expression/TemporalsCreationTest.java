@@ -175,4 +175,11 @@ public void testCreateDateTimeWithPattern() {
         assertEquals(   0, time.getNano());
     }
 
+    @Test
+    public void testCreateDateWithStyleNamePattern() {
+        // Format style names are plain patterns for creation, not localized styles
+        assertThrows(IllegalArgumentException.class, () -> temporals.createDate("12/31/15", "SHORT"));
+        assertThrows(IllegalArgumentException.class, () -> temporals.createDateTime("Dec 31, 2015, 11:59:00 PM", "MEDIUM"));
+    }
+
 }
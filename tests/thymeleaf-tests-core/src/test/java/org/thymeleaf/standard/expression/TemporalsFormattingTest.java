@@ -304,4 +304,19 @@ public void testIssue17() {
         assertEquals("1970-01-01", temporals.format(time, "yyyy-MM-dd", Locale.US));
     }
 
+    @Test
+    public void testFormatWithSamePatternDifferentLocalesAndZones() {
+        // Formatters are cached, so a cached formatter should never be used for a different locale, zone or class
+        Temporal time = ZonedDateTime.of(2015, 12, 31, 23, 59, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < 2; i++) {
+            assertEquals("December 23:59", temporals.format(time, "MMMM HH:mm", Locale.US));
+            assertEquals("Dezember 23:59", temporals.format(time, "MMMM HH:mm", Locale.GERMANY));
+            assertEquals("December 18:59", temporals.format(time, "MMMM HH:mm", "Etc/GMT+5"));
+            assertEquals("12/31/15", temporals.format(LocalDate.of(2015, 12, 31), "SHORT", Locale.US));
+            assertEquals("11:59 PM", temporals.format(LocalTime.of(23, 59), "SHORT", Locale.US));
+            assertEquals("12/31/15, 11:59 PM", temporals.format(LocalDateTime.of(2015, 12, 31, 23, 59), "SHORT", Locale.US));
+            assertEquals("December 2015", temporals.format(YearMonth.of(2015, 12), Locale.US));
+        }
+    }
+
 }
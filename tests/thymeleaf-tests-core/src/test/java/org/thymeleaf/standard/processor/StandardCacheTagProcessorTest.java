@@ -0,0 +1,171 @@
+/*
+ * =============================================================================
+ * 
+ *   Copyright (c) 2011-2016, The THYMELEAF team (http://www.thymeleaf.org)
+ * 
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * 
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * 
+ * =============================================================================
+ */
+package org.thymeleaf.standard.processor;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class StandardCacheTagProcessorTest {
+
+    private static final String FRAGMENT = "<div th:fragment=\"f\"><span th:text=\"${v}\">x</span></div>";
+
+
+
+    public StandardCacheTagProcessorTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testCachedInsertion() {
+
+        final TemplateEngine templateEngine = createTemplateEngine();
+        final String template = FRAGMENT + "<p th:insert=\"~{::f}\" th:cache=\"\">p</p>";
+
+        Assertions.assertEquals(
+                "<div><span>1</span></div><p><div><span>1</span></div></p>",
+                templateEngine.process(template, createContext("1", null, Locale.ENGLISH)));
+        Assertions.assertEquals(
+                "<div><span>2</span></div><p><div><span>1</span></div></p>",
+                templateEngine.process(template, createContext("2", null, Locale.ENGLISH)));
+
+        // Locale is always part of the key
+        Assertions.assertEquals(
+                "<div><span>3</span></div><p><div><span>3</span></div></p>",
+                templateEngine.process(template, createContext("3", null, Locale.FRENCH)));
+
+    }
+
+
+    @Test
+    public void testCachedReplacement() {
+
+        final TemplateEngine templateEngine = createTemplateEngine();
+        final String template = FRAGMENT + "<p th:replace=\"~{::f}\" th:cache=\"${k}\">p</p>";
+
+        Assertions.assertEquals(
+                "<div><span>1</span></div><div><span>1</span></div>",
+                templateEngine.process(template, createContext("1", "a", Locale.ENGLISH)));
+        Assertions.assertEquals(
+                "<div><span>2</span></div><div><span>1</span></div>",
+                templateEngine.process(template, createContext("2", "a", Locale.ENGLISH)));
+        Assertions.assertEquals(
+                "<div><span>3</span></div><div><span>3</span></div>",
+                templateEngine.process(template, createContext("3", "b", Locale.ENGLISH)));
+
+        // A th:cache expression evaluating as false disables caching
+        Assertions.assertEquals(
+                "<div><span>4</span></div><div><span>4</span></div>",
+                templateEngine.process(template, createContext("4", Boolean.FALSE, Locale.ENGLISH)));
+        Assertions.assertEquals(
+                "<div><span>5</span></div><div><span>5</span></div>",
+                templateEngine.process(template, createContext("5", Boolean.FALSE, Locale.ENGLISH)));
+
+    }
+
+
+    @Test
+    public void testFalseLikeDiscriminators() {
+
+        final TemplateEngine templateEngine = createTemplateEngine();
+        final String template = FRAGMENT + "<p th:replace=\"~{::f}\" th:cache=\"${k}\">p</p>";
+
+        // Values that would evaluate as false in a th:if are still discriminators, not a way to disable caching
+        final Object[] discriminators = new Object[] { Integer.valueOf(0), "false", "off", "no" };
+        for (int i = 0; i < discriminators.length; i++) {
+            final String first = String.valueOf(i * 2 + 1);
+            final String second = String.valueOf(i * 2 + 2);
+            Assertions.assertEquals(
+                    "<div><span>" + first + "</span></div><div><span>" + first + "</span></div>",
+                    templateEngine.process(template, createContext(first, discriminators[i], Locale.ENGLISH)));
+            Assertions.assertEquals(
+                    "<div><span>" + second + "</span></div><div><span>" + first + "</span></div>",
+                    templateEngine.process(template, createContext(second, discriminators[i], Locale.ENGLISH)));
+        }
+
+        // A null result disables caching
+        Assertions.assertEquals(
+                "<div><span>9</span></div><div><span>9</span></div>",
+                templateEngine.process(template, createContext("9", null, Locale.ENGLISH)));
+        Assertions.assertEquals(
+                "<div><span>10</span></div><div><span>10</span></div>",
+                templateEngine.process(template, createContext("10", null, Locale.ENGLISH)));
+
+    }
+
+
+    @Test
+    public void testNotCached() {
+
+        final TemplateEngine templateEngine = createTemplateEngine();
+
+        // No th:cache attribute
+        final String template01 = FRAGMENT + "<p th:insert=\"~{::f}\">p</p>";
+        Assertions.assertEquals(
+                "<div><span>1</span></div><p><div><span>1</span></div></p>",
+                templateEngine.process(template01, createContext("1", null, Locale.ENGLISH)));
+        Assertions.assertEquals(
+                "<div><span>2</span></div><p><div><span>2</span></div></p>",
+                templateEngine.process(template01, createContext("2", null, Locale.ENGLISH)));
+
+        // Fragment cache disabled
+        final StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setFragmentCacheMaxSize(0);
+        final TemplateEngine noFragmentCacheTemplateEngine = createTemplateEngine();
+        noFragmentCacheTemplateEngine.setCacheManager(cacheManager);
+        final String template02 = FRAGMENT + "<p th:insert=\"~{::f}\" th:cache=\"\">p</p>";
+        Assertions.assertEquals(
+                "<div><span>1</span></div><p><div><span>1</span></div></p>",
+                noFragmentCacheTemplateEngine.process(template02, createContext("1", null, Locale.ENGLISH)));
+        Assertions.assertEquals(
+                "<div><span>2</span></div><p><div><span>2</span></div></p>",
+                noFragmentCacheTemplateEngine.process(template02, createContext("2", null, Locale.ENGLISH)));
+
+    }
+
+
+
+
+    private static TemplateEngine createTemplateEngine() {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(true);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        return templateEngine;
+    }
+
+
+    private static Context createContext(final String v, final Object k, final Locale locale) {
+        final Context context = new Context(locale);
+        context.setVariable("v", v);
+        context.setVariable("k", k);
+        return context;
+    }
+
+}
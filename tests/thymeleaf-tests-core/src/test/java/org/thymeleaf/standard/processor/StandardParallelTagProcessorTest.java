@@ -0,0 +1,245 @@
+/*
+ * =============================================================================
+ * 
+ *   Copyright (c) 2011-2016, The THYMELEAF team (http://www.thymeleaf.org)
+ * 
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * 
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ * 
+ * =============================================================================
+ */
+package org.thymeleaf.standard.processor;
+
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.IThrottledTemplateProcessor;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.LazyContextVariable;
+import org.thymeleaf.exceptions.TemplateEngineException;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+
+public final class StandardParallelTagProcessorTest {
+
+    private static final String FRAGMENTS =
+            "<div th:fragment=\"f\"><span th:text=\"${a}\">x</span></div>" +
+            "<div th:fragment=\"g(p)\"><span th:text=\"${b} + ${p}\">x</span></div>";
+
+
+
+    public StandardParallelTagProcessorTest() {
+        super();
+    }
+
+
+
+
+    @Test
+    public void testParallelRendering() throws Exception {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+
+            final TemplateEngine templateEngine = createTemplateEngine(executor);
+            final String template =
+                    "<th:block th:if=\"${false}\">" + FRAGMENTS + "</th:block>" +
+                    "<p th:insert=\"~{::f}\" th:parallel=\"\">p</p>" +
+                    "<span th:text=\"${c}\">c</span>" +
+                    "<p th:replace=\"~{::g('!')}\" th:parallel=\"\">p</p>" +
+                    "<span th:text=\"${c}\">c</span>";
+
+            // Both lazy variables will only be resolved if their fragments are being rendered at the same time
+            final CountDownLatch latch = new CountDownLatch(2);
+            final Context context = new Context();
+            context.setVariable("a", new WaitingLazyContextVariable(latch, "A"));
+            context.setVariable("b", new WaitingLazyContextVariable(latch, "B"));
+            context.setVariable("c", "C");
+
+            Assertions.assertEquals(
+                    "<p><div><span>A</span></div></p><span>C</span><div><span>B!</span></div><span>C</span>",
+                    templateEngine.process(template, context));
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+
+    @Test
+    public void testNestedParallelRendering() throws Exception {
+
+        // A single thread: nested fragments should be rendered by the same thread instead of waiting for another one
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+
+            final TemplateEngine templateEngine = createTemplateEngine(executor);
+            final String template =
+                    "<th:block th:if=\"${false}\">" + FRAGMENTS +
+                    "<div th:fragment=\"h\"><p th:replace=\"~{::f}\" th:parallel=\"\">p</p></div></th:block>" +
+                    "<p th:replace=\"~{::h}\" th:parallel=\"\">p</p>";
+
+            final Context context = new Context();
+            context.setVariable("a", "A");
+
+            Assertions.assertEquals("<div><div><span>A</span></div></div>", templateEngine.process(template, context));
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+
+    @Test
+    public void testSequentialRendering() {
+
+        final String template =
+                "<th:block th:if=\"${false}\">" + FRAGMENTS + "</th:block>" +
+                "<p th:insert=\"~{::f}\" th:parallel=\"${parallel}\">p</p>" +
+                "<p th:replace=\"~{::g('!')}\" th:parallel=\"\">p</p>";
+
+        final Context context = new Context();
+        context.setVariable("a", "A");
+        context.setVariable("b", "B");
+        context.setVariable("parallel", Boolean.FALSE);
+
+        // No executor
+        Assertions.assertEquals(
+                "<p><div><span>A</span></div></p><div><span>B!</span></div>",
+                createTemplateEngine(null).process(template, context));
+
+        // th:parallel expression evaluating as false
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Assertions.assertEquals(
+                    "<p><div><span>A</span></div></p><div><span>B!</span></div>",
+                    createTemplateEngine(executor).process(template, context));
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+
+    @Test
+    public void testThrottledRendering() {
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+
+            final TemplateEngine templateEngine = createTemplateEngine(executor);
+            final String template =
+                    "<th:block th:if=\"${false}\">" + FRAGMENTS + "</th:block>" +
+                    "<p th:insert=\"~{::f}\" th:parallel=\"\">p</p>" +
+                    "<span th:text=\"${c}\">c</span>";
+
+            // Throttled executions should render fragments sequentially, in the thread processing the template
+            final String processingThread = Thread.currentThread().getName();
+            final Context context = new Context();
+            context.setVariable("a", new LazyContextVariable<String>() {
+                @Override
+                protected String loadValue() {
+                    return (processingThread.equals(Thread.currentThread().getName()) ? "A" : "OTHER");
+                }
+            });
+            context.setVariable("c", "C");
+
+            final StringWriter writer = new StringWriter();
+            final IThrottledTemplateProcessor throttledProcessor = templateEngine.processThrottled(template, context);
+            while (!throttledProcessor.isFinished()) {
+                throttledProcessor.process(10, writer);
+            }
+
+            Assertions.assertEquals("<p><div><span>A</span></div></p><span>C</span>", writer.toString());
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+
+    @Test
+    public void testParallelRenderingError() {
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+
+            final TemplateEngine templateEngine = createTemplateEngine(executor);
+            final String template =
+                    "<th:block th:if=\"${false}\">" + FRAGMENTS + "</th:block>" +
+                    "<p th:insert=\"~{::f}\" th:parallel=\"\">p</p>";
+
+            final Context context = new Context();
+            context.setVariable("a", new LazyContextVariable<String>() {
+                @Override
+                protected String loadValue() {
+                    throw new IllegalStateException("Unavailable");
+                }
+            });
+
+            Assertions.assertThrows(TemplateEngineException.class, () -> templateEngine.process(template, context));
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+
+
+
+    private static TemplateEngine createTemplateEngine(final ExecutorService executor) {
+        final StringTemplateResolver templateResolver = new StringTemplateResolver();
+        templateResolver.setCacheable(true);
+        final TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setFragmentRenderingExecutor(executor);
+        return templateEngine;
+    }
+
+
+
+
+    private static final class WaitingLazyContextVariable extends LazyContextVariable<String> {
+
+        private final CountDownLatch latch;
+        private final String value;
+
+        WaitingLazyContextVariable(final CountDownLatch latch, final String value) {
+            super();
+            this.latch = latch;
+            this.value = value;
+        }
+
+        @Override
+        protected String loadValue() {
+            this.latch.countDown();
+            try {
+                return (this.latch.await(10, TimeUnit.SECONDS) ? this.value : "TIMEOUT");
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "INTERRUPTED";
+            }
+        }
+
+    }
+
+}
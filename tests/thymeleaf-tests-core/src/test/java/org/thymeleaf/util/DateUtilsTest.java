@@ -19,7 +19,16 @@
  */
 package org.thymeleaf.util;
 
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -53,4 +62,45 @@ public void testCreateToday() {
         Assertions.assertEquals(today.get(Calendar.SECOND), 0);
         Assertions.assertEquals(today.get(Calendar.MILLISECOND), 0);
     }
+
+
+    @Test
+    public void testFormat() {
+        final Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("Asia/Tokyo"), Locale.US);
+        cal.setTimeInMillis(1700000000123L);
+        final SimpleDateFormat format = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss.SSS z", Locale.US);
+        format.setTimeZone(cal.getTimeZone());
+        Assertions.assertEquals("15/11/2023 07:13:20.123 JST", DateUtils.format(cal, "dd/MM/yyyy HH:mm:ss.SSS z", Locale.US));
+        Assertions.assertEquals(format.format(cal.getTime()), DateUtils.format(cal, "dd/MM/yyyy HH:mm:ss.SSS z", Locale.US));
+        format.setTimeZone(TimeZone.getDefault());
+        Assertions.assertEquals(format.format(cal.getTime()), DateUtils.format(cal.getTime(), "dd/MM/yyyy HH:mm:ss.SSS z", Locale.US));
+        Assertions.assertEquals("noviembre", DateUtils.monthName(cal, new Locale("es")));
+    }
+
+    @Test
+    public void testConcurrentFormat() throws Exception {
+        final String pattern = "yyyy-MM-dd HH:mm:ss.SSS EEE";
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t++) {
+                final long step = 86400123L * (t + 1);
+                results.add(executor.submit(() -> {
+                    final SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+                    for (int i = 0; i < 5000; i++) {
+                        final Date date = new Date(1000000000000L + i * step);
+                        if (!format.format(date).equals(DateUtils.format(date, pattern, Locale.US))) {
+                            return Boolean.FALSE;
+                        }
+                    }
+                    return Boolean.TRUE;
+                }));
+            }
+            for (final Future<Boolean> result : results) {
+                Assertions.assertTrue(result.get().booleanValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -134,6 +134,25 @@ public void memberAllowedForTypeTest() {
         Assertions.assertTrue(isMemberAllowedForInstanceOfType(LinkedHashMap.class, "toString"));
     }
 
+    @Test
+    public void memberAllowedTest() {
+        // Decisions are cached, so each check is performed twice in order to test both computed and cached results
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertTrue(isMemberAllowed(null, "someMethod"));
+            Assertions.assertTrue(isMemberAllowed(new TemplateEngine(), "someMethod"));
+            Assertions.assertTrue(isMemberAllowed(Runtime.getRuntime(), "getClass"));
+            Assertions.assertFalse(isMemberAllowed(Runtime.getRuntime(), "exec"));
+            Assertions.assertFalse(isMemberAllowed(Runtime.getRuntime(), "ex\u0001ec"));
+            Assertions.assertTrue(isMemberAllowed(new ArrayList<Object>(), "size"));
+            Assertions.assertTrue(isMemberAllowed(new ArrayList<Object>(), "toString"));
+            Assertions.assertTrue(isMemberAllowed(new LinkedHashMap<Object,Object>(), "get"));
+            Assertions.assertTrue(isMemberAllowed(Runtime.class, "getName"));
+            Assertions.assertFalse(isMemberAllowed(Runtime.class, "getRuntime"));
+            Assertions.assertTrue(isMemberAllowed(Math.class, "max"));
+            Assertions.assertTrue(isMemberAllowed(TemplateEngine.class, "threadIndex"));
+        }
+    }
+
 
     @Test
     public void testNormalizeExpression() {
@@ -1,5 +1,11 @@
 package org.thymeleaf.util;
 
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -36,4 +42,67 @@ public void testSequence() {
     }
 
 
+
+    @Test
+    public void testFormat() {
+
+        Assertions.assertEquals("1,234,567", NumberUtils.format(Integer.valueOf(1234567), Integer.valueOf(1), NumberPointType.COMMA, Locale.US));
+        Assertions.assertEquals("-0,012.00", NumberUtils.format(Long.valueOf(-12L), Integer.valueOf(4), NumberPointType.COMMA, Integer.valueOf(2), NumberPointType.POINT, Locale.US));
+        Assertions.assertEquals(".00", NumberUtils.format(Integer.valueOf(0), Integer.valueOf(0), Integer.valueOf(2), NumberPointType.POINT, Locale.US));
+        Assertions.assertEquals("0", NumberUtils.format(Integer.valueOf(0), Integer.valueOf(0), Locale.US));
+        Assertions.assertEquals("1.234,57", NumberUtils.format(Double.valueOf(1234.567), Integer.valueOf(1), NumberPointType.POINT, Integer.valueOf(2), NumberPointType.COMMA, Locale.US));
+
+        // Integral values are formatted without NumberFormat: results must be exactly the same
+        final Number[] values =
+                new Number[] { Integer.valueOf(0), Integer.valueOf(-7), Integer.valueOf(1234), Long.valueOf(Long.MIN_VALUE),
+                               Long.valueOf(Long.MAX_VALUE), Short.valueOf((short) -300), new BigDecimal("-12345.675") };
+        for (final Locale locale : new Locale[] { Locale.US, Locale.GERMANY, Locale.FRANCE, new Locale("hi", "IN"), new Locale("ar", "EG") }) {
+            for (final Number value : values) {
+                for (final NumberPointType pointType : NumberPointType.values()) {
+                    for (int minIntegerDigits = 0; minIntegerDigits < 25; minIntegerDigits += 6) {
+                        Assertions.assertEquals(
+                                formatWithNumberFormat(value, minIntegerDigits, pointType, 0, NumberPointType.NONE, locale),
+                                NumberUtils.format(value, Integer.valueOf(minIntegerDigits), pointType, locale));
+                        Assertions.assertEquals(
+                                formatWithNumberFormat(value, minIntegerDigits, pointType, 2, pointType, locale),
+                                NumberUtils.format(value, Integer.valueOf(minIntegerDigits), pointType, Integer.valueOf(2), pointType, locale));
+                    }
+                }
+                Assertions.assertEquals(NumberFormat.getCurrencyInstance(locale).format(value), NumberUtils.formatCurrency(value, locale));
+            }
+        }
+
+    }
+
+
+    private static String formatWithNumberFormat(
+            final Number target, final int minIntegerDigits, final NumberPointType thousandsPointType,
+            final int fractionDigits, final NumberPointType decimalPointType, final Locale locale) {
+
+        final DecimalFormat format = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+        format.setMinimumFractionDigits(fractionDigits);
+        format.setMaximumFractionDigits(fractionDigits);
+        format.setMinimumIntegerDigits(minIntegerDigits);
+        format.setDecimalSeparatorAlwaysShown(decimalPointType != NumberPointType.NONE && fractionDigits > 0);
+        format.setGroupingUsed(thousandsPointType != NumberPointType.NONE);
+        final DecimalFormatSymbols symbols = new DecimalFormatSymbols(locale);
+        symbols.setDecimalSeparator(separator(decimalPointType, symbols.getDecimalSeparator()));
+        symbols.setGroupingSeparator(separator(thousandsPointType, symbols.getGroupingSeparator()));
+        format.setDecimalFormatSymbols(symbols);
+        return format.format(target);
+
+    }
+
+
+    private static char separator(final NumberPointType pointType, final char defaultSeparator) {
+        switch (pointType) {
+            case POINT: return '.';
+            case COMMA: return ',';
+            case WHITESPACE: return ' ';
+            case NONE: return '?';
+            default: return defaultSeparator;
+        }
+    }
+
+
 }